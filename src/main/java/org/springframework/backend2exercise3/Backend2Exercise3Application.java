@@ -2,8 +2,10 @@ package org.springframework.backend2exercise3;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Backend2Exercise3Application {
 
     public static void main(String[] args) {
@@ -0,0 +1,101 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "trello.replica")
+public class BoardReplicaConfig {
+    private boolean enabled = false;
+    private Duration syncInterval = Duration.ofSeconds(15);
+    // Överlapp bakåt i tiden vid första delta-synken efter en full laddning
+    private Duration sinceOverlap = Duration.ofMinutes(1);
+    // Max antal actions per delta-anrop; fler än så ger en full omladdning
+    private int actionLimit = 1000;
+    private Snapshot snapshot = new Snapshot();
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public Duration getSinceOverlap() {
+        return sinceOverlap;
+    }
+
+    public void setSinceOverlap(Duration sinceOverlap) {
+        this.sinceOverlap = sinceOverlap;
+    }
+
+    public int getActionLimit() {
+        return actionLimit;
+    }
+
+    public void setActionLimit(int actionLimit) {
+        this.actionLimit = actionLimit;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public static class Snapshot {
+        // Kopian sparas på disk och läses in vid start, innan den synkas mot Trello
+        private boolean enabled = true;
+        private String path = "data/board-snapshot.bin";
+        // Hur ofta kopian sparas (bara om den ändrats); den sparas också vid nedstängning
+        private Duration interval = Duration.ofMinutes(5);
+        // Äldre ögonblicksbilder används inte, boarden laddas då från Trello
+        private Duration maxAge = Duration.ofDays(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+    }
+}
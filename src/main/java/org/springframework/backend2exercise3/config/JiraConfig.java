@@ -0,0 +1,65 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "jira.api")
+public class JiraConfig {
+    // T.ex. https://företag.atlassian.net
+    private String baseUrl;
+    // Jira Cloud använder Basic-autentisering med e-post och API-token
+    private String email;
+    private String apiToken;
+    private String projectKey;
+    private String issueType = "Task";
+
+    // Getters and Setters
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getApiToken() {
+        return apiToken;
+    }
+
+    public void setApiToken(String apiToken) {
+        this.apiToken = apiToken;
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    public void setProjectKey(String projectKey) {
+        this.projectKey = projectKey;
+    }
+
+    public String getIssueType() {
+        return issueType;
+    }
+
+    public void setIssueType(String issueType) {
+        this.issueType = issueType;
+    }
+
+    public boolean isConfigured() {
+        return hasText(baseUrl) && hasText(email) && hasText(apiToken) && hasText(projectKey);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
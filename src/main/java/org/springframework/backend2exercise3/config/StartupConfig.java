@@ -0,0 +1,27 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.backend2exercise3.service.BoardReplicaListener;
+import org.springframework.backend2exercise3.service.BoardReplicaSync;
+import org.springframework.backend2exercise3.service.BoardSnapshotStore;
+import org.springframework.backend2exercise3.service.TaskWriteBehindQueue;
+import org.springframework.backend2exercise3.service.TrelloAuthCheck;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startläget (profilen startup) slår på lat initiering: controllers, TrelloService, HTTP-klienten
+ * och mallmotorn skapas vid första anropet som behöver dem istället för innan servern tar emot trafik.
+ * Bönor som måste arbeta utan att något anrop kommer in skapas ändå direkt:
+ * schemalagd synk och ögonblicksbilder, skrivkön som återupptar journalen, lyssnare på board-kopian
+ * och bakgrundskontrollen av Trello-autentiseringen.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBackgroundBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(BoardReplicaSync.class, BoardSnapshotStore.class,
+                TaskWriteBehindQueue.class, BoardReplicaListener.class, TrelloAuthCheck.class);
+    }
+}
@@ -0,0 +1,41 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "tasks.dedup")
+public class TaskDedupConfig {
+    private boolean enabled = true;
+    // Hur länge en skapad uppgift känns igen, räknat från första inskickningen
+    private Duration window = Duration.ofMinutes(10);
+    // Högsta antal inskickningar som hålls i minnet, äldst/minst använda vräks först
+    private long maxEntries = 10_000;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
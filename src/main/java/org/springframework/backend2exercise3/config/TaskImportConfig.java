@@ -0,0 +1,29 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "tasks.import")
+public class TaskImportConfig {
+    // Max antal samtidiga createCard-anrop under en bulkimport
+    private int maxConcurrency = 8;
+    private int maxItems = 1000;
+
+    // Getters and Setters
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+}
@@ -0,0 +1,40 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "tasks.view")
+public class TaskViewConfig {
+    // Antal kortrader per chunk i den strömmade listvyn; varje chunk skickas (flush) direkt
+    private int chunkSize = 200;
+    // Antal kort per sida i den sidindelade listvyn (/tasks/paged)
+    private int pageSize = 100;
+    // Parsa listvyns mallar vid start; av i startläget så att mallmotorn skapas vid första anropet
+    private boolean warmUp = true;
+
+    // Getters and Setters
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+}
@@ -0,0 +1,106 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "tasks.write-behind")
+public class TaskWriteBehindConfig {
+    private boolean enabled = false;
+    private String journalPath = "data/task-journal.log";
+    // Hur länge skrivaren samlar poster innan en gemensam fsync
+    private Duration fsyncBatchWindow = Duration.ofMillis(2);
+    private int workers = 2;
+    private int maxAttempts = 10;
+    private Duration initialRetryDelay = Duration.ofSeconds(1);
+    private Duration maxRetryDelay = Duration.ofMinutes(5);
+    // Hur länge skapade och uppgivna uppgifter går att fråga efter innan de glöms
+    private Duration finishedRetention = Duration.ofHours(1);
+    // Journalen kompakteras när den vuxit förbi detta, kontrolleras var maintenance-interval
+    private DataSize compactThreshold = DataSize.ofMegabytes(8);
+    private Duration maintenanceInterval = Duration.ofMinutes(1);
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getJournalPath() {
+        return journalPath;
+    }
+
+    public void setJournalPath(String journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    public Duration getFsyncBatchWindow() {
+        return fsyncBatchWindow;
+    }
+
+    public void setFsyncBatchWindow(Duration fsyncBatchWindow) {
+        this.fsyncBatchWindow = fsyncBatchWindow;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialRetryDelay() {
+        return initialRetryDelay;
+    }
+
+    public void setInitialRetryDelay(Duration initialRetryDelay) {
+        this.initialRetryDelay = initialRetryDelay;
+    }
+
+    public Duration getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    public void setMaxRetryDelay(Duration maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    public Duration getFinishedRetention() {
+        return finishedRetention;
+    }
+
+    public void setFinishedRetention(Duration finishedRetention) {
+        this.finishedRetention = finishedRetention;
+    }
+
+    public DataSize getCompactThreshold() {
+        return compactThreshold;
+    }
+
+    public void setCompactThreshold(DataSize compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    public Duration getMaintenanceInterval() {
+        return maintenanceInterval;
+    }
+
+    public void setMaintenanceInterval(Duration maintenanceInterval) {
+        this.maintenanceInterval = maintenanceInterval;
+    }
+}
@@ -0,0 +1,42 @@
+package org.springframework.backend2exercise3.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "trello.batch")
+public class TrelloBatchConfig {
+    private boolean enabled = true;
+    // Hur länge den första läsningen väntar på sällskap innan anropet skickas. Läggs på varje
+    // läsning som inte får sällskap; 0 skickar direkt och stänger i praktiken av batchningen
+    private Duration window = Duration.ofMillis(5);
+    // Trellos /batch tar högst 10 adresser per anrop
+    private int maxSize = 10;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
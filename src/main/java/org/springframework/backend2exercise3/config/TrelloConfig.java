@@ -3,6 +3,8 @@ package org.springframework.backend2exercise3.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "trello.api")
 public class TrelloConfig {
@@ -11,6 +13,11 @@ public class TrelloConfig {
     private String token;
     private String boardId;
     private String defaultListId;
+    // Total tidsgräns för parallella läsningar över alla listor på boarden
+    private Duration fanOutTimeout = Duration.ofSeconds(10);
+    // Hur ofta nyckel och token kontrolleras i bakgrunden (readiness)
+    private Duration authCheckInterval = Duration.ofMinutes(5);
+    private Http http = new Http();
 
     // Getters and Setters
     public String getBaseUrl() {
@@ -53,7 +60,127 @@ public class TrelloConfig {
         this.defaultListId = defaultListId;
     }
 
+    public Duration getFanOutTimeout() {
+        return fanOutTimeout;
+    }
+
+    public void setFanOutTimeout(Duration fanOutTimeout) {
+        this.fanOutTimeout = fanOutTimeout;
+    }
+
+    public Duration getAuthCheckInterval() {
+        return authCheckInterval;
+    }
+
+    public void setAuthCheckInterval(Duration authCheckInterval) {
+        this.authCheckInterval = authCheckInterval;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
     public boolean hasDefaultListId() {
         return defaultListId != null && !defaultListId.trim().isEmpty();
     }
+
+    /**
+     * Inställningar för den utgående HTTP-klienten mot Trello (trello.api.http.*)
+     */
+    public static class Http {
+        private int maxTotal = 50;
+        private int maxPerRoute = 20;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration idleEviction = Duration.ofSeconds(30);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private boolean http2 = false;
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+
+        public int getMaxPerRoute() {
+            return maxPerRoute;
+        }
+
+        public void setMaxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public Duration getIdleEviction() {
+            return idleEviction;
+        }
+
+        public void setIdleEviction(Duration idleEviction) {
+            this.idleEviction = idleEviction;
+        }
+
+        public Duration getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+    }
 }
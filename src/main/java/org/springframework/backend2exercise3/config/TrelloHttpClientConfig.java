@@ -0,0 +1,136 @@
+package org.springframework.backend2exercise3.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.backend2exercise3.service.TrelloRateLimitInterceptor;
+import org.springframework.backend2exercise3.service.TrelloResilienceInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Delad utgående HTTP-klient för Trello och Jira.
+ * Standardläget är en poolad Apache HttpClient med keep-alive och timeouts,
+ * med trello.api.http.http2=true används JDK:ns HttpClient med HTTP/2 istället.
+ * Poolens gräns per route gäller per värd, så Jira-anrop tränger inte undan Trello-anrop.
+ */
+@Configuration
+public class TrelloHttpClientConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "trello.api.http", name = "http2", havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager trelloConnectionManager(TrelloConfig trelloConfig) {
+        TrelloConfig.Http http = trelloConfig.getHttp();
+
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(http.getTimeToLive()))
+                .setValidateAfterInactivity(TimeValue.of(http.getValidateAfterInactivity()))
+                .build();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(http.getMaxTotal())
+                .setMaxConnPerRoute(http.getMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                // LIFO återanvänder den senast använda (varma) anslutningen först
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "trello.api.http", name = "http2", havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient trelloHttpClient(TrelloConfig trelloConfig,
+                                                PoolingHttpClientConnectionManager trelloConnectionManager) {
+        TrelloConfig.Http http = trelloConfig.getHttp();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(http.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+                .setConnectionKeepAlive(TimeValue.of(http.getKeepAlive()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(trelloConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(http.getIdleEviction()))
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory trelloClientHttpRequestFactory(TrelloConfig trelloConfig,
+                                                                   ObjectProvider<CloseableHttpClient> trelloHttpClient) {
+        TrelloConfig.Http http = trelloConfig.getHttp();
+
+        if (http.isHttp2()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(http.getConnectTimeout())
+                    .build();
+            JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(client);
+            factory.setReadTimeout(http.getReadTimeout());
+            return factory;
+        }
+
+        return new HttpComponentsClientHttpRequestFactory(trelloHttpClient.getObject());
+    }
+
+    /**
+     * Exekverare för parallella utgående Trello-anrop. Virtuella trådar när
+     * spring.threads.virtual.enabled=true, annars en begränsad plattformstrådpool.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService trelloIoExecutor(Environment environment, TrelloConfig trelloConfig) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("trello-io-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(trelloConfig.getHttp().getMaxPerRoute(),
+                Thread.ofPlatform().name("trello-io-", 0).daemon().factory());
+    }
+
+    @Bean
+    public RestTemplate trelloRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                           ClientHttpRequestFactory trelloClientHttpRequestFactory,
+                                           TrelloResilienceInterceptor trelloResilienceInterceptor,
+                                           TrelloRateLimitInterceptor trelloRateLimitInterceptor) {
+        // Rate limitern ytterst och kretsbrytare/bulkhead runt varje försök, så att väntan på token
+        // och backoff efter 429/5xx inte mäts som långsamma anrop eller håller bulkhead-platser
+        return restTemplateBuilder
+                .requestFactory(() -> trelloClientHttpRequestFactory)
+                .additionalInterceptors(trelloRateLimitInterceptor, trelloResilienceInterceptor)
+                .build();
+    }
+
+    /**
+     * Jira delar anslutningspoolen men inte Trellos rate limiter
+     */
+    @Bean
+    public RestTemplate jiraRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                         ClientHttpRequestFactory trelloClientHttpRequestFactory) {
+        return restTemplateBuilder
+                .requestFactory(() -> trelloClientHttpRequestFactory)
+                .build();
+    }
+}
@@ -3,7 +3,8 @@ package org.springframework.backend2exercise3.controller;
 //import ch.qos.logback.core.model.Model;
 import jakarta.validation.Valid;
 import org.springframework.backend2exercise3.model.TaskForm;
-import org.springframework.backend2exercise3.service.TrelloService;
+import org.springframework.backend2exercise3.service.TaskPlatformRouter;
+import org.springframework.backend2exercise3.service.TaskWriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
@@ -12,21 +13,26 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.ui.Model;
 
+import java.util.UUID;
+
 @Controller
 public class TaskController {
 
     @Autowired
-    TrelloService trelloService;
+    TaskPlatformRouter taskPlatformRouter;
+
+    @Autowired
+    TaskWriteBehindQueue taskWriteBehindQueue;
 
     @GetMapping("/")
     public String home(Model model) {
-        model.addAttribute("taskForm", new TaskForm());
+        model.addAttribute("taskForm", newTaskForm());
         return "create-task";
     }
 
     @GetMapping("/tasks/create")
     public String showCreateForm(Model model) {
-        model.addAttribute("taskForm", new TaskForm());
+        model.addAttribute("taskForm", newTaskForm());
         return "create-task"; // This Thymeleaf template
     }
 
@@ -38,9 +44,16 @@ public class TaskController {
         }
 
         try {
-            // Call your Jira/Trello service here
-            trelloService.createTask(taskForm);
-            model.addAttribute("message", "Uppgift skapad framgångsrikt!");
+            if (taskWriteBehindQueue.isEnabled()) {
+                // Asynkront läge: uppgiften journalförs och skapas i bakgrunden
+                String trackingId = taskWriteBehindQueue.submit(taskForm);
+                model.addAttribute("message", "Uppgiften är köad och skapas strax (spårnings-id: " + trackingId + ")");
+                model.addAttribute("trackingId", trackingId);
+            } else {
+                // Skapas i Jira, Trello eller båda beroende på vald plattform
+                taskPlatformRouter.createTask(taskForm);
+                model.addAttribute("message", "Uppgift skapad framgångsrikt!");
+            }
             model.addAttribute("messageType", "success");
         } catch (Exception e) {
             model.addAttribute("message", "Ett fel uppstod: " + e.getMessage());
@@ -48,7 +61,17 @@ public class TaskController {
             model.addAttribute("messageType", "error");
         }
 
-        model.addAttribute("taskForm", new TaskForm());
+        model.addAttribute("taskForm", newTaskForm());
         return "create-task";
     }
+
+    /**
+     * Nytt formulär med en egen idempotensnyckel, så att dubbelklick och omsändningar
+     * av just detta formulär bara skapar en uppgift
+     */
+    private static TaskForm newTaskForm() {
+        TaskForm taskForm = new TaskForm();
+        taskForm.setIdempotencyKey(UUID.randomUUID().toString());
+        return taskForm;
+    }
 }
@@ -0,0 +1,53 @@
+package org.springframework.backend2exercise3.controller;
+
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.model.TaskImportResult;
+import org.springframework.backend2exercise3.service.TaskCsvParser;
+import org.springframework.backend2exercise3.service.TaskImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulkimport av uppgifter som JSON-array eller CSV
+ */
+@RestController
+@RequestMapping("/api/tasks")
+public class TaskImportController {
+
+    @Autowired
+    TaskImportService taskImportService;
+
+    @Autowired
+    TaskCsvParser taskCsvParser;
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskImportResult> importJson(@RequestBody List<TaskForm> forms) {
+        return respond(taskImportService.importTasks(forms));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<TaskImportResult> importCsv(@RequestBody String csv) {
+        return respond(taskImportService.importTasks(taskCsvParser.parse(csv)));
+    }
+
+    private static ResponseEntity<TaskImportResult> respond(TaskImportResult result) {
+        if (result.hasInvalidItems()) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidInput(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
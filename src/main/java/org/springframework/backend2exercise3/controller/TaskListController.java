@@ -0,0 +1,117 @@
+package org.springframework.backend2exercise3.controller;
+
+import org.springframework.backend2exercise3.config.TaskViewConfig;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskCursorPage;
+import org.springframework.backend2exercise3.model.TaskListSection;
+import org.springframework.backend2exercise3.model.TrelloReadResult;
+import org.springframework.backend2exercise3.service.TaskListRenderer;
+import org.springframework.backend2exercise3.service.TrelloService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listvyn med alla kort på den konfigurerade boarden (eller en lista via ?listId=).
+ * Strömmas som standard; ?buffered läser allt först och renderar sedan sidan i ett svep.
+ * /tasks/paged visar en lista en sida i taget med en länk till nästa sida.
+ */
+@Controller
+public class TaskListController {
+
+    @Autowired
+    TrelloService trelloService;
+
+    @Autowired
+    TaskListRenderer taskListRenderer;
+
+    @Autowired
+    TaskViewConfig taskViewConfig;
+
+    @Autowired
+    TrelloConfig trelloConfig;
+
+    @GetMapping("/tasks")
+    public ResponseEntity<StreamingResponseBody> listTasks(@RequestParam(required = false) String listId) {
+        List<Map<String, Object>> lists = resolveLists(listId);
+        StreamingResponseBody body = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            taskListRenderer.stream(writer, lists, trelloService::forEachCardChunk);
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    @GetMapping(value = "/tasks", params = "buffered")
+    public String listTasksBuffered(@RequestParam(required = false) String listId, Model model) {
+        List<Map<String, Object>> lists = resolveLists(listId);
+        List<TaskListSection> sections = lists.stream().map(this::loadSection).toList();
+        model.addAttribute("listCount", lists.size());
+        model.addAttribute("sections", sections);
+        return TaskListRenderer.PAGE_TEMPLATE;
+    }
+
+    @GetMapping("/tasks/paged")
+    public String listTasksPaged(@RequestParam(required = false) String listId,
+                                 @RequestParam(required = false) String cursor, Model model) {
+        // Utan listId visas standard-listan, eller boardens första lista om ingen är konfigurerad
+        List<Map<String, Object>> lists = resolveLists(listId == null || listId.isEmpty() ? trelloConfig.getDefaultListId() : listId);
+        if (lists.isEmpty()) {
+            model.addAttribute("listCount", 0);
+            model.addAttribute("sections", List.of());
+            return TaskListRenderer.PAGE_TEMPLATE;
+        }
+        String id = (String) lists.get(0).get("id");
+        TrelloReadResult<TaskCursorPage> page = trelloService.getCardsPage(id, taskViewConfig.getPageSize(), cursor);
+
+        TaskListSection section = new TaskListSection(id, (String) lists.get(0).get("name"));
+        section.setTasks(page.getValue().getItems());
+        section.setTaskCount(page.getValue().getItems().size());
+        section.setFreshness(page.getFreshness());
+        model.addAttribute("listCount", 1);
+        model.addAttribute("sections", List.of(section));
+        model.addAttribute("pagedListId", id);
+        model.addAttribute("nextCursor", page.getValue().getNextCursor());
+        return TaskListRenderer.PAGE_TEMPLATE;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidInput(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+    }
+
+    private List<Map<String, Object>> resolveLists(String listId) {
+        List<Map<String, Object>> lists = trelloService.getListsFromConfiguredBoard();
+        if (listId == null || listId.isEmpty()) {
+            return lists;
+        }
+        return List.of(lists.stream()
+                .filter(list -> listId.equals(list.get("id")))
+                .findFirst()
+                .orElse(Map.of("id", listId, "name", listId)));
+    }
+
+    private TaskListSection loadSection(Map<String, Object> list) {
+        TaskListSection section = new TaskListSection((String) list.get("id"), (String) list.get("name"));
+        TrelloReadResult<List<Task>> result = trelloService.getCardsResult(section.getListId());
+        section.setTasks(result.getValue());
+        section.setTaskCount(result.getValue().size());
+        section.setFreshness(result.getFreshness());
+        section.setFetchedAt(result.getFetchedAt());
+        return section;
+    }
+}
@@ -0,0 +1,72 @@
+package org.springframework.backend2exercise3.controller;
+
+import org.springframework.backend2exercise3.model.TaskCursorPage;
+import org.springframework.backend2exercise3.model.TaskPage;
+import org.springframework.backend2exercise3.model.TaskQuery;
+import org.springframework.backend2exercise3.model.TaskSearchResult;
+import org.springframework.backend2exercise3.model.TrelloReadResult;
+import org.springframework.backend2exercise3.service.TaskSearchIndex;
+import org.springframework.backend2exercise3.service.TaskStore;
+import org.springframework.backend2exercise3.service.TrelloService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Filtrerade och sidindelade frågor mot uppgifterna i TaskStore,
+ * t.ex. /api/tasks?status=TODO&status=IN_PROGRESS&assignee=anna&sort=DUE_DATE&limit=20,
+ * fritextsökning i TaskSearchIndex, t.ex. /api/tasks/search?q=inloggning&limit=20,
+ * och kort från en Trello-lista sida för sida, t.ex. /api/tasks/lists/{listId}?limit=100&cursor=...
+ */
+@RestController
+@RequestMapping("/api/tasks")
+public class TaskQueryController {
+
+    @Autowired
+    TaskStore taskStore;
+
+    @Autowired
+    TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    TrelloService trelloService;
+
+    @GetMapping
+    public TaskPage query(@ModelAttribute TaskQuery query) {
+        return taskStore.query(query);
+    }
+
+    @GetMapping("/search")
+    public TaskSearchResult search(@RequestParam("q") String query,
+                                   @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return taskSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Nästa sida hämtas med cursor=nextCursor från svaret; nextCursor är null på sista sidan
+     */
+    @GetMapping("/lists/{listId}")
+    public ResponseEntity<TaskCursorPage> listPage(@PathVariable String listId,
+                                                   @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                   @RequestParam(value = "cursor", required = false) String cursor) {
+        TrelloReadResult<TaskCursorPage> page = trelloService.getCardsPage(listId, limit, cursor);
+        if (page.isUnavailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(page.getValue());
+        }
+        return ResponseEntity.ok(page.getValue());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidInput(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
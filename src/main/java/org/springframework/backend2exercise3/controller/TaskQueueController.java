@@ -0,0 +1,33 @@
+package org.springframework.backend2exercise3.controller;
+
+import org.springframework.backend2exercise3.model.QueuedTask;
+import org.springframework.backend2exercise3.service.TaskWriteBehindQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Status för uppgifter i skrivkön
+ */
+@RestController
+@RequestMapping("/api/tasks/queue")
+public class TaskQueueController {
+
+    @Autowired
+    TaskWriteBehindQueue taskWriteBehindQueue;
+
+    @GetMapping
+    public Map<QueuedTask.State, Integer> summary() {
+        return taskWriteBehindQueue.getSummary();
+    }
+
+    @GetMapping("/{trackingId}")
+    public ResponseEntity<QueuedTask> status(@PathVariable String trackingId) {
+        return ResponseEntity.of(taskWriteBehindQueue.getStatus(trackingId));
+    }
+}
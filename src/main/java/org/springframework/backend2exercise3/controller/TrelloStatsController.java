@@ -0,0 +1,146 @@
+package org.springframework.backend2exercise3.controller;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.backend2exercise3.service.BoardReplica;
+import org.springframework.backend2exercise3.service.BoardSnapshotStore;
+import org.springframework.backend2exercise3.service.TaskSubmitDedup;
+import org.springframework.backend2exercise3.service.TrelloBatchReader;
+import org.springframework.backend2exercise3.service.TrelloLastKnownGood;
+import org.springframework.backend2exercise3.service.TrelloRateLimiter;
+import org.springframework.backend2exercise3.service.TrelloReadCache;
+import org.springframework.backend2exercise3.service.TrelloResilienceInterceptor;
+import org.springframework.backend2exercise3.service.TrelloSingleFlight;
+import org.springframework.backend2exercise3.service.TrelloWebhookService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Driftstatistik för Trello-integrationen
+ */
+@RestController
+@RequestMapping("/api/trello/stats")
+public class TrelloStatsController {
+
+    @Autowired
+    ObjectProvider<PoolingHttpClientConnectionManager> trelloConnectionManager;
+
+    @Autowired
+    TrelloReadCache trelloReadCache;
+
+    @Autowired
+    TrelloSingleFlight trelloSingleFlight;
+
+    @Autowired
+    TrelloBatchReader trelloBatchReader;
+
+    @Autowired
+    TaskSubmitDedup taskSubmitDedup;
+
+    @Autowired
+    TrelloRateLimiter trelloRateLimiter;
+
+    @Autowired
+    TrelloResilienceInterceptor trelloResilienceInterceptor;
+
+    @Autowired
+    TrelloLastKnownGood trelloLastKnownGood;
+
+    @Autowired
+    BoardReplica boardReplica;
+
+    @Autowired
+    BoardSnapshotStore boardSnapshotStore;
+
+    @Autowired
+    TrelloWebhookService trelloWebhookService;
+
+    /**
+     * Hämtar anslutningspoolens aktuella tillstånd
+     * @return leased/pending/available/max, eller tom map i HTTP/2-läge
+     */
+    @GetMapping("/pool")
+    public Map<String, Object> pool() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        PoolingHttpClientConnectionManager manager = trelloConnectionManager.getIfAvailable();
+        if (manager == null) {
+            return stats;
+        }
+
+        PoolStats total = manager.getTotalStats();
+        stats.put("leased", total.getLeased());
+        stats.put("pending", total.getPending());
+        stats.put("available", total.getAvailable());
+        stats.put("max", total.getMax());
+        stats.put("routes", manager.getRoutes().size());
+        return stats;
+    }
+
+    /**
+     * Hämtar cachens träff-, miss- och vräkningsräknare
+     */
+    @GetMapping("/cache")
+    public Map<String, Object> cache() {
+        return trelloReadCache.stats();
+    }
+
+    /**
+     * Hämtar antal Trello-anrop och hur många anropare som delade ett pågående anrop
+     */
+    @GetMapping("/single-flight")
+    public Map<String, Object> singleFlight() {
+        return trelloSingleFlight.stats();
+    }
+
+    /**
+     * Hämtar antal /batch-anrop, hur många läsningar de bar och hur många som gick som egna anrop
+     */
+    @GetMapping("/batch")
+    public Map<String, Object> batch() {
+        return trelloBatchReader.stats();
+    }
+
+    /**
+     * Hämtar hur många skapade uppgifter som känns igen och hur många omsändningar som fångats
+     */
+    @GetMapping("/dedup")
+    public Map<String, Object> dedup() {
+        return taskSubmitDedup.stats();
+    }
+
+    /**
+     * Hämtar rate limiterns ködjup och strypningsräknare
+     */
+    @GetMapping("/rate-limit")
+    public Map<String, Object> rateLimit() {
+        return trelloRateLimiter.stats();
+    }
+
+    /**
+     * Hämtar kretsbrytarens läge, bulkheadens beläggning och hur ofta gammal data serverats
+     */
+    @GetMapping("/resilience")
+    public Map<String, Object> resilience() {
+        Map<String, Object> stats = trelloResilienceInterceptor.stats();
+        stats.put("lastKnownGood", trelloLastKnownGood.stats());
+        return stats;
+    }
+
+    /**
+     * Hämtar board-kopians storlek och synkräknare, inklusive mottagna webhooks och ögonblicksbilden på disk
+     */
+    @GetMapping("/replica")
+    public Map<String, Object> replica() {
+        Map<String, Object> stats = boardReplica.stats();
+        stats.put("webhooksReceived", trelloWebhookService.getReceived());
+        stats.put("webhooksRejected", trelloWebhookService.getRejected());
+        stats.put("snapshot", boardSnapshotStore.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,56 @@
+package org.springframework.backend2exercise3.controller;
+
+import org.springframework.backend2exercise3.service.TrelloWebhookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Callback-adress för Trellos webhooks
+ */
+@RestController
+@RequestMapping("/trello/webhook")
+public class TrelloWebhookController {
+
+    static final String SIGNATURE_HEADER = "X-Trello-Webhook";
+
+    @Autowired
+    TrelloWebhookService trelloWebhookService;
+
+    /**
+     * Trello gör ett HEAD-anrop när webhooken skapas och kräver 200 som svar
+     */
+    @RequestMapping(method = RequestMethod.HEAD)
+    public ResponseEntity<Void> handshake() {
+        return trelloWebhookService.isEnabled() ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Tar emot en action. Svarar 200 även för ignorerade och omlevererade actions
+     * så att Trello inte försöker igen.
+     */
+    @PostMapping
+    public ResponseEntity<Void> receive(@RequestBody byte[] body,
+                                        @RequestHeader(value = SIGNATURE_HEADER, required = false) String signature) {
+        if (!trelloWebhookService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!trelloWebhookService.isValidSignature(body, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            trelloWebhookService.handle(body);
+            return ResponseEntity.ok().build();
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
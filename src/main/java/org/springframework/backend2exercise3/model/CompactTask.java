@@ -0,0 +1,110 @@
+package org.springframework.backend2exercise3.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Minnessnål, oföränderlig form av Task för stora mängder uppgifter i minnet (TaskStore).
+ * Skapas och packas upp av TaskSymbols, som delar strängar som upprepas mellan uppgifter
+ * (lista, board, ansvarig) och ger taggarna heltals-id.
+ * <ul>
+ *     <li>status och prioritet som enum-ordinal i en byte, NONE för null</li>
+ *     <li>datum som epoch-millisekunder (UTC) i en long, NO_DATE för null; precisionen är millisekunder</li>
+ *     <li>taggar som en int-array med id:n i TaskSymbols</li>
+ *     <li>trelloCardId delar instans med id när de är lika</li>
+ * </ul>
+ */
+public final class CompactTask {
+
+    public static final byte NONE = -1;
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    private final String id;
+    private final String name;
+    private final String description;
+    private final String url;
+    private final String trelloCardId;
+    private final String listId;
+    private final String boardId;
+    private final String assignedTo;
+    private final int[] tagIds;
+    private final long createdAt;
+    private final long dueAt;
+    private final long completedAt;
+    private final byte status;
+    private final byte priority;
+
+    // Constructors
+    public CompactTask(String id, String name, String description, String url, String trelloCardId,
+                       String listId, String boardId, String assignedTo, int[] tagIds,
+                       long createdAt, long dueAt, long completedAt, byte status, byte priority) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.url = url;
+        this.trelloCardId = trelloCardId;
+        this.listId = listId;
+        this.boardId = boardId;
+        this.assignedTo = assignedTo;
+        this.tagIds = tagIds;
+        this.createdAt = createdAt;
+        this.dueAt = dueAt;
+        this.completedAt = completedAt;
+        this.status = status;
+        this.priority = priority;
+    }
+
+    public static byte ordinal(Enum<?> value) {
+        return value == null ? NONE : (byte) value.ordinal();
+    }
+
+    public static long epochMillis(LocalDateTime value) {
+        return value == null ? NO_DATE : value.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime dateTime(long epochMillis) {
+        if (epochMillis == NO_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public TaskStatus status() { return status == NONE ? null : STATUSES[status]; }
+
+    public TaskPriority priority() { return priority == NONE ? null : PRIORITIES[priority]; }
+
+    public boolean hasDueDate() { return dueAt != NO_DATE; }
+
+    // Getters
+    public String getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getDescription() { return description; }
+
+    public String getUrl() { return url; }
+
+    public String getTrelloCardId() { return trelloCardId; }
+
+    public String getListId() { return listId; }
+
+    public String getBoardId() { return boardId; }
+
+    public String getAssignedTo() { return assignedTo; }
+
+    public int[] getTagIds() { return tagIds; }
+
+    public long getCreatedAt() { return createdAt; }
+
+    public long getDueAt() { return dueAt; }
+
+    public long getCompletedAt() { return completedAt; }
+
+    public byte getStatus() { return status; }
+
+    public byte getPriority() { return priority; }
+}
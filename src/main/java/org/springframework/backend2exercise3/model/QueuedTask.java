@@ -0,0 +1,75 @@
+package org.springframework.backend2exercise3.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * En uppgift i skrivkön och dess aktuella tillstånd
+ */
+public class QueuedTask {
+
+    public enum State {
+        PENDING,
+        CREATED,
+        FAILED
+    }
+
+    private String trackingId;
+    private String title;
+    private State state;
+    private int attempts;
+    private String cardId;
+    private String lastError;
+    // Vid dubbelskrivning: plattformar som redan fått uppgiften och inte ska anropas igen
+    private Map<String, String> createdOn = Map.of();
+    private Instant enqueuedAt;
+    private Instant updatedAt;
+
+    @JsonIgnore
+    private TaskForm form;
+
+    // Constructors
+    public QueuedTask() {}
+
+    public QueuedTask(String trackingId, TaskForm form, Instant enqueuedAt) {
+        this.trackingId = trackingId;
+        this.form = form;
+        this.title = form.getTitle();
+        this.state = State.PENDING;
+        this.enqueuedAt = enqueuedAt;
+        this.updatedAt = enqueuedAt;
+    }
+
+    // Getters and Setters
+    public String getTrackingId() { return trackingId; }
+    public void setTrackingId(String trackingId) { this.trackingId = trackingId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public String getCardId() { return cardId; }
+    public void setCardId(String cardId) { this.cardId = cardId; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public Map<String, String> getCreatedOn() { return createdOn; }
+    public void setCreatedOn(Map<String, String> createdOn) { this.createdOn = createdOn != null ? createdOn : Map.of(); }
+
+    public Instant getEnqueuedAt() { return enqueuedAt; }
+    public void setEnqueuedAt(Instant enqueuedAt) { this.enqueuedAt = enqueuedAt; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public TaskForm getForm() { return form; }
+    public void setForm(TaskForm form) { this.form = form; }
+}
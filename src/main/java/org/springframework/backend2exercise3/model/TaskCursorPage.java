@@ -0,0 +1,43 @@
+package org.springframework.backend2exercise3.model;
+
+import java.util.List;
+
+/**
+ * En sida med kort från en Trello-lista. nextCursor skickas tillbaka som cursor för att
+ * hämta nästa sida och är null på sista sidan; cursorn är opak och gäller bara för listan.
+ */
+public class TaskCursorPage {
+
+    private String listId;
+    private List<Task> items;
+    private int limit;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructors
+    public TaskCursorPage() {}
+
+    public TaskCursorPage(String listId, List<Task> items, int limit, String nextCursor, boolean hasMore) {
+        this.listId = listId;
+        this.items = items;
+        this.limit = limit;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public String getListId() { return listId; }
+    public void setListId(String listId) { this.listId = listId; }
+
+    public List<Task> getItems() { return items; }
+    public void setItems(List<Task> items) { this.items = items; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
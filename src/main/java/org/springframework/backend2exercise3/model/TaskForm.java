@@ -1,5 +1,6 @@
 package org.springframework.backend2exercise3.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -29,6 +30,10 @@ public class TaskForm {
     private String priority;
     private String category;
 
+    // Sätts i formuläret när det visas så att omsändningar känns igen (se TaskSubmitDedup)
+    @Size(max = 100, message = "Idempotensnyckeln får inte vara längre än 100 tecken")
+    private String idempotencyKey;
+
     // Konstruktorer
     public TaskForm() {
         this.priority = "Medium"; // Standardprioritet
@@ -64,6 +69,30 @@ public class TaskForm {
         this.description = description;
     }
 
+    public String getAssignee() {
+        return assignee;
+    }
+
+    public void setAssignee(String assignee) {
+        this.assignee = assignee;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
     public String getPriority() {
         return priority;
     }
@@ -80,6 +109,14 @@ public class TaskForm {
         this.category = category;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
     // Utility-metoder
     public boolean hasDescription() {
         return description != null && !description.trim().isEmpty();
@@ -89,14 +126,21 @@ public class TaskForm {
         return category != null && !category.trim().isEmpty();
     }
 
+    @JsonIgnore
     public boolean isJira() {
         return "jira".equalsIgnoreCase(platform);
     }
 
+    @JsonIgnore
     public boolean isTrello() {
         return "trello".equalsIgnoreCase(platform);
     }
 
+    @JsonIgnore
+    public boolean isBoth() {
+        return "both".equalsIgnoreCase(platform);
+    }
+
     public boolean hasAssignee() {
         return assignee != null && !assignee.trim().isEmpty();
     }
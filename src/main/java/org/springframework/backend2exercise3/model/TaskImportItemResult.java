@@ -0,0 +1,65 @@
+package org.springframework.backend2exercise3.model;
+
+import java.util.List;
+
+/**
+ * Resultat för en enskild rad i en bulkimport
+ */
+public class TaskImportItemResult {
+
+    public enum Status {
+        CREATED,
+        FAILED,
+        INVALID,
+        SKIPPED
+    }
+
+    private int index;
+    private String title;
+    private Status status;
+    private String cardId;
+    private List<String> errors;
+
+    // Constructors
+    public TaskImportItemResult() {}
+
+    public TaskImportItemResult(int index, String title, Status status, String cardId, List<String> errors) {
+        this.index = index;
+        this.title = title;
+        this.status = status;
+        this.cardId = cardId;
+        this.errors = errors;
+    }
+
+    public static TaskImportItemResult created(int index, String title, String cardId) {
+        return new TaskImportItemResult(index, title, Status.CREATED, cardId, List.of());
+    }
+
+    public static TaskImportItemResult failed(int index, String title, String error) {
+        return new TaskImportItemResult(index, title, Status.FAILED, null, List.of(error));
+    }
+
+    public static TaskImportItemResult invalid(int index, String title, List<String> errors) {
+        return new TaskImportItemResult(index, title, Status.INVALID, null, errors);
+    }
+
+    public static TaskImportItemResult skipped(int index, String title) {
+        return new TaskImportItemResult(index, title, Status.SKIPPED, null, List.of());
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getCardId() { return cardId; }
+    public void setCardId(String cardId) { this.cardId = cardId; }
+
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+}
@@ -0,0 +1,56 @@
+package org.springframework.backend2exercise3.model;
+
+import java.util.List;
+
+/**
+ * Sammanställt resultat för en bulkimport av uppgifter
+ */
+public class TaskImportResult {
+
+    private int total;
+    private int created;
+    private int failed;
+    private int invalid;
+    private long elapsedMillis;
+    private List<TaskImportItemResult> items;
+
+    // Constructors
+    public TaskImportResult() {}
+
+    public TaskImportResult(List<TaskImportItemResult> items, long elapsedMillis) {
+        this.items = items;
+        this.elapsedMillis = elapsedMillis;
+        this.total = items.size();
+        for (TaskImportItemResult item : items) {
+            switch (item.getStatus()) {
+                case CREATED -> created++;
+                case FAILED -> failed++;
+                case INVALID -> invalid++;
+                default -> { }
+            }
+        }
+    }
+
+    public boolean hasInvalidItems() {
+        return invalid > 0;
+    }
+
+    // Getters and Setters
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public int getInvalid() { return invalid; }
+    public void setInvalid(int invalid) { this.invalid = invalid; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public List<TaskImportItemResult> getItems() { return items; }
+    public void setItems(List<TaskImportItemResult> items) { this.items = items; }
+}
@@ -0,0 +1,49 @@
+package org.springframework.backend2exercise3.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * En Trello-lista i listvyn: namn, hur färska korten är och (i buffrat läge) korten.
+ * I strömmat läge är tasks null och korten skickas i chunkar medan de läses.
+ */
+public class TaskListSection {
+
+    private String listId;
+    private String listName;
+    private TrelloReadResult.Freshness freshness = TrelloReadResult.Freshness.FRESH;
+    private Instant fetchedAt;
+    private int taskCount;
+    private List<Task> tasks;
+
+    // Constructors
+    public TaskListSection() {}
+
+    public TaskListSection(String listId, String listName) {
+        this.listId = listId;
+        this.listName = listName;
+    }
+
+    public boolean isStale() { return freshness == TrelloReadResult.Freshness.STALE; }
+
+    public boolean isUnavailable() { return freshness == TrelloReadResult.Freshness.UNAVAILABLE; }
+
+    // Getters and Setters
+    public String getListId() { return listId; }
+    public void setListId(String listId) { this.listId = listId; }
+
+    public String getListName() { return listName; }
+    public void setListName(String listName) { this.listName = listName; }
+
+    public TrelloReadResult.Freshness getFreshness() { return freshness; }
+    public void setFreshness(TrelloReadResult.Freshness freshness) { this.freshness = freshness; }
+
+    public Instant getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; }
+
+    public int getTaskCount() { return taskCount; }
+    public void setTaskCount(int taskCount) { this.taskCount = taskCount; }
+
+    public List<Task> getTasks() { return tasks; }
+    public void setTasks(List<Task> tasks) { this.tasks = tasks; }
+}
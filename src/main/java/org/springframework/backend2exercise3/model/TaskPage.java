@@ -0,0 +1,37 @@
+package org.springframework.backend2exercise3.model;
+
+import java.util.List;
+
+/**
+ * En sida med uppgifter från en fråga mot TaskStore
+ */
+public class TaskPage {
+
+    private List<Task> items;
+    private int offset;
+    private int limit;
+    private boolean hasMore;
+
+    // Constructors
+    public TaskPage() {}
+
+    public TaskPage(List<Task> items, int offset, int limit, boolean hasMore) {
+        this.items = items;
+        this.offset = offset;
+        this.limit = limit;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<Task> getItems() { return items; }
+    public void setItems(List<Task> items) { this.items = items; }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,70 @@
+package org.springframework.backend2exercise3.model;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filter, sortering och sidindelning för frågor mot TaskStore.
+ * Alla angivna filter måste matcha; flera värden för status eller prioritet betyder "något av".
+ */
+public class TaskQuery {
+
+    public enum Sort {
+        // Indexordning, dvs. i den ordning uppgifterna lades in
+        NONE,
+        DUE_DATE,
+        PRIORITY
+    }
+
+    private List<TaskStatus> status;
+    private List<TaskPriority> priority;
+    private String assignee;
+    private String tag;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueTo;
+
+    private Sort sort = Sort.NONE;
+    private boolean descending;
+    private int offset = 0;
+    private int limit = 50;
+
+    // Constructors
+    public TaskQuery() {}
+
+    // Getters and Setters
+    public List<TaskStatus> getStatus() { return status; }
+    public void setStatus(List<TaskStatus> status) { this.status = status; }
+
+    public List<TaskPriority> getPriority() { return priority; }
+    public void setPriority(List<TaskPriority> priority) { this.priority = priority; }
+
+    public String getAssignee() { return assignee; }
+    public void setAssignee(String assignee) { this.assignee = assignee; }
+
+    public String getTag() { return tag; }
+    public void setTag(String tag) { this.tag = tag; }
+
+    public LocalDateTime getDueFrom() { return dueFrom; }
+    public void setDueFrom(LocalDateTime dueFrom) { this.dueFrom = dueFrom; }
+
+    public LocalDateTime getDueTo() { return dueTo; }
+    public void setDueTo(LocalDateTime dueTo) { this.dueTo = dueTo; }
+
+    public Sort getSort() { return sort; }
+    public void setSort(Sort sort) { this.sort = sort; }
+
+    public boolean isDescending() { return descending; }
+    public void setDescending(boolean descending) { this.descending = descending; }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+}
@@ -0,0 +1,25 @@
+package org.springframework.backend2exercise3.model;
+
+/**
+ * En träff från fritextsökningen med sin relevanspoäng (BM25)
+ */
+public class TaskSearchHit {
+
+    private Task task;
+    private double score;
+
+    // Constructors
+    public TaskSearchHit() {}
+
+    public TaskSearchHit(Task task, double score) {
+        this.task = task;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Task getTask() { return task; }
+    public void setTask(Task task) { this.task = task; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+}
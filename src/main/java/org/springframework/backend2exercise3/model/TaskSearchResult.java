@@ -0,0 +1,38 @@
+package org.springframework.backend2exercise3.model;
+
+import java.util.List;
+
+/**
+ * Resultatet av en fritextsökning: de bästa träffarna i fallande relevans
+ * och hur många uppgifter som matchade totalt
+ */
+public class TaskSearchResult {
+
+    private String query;
+    private List<TaskSearchHit> hits;
+    private int totalMatches;
+    private long tookMicros;
+
+    // Constructors
+    public TaskSearchResult() {}
+
+    public TaskSearchResult(String query, List<TaskSearchHit> hits, int totalMatches, long tookMicros) {
+        this.query = query;
+        this.hits = hits;
+        this.totalMatches = totalMatches;
+        this.tookMicros = tookMicros;
+    }
+
+    // Getters and Setters
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+
+    public List<TaskSearchHit> getHits() { return hits; }
+    public void setHits(List<TaskSearchHit> hits) { this.hits = hits; }
+
+    public int getTotalMatches() { return totalMatches; }
+    public void setTotalMatches(int totalMatches) { this.totalMatches = totalMatches; }
+
+    public long getTookMicros() { return tookMicros; }
+    public void setTookMicros(long tookMicros) { this.tookMicros = tookMicros; }
+}
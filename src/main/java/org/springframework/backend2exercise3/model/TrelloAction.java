@@ -0,0 +1,47 @@
+package org.springframework.backend2exercise3.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * En händelse från Trellos action-logg (t.ex. createCard, updateCard, deleteCard).
+ * data innehåller de berörda objekten med bara de fält som ändrades.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TrelloAction {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("date")
+    private String date;
+
+    @JsonProperty("idMemberCreator")
+    private String memberCreatorId;
+
+    @JsonProperty("data")
+    private JsonNode data;
+
+    // Constructors
+    public TrelloAction() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+
+    public String getMemberCreatorId() { return memberCreatorId; }
+    public void setMemberCreatorId(String memberCreatorId) { this.memberCreatorId = memberCreatorId; }
+
+    public JsonNode getData() { return data; }
+    public void setData(JsonNode data) { this.data = data; }
+}
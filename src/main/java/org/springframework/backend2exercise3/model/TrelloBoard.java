@@ -3,6 +3,8 @@ package org.springframework.backend2exercise3.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.List;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class TrelloBoard {
 
@@ -24,6 +26,19 @@ public class TrelloBoard {
     @JsonProperty("shortUrl")
     private String shortUrl;
 
+    // Nästlade resurser, fylls bara i vid hämtning med lists/cards/labels/members
+    @JsonProperty("lists")
+    private List<TrelloList> lists;
+
+    @JsonProperty("cards")
+    private List<TrelloCard> cards;
+
+    @JsonProperty("labels")
+    private List<TrelloLabel> labels;
+
+    @JsonProperty("members")
+    private List<TrelloMember> members;
+
     // Constructors
     public TrelloBoard() {}
 
@@ -45,4 +60,16 @@ public class TrelloBoard {
 
     public String getShortUrl() { return shortUrl; }
     public void setShortUrl(String shortUrl) { this.shortUrl = shortUrl; }
+
+    public List<TrelloList> getLists() { return lists; }
+    public void setLists(List<TrelloList> lists) { this.lists = lists; }
+
+    public List<TrelloCard> getCards() { return cards; }
+    public void setCards(List<TrelloCard> cards) { this.cards = cards; }
+
+    public List<TrelloLabel> getLabels() { return labels; }
+    public void setLabels(List<TrelloLabel> labels) { this.labels = labels; }
+
+    public List<TrelloMember> getMembers() { return members; }
+    public void setMembers(List<TrelloMember> members) { this.members = members; }
 }
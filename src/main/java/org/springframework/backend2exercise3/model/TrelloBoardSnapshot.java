@@ -0,0 +1,130 @@
+package org.springframework.backend2exercise3.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Länkad ögonblicksbild av en board: listor, kort, etiketter och medlemmar
+ * med uppslag på id. Byggs från ett enda nästlat /boards/{id}-svar.
+ */
+public class TrelloBoardSnapshot {
+
+    private final TrelloBoard board;
+    private final Instant loadedAt;
+    private final Map<String, TrelloList> listsById = new LinkedHashMap<>();
+    private final Map<String, TrelloCard> cardsById = new LinkedHashMap<>();
+    private final Map<String, TrelloLabel> labelsById = new LinkedHashMap<>();
+    private final Map<String, TrelloMember> membersById = new LinkedHashMap<>();
+
+    private TrelloBoardSnapshot(TrelloBoard board, Instant loadedAt) {
+        this.board = board;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * Bygger objektgrafen: kort kopplas till sin lista, etiketter och medlemmar
+     * ersätts med boardens gemensamma instanser. Boardens objekt länkas på plats, så en board
+     * får bara länkas en gång och ögonblicksbilden delas istället för att byggas om.
+     * @param board Board hämtad med lists, cards, labels och members
+     * @return Länkad ögonblicksbild
+     */
+    public static TrelloBoardSnapshot of(TrelloBoard board) {
+        return of(board, Instant.now());
+    }
+
+    /**
+     * Som of(board), för en board som hämtades tidigare (t.ex. sparad på disk)
+     * @param loadedAt När boardens innehåll hämtades
+     */
+    public static TrelloBoardSnapshot of(TrelloBoard board, Instant loadedAt) {
+        TrelloBoardSnapshot snapshot = new TrelloBoardSnapshot(board, loadedAt);
+
+        for (TrelloLabel label : nullSafe(board.getLabels())) {
+            snapshot.labelsById.put(label.getId(), label);
+        }
+        for (TrelloMember member : nullSafe(board.getMembers())) {
+            snapshot.membersById.put(member.getId(), member);
+        }
+
+        List<TrelloList> lists = new ArrayList<>(nullSafe(board.getLists()));
+        lists.sort(Comparator.comparingDouble(TrelloList::getPosition));
+        for (TrelloList list : lists) {
+            list.setCards(new ArrayList<>());
+            snapshot.listsById.put(list.getId(), list);
+        }
+
+        List<TrelloCard> cards = new ArrayList<>(nullSafe(board.getCards()));
+        cards.sort(Comparator.comparingDouble(TrelloCard::getPosition));
+        for (TrelloCard card : cards) {
+            snapshot.cardsById.put(card.getId(), card);
+            snapshot.link(card);
+        }
+
+        return snapshot;
+    }
+
+    private void link(TrelloCard card) {
+        TrelloList list = listsById.get(card.getListId());
+        card.setList(list);
+        if (list != null) {
+            list.getCards().add(card);
+        }
+
+        if (card.getLabelIds() != null) {
+            List<TrelloLabel> labels = new ArrayList<>(card.getLabelIds().size());
+            for (String labelId : card.getLabelIds()) {
+                TrelloLabel label = labelsById.get(labelId);
+                if (label != null) {
+                    labels.add(label);
+                }
+            }
+            card.setLabels(labels);
+        }
+
+        if (card.getMemberIds() != null) {
+            List<TrelloMember> members = new ArrayList<>(card.getMemberIds().size());
+            for (String memberId : card.getMemberIds()) {
+                TrelloMember member = membersById.get(memberId);
+                if (member != null) {
+                    members.add(member);
+                }
+            }
+            card.setMembers(members);
+        }
+    }
+
+    private static <T> List<T> nullSafe(List<T> values) {
+        return values != null ? values : Collections.emptyList();
+    }
+
+    public TrelloBoard getBoard() { return board; }
+
+    public Instant getLoadedAt() { return loadedAt; }
+
+    public Collection<TrelloList> getLists() { return Collections.unmodifiableCollection(listsById.values()); }
+
+    public Collection<TrelloCard> getCards() { return Collections.unmodifiableCollection(cardsById.values()); }
+
+    public Collection<TrelloLabel> getLabels() { return Collections.unmodifiableCollection(labelsById.values()); }
+
+    public Collection<TrelloMember> getMembers() { return Collections.unmodifiableCollection(membersById.values()); }
+
+    public TrelloList getList(String listId) { return listsById.get(listId); }
+
+    public TrelloCard getCard(String cardId) { return cardsById.get(cardId); }
+
+    public TrelloLabel getLabel(String labelId) { return labelsById.get(labelId); }
+
+    public TrelloMember getMember(String memberId) { return membersById.get(memberId); }
+
+    public List<TrelloCard> getCardsInList(String listId) {
+        TrelloList list = listsById.get(listId);
+        return list != null ? Collections.unmodifiableList(list.getCards()) : Collections.emptyList();
+    }
+}
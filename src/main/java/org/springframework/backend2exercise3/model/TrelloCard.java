@@ -1,5 +1,6 @@
 package org.springframework.backend2exercise3.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -51,6 +52,16 @@ public class TrelloCard {
     @JsonProperty("pos")
     private double position;
 
+    @JsonProperty("idLabels")
+    private List<String> labelIds;
+
+    @JsonProperty("idMembers")
+    private List<String> memberIds;
+
+    // Länkas ihop av TrelloBoardSnapshot, ingår inte i Trellos svar
+    @JsonIgnore
+    private TrelloList list;
+
     // Constructors
     public TrelloCard() {}
 
@@ -96,4 +107,13 @@ public class TrelloCard {
 
     public double getPosition() { return position; }
     public void setPosition(double position) { this.position = position; }
+
+    public List<String> getLabelIds() { return labelIds; }
+    public void setLabelIds(List<String> labelIds) { this.labelIds = labelIds; }
+
+    public List<String> getMemberIds() { return memberIds; }
+    public void setMemberIds(List<String> memberIds) { this.memberIds = memberIds; }
+
+    public TrelloList getList() { return list; }
+    public void setList(TrelloList list) { this.list = list; }
 }
@@ -1,8 +1,12 @@
 package org.springframework.backend2exercise3.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class TrelloList {
 
@@ -21,6 +25,10 @@ public class TrelloList {
     @JsonProperty("pos")
     private double position;
 
+    // Länkas ihop av TrelloBoardSnapshot, ingår inte i Trellos svar
+    @JsonIgnore
+    private List<TrelloCard> cards = new ArrayList<>();
+
     // Constructors
     public TrelloList() {}
 
@@ -39,4 +47,7 @@ public class TrelloList {
 
     public double getPosition() { return position; }
     public void setPosition(double position) { this.position = position; }
+
+    public List<TrelloCard> getCards() { return cards; }
+    public void setCards(List<TrelloCard> cards) { this.cards = cards; }
 }
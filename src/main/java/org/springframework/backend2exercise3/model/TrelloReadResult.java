@@ -0,0 +1,52 @@
+package org.springframework.backend2exercise3.model;
+
+import java.time.Instant;
+
+/**
+ * Resultatet av en läsning från Trello och hur färskt det är.
+ * FRESH: hämtat nu (eller ur cache/board-kopia), STALE: senast lyckade svar eftersom Trello
+ * inte svarar, UNAVAILABLE: Trello svarar inte och inget tidigare svar finns (värdet är tomt)
+ */
+public class TrelloReadResult<T> {
+
+    public enum Freshness { FRESH, STALE, UNAVAILABLE }
+
+    private T value;
+    private Freshness freshness;
+    private Instant fetchedAt;
+
+    // Constructors
+    public TrelloReadResult() {}
+
+    public TrelloReadResult(T value, Freshness freshness, Instant fetchedAt) {
+        this.value = value;
+        this.freshness = freshness;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public static <T> TrelloReadResult<T> fresh(T value) {
+        return new TrelloReadResult<>(value, Freshness.FRESH, null);
+    }
+
+    public static <T> TrelloReadResult<T> stale(T value, Instant fetchedAt) {
+        return new TrelloReadResult<>(value, Freshness.STALE, fetchedAt);
+    }
+
+    public static <T> TrelloReadResult<T> unavailable(T emptyValue) {
+        return new TrelloReadResult<>(emptyValue, Freshness.UNAVAILABLE, null);
+    }
+
+    public boolean isStale() { return freshness == Freshness.STALE; }
+
+    public boolean isUnavailable() { return freshness == Freshness.UNAVAILABLE; }
+
+    // Getters and Setters
+    public T getValue() { return value; }
+    public void setValue(T value) { this.value = value; }
+
+    public Freshness getFreshness() { return freshness; }
+    public void setFreshness(Freshness freshness) { this.freshness = freshness; }
+
+    public Instant getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; }
+}
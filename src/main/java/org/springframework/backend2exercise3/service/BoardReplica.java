@@ -0,0 +1,736 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskPriority;
+import org.springframework.backend2exercise3.model.TaskStatus;
+import org.springframework.backend2exercise3.model.TrelloAction;
+import org.springframework.backend2exercise3.model.TrelloBoard;
+import org.springframework.backend2exercise3.model.TrelloBoardSnapshot;
+import org.springframework.backend2exercise3.model.TrelloCard;
+import org.springframework.backend2exercise3.model.TrelloLabel;
+import org.springframework.backend2exercise3.model.TrelloList;
+import org.springframework.backend2exercise3.model.TrelloMember;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lokal kopia av den konfigurerade boarden i minnet, nycklad på kort-id.
+ * Laddas en gång från en TrelloBoardSnapshot och hålls sedan aktuell genom att
+ * Trellos actions (createCard, updateCard, deleteCard, ...) appliceras en i taget.
+ * Varje action appliceras högst en gång, så samma action kan levereras flera gånger,
+ * och en action äldre än kortets dateLastActivity hoppas över så att en sen
+ * omleverans inte skriver över nyare värden.
+ * Kort ändras aldrig på plats utan ersätts med en uppdaterad kopia, så läsare
+ * ser antingen det gamla eller det nya kortet.
+ */
+@Component
+public class BoardReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardReplica.class);
+    private static final int SEEN_ACTION_IDS = 10_000;
+
+    /**
+     * Action-typer som påverkar kopian (filter= vid hämtning av boardens actions)
+     */
+    public static final String ACTION_FILTER = "createCard,copyCard,moveCardToBoard,convertToCardFromCheckItem,"
+            + "emailCard,updateCard,deleteCard,moveCardFromBoard,addLabelToCard,removeLabelFromCard,"
+            + "addMemberToCard,removeMemberFromCard,createList,updateList,moveListToBoard,moveListFromBoard,"
+            + "createLabel,updateLabel,deleteLabel";
+
+    // Samma format som Trellos action-datum, så att tidpunkter kan jämföras som strängar
+    private static final DateTimeFormatter ACTION_DATE =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, TrelloCard> cards = new ConcurrentHashMap<>();
+    private final Map<String, TrelloList> lists = new ConcurrentHashMap<>();
+    private final Map<String, TrelloLabel> labels = new ConcurrentHashMap<>();
+    private final Map<String, TrelloMember> members = new ConcurrentHashMap<>();
+    // Färdiga Task-listor per lista, byggs vid första läsning och rensas vid ändring
+    private final Map<String, List<Task>> tasksByList = new ConcurrentHashMap<>();
+    // Kort som skapats via en action saknar fält (t.ex. desc) och måste hämtas i sin helhet
+    private final Set<String> incompleteCardIds = new LinkedHashSet<>();
+    // Ändringar sedan senaste publiceringen till lyssnarna
+    private final Set<String> changedCardIds = new LinkedHashSet<>();
+    private final Set<String> removedCardIds = new LinkedHashSet<>();
+    private final List<BoardReplicaListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Boolean> seenActionIds = new LinkedHashMap<>(1024, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > SEEN_ACTION_IDS;
+        }
+    };
+
+    private volatile boolean loaded;
+    private volatile String boardId;
+    private volatile String since;
+    private volatile Instant loadedAt;
+    private volatile Instant lastChangeAt;
+    // Satt medan kopian kommer från disk och inte bekräftats mot Trello
+    private volatile Instant restoredAt;
+
+    private final AtomicLong fullLoads = new AtomicLong();
+    private final AtomicLong restores = new AtomicLong();
+    private final AtomicLong actionsApplied = new AtomicLong();
+    private final AtomicLong duplicateActions = new AtomicLong();
+    private final AtomicLong ignoredActions = new AtomicLong();
+
+    @Autowired
+    public BoardReplica(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void addListener(BoardReplicaListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Ersätter hela kopian med en ny ögonblicksbild
+     * @param snapshot Nyss hämtad board
+     * @param since Tidpunkt som nästa delta-hämtning ska börja från
+     */
+    public synchronized void load(TrelloBoardSnapshot snapshot, Instant since) {
+        replace(snapshot, ACTION_DATE.format(since));
+        restoredAt = null;
+        fullLoads.incrementAndGet();
+        logger.info("Board-kopia laddad med {} listor och {} kort", lists.size(), cards.size());
+        publishReload();
+    }
+
+    /**
+     * Ersätter hela kopian med en ögonblicksbild sparad på disk. Innehållet kan vara inaktuellt
+     * tills nästa lyckade delta-synk från since har bekräftat det (confirm).
+     * @param contents Inläst ögonblicksbild
+     * @param savedAt När den sparades
+     */
+    public synchronized void restore(BoardSnapshotFile.Contents contents, Instant savedAt) {
+        TrelloBoard board = new TrelloBoard();
+        board.setId(contents.boardId());
+        board.setLists(contents.lists());
+        board.setLabels(contents.labels());
+        board.setMembers(contents.members());
+        board.setCards(contents.cards());
+        replace(TrelloBoardSnapshot.of(board, savedAt), contents.since());
+        restoredAt = savedAt;
+        restores.incrementAndGet();
+        logger.info("Board-kopia återställd från disk med {} listor och {} kort, sparad {}",
+                lists.size(), cards.size(), savedAt);
+        publishReload();
+    }
+
+    /**
+     * Kopians innehåll för att sparas på disk, konsistent vid ett och samma tillfälle
+     */
+    public synchronized BoardSnapshotFile.Contents export() {
+        return new BoardSnapshotFile.Contents(boardId, since, new ArrayList<>(lists.values()),
+                new ArrayList<>(labels.values()), new ArrayList<>(members.values()), new ArrayList<>(cards.values()));
+    }
+
+    /**
+     * Markerar att en återställd kopia har bekräftats mot Trello
+     */
+    public void confirm() {
+        if (restoredAt != null) {
+            logger.info("Board-kopian från disk är bekräftad mot Trello");
+            restoredAt = null;
+        }
+    }
+
+    /**
+     * @return false medan kopian kommer från disk och ännu inte synkats mot Trello
+     */
+    public boolean isConfirmed() {
+        return restoredAt == null;
+    }
+
+    /**
+     * @return När den återställda ögonblicksbilden sparades, null om kopian är bekräftad
+     */
+    public Instant getRestoredAt() {
+        return restoredAt;
+    }
+
+    public Instant getLastChangeAt() {
+        return lastChangeAt;
+    }
+
+    private void replace(TrelloBoardSnapshot snapshot, String since) {
+        cards.clear();
+        lists.clear();
+        labels.clear();
+        members.clear();
+        tasksByList.clear();
+        incompleteCardIds.clear();
+        changedCardIds.clear();
+        removedCardIds.clear();
+
+        for (TrelloLabel label : snapshot.getLabels()) {
+            labels.put(label.getId(), label);
+        }
+        for (TrelloMember member : snapshot.getMembers()) {
+            members.put(member.getId(), member);
+        }
+        for (TrelloList list : snapshot.getLists()) {
+            lists.put(list.getId(), list);
+        }
+        for (TrelloCard card : snapshot.getCards()) {
+            cards.put(card.getId(), card);
+        }
+
+        this.boardId = snapshot.getBoard().getId();
+        this.since = since;
+        this.loadedAt = snapshot.getLoadedAt();
+        this.lastChangeAt = loadedAt;
+        this.loaded = true;
+    }
+
+    private void publishReload() {
+        if (!listeners.isEmpty()) {
+            List<Task> tasks = new ArrayList<>(cards.size());
+            for (TrelloCard card : cards.values()) {
+                tasks.add(toTask(card));
+            }
+            for (BoardReplicaListener listener : listeners) {
+                listener.onReload(tasks);
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Tidpunkt (ISO-8601) för den senaste actionen i en delta-hämtning, används som since= vid nästa hämtning
+     */
+    public String getSince() {
+        return since;
+    }
+
+    /**
+     * Applicerar en delta-hämtning (actions sedan since) i tidsordning och flyttar fram since.
+     * Bara den pollade deltan flyttar since: den täcker hela intervallet, även actions som
+     * webhooken redan applicerat och som därför hoppas över här.
+     * @param actions Actions från Trello, i valfri ordning
+     * @return Antal actions som faktiskt ändrade kopian
+     */
+    public synchronized int applyAll(List<TrelloAction> actions) {
+        List<TrelloAction> ordered = new ArrayList<>(actions);
+        ordered.sort(Comparator.comparing(TrelloAction::getDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        int applied = 0;
+        for (TrelloAction action : ordered) {
+            if (apply(action)) {
+                applied++;
+            }
+            if (loaded && action.getDate() != null && (since == null || action.getDate().compareTo(since) > 0)) {
+                since = action.getDate();
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Applicerar en enskild action på kopian, t.ex. från webhooken. Actions som redan applicerats ignoreras.
+     * Flyttar inte since: en webhook kan komma före tidigare actions som inte nått kopian än,
+     * och dem ska nästa delta-hämtning fortfarande hitta.
+     * @param action Action från Trello
+     * @return true om actionen applicerades
+     */
+    public synchronized boolean apply(TrelloAction action) {
+        if (!loaded || action.getId() == null || action.getData() == null) {
+            return false;
+        }
+        if (seenActionIds.put(action.getId(), Boolean.TRUE) != null) {
+            duplicateActions.incrementAndGet();
+            return false;
+        }
+
+        boolean changed = switch (String.valueOf(action.getType())) {
+            case "createCard", "copyCard", "moveCardToBoard", "convertToCardFromCheckItem", "emailCard" ->
+                    createCard(action);
+            case "updateCard" -> updateCard(action);
+            case "deleteCard", "moveCardFromBoard" -> removeCard(text(action.getData(), "card", "id"));
+            case "addLabelToCard" -> updateCardIds(action, text(action.getData(), "label", "id"), true, true);
+            case "removeLabelFromCard" -> updateCardIds(action, text(action.getData(), "label", "id"), true, false);
+            case "addMemberToCard" -> updateCardIds(action, action.getData().path("idMember").asText(null), false, true);
+            case "removeMemberFromCard" -> updateCardIds(action, action.getData().path("idMember").asText(null), false, false);
+            case "createList", "updateList", "moveListToBoard" -> upsertList(action.getData().path("list"));
+            case "moveListFromBoard" -> removeList(text(action.getData(), "list", "id"));
+            case "createLabel", "updateLabel" -> upsertLabel(action.getData().path("label"));
+            case "deleteLabel" -> removeLabel(text(action.getData(), "label", "id"));
+            default -> false;
+        };
+
+        if (changed) {
+            actionsApplied.incrementAndGet();
+            lastChangeAt = Instant.now();
+            publishChanges();
+        } else {
+            ignoredActions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    private boolean createCard(TrelloAction action) {
+        JsonNode data = action.getData();
+        JsonNode node = data.path("card");
+        String cardId = node.path("id").asText(null);
+        if (cardId == null || isOutdated(cards.get(cardId), action)) {
+            return false;
+        }
+        TrelloCard card = cards.containsKey(cardId) ? copy(cards.get(cardId)) : new TrelloCard();
+        merge(card, node);
+        touch(card, action);
+        if (card.getListId() == null) {
+            card.setListId(text(data, "list", "id"));
+        }
+        card.setBoardId(boardId);
+        replaceCard(card);
+        incompleteCardIds.add(cardId);
+        return true;
+    }
+
+    private boolean updateCard(TrelloAction action) {
+        JsonNode node = action.getData().path("card");
+        String cardId = node.path("id").asText(null);
+        if (cardId == null) {
+            return false;
+        }
+        if (node.path("closed").asBoolean(false)) {
+            // Arkiverade kort ingår inte i kopian (boarden laddas med cards=open)
+            return removeCard(cardId);
+        }
+
+        TrelloCard current = cards.get(cardId);
+        if (current == null) {
+            // Återställt från arkivet eller okänt kort, hämtas i sin helhet
+            return createCard(action);
+        }
+        if (isOutdated(current, action)) {
+            return false;
+        }
+        TrelloCard card = copy(current);
+        merge(card, node);
+        touch(card, action);
+        replaceCard(card);
+        return true;
+    }
+
+    private boolean updateCardIds(TrelloAction action, String id, boolean label, boolean add) {
+        JsonNode data = action.getData();
+        TrelloCard current = cards.get(text(data, "card", "id"));
+        if (current == null || id == null || isOutdated(current, action)) {
+            return false;
+        }
+        if (label && add && !labels.containsKey(id)) {
+            upsertLabel(data.path("label"));
+        }
+        if (!label && add && data.path("member").hasNonNull("id")) {
+            upsertMember(data.path("member"));
+        }
+
+        TrelloCard card = copy(current);
+        List<String> ids = new ArrayList<>(label
+                ? (card.getLabelIds() != null ? card.getLabelIds() : List.of())
+                : (card.getMemberIds() != null ? card.getMemberIds() : List.of()));
+        boolean changed = add ? !ids.contains(id) && ids.add(id) : ids.remove(id);
+        if (!changed) {
+            return false;
+        }
+        if (label) {
+            card.setLabelIds(ids);
+        } else {
+            card.setMemberIds(ids);
+        }
+        touch(card, action);
+        replaceCard(card);
+        return true;
+    }
+
+    /**
+     * En action som är äldre än kortets senaste aktivitet är redan inbakad
+     * (omleverans eller överlapp efter full laddning) och får inte skriva över nyare värden
+     */
+    private static boolean isOutdated(TrelloCard card, TrelloAction action) {
+        return card != null && card.getDateLastActivity() != null && action.getDate() != null
+                && action.getDate().compareTo(card.getDateLastActivity()) < 0;
+    }
+
+    private static void touch(TrelloCard card, TrelloAction action) {
+        if (action.getDate() != null) {
+            card.setDateLastActivity(action.getDate());
+        }
+    }
+
+    private boolean upsertList(JsonNode node) {
+        String listId = node.path("id").asText(null);
+        if (listId == null) {
+            return false;
+        }
+        if (node.path("closed").asBoolean(false)) {
+            return removeList(listId);
+        }
+        TrelloList list = lists.containsKey(listId) ? copy(lists.get(listId), TrelloList.class) : new TrelloList();
+        merge(list, node);
+        list.setBoardId(boardId);
+        lists.put(listId, list);
+        // Status härleds från listans namn
+        for (TrelloCard card : cards.values()) {
+            if (listId.equals(card.getListId())) {
+                markChanged(card);
+            }
+        }
+        return true;
+    }
+
+    private boolean removeList(String listId) {
+        if (listId == null || lists.remove(listId) == null) {
+            return false;
+        }
+        for (TrelloCard card : new ArrayList<>(cards.values())) {
+            if (listId.equals(card.getListId())) {
+                removeCard(card.getId());
+            }
+        }
+        tasksByList.remove(listId);
+        return true;
+    }
+
+    private boolean upsertLabel(JsonNode node) {
+        String labelId = node.path("id").asText(null);
+        if (labelId == null) {
+            return false;
+        }
+        TrelloLabel label = labels.containsKey(labelId) ? copy(labels.get(labelId), TrelloLabel.class) : new TrelloLabel();
+        merge(label, node);
+        labels.put(labelId, label);
+        // Prioritet och taggar härleds från etiketternas namn
+        for (TrelloCard card : cards.values()) {
+            if (card.getLabelIds() != null && card.getLabelIds().contains(labelId)) {
+                markChanged(card);
+            }
+        }
+        return true;
+    }
+
+    private void upsertMember(JsonNode node) {
+        String memberId = node.path("id").asText(null);
+        TrelloMember member = members.containsKey(memberId) ? copy(members.get(memberId), TrelloMember.class) : new TrelloMember();
+        merge(member, node);
+        members.put(memberId, member);
+    }
+
+    private boolean removeLabel(String labelId) {
+        if (labelId == null || labels.remove(labelId) == null) {
+            return false;
+        }
+        for (TrelloCard current : cards.values()) {
+            if (current.getLabelIds() != null && current.getLabelIds().contains(labelId)) {
+                TrelloCard card = copy(current);
+                List<String> ids = new ArrayList<>(card.getLabelIds());
+                ids.remove(labelId);
+                card.setLabelIds(ids);
+                replaceCard(card);
+            }
+        }
+        return true;
+    }
+
+    private boolean removeCard(String cardId) {
+        if (cardId == null) {
+            return false;
+        }
+        incompleteCardIds.remove(cardId);
+        TrelloCard removed = cards.remove(cardId);
+        if (removed == null) {
+            return false;
+        }
+        invalidate(removed.getListId());
+        changedCardIds.remove(cardId);
+        removedCardIds.add(cardId);
+        return true;
+    }
+
+    /**
+     * Lägger in ett kort som hämtats i sin helhet från Trello
+     * @param card Komplett kort
+     */
+    public synchronized void putCard(TrelloCard card) {
+        if (!loaded || card.getId() == null) {
+            return;
+        }
+        incompleteCardIds.remove(card.getId());
+        if (card.isClosed() || (card.getBoardId() != null && !card.getBoardId().equals(boardId))) {
+            removeCard(card.getId());
+        } else {
+            replaceCard(card);
+        }
+        lastChangeAt = Instant.now();
+        publishChanges();
+    }
+
+    /**
+     * Tar ut id:n för kort som behöver hämtas i sin helhet
+     */
+    public synchronized Set<String> drainIncompleteCardIds() {
+        Set<String> ids = new LinkedHashSet<>(incompleteCardIds);
+        incompleteCardIds.clear();
+        return ids;
+    }
+
+    private void replaceCard(TrelloCard card) {
+        TrelloCard previous = cards.put(card.getId(), card);
+        if (previous != null) {
+            invalidate(previous.getListId());
+        }
+        markChanged(card);
+    }
+
+    private void markChanged(TrelloCard card) {
+        invalidate(card.getListId());
+        removedCardIds.remove(card.getId());
+        changedCardIds.add(card.getId());
+    }
+
+    private void publishChanges() {
+        if (!listeners.isEmpty()) {
+            for (String cardId : changedCardIds) {
+                TrelloCard card = cards.get(cardId);
+                if (card != null) {
+                    Task task = toTask(card);
+                    listeners.forEach(listener -> listener.onTaskChanged(task));
+                }
+            }
+            for (String cardId : removedCardIds) {
+                listeners.forEach(listener -> listener.onTaskRemoved(cardId));
+            }
+        }
+        changedCardIds.clear();
+        removedCardIds.clear();
+    }
+
+    private void invalidate(String listId) {
+        if (listId != null) {
+            tasksByList.remove(listId);
+        }
+    }
+
+    /**
+     * Hämtar kort i en lista ur kopian, sorterade på position
+     * @param listId Lista ID
+     * @return Kort som Task-objekt, tom om kopian inte är laddad eller listan inte finns på boarden
+     */
+    public Optional<List<Task>> getTasks(String listId) {
+        if (!loaded || listId == null || !lists.containsKey(listId)) {
+            return Optional.empty();
+        }
+        List<Task> tasks = tasksByList.get(listId);
+        if (tasks != null) {
+            return Optional.of(tasks);
+        }
+        synchronized (this) {
+            // Byggs under låset så att en samtidig ändring inte kan lämna en inaktuell lista kvar
+            return Optional.of(tasksByList.computeIfAbsent(listId, this::buildTasks));
+        }
+    }
+
+    /**
+     * Hämtar boardens öppna listor ur kopian, i samma form som Trellos /boards/{id}/lists
+     * @param boardId Board ID
+     * @return Listor som Map-objekt, tom om kopian inte gäller denna board
+     */
+    public Optional<List<Map<String, Object>>> getLists(String boardId) {
+        if (!loaded || boardId == null || !boardId.equals(this.boardId)) {
+            return Optional.empty();
+        }
+        List<TrelloList> ordered = new ArrayList<>(lists.values());
+        ordered.sort(Comparator.comparingDouble(TrelloList::getPosition));
+        List<Map<String, Object>> result = new ArrayList<>(ordered.size());
+        for (TrelloList list : ordered) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", list.getId());
+            map.put("name", list.getName());
+            map.put("closed", list.isClosed());
+            map.put("idBoard", list.getBoardId());
+            map.put("pos", list.getPosition());
+            result.add(map);
+        }
+        return Optional.of(result);
+    }
+
+    public Optional<TrelloCard> getCard(String cardId) {
+        return Optional.ofNullable(cards.get(cardId));
+    }
+
+    private List<Task> buildTasks(String listId) {
+        List<TrelloCard> inList = new ArrayList<>();
+        for (TrelloCard card : cards.values()) {
+            if (listId.equals(card.getListId())) {
+                inList.add(card);
+            }
+        }
+        inList.sort(Comparator.comparingDouble(TrelloCard::getPosition));
+
+        List<Task> tasks = new ArrayList<>(inList.size());
+        for (TrelloCard card : inList) {
+            tasks.add(toTask(card));
+        }
+        return List.copyOf(tasks);
+    }
+
+    /**
+     * Konverterar ett kort till Task. Status härleds från listans namn, prioritet och
+     * taggar från etiketterna och ansvarig från kortets första medlem.
+     */
+    private Task toTask(TrelloCard card) {
+        Task task = new Task();
+        task.setId(card.getId());
+        task.setTrelloCardId(card.getId());
+        task.setName(card.getName());
+        task.setDescription(card.getDescription());
+        task.setUrl(card.getUrl());
+        task.setListId(card.getListId());
+        task.setBoardId(card.getBoardId());
+        task.setDueDate(TrelloCardDecoder.parseDate(card.getDueDate()));
+
+        List<String> tags = new ArrayList<>();
+        TaskPriority priority = TaskPriority.MEDIUM;
+        if (card.getLabelIds() != null) {
+            for (String labelId : card.getLabelIds()) {
+                TrelloLabel label = labels.get(labelId);
+                if (label != null && label.getName() != null && !label.getName().isEmpty()) {
+                    tags.add(label.getName());
+                    priority = higher(priority, priorityOf(label.getName()));
+                }
+            }
+        }
+        task.setTags(tags);
+        task.setPriority(priority);
+
+        TrelloList list = lists.get(card.getListId());
+        task.setStatus(card.isDueComplete() ? TaskStatus.DONE : statusOf(list != null ? list.getName() : null));
+
+        if (card.getMemberIds() != null && !card.getMemberIds().isEmpty()) {
+            TrelloMember member = members.get(card.getMemberIds().get(0));
+            task.setAssignedTo(member != null && member.getUsername() != null
+                    ? member.getUsername() : card.getMemberIds().get(0));
+        }
+        return task;
+    }
+
+    private static TaskStatus statusOf(String listName) {
+        if (listName == null) {
+            return TaskStatus.TODO;
+        }
+        String name = listName.toLowerCase(Locale.ROOT);
+        if (name.contains("klar") || name.contains("done")) {
+            return TaskStatus.DONE;
+        }
+        if (name.contains("gransk") || name.contains("review")) {
+            return TaskStatus.IN_REVIEW;
+        }
+        if (name.contains("pågår") || name.contains("progress") || name.contains("doing")) {
+            return TaskStatus.IN_PROGRESS;
+        }
+        return TaskStatus.TODO;
+    }
+
+    private static TaskPriority priorityOf(String labelName) {
+        String name = labelName.toLowerCase(Locale.ROOT);
+        if (name.contains("brådskande") || name.contains("urgent")) {
+            return TaskPriority.URGENT;
+        }
+        if (name.contains("hög") || name.contains("high")) {
+            return TaskPriority.HIGH;
+        }
+        if (name.contains("låg") || name.contains("low")) {
+            return TaskPriority.LOW;
+        }
+        return null;
+    }
+
+    private static TaskPriority higher(TaskPriority current, TaskPriority candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        // En uttrycklig låg prioritet ersätter standardvärdet MEDIUM
+        if (current == TaskPriority.MEDIUM && candidate == TaskPriority.LOW) {
+            return candidate;
+        }
+        return candidate.compareTo(current) > 0 ? candidate : current;
+    }
+
+    private TrelloCard copy(TrelloCard card) {
+        TrelloCard copy = copy(card, TrelloCard.class);
+        copy.setList(card.getList());
+        return copy;
+    }
+
+    private <T> T copy(T value, Class<T> type) {
+        return objectMapper.convertValue(value, type);
+    }
+
+    /**
+     * Skriver de fält som finns i actionens data över på objektet
+     */
+    private void merge(Object target, JsonNode node) {
+        try {
+            objectMapper.readerForUpdating(target).readValue(node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String text(JsonNode data, String object, String field) {
+        return data.path(object).path(field).asText(null);
+    }
+
+    /**
+     * Storlek och räknare för kopian
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("boardId", boardId);
+        stats.put("lists", lists.size());
+        stats.put("cards", cards.size());
+        stats.put("labels", labels.size());
+        stats.put("members", members.size());
+        stats.put("since", since);
+        stats.put("loadedAt", loadedAt);
+        stats.put("lastChangeAt", lastChangeAt);
+        stats.put("fullLoads", fullLoads.get());
+        stats.put("restoresFromDisk", restores.get());
+        stats.put("restoredAt", restoredAt);
+        stats.put("actionsApplied", actionsApplied.get());
+        stats.put("duplicateActions", duplicateActions.get());
+        stats.put("ignoredActions", ignoredActions.get());
+        synchronized (this) {
+            stats.put("incompleteCards", incompleteCardIds.size());
+        }
+        return stats;
+    }
+}
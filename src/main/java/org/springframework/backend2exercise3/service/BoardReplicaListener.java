@@ -0,0 +1,28 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.model.Task;
+
+import java.util.Collection;
+
+/**
+ * Får besked om ändringar i BoardReplica, t.ex. för att hålla index uppdaterade.
+ * Anropas synkront under kopians lås och ska därför vara snabb.
+ */
+public interface BoardReplicaListener {
+
+    /**
+     * Kopian har laddats om i sin helhet
+     * @param tasks Alla kort på boarden
+     */
+    void onReload(Collection<Task> tasks);
+
+    /**
+     * Ett kort har skapats eller ändrats (även indirekt, t.ex. via en omdöpt etikett eller lista)
+     */
+    void onTaskChanged(Task task);
+
+    /**
+     * Ett kort har tagits bort, arkiverats eller flyttats från boarden
+     */
+    void onTaskRemoved(String taskId);
+}
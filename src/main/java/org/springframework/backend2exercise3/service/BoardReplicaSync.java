@@ -0,0 +1,128 @@
+package org.springframework.backend2exercise3.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.BoardReplicaConfig;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.backend2exercise3.model.TrelloAction;
+import org.springframework.backend2exercise3.model.TrelloBoardSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Håller BoardReplica uppdaterad genom polling.
+ * Första körningen laddar hela boarden, därefter hämtas bara boardens actions
+ * sedan senast sedda tidpunkt (since=) och appliceras på kopian. Bandbredden
+ * blir därmed proportionell mot antalet ändringar istället för boardens storlek.
+ * Finns en sparad ögonblicksbild på disk (BoardSnapshotStore) används den istället för
+ * den fulla laddningen, och första deltat bekräftar den mot Trello.
+ */
+@Service
+public class BoardReplicaSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardReplicaSync.class);
+
+    private final BoardReplicaConfig config;
+    private final TrelloConfig trelloConfig;
+    private final TrelloService trelloService;
+    private final BoardReplica replica;
+    private final BoardSnapshotStore snapshotStore;
+    // Lås istället för synchronized: en virtuell tråd som väntar på Trello inuti en
+    // monitor låser sin bärartråd, vilket på en kärna stoppar alla andra virtuella trådar
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    /**
+     * TrelloService är lat: med kopian avstängd behöver den inte skapas vid start (lat initiering)
+     */
+    @Autowired
+    public BoardReplicaSync(BoardReplicaConfig config, TrelloConfig trelloConfig,
+                            @Lazy TrelloService trelloService, BoardReplica replica,
+                            BoardSnapshotStore snapshotStore) {
+        this.config = config;
+        this.trelloConfig = trelloConfig;
+        this.trelloService = trelloService;
+        this.replica = replica;
+        this.snapshotStore = snapshotStore;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${trello.replica.sync-interval:15s}")
+    void scheduledSync() {
+        if (config.isEnabled()) {
+            sync();
+        }
+    }
+
+    /**
+     * Kör en synkrunda: ögonblicksbilden från disk eller full laddning om kopian saknas, annars delta från actions
+     */
+    public void sync() {
+        syncLock.lock();
+        try {
+            doSync();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void doSync() {
+        if (trelloConfig.getBoardId() == null || trelloConfig.getBoardId().isEmpty()) {
+            logger.warn("Ingen board-ID konfigurerad, board-kopian synkas inte");
+            return;
+        }
+
+        if (!replica.isLoaded() && !snapshotStore.restore()) {
+            fullLoad();
+            return;
+        }
+
+        Optional<List<TrelloAction>> fetched = trelloService.getBoardActions(
+                trelloConfig.getBoardId(), replica.getSince(), config.getActionLimit());
+        if (fetched.isEmpty()) {
+            // Försök igen nästa runda; en återställd kopia förblir obekräftad tills dess
+            return;
+        }
+        List<TrelloAction> actions = fetched.get();
+        if (actions.size() >= config.getActionLimit()) {
+            // Fler ändringar än vad ett anrop rymmer, en full laddning är billigare än att bläddra
+            logger.info("{} actions sedan {}, laddar om hela boarden", actions.size(), replica.getSince());
+            fullLoad();
+            return;
+        }
+
+        int applied = replica.applyAll(actions);
+        Set<String> incomplete = replica.drainIncompleteCardIds();
+        for (String cardId : incomplete) {
+            trelloService.getCard(cardId).ifPresent(replica::putCard);
+        }
+        replica.confirm();
+        if (!actions.isEmpty()) {
+            logger.info("Board-kopia synkad: {} actions, {} applicerade, {} kort hämtade",
+                    actions.size(), applied, incomplete.size());
+        }
+    }
+
+    /**
+     * Laddar om hela boarden till kopian. Tar synklåset, så en laddning kan inte skriva över
+     * ett delta som en samtidig synk just applicerat.
+     */
+    public void fullLoad() {
+        syncLock.lock();
+        try {
+            // Börja nästa delta en bit före hämtningen; actions som redan finns i
+            // ögonblicksbilden ger samma slutresultat när de appliceras igen
+            Instant since = Instant.now().minus(config.getSinceOverlap());
+            Optional<TrelloBoardSnapshot> snapshot = trelloService.getBoardSnapshot(trelloConfig.getBoardId());
+            snapshot.ifPresent(loaded -> replica.load(loaded, since));
+        } finally {
+            syncLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package org.springframework.backend2exercise3.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.model.TrelloCard;
+import org.springframework.backend2exercise3.model.TrelloLabel;
+import org.springframework.backend2exercise3.model.TrelloList;
+import org.springframework.backend2exercise3.model.TrelloMember;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Binär, versionerad ögonblicksbild av board-kopian på disk (listor, kort, etiketter, medlemmar).
+ * <pre>
+ * header:  magic "TBSN" | version (short) | reserverat (short) | sparad (epoch ms, long)
+ *          | payload-längd (int) | CRC32 av payload (int) | CRC32 av headerns 24 första byte (int)
+ * payload: strängtabell (antal, sedan längd + UTF-8 per sträng) följd av board-id, since,
+ *          listor, etiketter, medlemmar och kort där varje sträng är ett index i tabellen
+ * </pre>
+ * Heltal i payload är varint; strängreferensen 0 betyder null. Upprepade värden (list-id,
+ * etikett-id, datum) lagras en gång i tabellen. Filen läses via minnesmappning.
+ * En ny fil skrivs till en temporär fil och flyttas på plats; föregående fil sparas som .prev.
+ * Är filen avhuggen, korrupt eller av okänd version läses .prev istället, och är även den
+ * oanvändbar blir resultatet tomt så att kopian laddas från Trello som vanligt.
+ */
+public class BoardSnapshotFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardSnapshotFile.class);
+
+    static final int MAGIC = 0x5442534E;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 28;
+    private static final int CHECKED_HEADER_BYTES = 24;
+
+    /**
+     * Det som sparas: kopians innehåll och varifrån nästa delta-synk ska börja
+     */
+    public record Contents(String boardId, String since, List<TrelloList> lists, List<TrelloLabel> labels,
+                           List<TrelloMember> members, List<TrelloCard> cards) {
+    }
+
+    /**
+     * En inläst ögonblicksbild och när den sparades
+     */
+    public record Saved(Contents contents, Instant savedAt, long fileBytes) {
+    }
+
+    private final Path path;
+    private final Path previous;
+
+    public BoardSnapshotFile(Path path) {
+        this.path = path;
+        this.previous = path.resolveSibling(path.getFileName() + ".prev");
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Skriver ögonblicksbilden atomiskt (temporär fil, fsync, flytt); nuvarande fil blir .prev
+     * @return Filens storlek i byte
+     */
+    public long write(Contents contents, Instant savedAt) throws IOException {
+        byte[] payload = encode(contents);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(savedAt.toEpochMilli())
+                .putInt(payload.length).putInt((int) crc.getValue());
+        crc.reset();
+        crc.update(header.array(), 0, CHECKED_HEADER_BYTES);
+        header.putInt((int) crc.getValue()).flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(out, header);
+                writeFully(out, ByteBuffer.wrap(payload));
+                out.force(true);
+            }
+            if (Files.exists(path)) {
+                Files.move(path, previous, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return HEADER_BYTES + payload.length;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Läser den senaste användbara ögonblicksbilden, i första hand filen och annars .prev
+     * @return Ögonblicksbilden, tom om ingen fil finns eller ingen går att läsa
+     */
+    public Optional<Saved> read() {
+        Optional<Saved> saved = read(path);
+        return saved.isPresent() ? saved : read(previous);
+    }
+
+    private Optional<Saved> read(Path file) {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                logger.warn("Ögonblicksbilden {} är avhuggen ({} byte), används inte", file, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return Optional.ofNullable(decode(file, buffer, size));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Kunde inte läsa ögonblicksbilden {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Saved decode(Path file, ByteBuffer buffer, long size) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, CHECKED_HEADER_BYTES));
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(CHECKED_HEADER_BYTES) != (int) crc.getValue()) {
+            logger.warn("Ögonblicksbilden {} har en trasig header, används inte", file);
+            return null;
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            logger.warn("Ögonblicksbilden {} har version {}, den här versionen läser {}", file, version, VERSION);
+            return null;
+        }
+        Instant savedAt = Instant.ofEpochMilli(buffer.getLong(8));
+        int length = buffer.getInt(16);
+        if (length != size - HEADER_BYTES) {
+            logger.warn("Ögonblicksbilden {} är avhuggen ({} av {} byte), används inte", file, size - HEADER_BYTES, length);
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(HEADER_BYTES, length);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if (buffer.getInt(20) != (int) crc.getValue()) {
+            logger.warn("Ögonblicksbilden {} har fel checksumma, används inte", file);
+            return null;
+        }
+        try {
+            return new Saved(new Decoder(payload).contents(), savedAt, size);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            // Checksumman stämmer men innehållet går inte att tolka, t.ex. fel i skrivaren
+            logger.warn("Ögonblicksbilden {} går inte att tolka: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    static byte[] encode(Contents contents) {
+        try {
+            return new Encoder().encode(contents);
+        } catch (IOException e) {
+            // Skriver bara till minnet
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Encoder {
+
+        private final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(1 << 16);
+        private final DataOutputStream body = new DataOutputStream(bodyBytes);
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        byte[] encode(Contents contents) throws IOException {
+            string(contents.boardId());
+            string(contents.since());
+
+            varint(contents.lists().size());
+            for (TrelloList list : contents.lists()) {
+                string(list.getId());
+                string(list.getName());
+                body.writeDouble(list.getPosition());
+            }
+            varint(contents.labels().size());
+            for (TrelloLabel label : contents.labels()) {
+                string(label.getId());
+                string(label.getName());
+                string(label.getColor());
+            }
+            varint(contents.members().size());
+            for (TrelloMember member : contents.members()) {
+                string(member.getId());
+                string(member.getFullName());
+                string(member.getUsername());
+                string(member.getAvatarUrl());
+            }
+            varint(contents.cards().size());
+            for (TrelloCard card : contents.cards()) {
+                string(card.getId());
+                string(card.getName());
+                string(card.getDescription());
+                string(card.getListId());
+                string(card.getBoardId());
+                string(card.getDueDate());
+                string(card.getUrl());
+                string(card.getShortUrl());
+                string(card.getDateLastActivity());
+                body.writeByte((card.isDueComplete() ? 1 : 0) | (card.isClosed() ? 2 : 0));
+                body.writeDouble(card.getPosition());
+                strings(card.getLabelIds());
+                strings(card.getMemberIds());
+            }
+            body.flush();
+
+            ByteArrayOutputStream all = new ByteArrayOutputStream(bodyBytes.size() + strings.size() * 16 + 16);
+            DataOutputStream out = new DataOutputStream(all);
+            writeVarint(out, strings.size());
+            for (String value : strings) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, utf8.length);
+                out.write(utf8);
+            }
+            bodyBytes.writeTo(out);
+            out.flush();
+            return all.toByteArray();
+        }
+
+        private void string(String value) throws IOException {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                strings.add(value);
+                ref = strings.size();
+                refs.put(value, ref);
+            }
+            varint(ref);
+        }
+
+        /**
+         * Antal + 1, så att 0 kan betyda null
+         */
+        private void strings(List<String> values) throws IOException {
+            if (values == null) {
+                varint(0);
+                return;
+            }
+            varint(values.size() + 1);
+            for (String value : values) {
+                string(value);
+            }
+        }
+
+        private void varint(int value) throws IOException {
+            writeVarint(body, value);
+        }
+
+        private static void writeVarint(DataOutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    private static final class Decoder {
+
+        private final ByteBuffer in;
+        private String[] strings;
+
+        Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+
+        Contents contents() {
+            strings = new String[count()];
+            // new String(byte[]) har en snabb väg för UTF-8, Charset.decode går via en CharBuffer
+            byte[] utf8 = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = count();
+                if (length > utf8.length) {
+                    utf8 = new byte[Math.max(length, utf8.length * 2)];
+                }
+                in.get(utf8, 0, length);
+                strings[i] = new String(utf8, 0, length, StandardCharsets.UTF_8);
+            }
+
+            String boardId = string();
+            String since = string();
+
+            int listCount = count();
+            List<TrelloList> lists = new ArrayList<>(listCount);
+            for (int i = 0; i < listCount; i++) {
+                TrelloList list = new TrelloList();
+                list.setId(string());
+                list.setName(string());
+                list.setPosition(in.getDouble());
+                list.setBoardId(boardId);
+                lists.add(list);
+            }
+            int labelCount = count();
+            List<TrelloLabel> labels = new ArrayList<>(labelCount);
+            for (int i = 0; i < labelCount; i++) {
+                TrelloLabel label = new TrelloLabel();
+                label.setId(string());
+                label.setName(string());
+                label.setColor(string());
+                labels.add(label);
+            }
+            int memberCount = count();
+            List<TrelloMember> members = new ArrayList<>(memberCount);
+            for (int i = 0; i < memberCount; i++) {
+                TrelloMember member = new TrelloMember();
+                member.setId(string());
+                member.setFullName(string());
+                member.setUsername(string());
+                member.setAvatarUrl(string());
+                members.add(member);
+            }
+            int cardCount = count();
+            List<TrelloCard> cards = new ArrayList<>(cardCount);
+            for (int i = 0; i < cardCount; i++) {
+                TrelloCard card = new TrelloCard();
+                card.setId(string());
+                card.setName(string());
+                card.setDescription(string());
+                card.setListId(string());
+                card.setBoardId(string());
+                card.setDueDate(string());
+                card.setUrl(string());
+                card.setShortUrl(string());
+                card.setDateLastActivity(string());
+                byte flags = in.get();
+                card.setDueComplete((flags & 1) != 0);
+                card.setClosed((flags & 2) != 0);
+                card.setPosition(in.getDouble());
+                card.setLabelIds(strings());
+                card.setMemberIds(strings());
+                cards.add(card);
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException(in.remaining() + " byte kvar efter sista kortet");
+            }
+            return new Contents(boardId, since, lists, labels, members, cards);
+        }
+
+        private String string() {
+            int ref = varint();
+            return ref == 0 ? null : strings[ref - 1];
+        }
+
+        private List<String> strings() {
+            int count = varint();
+            if (count == 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(count - 1);
+            for (int i = 1; i < count; i++) {
+                values.add(string());
+            }
+            return values;
+        }
+
+        /**
+         * Ett antal, som inte kan vara större än det som finns kvar att läsa
+         */
+        private int count() {
+            int count = varint();
+            if (count < 0 || count > in.remaining()) {
+                throw new IllegalArgumentException("orimligt antal " + count);
+            }
+            return count;
+        }
+
+        private int varint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("för lång varint");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.springframework.backend2exercise3.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.BoardReplicaConfig;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sparar board-kopian på disk (BoardSnapshotFile) med jämna mellanrum och vid nedstängning,
+ * och återställer den vid start. En omstartad instans har då boarden i minnet direkt, utan att
+ * alla instanser i en utrullning hämtar hela boarden från Trello samtidigt; BoardReplicaSync
+ * bekräftar den sedan med en delta-synk från ögonblicksbildens since.
+ */
+@Service
+public class BoardSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoardSnapshotStore.class);
+
+    private final BoardReplicaConfig config;
+    private final TrelloConfig trelloConfig;
+    private final BoardReplica replica;
+    private final BoardSnapshotFile file;
+    private final ReentrantLock saveLock = new ReentrantLock();
+
+    private volatile Instant savedChangeAt;
+    private volatile Instant lastSavedAt;
+    private volatile long lastSaveMillis;
+    private volatile long lastRestoreMillis;
+    private volatile long lastFileBytes;
+
+    @Autowired
+    public BoardSnapshotStore(BoardReplicaConfig config, TrelloConfig trelloConfig, BoardReplica replica) {
+        this.config = config;
+        this.trelloConfig = trelloConfig;
+        this.replica = replica;
+        this.file = new BoardSnapshotFile(Path.of(config.getSnapshot().getPath()));
+    }
+
+    private boolean isEnabled() {
+        return config.isEnabled() && config.getSnapshot().isEnabled();
+    }
+
+    /**
+     * Återställer kopian från disk om det finns en användbar ögonblicksbild av den konfigurerade boarden
+     * @return true om kopian återställdes
+     */
+    public boolean restore() {
+        if (!isEnabled()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        Optional<BoardSnapshotFile.Saved> saved = file.read();
+        if (saved.isEmpty()) {
+            return false;
+        }
+        BoardSnapshotFile.Contents contents = saved.get().contents();
+        if (!contents.boardId().equals(trelloConfig.getBoardId())) {
+            logger.info("Ögonblicksbilden gäller board {}, inte {}, används inte", contents.boardId(), trelloConfig.getBoardId());
+            return false;
+        }
+        Duration age = Duration.between(saved.get().savedAt(), Instant.now());
+        if (age.compareTo(config.getSnapshot().getMaxAge()) > 0) {
+            logger.info("Ögonblicksbilden är {} gammal (max {}), används inte", age, config.getSnapshot().getMaxAge());
+            return false;
+        }
+
+        replica.restore(contents, saved.get().savedAt());
+        // Inget att spara förrän kopian ändrats
+        savedChangeAt = replica.getLastChangeAt();
+        lastRestoreMillis = (System.nanoTime() - start) / 1_000_000;
+        lastFileBytes = saved.get().fileBytes();
+        logger.info("Ögonblicksbilden ({} kort, {} byte) läst på {} ms",
+                contents.cards().size(), lastFileBytes, lastRestoreMillis);
+        return true;
+    }
+
+    @Scheduled(initialDelayString = "${trello.replica.snapshot.interval:5m}",
+            fixedDelayString = "${trello.replica.snapshot.interval:5m}")
+    void scheduledSave() {
+        if (isEnabled()) {
+            save();
+        }
+    }
+
+    @PreDestroy
+    void saveOnShutdown() {
+        if (isEnabled()) {
+            save();
+        }
+    }
+
+    /**
+     * Sparar kopian om den är laddad och har ändrats sedan den senast sparades eller lästes in
+     */
+    public void save() {
+        saveLock.lock();
+        try {
+            Instant changeAt = replica.getLastChangeAt();
+            if (!replica.isLoaded() || changeAt == null || changeAt.equals(savedChangeAt)) {
+                return;
+            }
+            long start = System.nanoTime();
+            BoardSnapshotFile.Contents contents = replica.export();
+            Instant savedAt = Instant.now();
+            lastFileBytes = file.write(contents, savedAt);
+            savedChangeAt = changeAt;
+            lastSavedAt = savedAt;
+            lastSaveMillis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Board-kopian sparad till {} ({} kort, {} byte) på {} ms",
+                    file.getPath(), contents.cards().size(), lastFileBytes, lastSaveMillis);
+        } catch (IOException e) {
+            logger.error("Kunde inte spara board-kopian till {}: {}", file.getPath(), e.getMessage());
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("path", file.getPath().toString());
+        stats.put("fileBytes", lastFileBytes);
+        stats.put("lastSavedAt", lastSavedAt);
+        stats.put("lastSaveMillis", lastSaveMillis);
+        stats.put("lastRestoreMillis", lastRestoreMillis);
+        return stats;
+    }
+}
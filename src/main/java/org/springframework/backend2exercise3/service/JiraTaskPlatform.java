@@ -0,0 +1,173 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.JiraConfig;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Skapar uppgifter som ärenden i det konfigurerade Jira-projektet via REST API v3.
+ * Beskrivningen skickas som Atlassian Document Format (ett stycke per textblock),
+ * prioritet och förfallodatum mappas till Jiras fält och kategorin blir en etikett.
+ */
+@Service
+public class JiraTaskPlatform implements TaskPlatform {
+
+    private static final Logger logger = LoggerFactory.getLogger(JiraTaskPlatform.class);
+
+    private final JiraConfig jiraConfig;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public JiraTaskPlatform(JiraConfig jiraConfig, RestTemplate jiraRestTemplate, ObjectMapper objectMapper) {
+        this.jiraConfig = jiraConfig;
+        this.restTemplate = jiraRestTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "jira";
+    }
+
+    @Override
+    public String createTask(TaskForm taskForm) throws Exception {
+        logger.info("Skapar Jira-ärende från formulär: {}", taskForm.getTitle());
+
+        if (!jiraConfig.isConfigured()) {
+            throw new Exception("Jira är inte konfigurerad. Kontrollera jira.api i application.yml");
+        }
+
+        try {
+            ObjectNode fields = objectMapper.createObjectNode();
+            fields.putObject("project").put("key", jiraConfig.getProjectKey());
+            fields.putObject("issuetype").put("name", jiraConfig.getIssueType());
+            fields.put("summary", taskForm.getTitle());
+            if (taskForm.hasDescription()) {
+                fields.set("description", document(taskForm.getDescription()));
+            }
+            if (taskForm.getPriority() != null) {
+                fields.putObject("priority").put("name", priority(taskForm.getPriority()));
+            }
+            if (taskForm.hasDueDate()) {
+                fields.put("duedate", taskForm.getDueDate().toString());
+            }
+            if (taskForm.hasCategory()) {
+                // Jira-etiketter får inte innehålla blanksteg
+                fields.putArray("labels").add(taskForm.getCategory().trim().replaceAll("\\s+", "-"));
+            }
+            if (taskForm.hasAssignee()) {
+                findAccountId(taskForm.getAssignee()).ifPresent(accountId ->
+                        fields.putObject("assignee").put("accountId", accountId));
+            }
+
+            ObjectNode body = objectMapper.createObjectNode();
+            body.set("fields", fields);
+
+            ResponseEntity<JsonNode> response = restTemplate.exchange(
+                    jiraConfig.getBaseUrl() + "/rest/api/3/issue",
+                    HttpMethod.POST,
+                    new HttpEntity<>(body, headers()),
+                    JsonNode.class
+            );
+
+            JsonNode created = response.getBody();
+            if (!response.getStatusCode().is2xxSuccessful() || created == null || !created.hasNonNull("key")) {
+                throw new Exception("Kunde inte skapa ärende i Jira: " + response.getStatusCode());
+            }
+            String key = created.get("key").asText();
+            logger.info("Jira-ärende {} skapat för '{}'", key, taskForm.getTitle());
+            return key;
+
+        } catch (RestClientException e) {
+            logger.error("API-fel vid skapande av Jira-ärende: {}", e.getMessage());
+            throw new Exception("Anslutningsfel till Jira: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Slår upp Jira-kontot för ett användarnamn eller en e-postadress
+     * @return accountId för första träffen, tom om ingen hittades
+     */
+    private Optional<String> findAccountId(String assignee) {
+        try {
+            URI url = UriComponentsBuilder
+                    .fromUriString(jiraConfig.getBaseUrl() + "/rest/api/3/user/search")
+                    .queryParam("query", assignee.trim())
+                    .encode()
+                    .build()
+                    .toUri();
+
+            ResponseEntity<JsonNode> response = restTemplate.exchange(
+                    url, HttpMethod.GET, new HttpEntity<>(headers()), JsonNode.class);
+
+            JsonNode users = response.getBody();
+            if (users != null && users.isArray() && !users.isEmpty() && users.get(0).hasNonNull("accountId")) {
+                return Optional.of(users.get(0).get("accountId").asText());
+            }
+            logger.warn("Ingen Jira-användare hittades för '{}', ärendet skapas utan tilldelning", assignee);
+        } catch (RestClientException e) {
+            logger.warn("Kunde inte slå upp Jira-användare '{}': {}", assignee, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth(jiraConfig.getEmail(), jiraConfig.getApiToken());
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        return headers;
+    }
+
+    /**
+     * Text som Atlassian Document Format, ett stycke per block avskilt med tom rad
+     */
+    private ObjectNode document(String text) {
+        ObjectNode doc = objectMapper.createObjectNode();
+        doc.put("type", "doc");
+        doc.put("version", 1);
+        ArrayNode content = doc.putArray("content");
+        for (String block : text.trim().split("\\R\\s*\\R")) {
+            ObjectNode paragraph = content.addObject();
+            paragraph.put("type", "paragraph");
+            paragraph.putArray("content").addObject()
+                    .put("type", "text")
+                    .put("text", block.trim());
+        }
+        return doc;
+    }
+
+    /**
+     * Formulärets prioritet (HIGH/Hög, MEDIUM, LOW/Låg, URGENT) som Jiras standardnamn
+     */
+    static String priority(String priority) {
+        return switch (priority.trim().toLowerCase(Locale.ROOT)) {
+            case "urgent", "brådskande", "highest" -> "Highest";
+            case "high", "hög" -> "High";
+            case "low", "låg" -> "Low";
+            case "lowest" -> "Lowest";
+            default -> "Medium";
+        };
+    }
+}
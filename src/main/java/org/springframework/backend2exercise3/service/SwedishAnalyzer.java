@@ -0,0 +1,135 @@
+package org.springframework.backend2exercise3.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenisering för svensk text: gemener, accenter utom å/ä/ö viks bort, stoppord
+ * tas bort och ord stammas med en lätt suffixstammare (t.ex. "uppgifterna" och
+ * "uppgiften" blir båda "uppgift").
+ */
+final class SwedishAnalyzer {
+
+    private static final Locale SWEDISH = Locale.forLanguageTag("sv-SE");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "och", "det", "att", "i", "en", "jag", "hon", "som", "han", "på", "den", "med", "var", "sig",
+            "för", "så", "till", "är", "men", "ett", "om", "hade", "de", "av", "icke", "mig", "du", "henne",
+            "då", "sin", "nu", "har", "inte", "hans", "honom", "skulle", "hennes", "där", "min", "man", "ej",
+            "vid", "kunde", "något", "från", "ut", "när", "efter", "upp", "vi", "dem", "vara", "vad", "över",
+            "än", "dig", "kan", "sina", "här", "ha", "mot", "alla", "under", "någon", "eller", "allt", "mycket",
+            "sedan", "ju", "denna", "själv", "detta", "åt", "utan", "varit", "hur", "ingen", "mitt", "ni", "bli",
+            "blev", "oss", "din", "dessa", "några", "deras", "blir", "mina", "samma", "vilken", "er", "sådan",
+            "vår", "blivit", "dess", "inom", "mellan", "sådant", "varför", "varje", "vilka", "ditt", "vem",
+            "vilket", "sitt", "sådana", "vart", "dina", "vars", "vårt", "våra", "ert", "era", "vilkas",
+            "the", "and", "of", "to", "a", "in", "is", "for", "on", "with");
+
+    private SwedishAnalyzer() {}
+
+    /**
+     * Delar upp text i normaliserade, stammade termer (stoppord borttagna)
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokens(text)) {
+            if (!STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    static boolean isStopWord(String token) {
+        return STOP_WORDS.contains(token);
+    }
+
+    /**
+     * Delar upp text i normaliserade ord utan stamning
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = fold(text.toLowerCase(SWEDISH));
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Tar bort diakritiska tecken (é, ü, ...) men behåller å, ä och ö som egna bokstäver
+     */
+    private static String fold(String text) {
+        boolean plain = true;
+        for (int i = 0; i < text.length() && plain; i++) {
+            char c = text.charAt(i);
+            plain = c < 0x80 || c == 'å' || c == 'ä' || c == 'ö';
+        }
+        if (plain) {
+            return text;
+        }
+        StringBuilder folded = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80 || c == 'å' || c == 'ä' || c == 'ö') {
+                folded.append(c);
+            } else {
+                String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                folded.append(decomposed.charAt(0));
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Lätt stammare för svenska: tar bort vanliga böjningsändelser, aldrig så att mindre än tre tecken återstår
+     */
+    static String stem(String word) {
+        int length = word.length();
+        if (length > 4 && word.charAt(length - 1) == 's') {
+            length--;
+        }
+        String w = word.substring(0, length);
+
+        if (length > 9 && endsWithAny(w, "heterna")) {
+            return w.substring(0, length - 7);
+        }
+        if (length > 7 && endsWithAny(w, "elser", "heten", "heter")) {
+            return w.substring(0, length - 5);
+        }
+        if (length > 6 && endsWithAny(w, "arne", "erna", "ande", "else", "aste", "orna", "aren")) {
+            return w.substring(0, length - 4);
+        }
+        if (length > 5 && endsWithAny(w, "are", "ast", "het")) {
+            return w.substring(0, length - 3);
+        }
+        if (length > 4 && endsWithAny(w, "ar", "er", "or", "en", "at", "te", "et")) {
+            return w.substring(0, length - 2);
+        }
+        if (length > 3 && endsWithAny(w, "a", "e", "n", "t")) {
+            return w.substring(0, length - 1);
+        }
+        return w;
+    }
+
+    private static boolean endsWithAny(String word, String... suffixes) {
+        for (String suffix : suffixes) {
+            if (word.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,135 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Läser TaskForm-rader från CSV (RFC 4180, citattecken stöds).
+ * Första raden är en rubrikrad med kolumnnamn som matchar TaskForm-fälten:
+ * title, description, priority, assignee, dueDate, platform, category.
+ * Både komma och semikolon (svensk Excel) accepteras som avgränsare.
+ */
+@Component
+public class TaskCsvParser {
+
+    /**
+     * Tolkar CSV-texten till formulär
+     * @param csv CSV med rubrikrad
+     * @return Ett TaskForm per datarad
+     * @throws IllegalArgumentException om CSV:n inte går att tolka
+     */
+    public List<TaskForm> parse(String csv) {
+        List<List<String>> rows = readRows(csv);
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> header = rows.get(0);
+        List<TaskForm> forms = new ArrayList<>(rows.size() - 1);
+        for (int r = 1; r < rows.size(); r++) {
+            List<String> row = rows.get(r);
+            if (row.size() == 1 && row.get(0).isBlank()) {
+                continue;
+            }
+            TaskForm form = new TaskForm();
+            for (int c = 0; c < header.size() && c < row.size(); c++) {
+                apply(form, header.get(c), row.get(c), r + 1);
+            }
+            forms.add(form);
+        }
+        return forms;
+    }
+
+    private void apply(TaskForm form, String column, String value, int line) {
+        String trimmed = value.trim();
+        switch (column.trim().toLowerCase(Locale.ROOT)) {
+            case "title" -> form.setTitle(trimmed);
+            case "description" -> form.setDescription(value);
+            case "priority" -> {
+                if (!trimmed.isEmpty()) {
+                    form.setPriority(trimmed);
+                }
+            }
+            case "assignee" -> form.setAssignee(trimmed.isEmpty() ? null : trimmed);
+            case "duedate" -> {
+                try {
+                    form.setDueDate(trimmed.isEmpty() ? null : LocalDate.parse(trimmed));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Ogiltigt datum på rad " + line + ": " + trimmed);
+                }
+            }
+            case "platform" -> {
+                if (!trimmed.isEmpty()) {
+                    form.setPlatform(trimmed);
+                }
+            }
+            case "category" -> form.setCategory(trimmed.isEmpty() ? null : trimmed);
+            default -> { }
+        }
+    }
+
+    private static List<List<String>> readRows(String csv) {
+        List<List<String>> rows = new ArrayList<>();
+        if (csv == null || csv.isBlank()) {
+            return rows;
+        }
+
+        String text = csv.startsWith("\uFEFF") ? csv.substring(1) : csv;
+        char separator = detectSeparator(text);
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == separator) {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                row.add(field.toString());
+                field.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+            } else {
+                field.append(ch);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("CSV innehåller ett oavslutat citattecken");
+        }
+        if (field.length() > 0 || !row.isEmpty()) {
+            row.add(field.toString());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static char detectSeparator(String text) {
+        int end = text.indexOf('\n');
+        String header = end >= 0 ? text.substring(0, end) : text;
+        return header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+    }
+}
@@ -0,0 +1,156 @@
+package org.springframework.backend2exercise3.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.TaskImportConfig;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.model.TaskImportItemResult;
+import org.springframework.backend2exercise3.model.TaskImportResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulkimport av uppgifter. Alla rader valideras innan något skapas,
+ * därefter skapas korten parallellt med begränsad samtidighet.
+ */
+@Service
+public class TaskImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskImportService.class);
+
+    private final TaskPlatformRouter taskPlatformRouter;
+    private final Validator validator;
+    private final TaskImportConfig importConfig;
+
+    @Autowired
+    public TaskImportService(TaskPlatformRouter taskPlatformRouter, Validator validator, TaskImportConfig importConfig) {
+        this.taskPlatformRouter = taskPlatformRouter;
+        this.validator = validator;
+        this.importConfig = importConfig;
+    }
+
+    /**
+     * Validerar alla formulär och skapar dem om samtliga är giltiga
+     * @param forms Formulär att importera
+     * @return Resultat per rad; vid valideringsfel skapas ingenting
+     */
+    public TaskImportResult importTasks(List<TaskForm> forms) {
+        long start = System.nanoTime();
+
+        if (forms.size() > importConfig.getMaxItems()) {
+            throw new IllegalArgumentException("Högst " + importConfig.getMaxItems() + " uppgifter per import");
+        }
+
+        List<TaskImportItemResult> invalid = validate(forms);
+        if (!invalid.isEmpty()) {
+            logger.warn("Bulkimport avbruten: {} av {} rader är ogiltiga", invalid.size(), forms.size());
+            List<TaskImportItemResult> items = new ArrayList<>(forms.size());
+            for (int i = 0; i < forms.size(); i++) {
+                items.add(TaskImportItemResult.skipped(i, forms.get(i).getTitle()));
+            }
+            for (TaskImportItemResult item : invalid) {
+                items.set(item.getIndex(), item);
+            }
+            return new TaskImportResult(items, elapsedMillis(start));
+        }
+
+        logger.info("Bulkimport av {} uppgifter med max {} samtidiga anrop",
+                forms.size(), importConfig.getMaxConcurrency());
+
+        assignIdempotencyKeys(forms);
+        List<TaskImportItemResult> items = createAll(forms);
+        TaskImportResult result = new TaskImportResult(items, elapsedMillis(start));
+        logger.info("Bulkimport klar: {} skapade, {} misslyckade på {} ms",
+                result.getCreated(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+
+    private List<TaskImportItemResult> validate(List<TaskForm> forms) {
+        List<TaskImportItemResult> invalid = new ArrayList<>();
+        for (int i = 0; i < forms.size(); i++) {
+            TaskForm form = forms.get(i);
+            if (form == null) {
+                invalid.add(TaskImportItemResult.invalid(i, null, List.of("Tom rad")));
+                continue;
+            }
+            Set<ConstraintViolation<TaskForm>> violations = validator.validate(form);
+            if (!violations.isEmpty()) {
+                List<String> errors = new ArrayList<>(violations.size());
+                for (ConstraintViolation<TaskForm> violation : violations) {
+                    errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+                }
+                invalid.add(TaskImportItemResult.invalid(i, form.getTitle(), errors));
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Rader utan egen idempotensnyckel får en per import och rad, så att identiska rader
+     * blir var sitt kort istället för att TaskSubmitDedup tar dem för omsändningar
+     */
+    private static void assignIdempotencyKeys(List<TaskForm> forms) {
+        String importId = UUID.randomUUID().toString();
+        for (int i = 0; i < forms.size(); i++) {
+            TaskForm form = forms.get(i);
+            if (form.getIdempotencyKey() == null || form.getIdempotencyKey().isBlank()) {
+                form.setIdempotencyKey("import:" + importId + ":" + i);
+            }
+        }
+    }
+
+    private List<TaskImportItemResult> createAll(List<TaskForm> forms) {
+        // Virtuella trådar per rad, semaforen begränsar antalet samtidiga anrop mot plattformarna
+        Semaphore permits = new Semaphore(Math.max(1, importConfig.getMaxConcurrency()));
+        List<Future<TaskImportItemResult>> futures = new ArrayList<>(forms.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < forms.size(); i++) {
+                int index = i;
+                TaskForm form = forms.get(i);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return create(index, form);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<TaskImportItemResult> items = new ArrayList<>(forms.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                items.add(futures.get(i).get());
+            } catch (Exception e) {
+                items.add(TaskImportItemResult.failed(i, forms.get(i).getTitle(), e.getMessage()));
+            }
+        }
+        return items;
+    }
+
+    private TaskImportItemResult create(int index, TaskForm form) {
+        try {
+            String cardId = taskPlatformRouter.createTask(form);
+            return TaskImportItemResult.created(index, form.getTitle(), cardId);
+        } catch (Exception e) {
+            return TaskImportItemResult.failed(index, form.getTitle(), e.getMessage());
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,358 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.model.TaskForm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal för skrivkön.
+ * Varje post ramas in som [längd][CRC32][JSON]. En enda skrivartråd samlar poster
+ * och gör en gemensam fsync per batch (group commit). Vid start läses filen via
+ * minnesmappning och en avhuggen eller korrupt svans kapas bort.
+ * Medan journalen är öppen kan den kompakteras (compactIfLarger) utan att stoppa skrivaren.
+ */
+public class TaskJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskJournal.class);
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    public enum Type {
+        ENQUEUED,
+        ATTEMPT_FAILED,
+        COMPLETED,
+        GAVE_UP
+    }
+
+    /**
+     * @param created Vid dubbelskrivning: plattformar där uppgiften redan skapats, med plattformens id
+     */
+    public record Entry(Type type, String trackingId, TaskForm form, String cardId,
+                        String error, int attempts, Instant at, Map<String, String> created) {
+
+        public Entry(Type type, String trackingId, TaskForm form, String cardId,
+                     String error, int attempts, Instant at) {
+            this(type, trackingId, form, cardId, error, attempts, at, null);
+        }
+    }
+
+    private record PendingWrite(byte[] record, CompletableFuture<Void> done) {
+    }
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final long batchWindowNanos;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    // Skyddar channel: skrivaren håller det per batch, kompakteringen medan filen byts ut
+    private final ReentrantLock channelLock = new ReentrantLock();
+    private FileChannel channel;
+    private Thread writer;
+    private volatile boolean running;
+
+    public TaskJournal(Path path, ObjectMapper objectMapper, Duration batchWindow) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.batchWindowNanos = batchWindow.toNanos();
+    }
+
+    /**
+     * Läser in alla giltiga poster. En trasig svans (t.ex. efter krasch mitt i en skrivning) kapas.
+     * @return Poster i skrivordning
+     */
+    public List<Entry> replay() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return entries;
+        }
+
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long validLength = read(in, size, entries);
+            if (validLength < size) {
+                logger.warn("Journalen {} har en trasig svans, kapar {} byte", path, size - validLength);
+                in.truncate(validLength);
+                in.force(true);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Läser poster tills filen tar slut eller en post är avhuggen eller har fel checksumma
+     * @return Längden på den giltiga delen av filen
+     */
+    private long read(FileChannel in, long size, List<Entry> entries) throws IOException {
+        if (size == 0) {
+            return 0;
+        }
+        MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        CRC32 crc = new CRC32();
+        long validLength = 0;
+
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            entries.add(objectMapper.readValue(payload, Entry.class));
+            validLength = buffer.position();
+        }
+        return validLength;
+    }
+
+    /**
+     * Posterna som fortfarande behövs: ENQUEUED för uppgifter som varken är klara eller uppgivna,
+     * följd av det senaste ATTEMPT_FAILED så att antal försök och redan skapade plattformar bevaras
+     * @param entries Alla poster i skrivordning
+     * @return Levande poster i köordning
+     */
+    public static List<Entry> live(List<Entry> entries) {
+        Map<String, Entry> enqueued = new LinkedHashMap<>();
+        Map<String, Entry> lastFailure = new HashMap<>();
+        for (Entry entry : entries) {
+            switch (entry.type()) {
+                case ENQUEUED -> enqueued.put(entry.trackingId(), entry);
+                case ATTEMPT_FAILED -> lastFailure.put(entry.trackingId(), entry);
+                case COMPLETED, GAVE_UP -> {
+                    enqueued.remove(entry.trackingId());
+                    lastFailure.remove(entry.trackingId());
+                }
+            }
+        }
+
+        List<Entry> live = new ArrayList<>(enqueued.size() * 2);
+        for (Entry entry : enqueued.values()) {
+            live.add(entry);
+            Entry failure = lastFailure.get(entry.trackingId());
+            if (failure != null) {
+                live.add(failure);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Skriver om journalen med bara de angivna posterna (atomiskt via temporär fil)
+     * @param live Poster som fortfarande behövs
+     */
+    public void compact(Collection<Entry> live) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".compact");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : live) {
+                write(out, frame(entry));
+            }
+            out.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Kompakterar den öppna journalen om den vuxit förbi tröskeln. Levande poster räknas fram
+     * ur själva filen, inte ur köns minne, så att inget som redan skrivits kan tappas.
+     * Poster som väntar på skrivaren under tiden hamnar i den nya filen.
+     * @param thresholdBytes Filstorlek som måste nås innan något görs
+     * @return true om journalen kompakterades
+     */
+    public boolean compactIfLarger(long thresholdBytes) throws IOException {
+        channelLock.lock();
+        try {
+            if (channel == null || !channel.isOpen() || channel.size() < thresholdBytes) {
+                return false;
+            }
+            long before = channel.size();
+            List<Entry> entries = new ArrayList<>();
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                read(in, before, entries);
+            }
+            List<Entry> live = live(entries);
+            compact(live);
+            channel.close();
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            logger.info("Journalen {} kompakterad från {} till {} byte ({} levande poster)",
+                    path, before, channel.size(), live.size());
+            return true;
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    /**
+     * Öppnar journalen för tillägg och startar skrivartråden
+     */
+    public void open() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        running = true;
+        writer = Thread.ofPlatform().name("task-journal-writer").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * Lägger till en post
+     * @return Future som blir klar när posten är fsync:ad till disk
+     */
+    public CompletableFuture<Void> append(Entry entry) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!running) {
+            done.completeExceptionally(new IllegalStateException("Journalen är stängd"));
+            return done;
+        }
+        try {
+            queue.add(new PendingWrite(frame(entry), done));
+        } catch (IOException e) {
+            done.completeExceptionally(e);
+        }
+        return done;
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (batchWindowNanos > 0) {
+                    // Vänta en kort stund så att samtidiga skrivningar delar på samma fsync
+                    PendingWrite next = queue.poll(batchWindowNanos, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        int total = 0;
+        for (PendingWrite write : batch) {
+            total += write.record().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        for (PendingWrite write : batch) {
+            buffer.put(write.record());
+        }
+        buffer.flip();
+
+        channelLock.lock();
+        long start = -1;
+        try {
+            start = channel.size();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            for (PendingWrite write : batch) {
+                write.done().complete(null);
+            }
+        } catch (IOException e) {
+            logger.error("Kunde inte skriva till journalen {}: {}", path, e.getMessage());
+            rollBack(start);
+            for (PendingWrite write : batch) {
+                write.done().completeExceptionally(new UncheckedIOException(e));
+            }
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    /**
+     * Kapar en halvskriven batch. Annars hamnar senare poster efter en trasig post
+     * och replay() kastar dem tillsammans med den trasiga svansen.
+     * @param start Filens längd innan batchen skrevs, negativ om den inte hann läsas
+     */
+    private void rollBack(long start) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            if (channel.size() > start) {
+                channel.truncate(start);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.error("Kunde inte kapa halvskriven post i journalen {} vid {} byte: {}", path, start, e.getMessage());
+        }
+    }
+
+    private byte[] frame(Entry entry) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(entry);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    private static void write(FileChannel out, byte[] record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        channelLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            channelLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.springframework.backend2exercise3.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.TaskViewConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskListSection;
+import org.springframework.backend2exercise3.model.TrelloReadResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Strömmad rendering av listvyn (task-list.html) för stora boards.
+ * Sidans skal skickas direkt, innan något kort lästs, och därefter kortraderna i chunkar
+ * (fragments/task-rows.html) med en flush per chunk medan de läses från Trello.
+ * Varken hela sidan eller hela kortlistan behöver då hållas i minnet.
+ */
+@Component
+public class TaskListRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskListRenderer.class);
+
+    public static final String PAGE_TEMPLATE = "task-list";
+    public static final String ROWS_TEMPLATE = "fragments/task-rows";
+
+    // Markerar var listorna ska in i sidans skal när sidan strömmas
+    private static final String CONTENT_MARKER = "<!--task-list-content-->";
+
+    private static final Locale LOCALE = Locale.forLanguageTag("sv-SE");
+
+    /**
+     * Källa för kort i chunkar, t.ex. TrelloService::forEachCardChunk
+     */
+    @FunctionalInterface
+    public interface ChunkSource {
+        TrelloReadResult<Integer> forEachChunk(String listId, int chunkSize,
+                                               Consumer<TrelloReadResult<List<Task>>> chunks);
+    }
+
+    private final ITemplateEngine templateEngine;
+    private final int chunkSize;
+    private final boolean warmUp;
+
+    @Autowired
+    public TaskListRenderer(ITemplateEngine templateEngine, TaskViewConfig config) {
+        this.templateEngine = templateEngine;
+        this.chunkSize = config.getChunkSize();
+        this.warmUp = config.isWarmUp();
+    }
+
+    /**
+     * Parsar mallarna i förväg så att första anropet inte betalar för det (gäller när mallcachen är på).
+     * Avstängt med tasks.view.warm-up=false, som i startläget.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        TaskListSection section = new TaskListSection("", "");
+        renderFragment(Writer.nullWriter(), "section-header", "section", section);
+        renderFragment(Writer.nullWriter(), "rows", "rows", List.of());
+        renderFragment(Writer.nullWriter(), "section-footer", "section", section);
+        templateEngine.process(PAGE_TEMPLATE, new Context(LOCALE), Writer.nullWriter());
+        logger.debug("Listvyns mallar är förberedda");
+    }
+
+    /**
+     * Skriver hela listvyn till out, lista för lista, i den ordning listorna anges
+     * @param out Svarets writer; flushas efter skalet och efter varje chunk
+     * @param lists Listor som Map-objekt med "id" och "name", som från TrelloService.getLists
+     * @param source Läser korten i chunkar
+     */
+    public void stream(Writer out, List<Map<String, Object>> lists, ChunkSource source) throws IOException {
+        Context pageContext = new Context(LOCALE);
+        pageContext.setVariable("listCount", lists.size());
+        String page = templateEngine.process(PAGE_TEMPLATE, pageContext);
+        int marker = page.indexOf(CONTENT_MARKER);
+
+        out.write(page, 0, marker);
+        out.flush();
+        try {
+            // Thymeleaf flushar efter varje fragment; vi flushar själva en gång per chunk
+            NonFlushingWriter fragments = new NonFlushingWriter(out);
+            for (Map<String, Object> list : lists) {
+                streamSection(fragments, new TaskListSection((String) list.get("id"), (String) list.get("name")), source);
+            }
+        } catch (UncheckedIOException e) {
+            // Oftast att klienten stängt anslutningen mitt i sidan
+            throw e.getCause();
+        }
+        out.write(page, marker + CONTENT_MARKER.length(), page.length() - marker - CONTENT_MARKER.length());
+        out.flush();
+    }
+
+    private void streamSection(NonFlushingWriter out, TaskListSection section, ChunkSource source) {
+        // Rubriken skrivs vid första chunken, då vet vi om korten är färska eller sparade sedan tidigare
+        TrelloReadResult<Integer> result = source.forEachChunk(section.getListId(), chunkSize, chunk -> {
+            if (section.getTaskCount() == 0) {
+                section.setFreshness(chunk.getFreshness());
+                section.setFetchedAt(chunk.getFetchedAt());
+                renderFragment(out, "section-header", "section", section);
+            }
+            renderFragment(out, "rows", "rows", chunk.getValue());
+            section.setTaskCount(section.getTaskCount() + chunk.getValue().size());
+            flush(out);
+        });
+
+        if (section.getTaskCount() == 0) {
+            section.setFreshness(result.getFreshness());
+            section.setFetchedAt(result.getFetchedAt());
+            renderFragment(out, "section-header", "section", section);
+        } else if (result.isUnavailable()) {
+            section.setFreshness(result.getFreshness());
+        }
+        renderFragment(out, "section-footer", "section", section);
+        flush(out);
+    }
+
+    private void renderFragment(Writer out, String fragment, String variable, Object value) {
+        Context context = new Context(LOCALE);
+        context.setVariable(variable, value);
+        templateEngine.process(ROWS_TEMPLATE, Set.of(fragment), context, out);
+    }
+
+    private static void flush(NonFlushingWriter out) {
+        try {
+            out.flushThrough();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class NonFlushingWriter extends FilterWriter {
+
+        NonFlushingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        void flushThrough() throws IOException {
+            out.flush();
+        }
+    }
+}
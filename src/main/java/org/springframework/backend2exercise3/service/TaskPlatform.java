@@ -0,0 +1,24 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.model.TaskForm;
+
+/**
+ * En plattform där uppgifter kan skapas (Trello, Jira).
+ * Implementationer registreras som Spring-bönor och väljs av TaskPlatformRouter
+ * utifrån TaskForm.platform.
+ */
+public interface TaskPlatform {
+
+    /**
+     * Namnet som används i TaskForm.platform, t.ex. "trello" eller "jira"
+     */
+    String getName();
+
+    /**
+     * Skapar uppgiften på plattformen
+     * @param taskForm Formulärdata
+     * @return Plattformens id för den skapade uppgiften (kort-id, ärendenyckel)
+     * @throws Exception om uppgiften inte kunde skapas
+     */
+    String createTask(TaskForm taskForm) throws Exception;
+}
@@ -0,0 +1,25 @@
+package org.springframework.backend2exercise3.service;
+
+import java.util.Map;
+
+/**
+ * En eller flera plattformar misslyckades när uppgiften skapades.
+ * Vid dubbelskrivning anger created vilka plattformar som ändå fick uppgiften,
+ * så att den som försöker igen inte skapar dubbletter där.
+ */
+public class TaskPlatformException extends Exception {
+
+    private final Map<String, String> created;
+
+    public TaskPlatformException(String message, Map<String, String> created) {
+        super(message);
+        this.created = Map.copyOf(created);
+    }
+
+    /**
+     * Plattformar där uppgiften skapades, med plattformens id
+     */
+    public Map<String, String> getCreated() {
+        return created;
+    }
+}
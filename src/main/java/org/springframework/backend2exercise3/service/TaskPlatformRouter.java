@@ -0,0 +1,134 @@
+package org.springframework.backend2exercise3.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Skapar uppgifter på plattformen som valts i TaskForm.platform.
+ * Med platform=both skapas uppgiften i alla registrerade plattformar samtidigt
+ * och anropet returnerar när alla är klara, så att svarstiden blir den långsammaste
+ * plattformens i stället för summan.
+ * Varje plattformsanrop går via TaskSubmitDedup med plattformen i nyckeln, så att en omsändning
+ * av formuläret inte skapar dubbletter på någon plattform, oavsett om den valdes ensam eller via both.
+ */
+@Service
+public class TaskPlatformRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskPlatformRouter.class);
+
+    static final String BOTH = "both";
+
+    private final Map<String, TaskPlatform> platforms = new LinkedHashMap<>();
+    private final ExecutorService ioExecutor;
+    private final TaskSubmitDedup submitDedup;
+
+    @Autowired
+    public TaskPlatformRouter(List<TaskPlatform> platforms, ExecutorService trelloIoExecutor,
+                              TaskSubmitDedup submitDedup) {
+        for (TaskPlatform platform : platforms) {
+            this.platforms.put(platform.getName(), platform);
+        }
+        this.ioExecutor = trelloIoExecutor;
+        this.submitDedup = submitDedup;
+    }
+
+    /**
+     * Skapar uppgiften på vald plattform, eller på alla vid platform=both
+     * @param taskForm Formulärdata
+     * @return Plattformens id, vid both "trello:kort-id,jira:ärendenyckel"
+     * @throws Exception om plattformen är okänd eller någon plattform misslyckades
+     */
+    public String createTask(TaskForm taskForm) throws Exception {
+        return createTask(taskForm, Map.of());
+    }
+
+    /**
+     * Som createTask(taskForm), för ett nytt försök efter en ofullständig dubbelskrivning
+     * @param alreadyCreated Plattformar som redan fick uppgiften (TaskPlatformException.getCreated),
+     *                       de anropas inte igen
+     */
+    public String createTask(TaskForm taskForm, Map<String, String> alreadyCreated) throws Exception {
+        String name = taskForm.getPlatform() == null ? "" : taskForm.getPlatform().trim().toLowerCase(Locale.ROOT);
+        if (BOTH.equals(name)) {
+            return describe(createEverywhere(taskForm, alreadyCreated));
+        }
+        TaskPlatform platform = platforms.get(name);
+        if (platform == null) {
+            throw new Exception("Okänd plattform: " + taskForm.getPlatform());
+        }
+        return create(platform, taskForm);
+    }
+
+    /**
+     * Dubbelskrivning: ett anrop per plattform på I/O-exekveraren, väntar in alla
+     * @return Id per plattform
+     * @throws TaskPlatformException om någon plattform misslyckades, med de som lyckades
+     */
+    public Map<String, String> createEverywhere(TaskForm taskForm) throws TaskPlatformException {
+        return createEverywhere(taskForm, Map.of());
+    }
+
+    /**
+     * Dubbelskrivning som bara anropar plattformar som ännu inte fått uppgiften.
+     * Jira har ingen egen dubblettkontroll, så ett omförsök får inte skapa ärendet igen.
+     * @param alreadyCreated Plattformar som redan fick uppgiften, med plattformens id
+     * @return Id per plattform, även de som redan var skapade
+     * @throws TaskPlatformException om någon plattform misslyckades, med alla som nu har uppgiften
+     */
+    public Map<String, String> createEverywhere(TaskForm taskForm, Map<String, String> alreadyCreated)
+            throws TaskPlatformException {
+        Map<String, Future<String>> futures = new LinkedHashMap<>();
+        for (TaskPlatform platform : platforms.values()) {
+            if (!alreadyCreated.containsKey(platform.getName())) {
+                futures.put(platform.getName(), ioExecutor.submit(() -> create(platform, taskForm)));
+            }
+        }
+
+        Map<String, String> created = new LinkedHashMap<>();
+        StringJoiner failures = new StringJoiner("; ");
+        for (String name : platforms.keySet()) {
+            Future<String> future = futures.get(name);
+            if (future == null) {
+                created.put(name, alreadyCreated.get(name));
+                continue;
+            }
+            try {
+                created.put(name, future.get());
+            } catch (ExecutionException e) {
+                failures.add(name + ": " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.add(name + ": avbruten");
+            }
+        }
+
+        if (failures.length() > 0) {
+            logger.warn("Dubbelskrivning av '{}' ofullständig, skapad i {}: {}", taskForm.getTitle(), created, failures);
+            throw new TaskPlatformException("Misslyckades i " + failures
+                    + (created.isEmpty() ? "" : " (skapad i " + describe(created) + ")"), created);
+        }
+        return created;
+    }
+
+    private String create(TaskPlatform platform, TaskForm taskForm) throws Exception {
+        return submitDedup.execute(taskForm, platform.getName(), () -> platform.createTask(taskForm));
+    }
+
+    private static String describe(Map<String, String> created) {
+        StringJoiner joiner = new StringJoiner(",");
+        created.forEach((platform, id) -> joiner.add(platform + ":" + id));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,559 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskSearchHit;
+import org.springframework.backend2exercise3.model.TaskSearchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverterat index för fritextsökning i uppgifternas namn, beskrivning och etiketter.
+ * Texten tokeniseras och stammas med SwedishAnalyzer och termerna ligger i en sorterad
+ * ordlista, så att sista ordet i frågan kan prefixmatchas och ord som saknas kan matchas
+ * med stavfel (redigeringsavstånd 1, eller 2 för långa ord; första bokstaven måste stämma).
+ * Träffarna rankas med BM25 där namn väger tyngst, sedan etiketter och beskrivning.
+ * <p>
+ * Ändrade uppgifter får ett nytt dokumentnummer och det gamla markeras som borttaget,
+ * så att posting-listorna bara växer i slutet. När en fjärdedel av dokumenten är
+ * borttagna byggs indexet om. Hålls uppdaterad från BoardReplica.
+ */
+@Service
+public class TaskSearchIndex implements BoardReplicaListener {
+
+    static final int MAX_LIMIT = 100;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_WEIGHT = 0.7f;
+    private static final float[] FUZZY_WEIGHT = {1f, 0.5f, 0.3f};
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private Task[] docs = new Task[1024];
+    private int[] docLengths = new int[1024];
+    private int nextDoc;
+    private final Map<String, Integer> docById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private long liveLength;
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    public TaskSearchIndex() {
+    }
+
+    @Autowired
+    public TaskSearchIndex(BoardReplica boardReplica) {
+        boardReplica.addListener(this);
+    }
+
+    @Override
+    public void onReload(Collection<Task> tasks) {
+        replaceAll(tasks);
+    }
+
+    @Override
+    public void onTaskChanged(Task task) {
+        put(task);
+    }
+
+    @Override
+    public void onTaskRemoved(String taskId) {
+        remove(taskId);
+    }
+
+    /**
+     * Ersätter alla uppgifter och bygger om indexet
+     */
+    public void replaceAll(Collection<? extends Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            rebuildLocked(tasks);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexerar en ny eller ändrad uppgift (nycklad på id)
+     */
+    public void put(Task task) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(task.getId());
+            addLocked(task);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String taskId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void rebuildLocked(Collection<? extends Task> tasks) {
+        int capacity = Math.max(1024, tasks.size());
+        terms.clear();
+        docs = new Task[capacity];
+        docLengths = new int[capacity];
+        nextDoc = 0;
+        docById.clear();
+        deleted.clear();
+        deletedCount = 0;
+        liveLength = 0;
+        for (Task task : tasks) {
+            addLocked(task);
+        }
+    }
+
+    private void addLocked(Task task) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, task.getName(), NAME_WEIGHT);
+        addTerms(frequencies, task.getDescription(), DESCRIPTION_WEIGHT);
+        if (task.getTags() != null) {
+            for (String tag : task.getTags()) {
+                addTerms(frequencies, tag, TAG_WEIGHT);
+            }
+        }
+        if (frequencies.isEmpty()) {
+            return;
+        }
+
+        int doc = nextDoc++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+            docLengths = Arrays.copyOf(docLengths, docLengths.length * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        docs[doc] = task;
+        docLengths[doc] = length;
+        docById.put(task.getId(), doc);
+        liveLength += length;
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : SwedishAnalyzer.terms(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void removeLocked(String taskId) {
+        Integer doc = docById.remove(taskId);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+            liveLength -= docLengths[doc];
+            docs[doc] = null;
+        }
+    }
+
+    /**
+     * Bygger om indexet när borttagna dokument tar upp en fjärdedel av posting-listorna
+     */
+    private void compactIfNeeded() {
+        if (deletedCount < MIN_DELETED_FOR_COMPACTION || deletedCount * 4 < nextDoc) {
+            return;
+        }
+        List<Task> live = new ArrayList<>(docById.size());
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (docs[doc] != null) {
+                live.add(docs[doc]);
+            }
+        }
+        rebuildLocked(live);
+    }
+
+    /**
+     * Söker bland uppgifterna och returnerar de mest relevanta först.
+     * Varje ord i frågan matchas exakt (efter stamning), sista ordet även som prefix
+     * om frågan inte slutar med mellanslag, och ord utan träff matchas med stavfel.
+     * Poängen skalas med andelen ord som matchade, så uppgifter som matchar alla ord rankas högst.
+     * @param query Söktext, t.ex. "inloggning buggar" eller "sprintpl"
+     * @param limit Max antal träffar (högst 100)
+     */
+    public TaskSearchResult search(String query, int limit) {
+        long start = System.nanoTime();
+        int wanted = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<String> tokens = queryTokens(query);
+        boolean prefixLast = query != null && !query.isEmpty() && !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            int docCount = docById.size();
+            if (tokens.isEmpty() || docCount == 0 || liveLength == 0) {
+                return new TaskSearchResult(query, List.of(), 0, micros(start));
+            }
+            // BM25-normeringen K1 * (1 - B + B * längd / snittlängd) som a + c * längd
+            float normBase = K1 * (1 - B);
+            float normPerTerm = K1 * B * docCount / liveLength;
+            List<Map<String, Float>> expanded = new ArrayList<>(tokens.size());
+            for (int t = 0; t < tokens.size(); t++) {
+                expanded.add(expand(tokens.get(t), prefixLast && t == tokens.size() - 1));
+            }
+            if (expanded.size() == 1 && expanded.get(0).size() <= 1) {
+                return searchSingleTerm(query, expanded.get(0), docCount, normBase, normPerTerm, wanted, start);
+            }
+
+            Scratch scratch = borrowScratch();
+            try {
+                for (Map<String, Float> expansions : expanded) {
+                    for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+                        Postings postings = terms.get(expansion.getKey());
+                        float weight = expansion.getValue() * idf(docCount, Math.min(postings.size, docCount)) * (K1 + 1);
+                        if (expansions.size() == 1) {
+                            scratch.add(postings, weight, normBase, normPerTerm, docLengths);
+                        } else {
+                            // Ett ord med flera utvidgningar räknas med den bästa per dokument, inte summan
+                            scratch.keepBest(postings, weight, normBase, normPerTerm, docLengths);
+                        }
+                    }
+                    if (expansions.size() > 1) {
+                        scratch.foldBest(nextDoc);
+                    }
+                }
+
+                for (int doc = deleted.nextSetBit(0); doc >= 0 && doc < nextDoc; doc = deleted.nextSetBit(doc + 1)) {
+                    scratch.scores[doc] = 0;
+                    scratch.matched[doc] = 0;
+                }
+                // Träffarna räknas utan villkor per dokument; bara poäng över topplistans lägsta går vidare
+                TopHits top = new TopHits(wanted);
+                float threshold = 0;
+                float perToken = 1f / expanded.size();
+                int matches = 0;
+                float[] scores = scratch.scores;
+                byte[] matched = scratch.matched;
+                for (int doc = 0; doc < nextDoc; doc++) {
+                    int count = matched[doc];
+                    matches += count != 0 ? 1 : 0;
+                    float score = scores[doc] * count * perToken;
+                    if (score > threshold) {
+                        threshold = top.offer(doc, score);
+                    }
+                }
+                return new TaskSearchResult(query, top.toHits(docs), matches, micros(start));
+            } finally {
+                scratch.clear(nextDoc);
+                scratchPool.offer(scratch);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ett ord med en enda term i ordlistan: poängen går direkt till topplistan utan arbetsyta
+     */
+    private TaskSearchResult searchSingleTerm(String query, Map<String, Float> expansions, int docCount,
+                                              float normBase, float normPerTerm, int wanted, long start) {
+        TopHits top = new TopHits(wanted);
+        float threshold = 0;
+        int matches = 0;
+        for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+            Postings postings = terms.get(expansion.getKey());
+            float weight = expansion.getValue() * idf(docCount, Math.min(postings.size, docCount)) * (K1 + 1);
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                float tf = postings.frequencies[i];
+                float score = weight * tf / (tf + normBase + normPerTerm * docLengths[doc]);
+                if (score > threshold) {
+                    threshold = top.offer(doc, score);
+                }
+                matches++;
+            }
+        }
+        return new TaskSearchResult(query, top.toHits(docs), matches, micros(start));
+    }
+
+    /**
+     * Arbetsytorna är lika stora som indexet och återanvänds mellan sökningar
+     * i stället för att allokeras per fråga
+     */
+    private Scratch borrowScratch() {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null || scratch.scores.length < nextDoc) {
+            scratch = new Scratch(docs.length);
+        }
+        return scratch;
+    }
+
+    private static List<String> queryTokens(String query) {
+        List<String> tokens = SwedishAnalyzer.tokens(query);
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < tokens.size() && kept.size() < MAX_QUERY_TERMS; i++) {
+            // Stoppord tas bort, utom sista ordet som kan vara början på ett längre ord
+            if (i == tokens.size() - 1 || !SwedishAnalyzer.isStopWord(tokens.get(i))) {
+                kept.add(tokens.get(i));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Termer i ordlistan som ett ord i frågan ska matcha, med vikt per term
+     */
+    private Map<String, Float> expand(String token, boolean prefix) {
+        Map<String, Float> expansions = new LinkedHashMap<>();
+        String stem = SwedishAnalyzer.stem(token);
+        if (terms.containsKey(stem)) {
+            expansions.put(stem, 1f);
+        }
+        if (prefix && token.length() >= 2) {
+            for (String term : terms.subMap(token, true, token + Character.MAX_VALUE, false).keySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(term, PREFIX_WEIGHT);
+            }
+        }
+        if (expansions.isEmpty() && stem.length() >= 4) {
+            int maxDistance = stem.length() >= 8 ? 2 : 1;
+            char first = stem.charAt(0);
+            String from = String.valueOf(first);
+            String to = String.valueOf((char) (first + 1));
+            for (String term : terms.subMap(from, true, to, false).keySet()) {
+                int distance = distance(stem, term, maxDistance);
+                if (distance <= maxDistance) {
+                    expansions.put(term, FUZZY_WEIGHT[distance]);
+                    if (expansions.size() >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private static float idf(int docCount, int documentFrequency) {
+        return (float) Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Redigeringsavstånd med byte av intilliggande tecken (optimal string alignment).
+     * Avbryter så fort avståndet överstiger max och returnerar då max + 1.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000;
+    }
+
+    /**
+     * Dokumentnummer (stigande) och viktad termfrekvens för en term
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    /**
+     * Poäng och antal matchade ord per dokumentnummer för en sökning. Posting-listorna
+     * är sorterade, så skrivningarna går framåt genom arrayerna.
+     */
+    private static final class Scratch {
+        private final float[] scores;
+        private final float[] best;
+        private final byte[] matched;
+
+        Scratch(int capacity) {
+            scores = new float[capacity];
+            best = new float[capacity];
+            matched = new byte[capacity];
+        }
+
+        void add(Postings postings, float weight, float normBase, float normPerTerm, int[] docLengths) {
+            int[] docs = postings.docs;
+            int[] frequencies = postings.frequencies;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = docs[i];
+                float tf = frequencies[i];
+                scores[doc] += weight * tf / (tf + normBase + normPerTerm * docLengths[doc]);
+                matched[doc]++;
+            }
+        }
+
+        void keepBest(Postings postings, float weight, float normBase, float normPerTerm, int[] docLengths) {
+            int[] docs = postings.docs;
+            int[] frequencies = postings.frequencies;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = docs[i];
+                float tf = frequencies[i];
+                best[doc] = Math.max(best[doc], weight * tf / (tf + normBase + normPerTerm * docLengths[doc]));
+            }
+        }
+
+        /**
+         * Lägger in bästa poängen för ett ord med flera utvidgningar och nollställer den
+         */
+        void foldBest(int docCount) {
+            for (int doc = 0; doc < docCount; doc++) {
+                if (best[doc] != 0) {
+                    scores[doc] += best[doc];
+                    matched[doc]++;
+                    best[doc] = 0;
+                }
+            }
+        }
+
+        void clear(int docCount) {
+            Arrays.fill(scores, 0, docCount, 0f);
+            Arrays.fill(matched, 0, docCount, (byte) 0);
+        }
+    }
+
+    /**
+     * De bästa träffarna som min-heap av dokumentnummer och poäng
+     */
+    private static final class TopHits {
+        private final int[] heapDocs;
+        private final float[] heapScores;
+        private int size;
+
+        TopHits(int capacity) {
+            heapDocs = new int[capacity];
+            heapScores = new float[capacity];
+        }
+
+        /**
+         * @return Lägsta poäng som kan ta sig in i listan härnäst
+         */
+        float offer(int doc, float score) {
+            if (size < heapDocs.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (heapScores[parent] <= score) {
+                        break;
+                    }
+                    heapDocs[i] = heapDocs[parent];
+                    heapScores[i] = heapScores[parent];
+                    i = parent;
+                }
+                heapDocs[i] = doc;
+                heapScores[i] = score;
+            } else if (score > heapScores[0]) {
+                siftDown(doc, score);
+            }
+            return size < heapDocs.length ? 0 : heapScores[0];
+        }
+
+        private void siftDown(int doc, float score) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapScores[child + 1] < heapScores[child]) {
+                    child++;
+                }
+                if (score <= heapScores[child]) {
+                    break;
+                }
+                heapDocs[i] = heapDocs[child];
+                heapScores[i] = heapScores[child];
+                i = child;
+            }
+            heapDocs[i] = doc;
+            heapScores[i] = score;
+        }
+
+        List<TaskSearchHit> toHits(Task[] docs) {
+            TaskSearchHit[] hits = new TaskSearchHit[size];
+            while (size > 0) {
+                int doc = heapDocs[0];
+                float score = heapScores[0];
+                size--;
+                if (size > 0) {
+                    siftDown(heapDocs[size], heapScores[size]);
+                }
+                hits[size] = new TaskSearchHit(docs[doc], score);
+            }
+            return List.of(hits);
+        }
+    }
+}
@@ -0,0 +1,621 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.model.CompactTask;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskPage;
+import org.springframework.backend2exercise3.model.TaskPriority;
+import org.springframework.backend2exercise3.model.TaskQuery;
+import org.springframework.backend2exercise3.model.TaskStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Uppgifter i minnet med sekundärindex för filtrerade och sidindelade frågor.
+ * Varje uppgift får en heltalsplats; status och prioritet indexeras som BitSet per
+ * enum-värde, ansvarig och tagg som sorterade plats-listor per värde och förfallodatum
+ * i en TreeMap. En fråga drivs av det mest selektiva indexet, eller av sorteringens
+ * index när resultatet ska vara sorterat, och avbryts så fort sidan är full.
+ * Uppgifterna lagras som CompactTask och packas upp till Task först när de lämnas ut.
+ * Hålls uppdaterad från BoardReplica.
+ */
+@Service
+public class TaskStore implements BoardReplicaListener {
+
+    static final int MAX_LIMIT = 500;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CompactTask[] slots = new CompactTask[1024];
+    private TaskSymbols symbols = new TaskSymbols();
+    private int nextSlot;
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<TaskStatus, BitSet> byStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<TaskPriority, BitSet> byPriority = new EnumMap<>(TaskPriority.class);
+    private final BitSet withoutPriority = new BitSet();
+    private final Map<String, IntSet> byAssignee = new HashMap<>();
+    private final Map<String, IntSet> byTag = new HashMap<>();
+    // Nycklat på epoch-millisekunder, som CompactTask
+    private final TreeMap<Long, IntSet> byDueDate = new TreeMap<>();
+    private final IntSet withoutDueDate = new IntSet();
+
+    public TaskStore() {
+    }
+
+    @Autowired
+    public TaskStore(BoardReplica boardReplica) {
+        boardReplica.addListener(this);
+    }
+
+    @Override
+    public void onReload(Collection<Task> tasks) {
+        replaceAll(tasks);
+    }
+
+    @Override
+    public void onTaskChanged(Task task) {
+        put(task);
+    }
+
+    @Override
+    public void onTaskRemoved(String taskId) {
+        remove(taskId);
+    }
+
+    /**
+     * Ersätter alla uppgifter och bygger om indexen
+     */
+    public void replaceAll(Collection<? extends Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            slots = new CompactTask[Math.max(1024, tasks.size())];
+            symbols = new TaskSymbols();
+            nextSlot = 0;
+            slotById.clear();
+            live.clear();
+            byStatus.clear();
+            byPriority.clear();
+            withoutPriority.clear();
+            byAssignee.clear();
+            byTag.clear();
+            byDueDate.clear();
+            withoutDueDate.clear();
+            for (Task task : tasks) {
+                putLocked(task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lägger till eller ersätter en uppgift (nycklad på id)
+     */
+    public void put(Task task) {
+        lock.writeLock().lock();
+        try {
+            putLocked(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(Task source) {
+        CompactTask task = symbols.compact(source);
+        Integer existing = slotById.get(task.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unindex(slot, slots[slot]);
+        } else {
+            slot = nextSlot++;
+            if (slot == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slotById.put(task.getId(), slot);
+        }
+        slots[slot] = task;
+        index(slot, task);
+    }
+
+    public void remove(String taskId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(taskId);
+            if (slot != null) {
+                unindex(slot, slots[slot]);
+                slots[slot] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Task> get(String taskId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(taskId);
+            return slot != null ? Optional.of(symbols.expand(slots[slot])) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(int slot, CompactTask task) {
+        live.set(slot);
+        if (task.status() != null) {
+            byStatus.computeIfAbsent(task.status(), status -> new BitSet()).set(slot);
+        }
+        if (task.priority() != null) {
+            byPriority.computeIfAbsent(task.priority(), priority -> new BitSet()).set(slot);
+        } else {
+            withoutPriority.set(slot);
+        }
+        if (task.getAssignedTo() != null) {
+            byAssignee.computeIfAbsent(key(task.getAssignedTo()), assignee -> new IntSet()).add(slot);
+        }
+        for (String tag : tagKeys(task)) {
+            byTag.computeIfAbsent(tag, t -> new IntSet()).add(slot);
+        }
+        if (task.hasDueDate()) {
+            byDueDate.computeIfAbsent(task.getDueAt(), due -> new IntSet()).add(slot);
+        } else {
+            withoutDueDate.add(slot);
+        }
+    }
+
+    private void unindex(int slot, CompactTask task) {
+        live.clear(slot);
+        if (task.status() != null) {
+            byStatus.get(task.status()).clear(slot);
+        }
+        if (task.priority() != null) {
+            byPriority.get(task.priority()).clear(slot);
+        } else {
+            withoutPriority.clear(slot);
+        }
+        if (task.getAssignedTo() != null) {
+            removeFrom(byAssignee, key(task.getAssignedTo()), slot);
+        }
+        for (String tag : tagKeys(task)) {
+            removeFrom(byTag, tag, slot);
+        }
+        if (task.hasDueDate()) {
+            removeFrom(byDueDate, task.getDueAt(), slot);
+        } else {
+            withoutDueDate.remove(slot);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, IntSet> index, K key, int slot) {
+        IntSet slotsForKey = index.get(key);
+        if (slotsForKey != null && slotsForKey.remove(slot) && slotsForKey.size() == 0) {
+            index.remove(key);
+        }
+    }
+
+    private Set<String> tagKeys(CompactTask task) {
+        if (task.getTagIds() == null || task.getTagIds().length == 0) {
+            return Set.of();
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (int tagId : task.getTagIds()) {
+            if (tagId >= 0) {
+                keys.add(key(symbols.tag(tagId)));
+            }
+        }
+        return keys;
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Kör en fråga mot indexen
+     * @param query Filter, sortering och sida
+     * @return Sidan med matchande uppgifter
+     */
+    public TaskPage query(TaskQuery query) {
+        int limit = Math.max(1, Math.min(query.getLimit(), MAX_LIMIT));
+        int offset = Math.max(0, query.getOffset());
+        // En extra träff avgör om det finns fler sidor
+        int wanted = offset + limit + 1;
+
+        lock.readLock().lock();
+        try {
+            Filter filter = new Filter(query, symbols);
+            List<CompactTask> matches = find(filter, query.getSort(), query.isDescending(), wanted);
+            boolean hasMore = matches.size() > offset + limit;
+            // Bara sidan packas upp till Task
+            List<Task> page = offset >= matches.size()
+                    ? List.of()
+                    : matches.subList(offset, Math.min(matches.size(), offset + limit)).stream()
+                            .map(symbols::expand)
+                            .toList();
+            return new TaskPage(page, offset, limit, hasMore);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<CompactTask> find(Filter filter, TaskQuery.Sort sort, boolean descending, int wanted) {
+        IntSet assigned = null;
+        IntSet tagged = null;
+        if (filter.assignee != null) {
+            assigned = byAssignee.get(filter.assignee);
+            if (assigned == null) {
+                return List.of();
+            }
+        }
+        if (filter.tag != null) {
+            tagged = byTag.get(filter.tag);
+            if (tagged == null) {
+                return List.of();
+            }
+        }
+        IntSet driver = assigned == null || (tagged != null && tagged.size() < assigned.size()) ? tagged : assigned;
+
+        if (sort == null) {
+            sort = TaskQuery.Sort.NONE;
+        }
+        if (driver != null && (sort == TaskQuery.Sort.NONE || cheaperToCollect(driver.size(), wanted))) {
+            return collect(driver, filter, sort, descending, wanted);
+        }
+        if (driver != null) {
+            // Hash-indexen som BitSet, så att kandidater kan sållas utan att läsa uppgiften
+            filter.required = assigned != null ? assigned.toBitSet() : tagged.toBitSet();
+            if (assigned != null && tagged != null) {
+                filter.required.and(tagged.toBitSet());
+            }
+        }
+        return switch (sort) {
+            case DUE_DATE -> scanByDueDate(filter, descending, wanted);
+            case PRIORITY -> scanByPriority(filter, descending, wanted);
+            case NONE -> filter.hasDueRange()
+                    ? scanByDueDate(filter, descending, wanted)
+                    : scanBits(intersect(candidates(filter), filter.required), filter, descending, wanted);
+        };
+    }
+
+    /**
+     * Att läsa sorteringens index tills sidan är full kräver ungefär wanted * n / träffar besök;
+     * att samla alla träffar ur ett litet hash-index och sortera dem kostar ungefär träffar
+     */
+    private boolean cheaperToCollect(int driverSize, int wanted) {
+        return (long) driverSize * driverSize <= (long) wanted * slotById.size();
+    }
+
+    private List<CompactTask> collect(IntSet driver, Filter filter, TaskQuery.Sort sort, boolean descending, int wanted) {
+        List<CompactTask> matches = new ArrayList<>();
+        boolean sorted = sort != TaskQuery.Sort.NONE;
+        for (int i = 0; i < driver.size(); i++) {
+            int slot = descending && !sorted ? driver.get(driver.size() - 1 - i) : driver.get(i);
+            CompactTask task = slots[slot];
+            if (filter.test(slot, task)) {
+                matches.add(task);
+                if (!sorted && matches.size() == wanted) {
+                    break;
+                }
+            }
+        }
+        if (sorted) {
+            matches.sort(comparator(sort, descending));
+        }
+        return matches;
+    }
+
+    /**
+     * Uppgifter utan förfallodatum eller prioritet sist, oavsett riktning
+     */
+    private static Comparator<CompactTask> comparator(TaskQuery.Sort sort, boolean descending) {
+        int direction = descending ? -1 : 1;
+        if (sort == TaskQuery.Sort.DUE_DATE) {
+            return (a, b) -> a.hasDueDate() != b.hasDueDate()
+                    ? (a.hasDueDate() ? -1 : 1)
+                    : direction * Long.compare(a.getDueAt(), b.getDueAt());
+        }
+        return (a, b) -> (a.getPriority() == CompactTask.NONE) != (b.getPriority() == CompactTask.NONE)
+                ? (a.getPriority() == CompactTask.NONE ? 1 : -1)
+                : direction * Byte.compare(a.getPriority(), b.getPriority());
+    }
+
+    private List<CompactTask> scanByDueDate(Filter filter, boolean descending, int wanted) {
+        NavigableMap<Long, IntSet> range = byDueDate;
+        if (filter.dueFrom != null && filter.dueTo != null) {
+            range = filter.dueFrom > filter.dueTo
+                    ? new TreeMap<>()
+                    : range.subMap(filter.dueFrom, true, filter.dueTo, true);
+        } else if (filter.dueFrom != null) {
+            range = range.tailMap(filter.dueFrom, true);
+        } else if (filter.dueTo != null) {
+            range = range.headMap(filter.dueTo, true);
+        }
+        if (descending) {
+            range = range.descendingMap();
+        }
+
+        List<CompactTask> matches = new ArrayList<>();
+        for (IntSet sameDue : range.values()) {
+            if (addMatches(sameDue, filter, wanted, matches)) {
+                return matches;
+            }
+        }
+        // Uppgifter utan förfallodatum sist, oavsett riktning
+        if (!filter.hasDueRange()) {
+            addMatches(withoutDueDate, filter, wanted, matches);
+        }
+        return matches;
+    }
+
+    private boolean addMatches(IntSet candidates, Filter filter, int wanted, List<CompactTask> matches) {
+        for (int i = 0; i < candidates.size(); i++) {
+            int slot = candidates.get(i);
+            if (filter.required != null && !filter.required.get(slot)) {
+                continue;
+            }
+            CompactTask task = slots[slot];
+            if (filter.test(slot, task)) {
+                matches.add(task);
+                if (matches.size() == wanted) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<CompactTask> scanByPriority(Filter filter, boolean descending, int wanted) {
+        BitSet statuses = filter.statuses != null ? union(byStatus, filter.statuses) : null;
+        if (filter.required != null) {
+            statuses = intersect(filter.required, statuses);
+        }
+        List<TaskPriority> order = new ArrayList<>(List.of(TaskPriority.values()));
+        if (descending) {
+            order = order.reversed();
+        }
+
+        List<CompactTask> matches = new ArrayList<>();
+        for (TaskPriority priority : order) {
+            BitSet withPriority = byPriority.get(priority);
+            if (withPriority == null || (filter.priorities != null && !filter.priorities.contains(priority))) {
+                continue;
+            }
+            matches.addAll(scanBits(intersect(withPriority, statuses), filter, false, wanted - matches.size()));
+            if (matches.size() == wanted) {
+                return matches;
+            }
+        }
+        if (filter.priorities == null) {
+            matches.addAll(scanBits(intersect(withoutPriority, statuses), filter, false, wanted - matches.size()));
+        }
+        return matches;
+    }
+
+    private List<CompactTask> scanBits(BitSet candidates, Filter filter, boolean descending, int wanted) {
+        List<CompactTask> matches = new ArrayList<>(Math.min(wanted, 1024));
+        int slot = descending ? candidates.previousSetBit(candidates.length()) : candidates.nextSetBit(0);
+        while (slot >= 0 && matches.size() < wanted) {
+            CompactTask task = slots[slot];
+            if (filter.test(slot, task)) {
+                matches.add(task);
+            }
+            slot = descending ? candidates.previousSetBit(slot - 1) : candidates.nextSetBit(slot + 1);
+        }
+        return matches;
+    }
+
+    /**
+     * Kandidater från enum-indexen: (någon av statusarna) OCH (någon av prioriteterna)
+     */
+    private BitSet candidates(Filter filter) {
+        BitSet candidates = filter.statuses != null ? union(byStatus, filter.statuses) : live;
+        if (filter.priorities != null) {
+            candidates = intersect(union(byPriority, filter.priorities), candidates);
+        }
+        return candidates;
+    }
+
+    /**
+     * Union av indexens BitSet; indexets egen instans återanvänds när bara ett värde finns
+     */
+    private static <E extends Enum<E>> BitSet union(Map<E, BitSet> index, Set<E> values) {
+        BitSet result = null;
+        boolean copied = false;
+        for (E value : values) {
+            BitSet bits = index.get(value);
+            if (bits == null) {
+                continue;
+            }
+            if (result == null) {
+                result = bits;
+            } else {
+                if (!copied) {
+                    result = (BitSet) result.clone();
+                    copied = true;
+                }
+                result.or(bits);
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    /**
+     * Snitt utan att ändra indexens egna BitSet
+     */
+    private static BitSet intersect(BitSet bits, BitSet filter) {
+        if (filter == null || filter == bits) {
+            return bits;
+        }
+        BitSet result = (BitSet) bits.clone();
+        result.and(filter);
+        return result;
+    }
+
+    /**
+     * Predikat för alla filter, används på kandidater från det drivande indexet
+     */
+    private static final class Filter {
+
+        private final Set<TaskStatus> statuses;
+        private final Set<TaskPriority> priorities;
+        private final String assignee;
+        private final String tag;
+        // Epoch-millisekunder, som CompactTask
+        private final Long dueFrom;
+        private final Long dueTo;
+        private final TaskSymbols symbols;
+        // Platser som matchar ansvarig och tagg, när de inte driver frågan
+        private BitSet required;
+
+        Filter(TaskQuery query, TaskSymbols symbols) {
+            this.statuses = query.getStatus() != null && !query.getStatus().isEmpty()
+                    ? EnumSet.copyOf(query.getStatus()) : null;
+            this.priorities = query.getPriority() != null && !query.getPriority().isEmpty()
+                    ? EnumSet.copyOf(query.getPriority()) : null;
+            this.assignee = query.getAssignee() != null && !query.getAssignee().isBlank()
+                    ? key(query.getAssignee().trim()) : null;
+            this.tag = query.getTag() != null && !query.getTag().isBlank() ? key(query.getTag().trim()) : null;
+            this.dueFrom = epochMillis(query.getDueFrom());
+            this.dueTo = epochMillis(query.getDueTo());
+            this.symbols = symbols;
+        }
+
+        private static Long epochMillis(LocalDateTime value) {
+            return value != null ? CompactTask.epochMillis(value) : null;
+        }
+
+        boolean hasDueRange() {
+            return dueFrom != null || dueTo != null;
+        }
+
+        boolean test(int slot, CompactTask task) {
+            if (required != null && !required.get(slot)) {
+                return false;
+            }
+            if (statuses != null && !statuses.contains(task.status())) {
+                return false;
+            }
+            if (priorities != null && !priorities.contains(task.priority())) {
+                return false;
+            }
+            if (assignee != null && (task.getAssignedTo() == null || !assignee.equals(key(task.getAssignedTo())))) {
+                return false;
+            }
+            if (tag != null && !hasTag(task)) {
+                return false;
+            }
+            if (hasDueRange()) {
+                long due = task.getDueAt();
+                if (!task.hasDueDate() || (dueFrom != null && due < dueFrom) || (dueTo != null && due > dueTo)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasTag(CompactTask task) {
+            if (task.getTagIds() == null) {
+                return false;
+            }
+            for (int tagId : task.getTagIds()) {
+                if (tagId >= 0 && symbols.tag(tagId).equalsIgnoreCase(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sorterad mängd av platser i en växande int-array. Nya uppgifter får alltid
+     * högre plats än befintliga, så tillägg blir i praktiken en append.
+     */
+    static final class IntSet {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == 0 || values[size - 1] < value) {
+                ensureCapacity();
+                values[size++] = value;
+                return;
+            }
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity();
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        BitSet toBitSet() {
+            BitSet bits = new BitSet(size == 0 ? 0 : values[size - 1] + 1);
+            for (int i = 0; i < size; i++) {
+                bits.set(values[i]);
+            }
+            return bits;
+        }
+
+        void clear() {
+            values = new int[4];
+            size = 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+        }
+    }
+}
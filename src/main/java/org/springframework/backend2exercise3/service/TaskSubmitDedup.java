@@ -0,0 +1,258 @@
+package org.springframework.backend2exercise3.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.TaskDedupConfig;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gör skapandet av uppgifter idempotent så att dubbelklick och omsändningar av formuläret
+ * inte ger dubbla kort eller ärenden. Nyckeln är plattformen plus formulärets idempotencyKey om
+ * klienten skickat en, annars plus en hash av det normaliserade formuläret (trimmat, blanksteg
+ * hopslagna, gemener). Varje plattform avdubblas alltså för sig.
+ * <p>
+ * Tabellen är en Caffeine-cache med tasks.dedup.window som livslängd och tasks.dedup.max-entries som tak.
+ * Nyckeln är en 64-bitars FNV-1a-hash som räknas direkt över formulärets tecken, så en uppslagning
+ * bygger inga strängar. Varje post sparar den normaliserade nyckeln och jämför mot den vid träff,
+ * så att en hash-krock aldrig gör att en annan uppgift tas för en dubblett.
+ * <p>
+ * En dubblett som kommer medan den första skapas väntar på dess resultat (som TrelloSingleFlight),
+ * en som kommer efteråt får samma kort-id direkt. Misslyckas skapandet tas posten bort så att ett
+ * nytt försök skapar kortet; de som väntade får samma undantag. Ett tomt id sparas inte heller.
+ */
+@Component
+public class TaskSubmitDedup {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSubmitDedup.class);
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // Avgränsar fälten så att t.ex. titel "ab" + beskrivning "c" skiljer sig från "a" + "bc"
+    private static final char SEPARATOR = '\u001f';
+
+    private final boolean enabled;
+    private final Cache<Long, Submission> submissions;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    private static final class Submission {
+        // Normaliserad nyckel eller normaliserat formulär, för att känna igen hash-krockar
+        final String fingerprint;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Submission(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        boolean matches(TaskForm form, String platform) {
+            Matcher matcher = new Matcher(fingerprint);
+            walk(form, platform, matcher);
+            return matcher.matched();
+        }
+    }
+
+    @Autowired
+    public TaskSubmitDedup(TaskDedupConfig dedupConfig) {
+        this.enabled = dedupConfig.isEnabled();
+        this.submissions = Caffeine.newBuilder()
+                .expireAfterWrite(dedupConfig.getWindow())
+                .maximumSize(dedupConfig.getMaxEntries())
+                .build();
+    }
+
+    /**
+     * Skapar uppgiften, eller returnerar resultatet från en tidigare eller pågående identisk inskickning
+     * @param form Formulärdata, med eller utan idempotencyKey
+     * @param platform Plattformen som uppgiften skapas på, t.ex. "trello"
+     * @param create Skapar uppgiften och returnerar dess id
+     * @return Id för uppgiften, samma för alla dubbletter inom fönstret
+     * @throws Exception samma undantag som skapandet kastade
+     */
+    public String execute(TaskForm form, String platform, Callable<String> create) throws Exception {
+        if (!enabled) {
+            return create.call();
+        }
+
+        Hasher hasher = new Hasher();
+        walk(form, platform, hasher);
+        Long key = hasher.hash;
+
+        Submission existing = submissions.getIfPresent(key);
+        if (existing == null) {
+            Submission submission = new Submission(fingerprint(form, platform));
+            existing = submissions.asMap().putIfAbsent(key, submission);
+            if (existing == null) {
+                return createFirst(key, submission, create);
+            }
+        }
+
+        if (!existing.matches(form, platform)) {
+            // Samma hash men en annan uppgift: skapas utan avdubblering
+            collisions.increment();
+            return create.call();
+        }
+        duplicates.increment();
+        logger.info("Dubblett av uppgiften '{}', använder första inskickningens resultat", form.getTitle());
+        return await(existing.result);
+    }
+
+    private String createFirst(Long key, Submission submission, Callable<String> create) throws Exception {
+        try {
+            String id = create.call();
+            if (id == null || id.isBlank()) {
+                // Ett tomt id kan inte ges till senare dubbletter, de får skapa på nytt
+                submissions.asMap().remove(key, submission);
+            } else {
+                created.increment();
+            }
+            submission.result.complete(id);
+            return id;
+        } catch (Exception | Error e) {
+            submissions.asMap().remove(key, submission);
+            submission.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static String await(CompletableFuture<String> result) throws Exception {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Samma undantag som den första inskickningen fick, så att felhanteringen blir densamma
+            if (e.getCause() instanceof Exception exception) {
+                throw exception;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static String fingerprint(TaskForm form, String platform) {
+        Builder builder = new Builder();
+        walk(form, platform, builder);
+        return builder.text.toString();
+    }
+
+    /**
+     * Matar ut plattformen följd av nyckeln, eller av formulärets fält som påverkar uppgiften,
+     * normaliserade tecken för tecken. Plattformen är den som faktiskt anropas, inte formulärets val:
+     * samma uppgift till "trello" och "both" ger samma Trello-kort.
+     */
+    private static void walk(TaskForm form, String platform, Sink sink) {
+        sink.field(platform);
+        String clientKey = form.getIdempotencyKey();
+        if (clientKey != null && !clientKey.isBlank()) {
+            sink.accept('k');
+            sink.field(clientKey);
+            return;
+        }
+        sink.accept('f');
+        sink.field(form.getTitle());
+        sink.field(form.getDescription());
+        sink.field(form.getPriority());
+        sink.field(form.getCategory());
+        sink.field(form.getAssignee());
+        if (form.getDueDate() != null) {
+            long day = form.getDueDate().toEpochDay();
+            sink.accept((char) (day >>> 16));
+            sink.accept((char) day);
+        }
+        sink.accept(SEPARATOR);
+    }
+
+    private abstract static class Sink {
+
+        abstract void accept(char c);
+
+        /**
+         * Trimmar, slår ihop blanksteg till ett mellanslag och gör om till gemener; null räknas som tomt
+         */
+        final void field(String value) {
+            if (value != null) {
+                boolean pendingSpace = false;
+                boolean started = false;
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (Character.isWhitespace(c)) {
+                        pendingSpace = started;
+                        continue;
+                    }
+                    if (pendingSpace) {
+                        accept(' ');
+                        pendingSpace = false;
+                    }
+                    accept(Character.toLowerCase(c));
+                    started = true;
+                }
+            }
+            accept(SEPARATOR);
+        }
+    }
+
+    private static final class Hasher extends Sink {
+        long hash = FNV_OFFSET;
+
+        @Override
+        void accept(char c) {
+            hash = (hash ^ c) * FNV_PRIME;
+        }
+    }
+
+    private static final class Builder extends Sink {
+        final StringBuilder text = new StringBuilder(64);
+
+        @Override
+        void accept(char c) {
+            text.append(c);
+        }
+    }
+
+    private static final class Matcher extends Sink {
+        private final String expected;
+        private int position;
+        private boolean equal = true;
+
+        Matcher(String expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        void accept(char c) {
+            if (equal && (position >= expected.length() || expected.charAt(position++) != c)) {
+                equal = false;
+            }
+        }
+
+        boolean matched() {
+            return equal && position == expected.length();
+        }
+    }
+
+    /**
+     * Statistik för /api/trello/stats/dedup
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("entries", submissions.estimatedSize());
+        result.put("created", created.sum());
+        result.put("duplicates", duplicates.sum());
+        result.put("collisions", collisions.sum());
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.model.CompactTask;
+import org.springframework.backend2exercise3.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delade strängar och tagg-id:n för CompactTask. Värden som upprepas mellan uppgifter
+ * (lista, board, ansvarig, etikettnamn) lagras en gång; varje avkodat Trello-svar ger
+ * annars egna kopior. Endast värden med få olika varianter ska internas, tabellen krymper
+ * aldrig och byts istället ut i sin helhet (t.ex. när TaskStore laddas om).
+ * Trådsäker; ett tagg-id som en uppgift bär går alltid att slå upp.
+ */
+public class TaskSymbols {
+
+    private static final int[] NO_TAGS = new int[0];
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<String, Integer> tagIds = new ConcurrentHashMap<>();
+    private volatile String[] tags = new String[16];
+    private int tagCount;
+
+    /**
+     * @return Den delade instansen av value, null för null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = strings.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    public int tagId(String tag) {
+        Integer id = tagIds.get(tag);
+        return id != null ? id : addTag(tag);
+    }
+
+    private synchronized int addTag(String tag) {
+        Integer id = tagIds.get(tag);
+        if (id != null) {
+            return id;
+        }
+        String[] current = tags;
+        if (tagCount == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[tagCount] = intern(tag);
+        // Arrayen publiceras innan id:t, så en läsare som har id:t hittar taggen
+        tags = current;
+        tagIds.put(tag, tagCount);
+        return tagCount++;
+    }
+
+    public String tag(int id) {
+        return tags[id];
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    public CompactTask compact(Task task) {
+        int[] ids = null;
+        if (task.getTags() != null) {
+            ids = task.getTags().isEmpty() ? NO_TAGS : new int[task.getTags().size()];
+            for (int i = 0; i < ids.length; i++) {
+                String tag = task.getTags().get(i);
+                ids[i] = tag == null ? -1 : tagId(tag);
+            }
+        }
+        String trelloCardId = task.getTrelloCardId() != null && task.getTrelloCardId().equals(task.getId())
+                ? task.getId() : task.getTrelloCardId();
+        return new CompactTask(task.getId(), task.getName(), task.getDescription(), task.getUrl(), trelloCardId,
+                intern(task.getListId()), intern(task.getBoardId()), intern(task.getAssignedTo()), ids,
+                CompactTask.epochMillis(task.getCreatedDate()), CompactTask.epochMillis(task.getDueDate()),
+                CompactTask.epochMillis(task.getCompletedDate()),
+                CompactTask.ordinal(task.getStatus()), CompactTask.ordinal(task.getPriority()));
+    }
+
+    public Task expand(CompactTask compact) {
+        Task task = new Task();
+        task.setId(compact.getId());
+        task.setName(compact.getName());
+        task.setDescription(compact.getDescription());
+        task.setUrl(compact.getUrl());
+        task.setTrelloCardId(compact.getTrelloCardId());
+        task.setListId(compact.getListId());
+        task.setBoardId(compact.getBoardId());
+        task.setAssignedTo(compact.getAssignedTo());
+        task.setTags(tags(compact));
+        task.setCreatedDate(CompactTask.dateTime(compact.getCreatedAt()));
+        task.setDueDate(CompactTask.dateTime(compact.getDueAt()));
+        task.setCompletedDate(CompactTask.dateTime(compact.getCompletedAt()));
+        task.setStatus(compact.status());
+        task.setPriority(compact.priority());
+        return task;
+    }
+
+    public List<String> tags(CompactTask compact) {
+        int[] ids = compact.getTagIds();
+        if (ids == null) {
+            return null;
+        }
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(id < 0 ? null : tag(id));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,256 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.TaskWriteBehindConfig;
+import org.springframework.backend2exercise3.model.QueuedTask;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynkront skapande av uppgifter (write-behind).
+ * Varje formulär skrivs först durabelt till TaskJournal och controllern får ett spårnings-id direkt.
+ * Arbetstrådar skapar sedan uppgiften på vald plattform, försöker igen med backoff vid fel och
+ * återupptar ej klara poster efter en omstart. Vid dubbelskrivning journalförs vilka plattformar
+ * som lyckades, så att omförsöken bara gäller de som misslyckades.
+ * <p>
+ * Leveransen är minst en gång: kraschar appen efter att plattformen tagit emot uppgiften men innan
+ * COMPLETED hunnit journalföras skickas uppgiften igen vid nästa start. Trello och Jira saknar
+ * idempotensnycklar, och TaskSubmitDedup finns bara i minnet, så en sådan krasch kan ge en dubblett.
+ */
+@Service
+public class TaskWriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskWriteBehindQueue.class);
+
+    private final TaskWriteBehindConfig config;
+    private final TaskPlatformRouter taskPlatformRouter;
+    private final ObjectMapper objectMapper;
+    private final Map<String, QueuedTask> tasks = new ConcurrentHashMap<>();
+    private TaskJournal journal;
+    private ScheduledExecutorService workers;
+
+    /**
+     * Plattformarna (och därmed Trello-klienten) är lata; de skapas först när en uppgift ska skickas
+     */
+    @Autowired
+    public TaskWriteBehindQueue(TaskWriteBehindConfig config, @Lazy TaskPlatformRouter taskPlatformRouter,
+                                ObjectMapper objectMapper) {
+        this.config = config;
+        this.taskPlatformRouter = taskPlatformRouter;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        journal = new TaskJournal(Path.of(config.getJournalPath()), objectMapper, config.getFsyncBatchWindow());
+        List<TaskJournal.Entry> live = TaskJournal.live(journal.replay());
+        recover(live);
+        // Kompaktera bort klara poster så att journalen inte växer obegränsat
+        journal.compact(live);
+        journal.open();
+
+        workers = Executors.newScheduledThreadPool(Math.max(1, config.getWorkers()),
+                Thread.ofPlatform().name("task-write-behind-", 0).daemon().factory());
+        for (String trackingId : tasks.keySet()) {
+            schedule(trackingId, 0);
+        }
+        long interval = config.getMaintenanceInterval().toMillis();
+        workers.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Skrivkö startad, {} väntande uppgifter återupptagna från {}", tasks.size(), config.getJournalPath());
+    }
+
+    /**
+     * Återskapar väntande uppgifter, med antal försök och senaste fel, ur journalens levande poster
+     */
+    private void recover(List<TaskJournal.Entry> live) {
+        for (TaskJournal.Entry entry : live) {
+            switch (entry.type()) {
+                case ENQUEUED -> tasks.put(entry.trackingId(), new QueuedTask(entry.trackingId(), entry.form(), entry.at()));
+                case ATTEMPT_FAILED -> {
+                    QueuedTask task = tasks.get(entry.trackingId());
+                    if (task != null) {
+                        task.setAttempts(entry.attempts());
+                        task.setLastError(entry.error());
+                        task.setCreatedOn(entry.created());
+                        task.setUpdatedAt(entry.at());
+                    }
+                }
+                default -> {
+                    // Klara och uppgivna poster ingår inte bland de levande
+                }
+            }
+        }
+    }
+
+    /**
+     * Periodiskt underhåll: glömmer klara och uppgivna uppgifter äldre än finished-retention
+     * och kompakterar journalen när den vuxit förbi compact-threshold
+     */
+    void maintain() {
+        try {
+            int evicted = evictFinished(Instant.now().minus(config.getFinishedRetention()));
+            if (evicted > 0) {
+                logger.debug("Skrivkön glömde {} avslutade uppgifter", evicted);
+            }
+            journal.compactIfLarger(config.getCompactThreshold().toBytes());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Underhåll av skrivkön misslyckades: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param cutoff Avslutade uppgifter som senast ändrades före denna tidpunkt tas bort
+     * @return Antal borttagna
+     */
+    int evictFinished(Instant cutoff) {
+        int before = tasks.size();
+        tasks.values().removeIf(task -> task.getState() != QueuedTask.State.PENDING
+                && task.getUpdatedAt().isBefore(cutoff));
+        return before - tasks.size();
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Köar en validerad uppgift. Returnerar först när posten är fsync:ad till journalen.
+     * @param taskForm Validerat formulär
+     * @return Spårnings-id för statusfrågor
+     * @throws Exception om journalen inte kunde skrivas
+     */
+    public String submit(TaskForm taskForm) throws Exception {
+        if (!config.isEnabled()) {
+            throw new IllegalStateException("Skrivkön är inte aktiverad");
+        }
+
+        String trackingId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        try {
+            journal.append(new TaskJournal.Entry(TaskJournal.Type.ENQUEUED, trackingId, taskForm,
+                    null, null, 0, now)).get();
+        } catch (ExecutionException e) {
+            throw new Exception("Kunde inte spara uppgiften i kön: " + e.getCause().getMessage());
+        }
+
+        tasks.put(trackingId, new QueuedTask(trackingId, taskForm, now));
+        schedule(trackingId, 0);
+        logger.info("Uppgift '{}' köad med spårnings-id {}", taskForm.getTitle(), trackingId);
+        return trackingId;
+    }
+
+    /**
+     * Hämtar status för en köad uppgift. Skapade och uppgivna uppgifter finns kvar i finished-retention.
+     * @param trackingId Spårnings-id från submit
+     * @return Uppgiftens tillstånd, tom om id:t är okänt eller redan glömt
+     */
+    public Optional<QueuedTask> getStatus(String trackingId) {
+        return Optional.ofNullable(tasks.get(trackingId));
+    }
+
+    /**
+     * Antal uppgifter per tillstånd
+     */
+    public Map<QueuedTask.State, Integer> getSummary() {
+        Map<QueuedTask.State, Integer> summary = new EnumMap<>(QueuedTask.State.class);
+        for (QueuedTask.State state : QueuedTask.State.values()) {
+            summary.put(state, 0);
+        }
+        for (QueuedTask task : tasks.values()) {
+            summary.merge(task.getState(), 1, Integer::sum);
+        }
+        return summary;
+    }
+
+    private void schedule(String trackingId, long delayMillis) {
+        workers.schedule(() -> process(trackingId), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void process(String trackingId) {
+        QueuedTask task = tasks.get(trackingId);
+        if (task == null || task.getState() != QueuedTask.State.PENDING) {
+            return;
+        }
+
+        try {
+            // Kraschar appen mellan anropet och COMPLETED nedan skickas uppgiften igen efter omstart
+            String cardId = taskPlatformRouter.createTask(task.getForm(), task.getCreatedOn());
+            task.setCardId(cardId);
+            task.setState(QueuedTask.State.CREATED);
+            task.setUpdatedAt(Instant.now());
+            journal.append(new TaskJournal.Entry(TaskJournal.Type.COMPLETED, trackingId, null, cardId,
+                    null, task.getAttempts() + 1, task.getUpdatedAt()));
+            logger.info("Köad uppgift {} skapad som kort {}", trackingId, cardId);
+        } catch (TaskPlatformException e) {
+            // Plattformar som lyckades sparas så att nästa försök bara gäller de som misslyckades
+            task.setCreatedOn(e.getCreated());
+            onFailure(task, e.getMessage());
+        } catch (Exception e) {
+            onFailure(task, e.getMessage());
+        }
+    }
+
+    private void onFailure(QueuedTask task, String error) {
+        int attempts = task.getAttempts() + 1;
+        task.setAttempts(attempts);
+        task.setLastError(error);
+        task.setUpdatedAt(Instant.now());
+
+        if (attempts >= config.getMaxAttempts()) {
+            task.setState(QueuedTask.State.FAILED);
+            journal.append(new TaskJournal.Entry(TaskJournal.Type.GAVE_UP, task.getTrackingId(), null, null,
+                    error, attempts, task.getUpdatedAt(), task.getCreatedOn()));
+            logger.error("Köad uppgift {} gav upp efter {} försök: {}", task.getTrackingId(), attempts, error);
+            return;
+        }
+
+        journal.append(new TaskJournal.Entry(TaskJournal.Type.ATTEMPT_FAILED, task.getTrackingId(), null, null,
+                error, attempts, task.getUpdatedAt(), task.getCreatedOn()));
+        long delay = retryDelayMillis(attempts);
+        logger.warn("Köad uppgift {} misslyckades (försök {}), nytt försök om {} ms: {}",
+                task.getTrackingId(), attempts, delay, error);
+        schedule(task.getTrackingId(), delay);
+    }
+
+    private long retryDelayMillis(int attempts) {
+        long initial = config.getInitialRetryDelay().toMillis();
+        long max = config.getMaxRetryDelay().toMillis();
+        long exponential = Math.min(max, initial << Math.min(attempts - 1, 20));
+        return exponential / 2 + ThreadLocalRandom.current().nextLong(exponential / 2 + 1);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Kontrollerar Trello-nyckel och token (isValidAuthentication) i bakgrunden istället för vid start.
+ * Första kontrollen körs av schemaläggaren direkt efter start, sedan med trello.api.auth-check-interval.
+ * Ingår i readiness-gruppen (/actuator/health/readiness): UNKNOWN tills första svaret, vilket inte
+ * håller tillbaka readiness, och OUT_OF_SERVICE om Trello inte godtar nyckeln.
+ */
+@Component("trelloAuth")
+public class TrelloAuthCheck implements HealthIndicator {
+
+    private final TrelloService trelloService;
+
+    private volatile Boolean valid;
+    private volatile Instant checkedAt;
+
+    /**
+     * TrelloService är lat så att den (och HTTP-klienten) skapas av första kontrollen,
+     * på schemaläggarens tråd, när applikationen startar med lat initiering
+     */
+    @Autowired
+    public TrelloAuthCheck(@Lazy TrelloService trelloService) {
+        this.trelloService = trelloService;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${trello.api.auth-check-interval:5m}")
+    void check() {
+        valid = trelloService.isValidAuthentication();
+        checkedAt = Instant.now();
+    }
+
+    @Override
+    public Health health() {
+        Boolean result = valid;
+        if (result == null) {
+            return Health.unknown().build();
+        }
+        return (result ? Health.up() : Health.outOfService()).withDetail("checkedAt", checkedAt).build();
+    }
+}
@@ -0,0 +1,360 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.backend2exercise3.config.TrelloBatchConfig;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Slår ihop läsningar mot olika resurser till ett anrop mot Trellos /batch (högst 10 adresser per anrop).
+ * Den första läsningen väntar trello.batch.window på sällskap och skickar sedan allt som samlats;
+ * blir satsen full innan dess skickar den som fyllde den direkt. En ensam läsning går som ett vanligt GET.
+ * Svaret är en array med ett objekt per adress, {"200": svar} eller ett fel, och varje anropare får
+ * sitt eget resultat eller undantag: ett 404 på en lista påverkar inte de andra i samma sats.
+ * Väntan sker på en CompletableFuture och låset är ett ReentrantLock, så inga virtuella trådar låses fast.
+ * <p>
+ * Fönstret kostar: en läsning som inte får sällskap har ändå väntat trello.batch.window innan den skickas,
+ * eftersom det inte går att veta om fler läsningar är på väg. Anropet mäts som "batch" i TrelloMetrics
+ * och varje läsning i det som "batch.&lt;operation&gt;", med väntan i fönstret inräknad.
+ */
+@Component
+public class TrelloBatchReader {
+
+    /**
+     * Avkodar en läsnings svar
+     */
+    @FunctionalInterface
+    public interface Decoder<T> {
+        /**
+         * @param parser Står på svarets första token (START_ARRAY, START_OBJECT eller ett värde)
+         */
+        T decode(JsonParser parser) throws IOException;
+    }
+
+    private record Read<T>(String operation, String route, Decoder<T> decoder, CompletableFuture<T> result,
+                           long startNanos) {
+
+        void decode(JsonParser parser) throws IOException {
+            result.complete(decoder.decode(parser));
+        }
+    }
+
+    private final TrelloConfig trelloConfig;
+    private final TrelloBatchConfig batchConfig;
+    private final RestTemplate restTemplate;
+    private final JsonFactory jsonFactory;
+    private final TrelloMetrics metrics;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Satsen som just nu samlar läsningar, null när ingen väntar
+    private List<Read<?>> current;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedReads = new LongAdder();
+    private final LongAdder directReads = new LongAdder();
+    private final LongAdder failedItems = new LongAdder();
+
+    @Autowired
+    public TrelloBatchReader(TrelloConfig trelloConfig, TrelloBatchConfig batchConfig,
+                             RestTemplate trelloRestTemplate, ObjectMapper objectMapper, TrelloMetrics metrics) {
+        this.trelloConfig = trelloConfig;
+        this.batchConfig = batchConfig;
+        this.restTemplate = trelloRestTemplate;
+        // Parsrar från ObjectMapperns fabrik kan läsa in objekt med readValueAs
+        this.jsonFactory = objectMapper.getFactory();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Läser en resurs, tillsammans med andra samtidiga läsningar om batchning är på
+     * @param operation Namnet i TrelloMetrics, med prefixet "batch." när läsningen går i ett /batch-anrop
+     * @param route Relativ adress med kodad query men utan key/token, t.ex. /boards/{id}/lists?filter=open
+     * @param decoder Avkodar svaret
+     * @return Det avkodade svaret
+     * @throws RestClientException Samma sorts undantag som ett eget anrop hade gett
+     */
+    public <T> T read(String operation, String route, Decoder<T> decoder) {
+        Read<T> read = new Read<>(operation, route, decoder, new CompletableFuture<>(), System.nanoTime());
+        if (!batchConfig.isEnabled() || batchConfig.getMaxSize() <= 1) {
+            sendDirect(read);
+            return await(read.result());
+        }
+
+        List<Read<?>> batch;
+        List<Read<?>> full = null;
+        boolean leader = false;
+        lock.lock();
+        try {
+            if (current == null) {
+                current = new ArrayList<>(batchConfig.getMaxSize());
+                leader = true;
+            }
+            batch = current;
+            batch.add(read);
+            if (batch.size() >= batchConfig.getMaxSize()) {
+                current = null;
+                full = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            send(full);
+        } else if (leader) {
+            pause();
+            if (take(batch)) {
+                send(batch);
+            }
+        }
+        return await(read.result());
+    }
+
+    /**
+     * Tar satsen om den fortfarande samlar, annars har den som fyllde den redan skickat den
+     */
+    private boolean take(List<Read<?>> batch) {
+        lock.lock();
+        try {
+            if (current != batch) {
+                return false;
+            }
+            current = null;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pause() {
+        if (batchConfig.getWindow().isZero() || batchConfig.getWindow().isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchConfig.getWindow());
+        } catch (InterruptedException e) {
+            // Skicka direkt, de andra i satsen ska inte bli hängande
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(List<Read<?>> reads) {
+        if (reads.size() == 1) {
+            sendDirect(reads.get(0));
+            return;
+        }
+        batches.increment();
+        batchedReads.add(reads.size());
+        try {
+            metrics.record("batch", () -> restTemplate.execute(
+                    batchUrl(reads),
+                    HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                    response -> {
+                        demultiplex(reads, response.getBody());
+                        return null;
+                    }
+            ));
+        } catch (RuntimeException e) {
+            reads.forEach(read -> read.result().completeExceptionally(e));
+        } finally {
+            // Ett kortare svar än antalet adresser får inte lämna någon anropare väntande
+            reads.forEach(read -> read.result().completeExceptionally(
+                    new RestClientException("Inget svar i /batch för " + read.route())));
+            long now = System.nanoTime();
+            for (Read<?> read : reads) {
+                Throwable failure = read.result().state() == Future.State.FAILED ? read.result().exceptionNow() : null;
+                metrics.recordBatched(read.operation(), failure, now - read.startNanos());
+            }
+        }
+    }
+
+    private void sendDirect(Read<?> read) {
+        directReads.increment();
+        try {
+            metrics.record(read.operation(), () -> restTemplate.execute(
+                    directUrl(read.route()),
+                    HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                    response -> {
+                        try (JsonParser parser = jsonFactory.createParser(response.getBody())) {
+                            parser.nextToken();
+                            read.decode(parser);
+                        }
+                        return null;
+                    }
+            ));
+        } catch (RuntimeException e) {
+            read.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Läser /batch-svaret i samma ordning som adresserna skickades
+     */
+    private void demultiplex(List<Read<?>> reads, InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Förväntade en JSON-array från /batch, fick " + parser.currentToken());
+            }
+            for (Read<?> read : reads) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return;
+                }
+                readItem(parser, read);
+            }
+        }
+    }
+
+    /**
+     * Ett element är {"200": svar} vid lyckad läsning, annars {"404": "..."} eller
+     * {"name": ..., "message": ..., "statusCode": 400}
+     */
+    private void readItem(JsonParser parser, Read<?> read) throws IOException {
+        int status = 0;
+        String message = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            if (status == 0 && isStatus(field)) {
+                status = Integer.parseInt(field);
+                if (status / 100 == 2) {
+                    read.decode(parser);
+                } else {
+                    message = message(parser);
+                }
+            } else if ("statusCode".equals(field)) {
+                status = parser.getValueAsInt();
+            } else if ("message".equals(field)) {
+                message = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (!read.result().isDone()) {
+            failedItems.increment();
+            read.result().completeExceptionally(itemError(status, message, read.route()));
+        }
+    }
+
+    /**
+     * Felmeddelandet är antingen en sträng eller ett objekt med fältet message
+     */
+    private static String message(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue()) {
+            return parser.getValueAsString();
+        }
+        String message = null;
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                parser.nextToken();
+                if ("message".equals(field)) {
+                    message = parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return message;
+    }
+
+    private static boolean isStatus(String field) {
+        return field.length() == 3 && field.chars().allMatch(Character::isDigit);
+    }
+
+    private static RestClientException itemError(int status, String message, String route) {
+        String text = message != null ? message : route;
+        if (status >= 500 && status < 600) {
+            return new HttpServerErrorException(HttpStatusCode.valueOf(status), text);
+        }
+        if (status >= 400 && status < 500) {
+            return new HttpClientErrorException(HttpStatusCode.valueOf(status), text);
+        }
+        return new RestClientException("Ogiltigt svar i /batch för " + route + ": " + text);
+    }
+
+    private URI directUrl(String route) {
+        String separator = route.indexOf('?') >= 0 ? "&" : "?";
+        return URI.create(trelloConfig.getBaseUrl() + route + separator + credentials());
+    }
+
+    /**
+     * Adresserna skiljs åt med kommatecken, så kommatecken inuti en adress (t.ex. fields=id,name)
+     * kodas först som %2C och hela adressen kodas sedan som ett query-värde
+     */
+    private URI batchUrl(List<Read<?>> reads) {
+        String urls = reads.stream()
+                .map(read -> encode(read.route().replace(",", "%2C")))
+                .collect(Collectors.joining(","));
+        return URI.create(trelloConfig.getBaseUrl() + "/batch?urls=" + urls + "&" + credentials());
+    }
+
+    private String credentials() {
+        return "key=" + encode(trelloConfig.getKey()) + "&token=" + encode(trelloConfig.getToken());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value == null ? "" : value, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Samma undantag som ett eget anrop hade gett, så att felhanteringen blir densamma
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Statistik för /api/trello/stats/batch
+     */
+    public Map<String, Object> stats() {
+        long batchCount = batches.sum();
+        long batched = batchedReads.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", batchConfig.isEnabled());
+        result.put("batches", batchCount);
+        result.put("batchedReads", batched);
+        result.put("directReads", directReads.sum());
+        result.put("failedItems", failedItems.sum());
+        result.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) batched / batchCount);
+        return result;
+    }
+}
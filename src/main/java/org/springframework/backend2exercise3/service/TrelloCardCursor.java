@@ -0,0 +1,46 @@
+package org.springframework.backend2exercise3.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Opak cursor för sidindelad läsning av kort: listans id och id för sista kortet på
+ * föregående sida (Trellos before=), base64url-kodat. Anroparen ska inte tolka den;
+ * formatet kan ändras och versionsprefixet gör att gamla cursors kan avvisas.
+ */
+public final class TrelloCardCursor {
+
+    private static final String VERSION = "c1";
+    private static final Pattern ID = Pattern.compile("[0-9A-Za-z]+");
+
+    private TrelloCardCursor() {}
+
+    public static String encode(String listId, String beforeCardId) {
+        String raw = VERSION + ":" + listId + ":" + beforeCardId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Cursor från en tidigare sida
+     * @param listId Listan som läses; cursorn måste komma från samma lista
+     * @return Kort-id att skicka som before=
+     * @throws IllegalArgumentException om cursorn är trasig eller hör till en annan lista
+     */
+    public static String decode(String cursor, String listId) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ogiltig cursor");
+        }
+        String[] parts = raw.split(":", -1);
+        if (parts.length != 3 || !VERSION.equals(parts[0]) || !ID.matcher(parts[2]).matches()) {
+            throw new IllegalArgumentException("Ogiltig cursor");
+        }
+        if (!parts[1].equals(listId)) {
+            throw new IllegalArgumentException("Cursorn hör till en annan lista");
+        }
+        return parts[2];
+    }
+}
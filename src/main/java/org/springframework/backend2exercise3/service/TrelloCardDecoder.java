@@ -0,0 +1,201 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TrelloCard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Strömmande avkodning av Trellos kort-arrayer med Jacksons token-API.
+ * Fälten läses direkt in i Task/TrelloCard utan mellanliggande Map-objekt,
+ * okända fält hoppas över utan att byggas upp.
+ */
+@Component
+public class TrelloCardDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrelloCardDecoder.class);
+
+    /**
+     * Fältprojektion (fields=) som räcker för Task-konverteringen
+     */
+    public static final String TASK_FIELDS = "id,name,desc,url,idList,idBoard,due";
+
+    /**
+     * Fältprojektion (fields=) som räcker för TrelloCard
+     */
+    public static final String CARD_FIELDS =
+            "id,name,desc,idList,idBoard,due,dueComplete,closed,url,shortUrl,dateLastActivity,pos,idLabels,idMembers";
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public TrelloCardDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Avkodar en kort-array till Task-objekt
+     * @param in JSON-ström med en array av kort
+     * @return Lista av Task-objekt
+     */
+    public List<Task> readTasks(InputStream in) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        forEachTask(in, tasks::add);
+        return tasks;
+    }
+
+    /**
+     * Avkodar en kort-array och lämnar varje Task till consumern så fort den är läst
+     * @param in JSON-ström med en array av kort
+     * @param consumer Tar emot varje avkodad Task
+     */
+    public void forEachTask(InputStream in, Consumer<Task> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            parser.nextToken();
+            forEachTask(parser, consumer);
+        }
+    }
+
+    /**
+     * Som forEachTask(InputStream, Consumer) men för en kort-array inuti ett större svar, t.ex. från /batch
+     * @param parser Står på arrayens START_ARRAY; står på dess END_ARRAY efteråt
+     * @param consumer Tar emot varje avkodad Task
+     */
+    public void forEachTask(JsonParser parser, Consumer<Task> consumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Förväntade en JSON-array av kort, fick " + parser.currentToken());
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            consumer.accept(readTask(parser));
+        }
+    }
+
+    /**
+     * Avkodar en kort-array till TrelloCard-objekt
+     * @param in JSON-ström med en array av kort
+     * @return Lista av TrelloCard-objekt
+     */
+    public List<TrelloCard> readCards(InputStream in) throws IOException {
+        List<TrelloCard> cards = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            expectArray(parser);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                cards.add(readCard(parser));
+            }
+        }
+        return cards;
+    }
+
+    private static void expectArray(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Förväntade en JSON-array av kort, fick " + parser.currentToken());
+        }
+    }
+
+    private static Task readTask(JsonParser parser) throws IOException {
+        Task task = new Task();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> {
+                    task.setId(parser.getValueAsString());
+                    task.setTrelloCardId(task.getId());
+                }
+                case "name" -> task.setName(parser.getValueAsString());
+                case "desc" -> task.setDescription(parser.getValueAsString());
+                case "url" -> task.setUrl(parser.getValueAsString());
+                case "idList" -> task.setListId(parser.getValueAsString());
+                case "idBoard" -> task.setBoardId(parser.getValueAsString());
+                case "due" -> task.setDueDate(parseDate(parser.getValueAsString()));
+                default -> {
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return task;
+    }
+
+    private static TrelloCard readCard(JsonParser parser) throws IOException {
+        TrelloCard card = new TrelloCard();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> card.setId(parser.getValueAsString());
+                case "name" -> card.setName(parser.getValueAsString());
+                case "desc" -> card.setDescription(parser.getValueAsString());
+                case "idList" -> card.setListId(parser.getValueAsString());
+                case "idBoard" -> card.setBoardId(parser.getValueAsString());
+                case "due" -> card.setDueDate(validDate(parser.getValueAsString()));
+                case "dueComplete" -> card.setDueComplete(parser.getValueAsBoolean());
+                case "closed" -> card.setClosed(parser.getValueAsBoolean());
+                case "url" -> card.setUrl(parser.getValueAsString());
+                case "shortUrl" -> card.setShortUrl(parser.getValueAsString());
+                case "dateLastActivity" -> card.setDateLastActivity(validDate(parser.getValueAsString()));
+                case "pos" -> card.setPosition(parser.getValueAsDouble());
+                case "idLabels" -> card.setLabelIds(readStrings(parser, value));
+                case "idMembers" -> card.setMemberIds(readStrings(parser, value));
+                default -> {
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return card;
+    }
+
+    private static List<String> readStrings(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(parser.getValueAsString());
+        }
+        return values;
+    }
+
+    /**
+     * Trello skickar datum som ISO-8601 i UTC, t.ex. 2025-09-01T12:00:00.000Z.
+     * Ett datum som inte går att tolka räknas som saknat, så att ett trasigt fält inte fäller hela svaret.
+     */
+    static LocalDateTime parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            logger.warn("Ignorerar ogiltigt datum från Trello: {}", value);
+            return null;
+        }
+    }
+
+    /**
+     * TrelloCard behåller datumen som text (BoardReplica jämför dateLastActivity som sträng),
+     * men bara om de går att tolka
+     */
+    private static String validDate(String value) {
+        return parseDate(value) != null ? value : null;
+    }
+}
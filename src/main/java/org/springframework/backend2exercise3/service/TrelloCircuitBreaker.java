@@ -0,0 +1,180 @@
+package org.springframework.backend2exercise3.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.TrelloResilienceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kretsbrytare för Trello-anrop med räknebaserat glidande fönster.
+ * Öppnar när andelen fel eller långsamma anrop bland de senaste anropen passerar tröskeln,
+ * avvisar sedan alla anrop direkt under openDuration och släpper därefter igenom ett fåtal
+ * provanrop (halvöppet). Lyckas alla stängs brytaren, annars öppnas den igen.
+ */
+@Component
+public class TrelloCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrelloCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Ringbuffert med utfall (FAILED | SLOW) för de senaste anropen i stängt läge
+    private final byte[] window;
+    private int position;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openUntilNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private long rejectedCalls;
+    private long openedCount;
+
+    @Autowired
+    public TrelloCircuitBreaker(TrelloResilienceConfig config) {
+        TrelloResilienceConfig.CircuitBreaker breaker = config.getCircuitBreaker();
+        this.window = new byte[breaker.getWindowSize()];
+        this.minimumCalls = Math.min(breaker.getMinimumCalls(), breaker.getWindowSize());
+        this.failureRateThreshold = breaker.getFailureRateThreshold();
+        this.slowCallNanos = breaker.getSlowCallDuration().toNanos();
+        this.slowCallRateThreshold = breaker.getSlowCallRateThreshold();
+        this.openNanos = breaker.getOpenDuration().toNanos();
+        this.halfOpenCalls = breaker.getHalfOpenCalls();
+    }
+
+    /**
+     * Frågar om ett anrop får göras. Ett beviljat anrop måste följas av onResult eller release.
+     * @return false om brytaren är öppen (eller alla provanrop i halvöppet läge är utdelade)
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+            logger.info("Trello-brytaren är halvöppen, släpper igenom {} provanrop", halfOpenCalls);
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+            return true;
+        }
+        rejectedCalls++;
+        return false;
+    }
+
+    /**
+     * Lämnar tillbaka ett beviljat anrop som aldrig nådde Trello
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    /**
+     * Registrerar utfallet av ett anrop som nådde (eller försökte nå) Trello
+     * @param durationNanos Anropets tid
+     * @param failed true vid 5xx, I/O-fel eller timeout
+     */
+    public synchronized void onResult(long durationNanos, boolean failed) {
+        boolean slow = durationNanos >= slowCallNanos;
+        switch (state) {
+            case HALF_OPEN -> {
+                if (failed || slow) {
+                    open();
+                } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+                if (calls >= minimumCalls
+                        && (failures * 100 >= failureRateThreshold * calls
+                        || slowCalls * 100 >= slowCallRateThreshold * calls)) {
+                    logger.warn("Trello-brytaren öppnar: {} fel och {} långsamma av {} anrop",
+                            failures, slowCalls, calls);
+                    open();
+                }
+            }
+            case OPEN -> {
+                // Anrop som startade innan brytaren öppnade påverkar inte läget
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Läge, felandel och antal avvisade anrop
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("calls", calls);
+        stats.put("failureRate", calls == 0 ? 0.0 : failures * 100.0 / calls);
+        stats.put("slowCallRate", calls == 0 ? 0.0 : slowCalls * 100.0 / calls);
+        stats.put("rejectedCalls", rejectedCalls);
+        stats.put("openedCount", openedCount);
+        if (state == State.OPEN) {
+            stats.put("openForMillis", Math.max(0,
+                    TimeUnit.NANOSECONDS.toMillis(openUntilNanos - System.nanoTime())));
+        }
+        return stats;
+    }
+
+    private void record(byte outcome) {
+        if (calls == window.length) {
+            byte evicted = window[position];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        window[position] = outcome;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+        position = (position + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilNanos = System.nanoTime() + openNanos;
+        openedCount++;
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        logger.info("Trello-brytaren är stängd igen");
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        position = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
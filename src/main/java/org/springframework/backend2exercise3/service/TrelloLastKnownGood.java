@@ -0,0 +1,86 @@
+package org.springframework.backend2exercise3.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.backend2exercise3.config.TrelloResilienceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Senast lyckade svar per läsnyckel (samma nycklar som TrelloReadCache), utan TTL.
+ * Används som reserv när Trello inte svarar eller kretsbrytaren är öppen.
+ * Med trello.resilience.enabled=false sparas inget och ingen reserv serveras.
+ */
+@Component
+public class TrelloLastKnownGood {
+
+    /**
+     * Ett sparat svar och när det hämtades från Trello
+     */
+    public record Entry(List<?> value, Instant fetchedAt) {}
+
+    private final boolean enabled;
+    private final Cache<String, Entry> entries;
+    private final Duration maxAge;
+    private final LongAdder staleReads = new LongAdder();
+    private final LongAdder missedReads = new LongAdder();
+
+    @Autowired
+    public TrelloLastKnownGood(TrelloResilienceConfig config) {
+        this.enabled = config.isEnabled();
+        this.maxAge = config.getLastKnownGood().getMaxAge();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(config.getLastKnownGood().getMaximumWeight())
+                .weigher((String key, Entry entry) -> 1 + entry.value().size())
+                .build();
+    }
+
+    /**
+     * Sparar ett lyckat svar. Samma lista som redan är sparad (cacheträff) skrivs inte om.
+     */
+    public void put(String key, List<?> value) {
+        if (!enabled) {
+            return;
+        }
+        Entry current = entries.getIfPresent(key);
+        if (current == null || current.value() != value) {
+            entries.put(key, new Entry(value, Instant.now()));
+        }
+    }
+
+    /**
+     * Senast lyckade svar, om det inte är äldre än maxAge
+     */
+    public Optional<Entry> get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null || entry.fetchedAt().plus(maxAge).isBefore(Instant.now())) {
+            missedReads.increment();
+            return Optional.empty();
+        }
+        staleReads.increment();
+        return Optional.of(entry);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Antal sparade svar, hur många läsningar som fått gammal data och hur många som inte fått något alls
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.estimatedSize());
+        stats.put("staleReads", staleReads.sum());
+        stats.put("missedReads", missedReads.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,141 @@
+package org.springframework.backend2exercise3.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Mätvärden för utgående Trello-anrop, per operation (getBoards, getLists, getCards, createCard, ...):
+ * <ul>
+ *     <li>trello.requests: tid med percentilhistogram, taggad med operation, outcome och status</li>
+ *     <li>trello.requests.errors: antal fel per operation och HTTP-status (IO_ERROR utan svar)</li>
+ *     <li>trello.requests.active: pågående anrop per operation</li>
+ * </ul>
+ * Tiden inkluderar väntan i rate limitern och eventuella omförsök.
+ * Läsningar som gått i ett /batch-anrop registreras dessutom var för sig som "batch.&lt;operation&gt;".
+ */
+@Component
+public class TrelloMetrics {
+
+    static final String REQUESTS = "trello.requests";
+    static final String ERRORS = "trello.requests.errors";
+    static final String ACTIVE = "trello.requests.active";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrelloMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Kör ett anrop mot Trello och registrerar tid, utfall och pågående anrop
+     * @param operation Operationens namn, t.ex. "getCards"
+     * @param call Själva HTTP-anropet
+     * @return Anropets resultat
+     */
+    public <T> T record(String operation, Supplier<T> call) {
+        AtomicInteger inFlight = active.computeIfAbsent(operation, this::registerActive);
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        String status = "200";
+        try {
+            T result = call.get();
+            if (result instanceof ResponseEntity<?> response) {
+                status = String.valueOf(response.getStatusCode().value());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            status = status(e);
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            complete(operation, status, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registrerar en läsning som gick i ett /batch-anrop, så att varje operation syns även när
+     * anropet delades. Operationen taggas "batch.&lt;operation&gt;" för att skiljas från egna anrop.
+     * @param operation Läsningens operation, t.ex. "getCards"
+     * @param failure Läsningens undantag, null om den lyckades
+     * @param nanos Tid från att läsningen köades tills dess svar var avkodat, inklusive batchfönstret
+     */
+    public void recordBatched(String operation, Throwable failure, long nanos) {
+        complete("batch." + operation, failure == null ? "200" : status(failure), nanos);
+    }
+
+    private void complete(String operation, String status, long nanos) {
+        String outcome = outcome(status);
+        timer(operation, outcome, status).record(nanos, TimeUnit.NANOSECONDS);
+        if (!"SUCCESS".equals(outcome)) {
+            Counter.builder(ERRORS)
+                    .description("Misslyckade anrop mot Trello")
+                    .tag("operation", operation)
+                    .tag("status", status)
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    private static String status(Throwable e) {
+        if (e instanceof RestClientResponseException responseException) {
+            return String.valueOf(responseException.getStatusCode().value());
+        }
+        if (e instanceof ResourceAccessException) {
+            return "IO_ERROR";
+        }
+        return "CLIENT_ERROR";
+    }
+
+    private Timer timer(String operation, String outcome, String status) {
+        return Timer.builder(REQUESTS)
+                .description("Tid för anrop mot Trello")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(5))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private AtomicInteger registerActive(String operation) {
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder(ACTIVE, inFlight, AtomicInteger::get)
+                .description("Pågående anrop mot Trello")
+                .tag("operation", operation)
+                .register(registry);
+        return inFlight;
+    }
+
+    /**
+     * Samma indelning som Spring använder för http.client.requests
+     */
+    private static String outcome(String status) {
+        if (status.length() != 3 || !Character.isDigit(status.charAt(0))) {
+            return "UNKNOWN";
+        }
+        return switch (status.charAt(0)) {
+            case '1' -> "INFORMATIONAL";
+            case '2' -> "SUCCESS";
+            case '3' -> "REDIRECTION";
+            case '4' -> "CLIENT_ERROR";
+            default -> "SERVER_ERROR";
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package org.springframework.backend2exercise3.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.TrelloRateLimitConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Går via TrelloRateLimiter före varje anrop och gör om anrop som fått 429
+ * (eller 502/503/504 för GET) med exponentiell backoff och jitter.
+ * Retry-After respekteras när Trello skickar det.
+ * Ligger ytterst, så varje försök går separat genom TrelloResilienceInterceptor.
+ */
+@Component
+public class TrelloRateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrelloRateLimitInterceptor.class);
+
+    private final TrelloRateLimiter rateLimiter;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    @Autowired
+    public TrelloRateLimitInterceptor(TrelloRateLimiter rateLimiter, TrelloRateLimitConfig config) {
+        this.rateLimiter = rateLimiter;
+        this.maxRetries = config.isEnabled() ? config.getMaxRetries() : 0;
+        this.initialBackoffMillis = config.getInitialBackoff().toMillis();
+        this.maxBackoffMillis = config.getMaxBackoff().toMillis();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire();
+            ClientHttpResponse response = execution.execute(request, body);
+
+            int status = response.getStatusCode().value();
+            if (!isRetryable(request.getMethod(), status) || attempt >= maxRetries) {
+                return response;
+            }
+
+            Duration retryAfter = parseRetryAfter(response.getHeaders());
+            Duration delay = retryAfter != null ? withJitter(retryAfter) : backoff(attempt);
+            response.close();
+            rateLimiter.onRetry();
+            logger.warn("Trello svarade {} på {} {}, försök {} av {} om {} ms",
+                    status, request.getMethod(), request.getURI().getPath(), attempt + 1, maxRetries, delay.toMillis());
+
+            if (status == 429) {
+                // Pausar alla anrop, nästa acquire() väntar ut fördröjningen
+                rateLimiter.onRateLimited(delay);
+            } else {
+                sleep(delay);
+            }
+        }
+    }
+
+    private static boolean isRetryable(HttpMethod method, int status) {
+        if (status == 429) {
+            return true;
+        }
+        return HttpMethod.GET.equals(method) && (status == 502 || status == 503 || status == 504);
+    }
+
+    /**
+     * Exponentiell backoff med "equal jitter": halva fördröjningen fast, halva slumpad
+     */
+    Duration backoff(int attempt) {
+        long exponential = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 20));
+        long half = exponential / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private static Duration withJitter(Duration retryAfter) {
+        long millis = retryAfter.toMillis();
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 10 + 1));
+    }
+
+    /**
+     * Retry-After kan vara antal sekunder eller ett HTTP-datum
+     */
+    static Duration parseRetryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static void sleep(Duration delay) throws IOException {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Avbruten under backoff mot Trello");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.config.TrelloRateLimitConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket som delas av alla utgående Trello-anrop.
+ * Anrop reserverar en token och väntar tills den är giltig, så att bursts jämnas ut
+ * istället för att ge 429. Ett 429-svar pausar hela bucketen tills Retry-After passerat.
+ */
+@Component
+public class TrelloRateLimiter {
+
+    private final boolean enabled;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long maxWaitNanos;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong throttledRequests = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong rateLimitedResponses = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    @Autowired
+    public TrelloRateLimiter(TrelloRateLimitConfig config) {
+        this.enabled = config.isEnabled();
+        this.capacity = Math.max(1, config.getBurst());
+        // Burst + påfyllning under ett fönster får inte överstiga requestsPerWindow
+        double refillPerWindow = Math.max(1, config.getRequestsPerWindow() - config.getBurst());
+        this.tokensPerNano = refillPerWindow / config.getWindow().toNanos();
+        this.maxWaitNanos = config.getMaxWait().toNanos();
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Väntar tills ett anrop får skickas
+     * @throws ResourceAccessException om väntetiden skulle överstiga maxWait
+     */
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        throttledRequests.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        queueDepth.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Avbruten i väntan på Trello rate limit");
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+
+        tokens -= 1;
+        long tokenWait = tokens >= 0 ? 0 : (long) (-tokens / tokensPerNano);
+        long wait = Math.max(tokenWait, pausedUntilNanos - now);
+
+        if (wait > maxWaitNanos) {
+            tokens += 1;
+            rejectedRequests.incrementAndGet();
+            throw new ResourceAccessException("Trello rate limit: kön är full, väntetid "
+                    + TimeUnit.NANOSECONDS.toMillis(wait) + " ms");
+        }
+        return wait;
+    }
+
+    /**
+     * Registrerar ett 429-svar och pausar alla anrop under den angivna tiden
+     * @param delay Tid att vänta innan nästa anrop
+     */
+    public void onRateLimited(Duration delay) {
+        rateLimitedResponses.incrementAndGet();
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            long until = System.nanoTime() + delay.toNanos();
+            pausedUntilNanos = Math.max(pausedUntilNanos, until);
+            // Trello har redan räknat av kvoten, börja om med tom bucket
+            tokens = Math.min(tokens, 0);
+        }
+    }
+
+    public void onRetry() {
+        retries.incrementAndGet();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Kö- och strypningsstatistik
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queueDepth", queueDepth.get());
+        stats.put("throttledRequests", throttledRequests.get());
+        stats.put("rejectedRequests", rejectedRequests.get());
+        stats.put("totalWaitMillis", TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()));
+        stats.put("rateLimitedResponses", rateLimitedResponses.get());
+        stats.put("retries", retries.get());
+        synchronized (this) {
+            stats.put("availableTokens", Math.max(0, tokens));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,120 @@
+package org.springframework.backend2exercise3.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.backend2exercise3.config.TrelloCacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read-through-cache framför Trellos läsanrop (boards, listor och kort).
+ * Caffeine ger TTL, viktbegränsning och W-TinyLFU-vräkning. Vid miss går laddningen via
+ * TrelloSingleFlight så att samtidiga anropare för samma nyckel delar ett enda Trello-anrop,
+ * även när cachen är avstängd.
+ */
+@Component
+public class TrelloReadCache {
+
+    private final boolean enabled;
+    private final Cache<String, List<?>> cache;
+    private final TrelloSingleFlight singleFlight;
+
+    @Autowired
+    public TrelloReadCache(TrelloCacheConfig cacheConfig, TrelloSingleFlight singleFlight) {
+        this.enabled = cacheConfig.isEnabled();
+        this.singleFlight = singleFlight;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(cacheConfig.getTtl())
+                .maximumWeight(cacheConfig.getMaximumWeight())
+                .weigher((String key, List<?> value) -> 1 + value.size())
+                .recordStats()
+                .build();
+    }
+
+    public static String boardsKey() {
+        return "boards";
+    }
+
+    public static String listsKey(String boardId) {
+        return "lists:" + boardId;
+    }
+
+    public static String cardsKey(String listId) {
+        return "cards:" + listId;
+    }
+
+    /**
+     * Hämtar ett värde från cachen eller laddar det med loadern vid miss.
+     * Undantag från loadern propageras och ingenting cachas.
+     * @param key Cachenyckel
+     * @param loader Hämtar värdet från Trello
+     * @return Oföränderlig lista
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String key, Supplier<List<T>> loader) {
+        if (!enabled) {
+            return singleFlight.execute(key, () -> List.copyOf(loader.get()));
+        }
+        // Träffar går förbi single-flight; vid miss väntar övriga på ledarens laddning
+        // istället för att blockera i Caffeines compute (som låser bärartråden)
+        List<?> cached = cache.policy().getIfPresentQuietly(key);
+        if (cached != null) {
+            cache.getIfPresent(key); // räknar träffen och uppdaterar frekvensen för vräkningen
+            return (List<T>) cached;
+        }
+        return singleFlight.execute(key, () -> (List<T>) cache.get(key, k -> List.copyOf(loader.get())));
+    }
+
+    /**
+     * Hämtar ett cachat värde utan att ladda vid miss
+     * @param key Cachenyckel
+     * @return Oföränderlig lista, tom om nyckeln saknas eller cachen är avstängd
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<List<T>> getIfPresent(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((List<T>) cache.getIfPresent(key));
+    }
+
+    /**
+     * Tar bort nyckeln ur cachen och släpper en pågående laddning, som kan ha startat före skrivningen
+     */
+    public void invalidate(String key) {
+        singleFlight.forget(key);
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Träff-, miss- och vräkningsräknare för dimensionering av cachen
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictionWeight", stats.evictionWeight());
+        result.put("loadFailures", stats.loadFailureCount());
+        result.put("entries", cache.estimatedSize());
+        cache.policy().eviction().ifPresent(eviction -> {
+            result.put("weight", eviction.weightedSize().orElse(0L));
+            result.put("maximumWeight", eviction.getMaximum());
+        });
+        return result;
+    }
+}
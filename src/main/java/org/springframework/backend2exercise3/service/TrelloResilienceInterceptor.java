@@ -0,0 +1,106 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.config.TrelloResilienceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kretsbrytare och bulkhead runt varje enskilt försök mot Trello.
+ * Ligger innanför TrelloRateLimitInterceptor: väntan på en token, pausen efter 429 och backoff
+ * mellan försök ingår varken i brytarens tidmätning eller håller en plats i bulkheaden.
+ * Annars blir friska anrop "långsamma" efter en 429-paus och brytaren öppnar fast Trello svarar,
+ * och de som väntar i rate limitern tar alla platser så att nästa anrop avvisas.
+ * Avvisade anrop ger TrelloUnavailableException direkt istället för att vänta ut en timeout.
+ */
+@Component
+public class TrelloResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+    private final boolean enabled;
+    private final TrelloCircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final AtomicLong bulkheadRejected = new AtomicLong();
+
+    @Autowired
+    public TrelloResilienceInterceptor(TrelloResilienceConfig config, TrelloCircuitBreaker circuitBreaker) {
+        this.enabled = config.isEnabled();
+        this.circuitBreaker = circuitBreaker;
+        this.maxConcurrent = config.getBulkhead().getMaxConcurrent();
+        this.bulkhead = new Semaphore(maxConcurrent, true);
+        this.maxWaitNanos = config.getBulkhead().getMaxWait().toNanos();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (!enabled) {
+            return execution.execute(request, body);
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new TrelloUnavailableException("Trello-brytaren är öppen, anropet skickades inte");
+        }
+        if (!acquireBulkhead()) {
+            circuitBreaker.release();
+            bulkheadRejected.incrementAndGet();
+            throw new TrelloUnavailableException("För många samtidiga Trello-anrop (max " + maxConcurrent + ")");
+        }
+
+        long start = System.nanoTime();
+        boolean reachedTrello = false;
+        boolean failed = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            reachedTrello = true;
+            failed = response.getStatusCode().is5xxServerError();
+            return response;
+        } catch (IOException e) {
+            reachedTrello = true;
+            throw e;
+        } finally {
+            bulkhead.release();
+            if (reachedTrello) {
+                circuitBreaker.onResult(System.nanoTime() - start, failed);
+            } else {
+                // Varken svar eller I/O-fel, t.ex. ett RuntimeException i request-fabriken: inget fel hos Trello
+                circuitBreaker.release();
+            }
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Brytarens läge samt bulkheadens lediga platser och avvisningar
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("circuitBreaker", circuitBreaker.stats());
+        Map<String, Object> bulkheadStats = new LinkedHashMap<>();
+        bulkheadStats.put("maxConcurrent", maxConcurrent);
+        bulkheadStats.put("available", bulkhead.availablePermits());
+        bulkheadStats.put("queued", bulkhead.getQueueLength());
+        bulkheadStats.put("rejected", bulkheadRejected.get());
+        stats.put("bulkhead", bulkheadStats);
+        return stats;
+    }
+}
@@ -1,38 +1,90 @@
 package org.springframework.backend2exercise3.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import org.springframework.backend2exercise3.config.TrelloConfig;
 import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskCursorPage;
 import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.model.TrelloBoard;
+import org.springframework.backend2exercise3.model.TrelloAction;
+import org.springframework.backend2exercise3.model.TrelloBoardSnapshot;
+import org.springframework.backend2exercise3.model.TrelloCard;
+import org.springframework.backend2exercise3.model.TrelloReadResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class TrelloService {
 
     private static final Logger logger = LoggerFactory.getLogger(TrelloService.class);
 
+    /**
+     * Största sidan för getCardsPage: Trello tar limit upp till 1000 och vi ber om ett kort extra
+     */
+    public static final int MAX_PAGE_SIZE = 999;
+
     private final TrelloConfig trelloConfig;
     private final RestTemplate restTemplate;
+    private final TrelloReadCache readCache;
+    private final TrelloCardDecoder cardDecoder;
+    private final ExecutorService ioExecutor;
+    private final BoardReplica boardReplica;
+    private final TrelloMetrics metrics;
+    private final TrelloSingleFlight singleFlight;
+    private final TrelloLastKnownGood lastKnownGood;
+    private final TrelloBatchReader batchReader;
+    // Nycklar som just nu uppdateras i bakgrunden efter att gammal data serverats
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
 
     @Autowired
-    public TrelloService(TrelloConfig trelloConfig) {
+    public TrelloService(TrelloConfig trelloConfig, RestTemplate trelloRestTemplate,
+                         TrelloReadCache readCache, TrelloCardDecoder cardDecoder,
+                         ExecutorService trelloIoExecutor, BoardReplica boardReplica,
+                         TrelloMetrics metrics, TrelloSingleFlight singleFlight,
+                         TrelloLastKnownGood lastKnownGood, TrelloBatchReader batchReader) {
         this.trelloConfig = trelloConfig;
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = trelloRestTemplate;
+        this.readCache = readCache;
+        this.cardDecoder = cardDecoder;
+        this.ioExecutor = trelloIoExecutor;
+        this.boardReplica = boardReplica;
+        this.metrics = metrics;
+        this.singleFlight = singleFlight;
+        this.lastKnownGood = lastKnownGood;
+        this.batchReader = batchReader;
     }
 
     /**
      * Hämtar kort från standard-listan (om konfigurerad)
-     * @return Lista av kort som Task-objekt
+     * @return Lista av kort som Task-objekt, oföränderlig eftersom den delas med cachen
      */
     public List<Task> getCardsFromDefaultList() {
         if (!trelloConfig.hasDefaultListId()) {
@@ -57,7 +109,7 @@ public class TrelloService {
 
     /**
      * Hämtar listor från den konfigurerade boarden
-     * @return Lista av listor som Map-objekt
+     * @return Lista av listor som Map-objekt, oföränderlig eftersom den delas med cachen
      */
     public List<Map<String, Object>> getListsFromConfiguredBoard() {
         if (trelloConfig.getBoardId() == null || trelloConfig.getBoardId().isEmpty()) {
@@ -67,6 +119,67 @@ public class TrelloService {
         return getLists(trelloConfig.getBoardId());
     }
 
+    /**
+     * Hämtar kort från alla listor på den konfigurerade boarden parallellt.
+     * Alla listor läses samtidigt inom en gemensam tidsgräns; om en läsning misslyckas
+     * slutar anropet vänta på resten, så att väggklockan blir den långsammaste listan istället för summan.
+     * @return Kort per list-ID i listornas ordning, tom vid fel
+     */
+    public Map<String, List<Task>> getCardsFromConfiguredBoard() {
+        List<Map<String, Object>> lists = getListsFromConfiguredBoard();
+        logger.info("Hämtar kort parallellt från {} listor", lists.size());
+
+        try {
+            return fetchCardsConcurrently(lists);
+        } catch (RestClientException e) {
+            logger.error("Fel vid parallell hämtning av kort: {}", e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private Map<String, List<Task>> fetchCardsConcurrently(List<Map<String, Object>> lists) {
+        long deadline = System.nanoTime() + trelloConfig.getFanOutTimeout().toNanos();
+        ExecutorCompletionService<List<Task>> completion = new ExecutorCompletionService<>(ioExecutor);
+        Map<Future<List<Task>>, String> pending = new HashMap<>();
+
+        for (Map<String, Object> list : lists) {
+            String listId = (String) list.get("id");
+            pending.put(completion.submit(() -> readCards(listId)), listId);
+        }
+
+        Map<String, List<Task>> cardsByList = new HashMap<>();
+        try {
+            while (!pending.isEmpty()) {
+                Future<List<Task>> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new ResourceAccessException("Tidsgränsen på "
+                            + trelloConfig.getFanOutTimeout().toMillis() + " ms överskreds");
+                }
+                String listId = pending.remove(done);
+                cardsByList.put(listId, done.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Avbruten under parallell hämtning");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RestClientException restClientException
+                    ? restClientException
+                    : new RestClientException("Fel vid hämtning av lista", e.getCause());
+        } finally {
+            // Vid fel eller timeout stryks läsningar som inte startat, men pågående avbryts inte:
+            // via single-flight och /batch kan andra anropare vänta på samma läsning, och ett
+            // avbrott skulle ge dem den här anroparens fel. De blir klara och hamnar i cachen.
+            pending.keySet().forEach(future -> future.cancel(false));
+        }
+
+        Map<String, List<Task>> ordered = new LinkedHashMap<>();
+        for (Map<String, Object> list : lists) {
+            String listId = (String) list.get("id");
+            ordered.put(listId, cardsByList.get(listId));
+        }
+        return ordered;
+    }
+
     /**
      * Skapar en uppgift baserat på TaskForm (används av controllern)
      * Denna metod fungerar som en bro mellan webbformuläret och Trello API:et
@@ -75,6 +188,18 @@ public class TrelloService {
      * @throws Exception om något går fel under skapandet
      */
     public boolean createTask(TaskForm taskForm) throws Exception {
+        createTaskCard(taskForm);
+        return true;
+    }
+
+    /**
+     * Skapar en uppgift baserat på TaskForm och returnerar det nya kortets ID.
+     * Omsändningar av formuläret avdubblas av TaskPlatformRouter, inte här.
+     * @param taskForm Formulärdata
+     * @return ID för det skapade Trello-kortet
+     * @throws Exception om något går fel under skapandet
+     */
+    public String createTaskCard(TaskForm taskForm) throws Exception {
         logger.info("Skapar uppgift från formulär: {}", taskForm.getTitle());
 
         // Validera att vi har nödvändiga konfigurationer
@@ -91,14 +216,17 @@ public class TrelloService {
             Task task = convertFormToTask(taskForm);
 
             // Skapa kortet i Trello
-            boolean success = createCard(trelloConfig.getDefaultListId(), task);
+            String cardId = createCardAndReturnId(trelloConfig.getDefaultListId(), task);
 
-            if (success) {
-                logger.info("Uppgift '{}' skapad framgångsrikt", taskForm.getTitle());
-                return true;
-            } else {
+            if (cardId == null) {
                 throw new Exception("Kunde inte skapa uppgift i Trello. Kontrollera API-konfiguration.");
             }
+            if (cardId.isEmpty()) {
+                // Utan id kan kortet varken spåras eller ges till en dubblett, så det räknas som misslyckat
+                throw new Exception("Trello svarade utan kort-id");
+            }
+            logger.info("Uppgift '{}' skapad framgångsrikt", taskForm.getTitle());
+            return cardId;
 
         } catch (RestClientException e) {
             logger.error("API-fel vid skapande av uppgift: {}", e.getMessage());
@@ -114,7 +242,7 @@ public class TrelloService {
      * @param taskForm Formulärdata
      * @return Task-objekt redo för Trello API
      */
-    private Task convertFormToTask(TaskForm taskForm) {
+    public Task convertFormToTask(TaskForm taskForm) {
         Task task = new Task();
         task.setName(taskForm.getTitle());
         task.setDescription(taskForm.getDescription() != null ? taskForm.getDescription() : "");
@@ -135,7 +263,7 @@ public class TrelloService {
 
     /**
      * Hämtar alla uppgifter från standard-listan för visning på webbsidan
-     * @return Lista med uppgifter som kan visas i Thymeleaf-mall
+     * @return Lista med uppgifter som kan visas i Thymeleaf-mall, oföränderlig eftersom den delas med cachen
      */
     public List<Task> getAllTasksForDisplay() {
         logger.info("Hämtar alla uppgifter för visning");
@@ -160,137 +288,454 @@ public class TrelloService {
 
     /**
      * Hämtar alla boards för den autentiserade användaren
-     * @return Lista av boards som Map-objekt
+     * @return Lista av boards som Map-objekt, oföränderlig eftersom den delas med cachen
      */
     public List<Map<String, Object>> getBoards() {
         logger.info("Hämtar boards från Trello API");
 
         try {
-            String url = UriComponentsBuilder
-                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/members/me/boards")
-                    .queryParam("key", trelloConfig.getKey())
-                    .queryParam("token", trelloConfig.getToken())
-                    .queryParam("filter", "open")
-                    .toUriString();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<List> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    List.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                logger.info("Lyckades hämta {} boards", response.getBody().size());
-                return response.getBody();
-            } else {
-                logger.warn("Oväntat svar från Trello API: {}", response.getStatusCode());
-                return new ArrayList<>();
-            }
-
+            String key = TrelloReadCache.boardsKey();
+            return readWithFallback(key, () -> readCache.get(key, this::fetchBoards)).getValue();
         } catch (RestClientException e) {
             logger.error("Fel vid hämtning av boards: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
 
+    private List<Map<String, Object>> fetchBoards() {
+        String route = UriComponentsBuilder
+                .fromPath("/members/me/boards")
+                .queryParam("filter", "open")
+                .build().encode().toUriString();
+
+        List<Map<String, Object>> boards = batchReader.read("getBoards", route, TrelloService::readMaps);
+        logger.info("Lyckades hämta {} boards", boards.size());
+        return boards;
+    }
+
     /**
      * Hämtar listor från en specifik board
      * @param boardId Board ID att hämta listor från
-     * @return Lista av listor som Map-objekt
+     * @return Lista av listor som Map-objekt, oföränderlig eftersom den delas med cachen
      */
     public List<Map<String, Object>> getLists(String boardId) {
         logger.info("Hämtar listor för board: {}", boardId);
 
         try {
-            String url = UriComponentsBuilder
-                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/boards/" + boardId + "/lists")
-                    .queryParam("key", trelloConfig.getKey())
-                    .queryParam("token", trelloConfig.getToken())
-                    .queryParam("filter", "open")
-                    .toUriString();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<List> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    List.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                logger.info("Lyckades hämta {} listor", response.getBody().size());
-                return response.getBody();
-            } else {
-                logger.warn("Oväntat svar från Trello API: {}", response.getStatusCode());
-                return new ArrayList<>();
+            Optional<List<Map<String, Object>>> replicated = boardReplica.getLists(boardId);
+            if (replicated.isPresent()) {
+                return replicated.get();
             }
-
+            String key = TrelloReadCache.listsKey(boardId);
+            return readWithFallback(key, () -> readCache.get(key, () -> fetchLists(boardId))).getValue();
         } catch (RestClientException e) {
             logger.error("Fel vid hämtning av listor: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
 
+    private List<Map<String, Object>> fetchLists(String boardId) {
+        String route = UriComponentsBuilder
+                .fromPath("/boards/" + boardId + "/lists")
+                .queryParam("filter", "open")
+                .build().encode().toUriString();
+
+        List<Map<String, Object>> lists = batchReader.read("getLists", route, TrelloService::readMaps);
+        logger.info("Lyckades hämta {} listor", lists.size());
+        return lists;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> readMaps(JsonParser parser) throws IOException {
+        return parser.readValueAs(List.class);
+    }
+
     /**
      * Hämtar kort från en specifik lista
      * @param listId Lista ID att hämta kort från
-     * @return Lista av kort som Task-objekt
+     * @return Lista av kort som Task-objekt, oföränderlig eftersom den delas med cachen.
+     *         Kopiera den (new ArrayList&lt;&gt;(...)) för att sortera eller filtrera på plats.
      */
     public List<Task> getCards(String listId) {
+        return getCardsResult(listId).getValue();
+    }
+
+    /**
+     * Hämtar kort från en specifik lista och talar om hur färska de är.
+     * Svarar inte Trello serveras senast lyckade svar markerat som STALE,
+     * finns inget sådant blir resultatet tomt och markerat som UNAVAILABLE.
+     * @param listId Lista ID att hämta kort från
+     * @return Korten som Task-objekt och deras färskhet; listan är oföränderlig
+     */
+    public TrelloReadResult<List<Task>> getCardsResult(String listId) {
         logger.info("Hämtar kort för lista: {}", listId);
 
         try {
-            String url = UriComponentsBuilder
-                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/lists/" + listId + "/cards")
+            return readCardsResult(listId);
+        } catch (RestClientException e) {
+            logger.error("Fel vid hämtning av kort: {}", e.getMessage());
+            return TrelloReadResult.unavailable(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Hämtar en sida med kort via Trellos limit/before. Bara sidan läses och hålls i minnet,
+     * oavsett hur stor listan är; sidorna läses alltid från Trello, inte ur cache eller board-kopia.
+     * Trello lämnar korten nyast först, så nästa sida börjar före sista kortet på den här.
+     * @param listId Lista ID att hämta kort från
+     * @param limit Antal kort per sida, 1 till MAX_PAGE_SIZE
+     * @param cursor nextCursor från föregående sida, eller null för första sidan
+     * @return Sidan; UNAVAILABLE med tom sida och samma cursor om Trello inte svarar
+     * @throws IllegalArgumentException om cursorn är ogiltig eller hör till en annan lista
+     */
+    public TrelloReadResult<TaskCursorPage> getCardsPage(String listId, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String before = cursor == null || cursor.isEmpty() ? null : TrelloCardCursor.decode(cursor, listId);
+        logger.info("Hämtar sida med kort för lista: {} (limit {}, före {})", listId, pageSize, before);
+
+        URI url = cardsUrl(listId)
+                // Ett extra kort avgör om det finns fler sidor
+                .queryParam("limit", pageSize + 1)
+                .queryParamIfPresent("before", Optional.ofNullable(before))
+                .build().encode().toUri();
+        List<Task> items = new ArrayList<>(pageSize);
+        boolean[] hasMore = {false};
+        try {
+            decodeCards("getCardsPage", url, task -> {
+                if (items.size() < pageSize) {
+                    items.add(task);
+                } else {
+                    hasMore[0] = true;
+                }
+            });
+        } catch (RestClientException e) {
+            logger.error("Fel vid hämtning av sida med kort: {}", e.getMessage());
+            return TrelloReadResult.unavailable(new TaskCursorPage(listId, List.of(), pageSize, cursor, true));
+        }
+        String nextCursor = hasMore[0]
+                ? TrelloCardCursor.encode(listId, items.get(items.size() - 1).getTrelloCardId())
+                : null;
+        return TrelloReadResult.fresh(new TaskCursorPage(listId, items, pageSize, nextCursor, hasMore[0]));
+    }
+
+    private List<Task> readCards(String listId) {
+        return readCardsResult(listId).getValue();
+    }
+
+    /**
+     * Lämnar kort från en lista i chunkar medan de läses, för strömmad rendering.
+     * Finns listan i board-kopian eller cachen delas den upp därifrån; annars avkodas Trellos
+     * svar kort för kort och hela listan byggs aldrig upp i minnet (den cachas då inte heller).
+     * Misslyckas läsningen innan något kort lämnats serveras senast lyckade svar som STALE.
+     * @param listId Lista ID att hämta kort från
+     * @param chunkSize Max antal kort per chunk
+     * @param chunks Tar emot varje chunk med korten och deras färskhet
+     * @return Antal lämnade kort; UNAVAILABLE om läsningen misslyckades (listan kan då vara ofullständig)
+     */
+    public TrelloReadResult<Integer> forEachCardChunk(String listId, int chunkSize,
+                                                      Consumer<TrelloReadResult<List<Task>>> chunks) {
+        logger.info("Strömmar kort för lista: {}", listId);
+        String key = TrelloReadCache.cardsKey(listId);
+        Optional<List<Task>> replicated = boardReplica.getTasks(listId);
+        if (replicated.isPresent()) {
+            return emitChunks(replicaResult(replicated.get()), chunkSize, chunks);
+        }
+        Optional<List<Task>> cached = readCache.getIfPresent(key);
+        if (cached.isPresent()) {
+            return emitChunks(TrelloReadResult.fresh(cached.get()), chunkSize, chunks);
+        }
+
+        List<Task> chunk = new ArrayList<>(chunkSize);
+        int[] emitted = {0};
+        try {
+            streamCards(listId, task -> {
+                chunk.add(task);
+                if (chunk.size() == chunkSize) {
+                    emitted[0] += chunk.size();
+                    chunks.accept(TrelloReadResult.fresh(List.copyOf(chunk)));
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                emitted[0] += chunk.size();
+                chunks.accept(TrelloReadResult.fresh(List.copyOf(chunk)));
+            }
+            return TrelloReadResult.fresh(emitted[0]);
+        } catch (RestClientException e) {
+            if (emitted[0] == 0 && isTemporary(e)) {
+                Optional<TrelloLastKnownGood.Entry> known = lastKnownGood.get(key);
+                if (known.isPresent()) {
+                    logger.warn("Trello svarar inte ({}), serverar data från {} för {}",
+                            e.getMessage(), known.get().fetchedAt(), key);
+                    refreshInBackground(key, () -> readCache.get(key, () -> fetchCards(listId)));
+                    @SuppressWarnings("unchecked")
+                    List<Task> tasks = (List<Task>) known.get().value();
+                    return emitChunks(TrelloReadResult.stale(tasks, known.get().fetchedAt()), chunkSize, chunks);
+                }
+            }
+            logger.error("Fel vid strömning av kort efter {} kort: {}", emitted[0], e.getMessage());
+            return TrelloReadResult.unavailable(emitted[0]);
+        }
+    }
+
+    private static TrelloReadResult<Integer> emitChunks(TrelloReadResult<List<Task>> result, int chunkSize,
+                                                        Consumer<TrelloReadResult<List<Task>>> chunks) {
+        List<Task> tasks = result.getValue();
+        for (int from = 0; from < tasks.size(); from += chunkSize) {
+            List<Task> chunk = tasks.subList(from, Math.min(from + chunkSize, tasks.size()));
+            chunks.accept(new TrelloReadResult<>(chunk, result.getFreshness(), result.getFetchedAt()));
+        }
+        return new TrelloReadResult<>(tasks.size(), result.getFreshness(), result.getFetchedAt());
+    }
+
+    /**
+     * Läser ur board-kopian när listan finns där, annars via cachen från Trello
+     */
+    private TrelloReadResult<List<Task>> readCardsResult(String listId) {
+        Optional<List<Task>> replicated = boardReplica.getTasks(listId);
+        if (replicated.isPresent()) {
+            return replicaResult(replicated.get());
+        }
+        String key = TrelloReadCache.cardsKey(listId);
+        return readWithFallback(key, () -> readCache.get(key, () -> fetchCards(listId)));
+    }
+
+    /**
+     * Kort ur board-kopian är färska, utom när kopian lästs från disk och ännu inte bekräftats mot Trello
+     */
+    private TrelloReadResult<List<Task>> replicaResult(List<Task> tasks) {
+        Instant restoredAt = boardReplica.getRestoredAt();
+        return restoredAt == null ? TrelloReadResult.fresh(tasks) : TrelloReadResult.stale(tasks, restoredAt);
+    }
+
+    /**
+     * Läser från Trello och sparar svaret som senast lyckade. Misslyckas läsningen tillfälligt
+     * (I/O-fel, timeout, 5xx eller öppen brytare) serveras det senast lyckade svaret istället och
+     * en uppdatering startas i bakgrunden; finns inget sparat svar kastas felet vidare.
+     * Ett 4xx-svar (återkallad token, borttagen lista) kastas alltid vidare.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> TrelloReadResult<List<T>> readWithFallback(String key, Supplier<List<T>> read) {
+        try {
+            List<T> value = read.get();
+            lastKnownGood.put(key, value);
+            return TrelloReadResult.fresh(value);
+        } catch (RestClientException e) {
+            Optional<TrelloLastKnownGood.Entry> known = lastKnownGood.get(key);
+            if (known.isEmpty() || !isTemporary(e)) {
+                throw e;
+            }
+            logger.warn("Trello svarar inte ({}), serverar data från {} för {}",
+                    e.getMessage(), known.get().fetchedAt(), key);
+            refreshInBackground(key, read);
+            return TrelloReadResult.stale((List<T>) known.get().value(), known.get().fetchedAt());
+        }
+    }
+
+    /**
+     * Fel som kan gå över av sig självt. Ett 4xx-svar blir inte bättre av att vänta, så det ska
+     * synas som ett fel istället för att döljas bakom gammal data och nya försök i bakgrunden.
+     * TrelloUnavailableException ärver ResourceAccessException och räknas därmed hit.
+     */
+    private static boolean isTemporary(RestClientException e) {
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    }
+
+    /**
+     * Högst en bakgrundsuppdatering per nyckel åt gången. Medan brytaren är öppen
+     * avvisas den direkt och kostar inget; efter openDuration blir den ett av provanropen.
+     */
+    private void refreshInBackground(String key, Supplier<? extends List<?>> read) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    lastKnownGood.put(key, read.get());
+                } catch (RestClientException e) {
+                    logger.debug("Bakgrundsuppdatering av {} misslyckades: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Läser listans kort via TrelloBatchReader, så att samtidiga hämtningar av flera listor
+     * (t.ex. fetchCardsConcurrently) går som ett /batch-anrop
+     */
+    private List<Task> fetchCards(String listId) {
+        String route = UriComponentsBuilder
+                .fromPath("/lists/" + listId + "/cards")
+                .queryParam("filter", "open")
+                .queryParam("fields", TrelloCardDecoder.TASK_FIELDS)
+                .build().encode().toUriString();
+
+        List<Task> tasks = batchReader.read("getCards", route, parser -> {
+            List<Task> decoded = new ArrayList<>();
+            cardDecoder.forEachTask(parser, decoded::add);
+            return decoded;
+        });
+        logger.info("Lyckades hämta och konvertera {} kort", tasks.size());
+        return tasks;
+    }
+
+    private void streamCards(String listId, Consumer<Task> consumer) {
+        decodeCards("getCards", cardsUrl(listId).build().encode().toUri(), consumer);
+    }
+
+    private UriComponentsBuilder cardsUrl(String listId) {
+        return UriComponentsBuilder
+                .fromHttpUrl(trelloConfig.getBaseUrl() + "/lists/" + listId + "/cards")
+                .queryParam("key", trelloConfig.getKey())
+                .queryParam("token", trelloConfig.getToken())
+                .queryParam("filter", "open")
+                .queryParam("fields", TrelloCardDecoder.TASK_FIELDS);
+    }
+
+    private void decodeCards(String operation, URI url, Consumer<Task> consumer) {
+        // Strömma svaret direkt till Task-objekt utan mellanliggande Map-objekt
+        metrics.record(operation, () -> restTemplate.execute(
+                url,
+                HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> {
+                    if (response.getStatusCode() != HttpStatus.OK) {
+                        logger.warn("Oväntat svar från Trello API: {}", response.getStatusCode());
+                        return null;
+                    }
+                    cardDecoder.forEachTask(response.getBody(), consumer);
+                    return null;
+                }
+        ));
+    }
+
+    /**
+     * Hämtar ett enskilt kort
+     * @param cardId Kort ID
+     * @return Kortet, eller tom om hämtningen misslyckades
+     */
+    public Optional<TrelloCard> getCard(String cardId) {
+        logger.info("Hämtar kort: {}", cardId);
+
+        try {
+            URI url = UriComponentsBuilder
+                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/cards/" + cardId)
+                    .queryParam("key", trelloConfig.getKey())
+                    .queryParam("token", trelloConfig.getToken())
+                    .queryParam("fields", TrelloCardDecoder.CARD_FIELDS)
+                    .build().encode().toUri();
+
+            ResponseEntity<TrelloCard> response = singleFlight.execute(TrelloSingleFlight.cardKey(cardId),
+                    () -> metrics.record("getCard", () -> restTemplate.getForEntity(url, TrelloCard.class)));
+            return Optional.ofNullable(response.getBody());
+
+        } catch (RestClientException e) {
+            logger.error("Fel vid hämtning av kort: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Hämtar boardens actions sedan en given tidpunkt, nyaste först
+     * @param boardId Board ID
+     * @param since Tidpunkt (ISO-8601) eller action-id att hämta efter
+     * @param limit Max antal actions
+     * @return Actions som påverkar kort, listor och etiketter, eller tom om hämtningen misslyckades
+     */
+    public Optional<List<TrelloAction>> getBoardActions(String boardId, String since, int limit) {
+        logger.debug("Hämtar actions för board {} sedan {}", boardId, since);
+
+        try {
+            URI url = UriComponentsBuilder
+                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/boards/" + boardId + "/actions")
                     .queryParam("key", trelloConfig.getKey())
                     .queryParam("token", trelloConfig.getToken())
-                    .queryParam("filter", "open")
-                    .toUriString();
+                    .queryParam("filter", BoardReplica.ACTION_FILTER)
+                    .queryParam("since", since)
+                    .queryParam("limit", limit)
+                    .build().encode().toUri();
+
+            ResponseEntity<TrelloAction[]> response = metrics.record("getBoardActions", () -> restTemplate.getForEntity(url, TrelloAction[].class));
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                return Optional.of(List.of(response.getBody()));
+            }
+            logger.warn("Oväntat svar från Trello API: {}", response.getStatusCode());
+            return Optional.empty();
+
+        } catch (RestClientException e) {
+            logger.error("Fel vid hämtning av actions: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Hämtar hela boarden (listor, kort, etiketter och medlemmar) i ett enda anrop
+     * och länkar ihop den till en objektgraf
+     * @param boardId Board ID att hämta
+     * @return Ögonblicksbild, eller tom om hämtningen misslyckades
+     */
+    public Optional<TrelloBoardSnapshot> getBoardSnapshot(String boardId) {
+        logger.info("Hämtar ögonblicksbild för board: {}", boardId);
+
+        try {
+            URI url = UriComponentsBuilder
+                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/boards/" + boardId)
+                    .queryParam("key", trelloConfig.getKey())
+                    .queryParam("token", trelloConfig.getToken())
+                    .queryParam("lists", "open")
+                    .queryParam("cards", "open")
+                    .queryParam("labels", "all")
+                    .queryParam("members", "all")
+                    .build().encode().toUri();
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<List> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    List.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                List<Map<String, Object>> cards = response.getBody();
-                List<Task> tasks = new ArrayList<>();
-
-                // Konvertera Trello-kort till Task-objekt
-                for (Map<String, Object> card : cards) {
-                    Task task = new Task();
-                    task.setId((String) card.get("id"));
-                    task.setName((String) card.get("name"));
-                    task.setDescription((String) card.get("desc"));
-                    task.setUrl((String) card.get("url"));
-                    tasks.add(task);
+            // Ögonblicksbilden byggs inuti single-flight: of() länkar om boardens objekt, så alla
+            // som delar anropet måste dela samma länkade graf istället för att länka den var för sig
+            TrelloBoardSnapshot snapshot = singleFlight.execute(TrelloSingleFlight.boardKey(boardId), () -> {
+                ResponseEntity<TrelloBoard> response = metrics.record("getBoardSnapshot", () -> restTemplate.exchange(
+                        url,
+                        HttpMethod.GET,
+                        entity,
+                        TrelloBoard.class
+                ));
+                if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+                    logger.warn("Oväntat svar från Trello API: {}", response.getStatusCode());
+                    return null;
                 }
+                return TrelloBoardSnapshot.of(response.getBody());
+            });
 
-                logger.info("Lyckades hämta och konvertera {} kort", tasks.size());
-                return tasks;
-            } else {
-                logger.warn("Oväntat svar från Trello API: {}", response.getStatusCode());
-                return new ArrayList<>();
+            if (snapshot == null) {
+                return Optional.empty();
             }
+            logger.info("Lyckades hämta board med {} listor och {} kort",
+                    snapshot.getLists().size(), snapshot.getCards().size());
+            return Optional.of(snapshot);
 
         } catch (RestClientException e) {
-            logger.error("Fel vid hämtning av kort: {}", e.getMessage());
-            return new ArrayList<>();
+            logger.error("Fel vid hämtning av board: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Hämtar ögonblicksbild av den konfigurerade boarden
+     * @return Ögonblicksbild, eller tom om ingen board är konfigurerad
+     */
+    public Optional<TrelloBoardSnapshot> getConfiguredBoardSnapshot() {
+        if (trelloConfig.getBoardId() == null || trelloConfig.getBoardId().isEmpty()) {
+            logger.warn("Ingen board-ID konfigurerad");
+            return Optional.empty();
         }
+        return getBoardSnapshot(trelloConfig.getBoardId());
     }
 
     /**
@@ -300,40 +745,110 @@ public class TrelloService {
      * @return true om kortet skapades framgångsrikt, annars false
      */
     public boolean createCard(String listId, Task task) {
+        return createCardAndReturnId(listId, task) != null;
+    }
+
+    /**
+     * Skapar ett nytt kort i Trello och returnerar dess ID
+     * @param listId Lista ID där kortet ska skapas
+     * @param task Task-objekt med kortets data
+     * @return ID för det skapade kortet, tom sträng om Trello svarade OK utan id, eller null om det misslyckades
+     */
+    public String createCardAndReturnId(String listId, Task task) {
         logger.info("Skapar nytt kort i lista: {}", listId);
 
         try {
-            String url = UriComponentsBuilder
+            URI url = UriComponentsBuilder
                     .fromHttpUrl(trelloConfig.getBaseUrl() + "/cards")
                     .queryParam("key", trelloConfig.getKey())
                     .queryParam("token", trelloConfig.getToken())
                     .queryParam("idList", listId)
                     .queryParam("name", task.getName())
                     .queryParam("desc", task.getDescription())
-                    .toUriString();
+                    .build().encode().toUri();
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<TrelloCard> response = metrics.record("createCard", () -> restTemplate.exchange(
                     url,
                     HttpMethod.POST,
                     entity,
-                    Map.class
-            );
+                    TrelloCard.class
+            ));
 
             if (response.getStatusCode() == HttpStatus.OK) {
                 logger.info("Kort skapat framgångsrikt");
-                return true;
+                readCache.invalidate(TrelloReadCache.cardsKey(listId));
+                TrelloCard card = response.getBody();
+                if (card == null || card.getId() == null) {
+                    return "";
+                }
+                // Läs-din-skrivning: kortet syns i kopian innan nästa synk
+                boardReplica.putCard(card);
+                return card.getId();
             } else {
                 logger.warn("Kunde inte skapa kort: {}", response.getStatusCode());
-                return false;
+                return null;
             }
 
         } catch (RestClientException e) {
             logger.error("Fel vid skapande av kort: {}", e.getMessage());
-            return false;
+            return null;
+        }
+    }
+
+    /**
+     * Hämtar webhooks registrerade för den konfigurerade token
+     * @return Webhooks som Map-objekt, tom vid fel
+     */
+    public List<Map<String, Object>> getWebhooks() {
+        logger.info("Hämtar registrerade webhooks");
+
+        try {
+            URI url = UriComponentsBuilder
+                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/tokens/" + trelloConfig.getToken() + "/webhooks")
+                    .queryParam("key", trelloConfig.getKey())
+                    .queryParam("token", trelloConfig.getToken())
+                    .build().encode().toUri();
+
+            ResponseEntity<List> response = metrics.record("getWebhooks", () -> restTemplate.getForEntity(url, List.class));
+            return response.getBody() != null ? response.getBody() : new ArrayList<>();
+
+        } catch (RestClientException e) {
+            logger.error("Fel vid hämtning av webhooks: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Registrerar en webhook. Trello gör ett HEAD-anrop mot callback-adressen innan den skapas.
+     * @param modelId ID för board (eller annat objekt) som ska bevakas
+     * @param callbackUrl Publik adress som Trello skickar actions till
+     * @param description Beskrivning som syns i Trello
+     * @return Webhookens ID, eller tom om registreringen misslyckades
+     */
+    public Optional<String> createWebhook(String modelId, String callbackUrl, String description) {
+        logger.info("Registrerar webhook för {} mot {}", modelId, callbackUrl);
+
+        try {
+            URI url = UriComponentsBuilder
+                    .fromHttpUrl(trelloConfig.getBaseUrl() + "/webhooks")
+                    .queryParam("key", trelloConfig.getKey())
+                    .queryParam("token", trelloConfig.getToken())
+                    .queryParam("idModel", modelId)
+                    .queryParam("callbackURL", callbackUrl)
+                    .queryParam("description", description)
+                    .build().encode().toUri();
+
+            ResponseEntity<Map> response = metrics.record("createWebhook", () -> restTemplate.postForEntity(url, null, Map.class));
+            Object webhookId = response.getBody() != null ? response.getBody().get("id") : null;
+            return Optional.ofNullable(webhookId).map(Object::toString);
+
+        } catch (RestClientException e) {
+            logger.error("Fel vid registrering av webhook: {}", e.getMessage());
+            return Optional.empty();
         }
     }
 
@@ -345,22 +860,23 @@ public class TrelloService {
         logger.info("Kontrollerar Trello API-autentisering");
 
         try {
-            String url = UriComponentsBuilder
+            URI url = UriComponentsBuilder
                     .fromHttpUrl(trelloConfig.getBaseUrl() + "/members/me")
                     .queryParam("key", trelloConfig.getKey())
                     .queryParam("token", trelloConfig.getToken())
-                    .toUriString();
+                    .build().encode().toUri();
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    Map.class
-            );
+            ResponseEntity<Map> response = singleFlight.execute(TrelloSingleFlight.memberKey(),
+                    () -> metrics.record("isValidAuthentication", () -> restTemplate.exchange(
+                            url,
+                            HttpMethod.GET,
+                            entity,
+                            Map.class
+                    )));
 
             boolean isValid = response.getStatusCode() == HttpStatus.OK;
             logger.info("Autentisering {}", isValid ? "giltig" : "ogiltig");
@@ -0,0 +1,96 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Slår ihop samtidiga identiska läsningar (single-flight): den första anroparen för en nyckel
+ * gör anropet mot Trello, övriga som kommer medan det pågår väntar på samma resultat.
+ * Väntan sker på en CompletableFuture och låser därför inte bärartråden för virtuella trådar.
+ * Inget sparas efter att anropet är klart, det är cachens uppgift.
+ */
+@Component
+public class TrelloSingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public static String boardKey(String boardId) {
+        return "board:" + boardId;
+    }
+
+    public static String cardKey(String cardId) {
+        return "card:" + cardId;
+    }
+
+    public static String memberKey() {
+        return "member:me";
+    }
+
+    /**
+     * Kör anropet, eller väntar in ett pågående anrop med samma nyckel
+     * @param key Resursens nyckel, t.ex. TrelloReadCache.cardsKey(listId)
+     * @param call Anropet mot Trello
+     * @return Resultatet, samma instans för alla som delade anropet
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return (T) await(existing);
+        }
+
+        calls.increment();
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Släpper ett pågående anrop så att nästa anropare gör ett nytt, t.ex. efter en skrivning
+     * som det pågående anropet kan ha missat. De som redan väntar får fortfarande dess resultat.
+     */
+    public void forget(String key) {
+        inFlight.remove(key);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inFlight", inFlight.size());
+        result.put("calls", calls.sum());
+        result.put("shared", shared.sum());
+        return result;
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Samma undantag som den första anroparen fick, så att felhanteringen blir densamma
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
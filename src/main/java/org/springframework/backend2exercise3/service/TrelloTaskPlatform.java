@@ -0,0 +1,29 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Skapar uppgifter som kort i standard-listan på den konfigurerade Trello-boarden
+ */
+@Service
+public class TrelloTaskPlatform implements TaskPlatform {
+
+    private final TrelloService trelloService;
+
+    @Autowired
+    public TrelloTaskPlatform(TrelloService trelloService) {
+        this.trelloService = trelloService;
+    }
+
+    @Override
+    public String getName() {
+        return "trello";
+    }
+
+    @Override
+    public String createTask(TaskForm taskForm) throws Exception {
+        return trelloService.createTaskCard(taskForm);
+    }
+}
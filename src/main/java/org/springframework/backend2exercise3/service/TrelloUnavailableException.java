@@ -0,0 +1,14 @@
+package org.springframework.backend2exercise3.service;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Anropet skickades aldrig till Trello: kretsbrytaren är öppen eller bulkheaden är full.
+ * Ärver ResourceAccessException så att befintlig felhantering för I/O-fel gäller.
+ */
+public class TrelloUnavailableException extends ResourceAccessException {
+
+    public TrelloUnavailableException(String message) {
+        super(message);
+    }
+}
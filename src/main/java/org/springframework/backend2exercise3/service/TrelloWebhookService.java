@@ -0,0 +1,175 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.backend2exercise3.config.TrelloWebhookConfig;
+import org.springframework.backend2exercise3.model.TrelloAction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tar emot Trellos webhook-anrop för den konfigurerade boarden och applicerar
+ * varje action direkt på BoardReplica, så att kopian hålls aktuell utan polling.
+ * Anropen verifieras med HMAC-SHA1 över body + callback-adress (X-Trello-Webhook).
+ */
+@Service
+public class TrelloWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrelloWebhookService.class);
+    private static final String HMAC_ALGORITHM = "HmacSHA1";
+
+    private final TrelloWebhookConfig config;
+    private final TrelloConfig trelloConfig;
+    private final TrelloService trelloService;
+    private final BoardReplica replica;
+    private final BoardReplicaSync replicaSync;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService ioExecutor;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public TrelloWebhookService(TrelloWebhookConfig config, TrelloConfig trelloConfig, TrelloService trelloService,
+                                BoardReplica replica, BoardReplicaSync replicaSync, ObjectMapper objectMapper,
+                                ExecutorService trelloIoExecutor) {
+        this.config = config;
+        this.trelloConfig = trelloConfig;
+        this.trelloService = trelloService;
+        this.replica = replica;
+        this.replicaSync = replicaSync;
+        this.objectMapper = objectMapper;
+        this.ioExecutor = trelloIoExecutor;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Kontrollerar X-Trello-Webhook: base64(HMAC-SHA1(secret, body + callbackURL))
+     * @param body Anropets body som den skickades
+     * @param signature Värdet i X-Trello-Webhook
+     * @return true om signaturen stämmer
+     */
+    public boolean isValidSignature(byte[] body, String signature) {
+        if (signature == null || config.getSecret() == null || config.getCallbackUrl() == null) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        byte[] expected = Base64.getEncoder().encode(sign(body, config.getCallbackUrl(), config.getSecret()));
+        // Jämförelse i konstant tid så att signaturen inte kan gissas fram byte för byte
+        boolean valid = MessageDigest.isEqual(expected, signature.trim().getBytes(StandardCharsets.US_ASCII));
+        if (!valid) {
+            rejected.incrementAndGet();
+        }
+        return valid;
+    }
+
+    static byte[] sign(byte[] body, String callbackUrl, String secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            mac.update(body);
+            mac.update(callbackUrl.getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA1 är inte tillgängligt", e);
+        }
+    }
+
+    /**
+     * Applicerar en inkommande action på board-kopian.
+     * Omlevererade actions känns igen på sitt id och ignoreras.
+     * @param body Webhookens JSON med action och model
+     * @return true om kopian ändrades
+     * @throws IOException om body inte är giltig JSON
+     */
+    public boolean handle(byte[] body) throws IOException {
+        received.incrementAndGet();
+        JsonNode root = objectMapper.readTree(body);
+        JsonNode actionNode = root.path("action");
+        if (actionNode.isMissingNode()) {
+            return false;
+        }
+        TrelloAction action = objectMapper.treeToValue(actionNode, TrelloAction.class);
+
+        boolean applied = replica.apply(action);
+        if (applied) {
+            logger.debug("Webhook-action {} ({}) applicerad", action.getType(), action.getId());
+            refetchIncompleteCards();
+        }
+        return applied;
+    }
+
+    /**
+     * Nyskapade kort saknar fält i actionen och hämtas i bakgrunden så att webhooken svarar direkt
+     */
+    private void refetchIncompleteCards() {
+        for (String cardId : replica.drainIncompleteCardIds()) {
+            ioExecutor.execute(() -> trelloService.getCard(cardId).ifPresent(replica::putCard));
+        }
+    }
+
+    /**
+     * Registrerar webhooken för den konfigurerade boarden när applikationen tar emot anrop,
+     * eftersom Trello verifierar callback-adressen med ett HEAD-anrop
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void registerOnStartup() {
+        if (!config.isEnabled() || !config.isRegister()) {
+            return;
+        }
+        if (config.getCallbackUrl() == null || config.getCallbackUrl().isEmpty()) {
+            logger.warn("Ingen callback-url konfigurerad, webhooken registreras inte");
+            return;
+        }
+        ioExecutor.execute(this::register);
+    }
+
+    private void register() {
+        String boardId = trelloConfig.getBoardId();
+        if (!replica.isLoaded()) {
+            // Via sync() så att laddningen tar synklåset och inte krockar med den schemalagda synken
+            replicaSync.sync();
+        }
+
+        List<Map<String, Object>> webhooks = trelloService.getWebhooks();
+        for (Map<String, Object> webhook : webhooks) {
+            if (boardId.equals(webhook.get("idModel")) && config.getCallbackUrl().equals(webhook.get("callbackURL"))) {
+                logger.info("Webhook för board {} finns redan ({})", boardId, webhook.get("id"));
+                return;
+            }
+        }
+
+        trelloService.createWebhook(boardId, config.getCallbackUrl(), config.getDescription())
+                .ifPresentOrElse(
+                        id -> logger.info("Webhook {} registrerad för board {}", id, boardId),
+                        () -> logger.warn("Kunde inte registrera webhook för board {}", boardId));
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
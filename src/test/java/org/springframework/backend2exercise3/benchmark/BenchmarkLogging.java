@@ -0,0 +1,17 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utan Spring Boot loggar Logback allt på DEBUG, vilket dominerar mätningarna.
+ */
+final class BenchmarkLogging {
+
+    private BenchmarkLogging() {}
+
+    static void quiet() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+}
@@ -0,0 +1,99 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.model.TrelloBoard;
+import org.springframework.backend2exercise3.model.TrelloBoardSnapshot;
+import org.springframework.backend2exercise3.service.BoardReplica;
+import org.springframework.backend2exercise3.service.BoardSnapshotFile;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Varmstart av board-kopian: från ögonblicksbilden på disk mot att tolka boardens JSON från Trello.
+ * Nätverket ingår inte, båda varianterna börjar med bytes (fil respektive svarskropp).
+ * Kör med: -Pbenchmark -Djmh.args="BoardSnapshot"
+ * <ul>
+ *     <li>fromJson: tolka boardens JSON och ladda kopian, som BoardReplicaSync.fullLoad utan anropet</li>
+ *     <li>fromDisk: läsa och validera filen och återställa kopian, som BoardSnapshotStore.restore</li>
+ *     <li>writeToDisk: spara kopian, som BoardSnapshotStore.save</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardSnapshotBenchmark {
+
+    @Param({"100000"})
+    public int cards;
+
+    private ObjectMapper objectMapper;
+    private BoardReplica replica;
+    private byte[] json;
+    private Path dir;
+    private BoardSnapshotFile file;
+    private BoardSnapshotFile.Contents contents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkLogging.quiet();
+        objectMapper = new ObjectMapper();
+        replica = new BoardReplica(objectMapper);
+        json = TrelloStandIn.board(cards).getBytes(StandardCharsets.UTF_8);
+        dir = Files.createTempDirectory("board-snapshot");
+        file = new BoardSnapshotFile(dir.resolve("board-snapshot.bin"));
+
+        fromJson();
+        contents = replica.export();
+        file.write(contents, Instant.now());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int fromJson() throws IOException {
+        TrelloBoard board = objectMapper.readValue(json, TrelloBoard.class);
+        replica.load(TrelloBoardSnapshot.of(board), Instant.now());
+        return replica.stats().size();
+    }
+
+    @Benchmark
+    public int fromDisk() {
+        BoardSnapshotFile.Saved saved = file.read().orElseThrow();
+        replica.restore(saved.contents(), saved.savedAt());
+        return replica.stats().size();
+    }
+
+    @Benchmark
+    public long writeToDisk() throws IOException {
+        return file.write(replica.export(), Instant.now());
+    }
+}
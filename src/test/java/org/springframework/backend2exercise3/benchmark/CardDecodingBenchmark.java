@@ -0,0 +1,84 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.service.TrelloCardDecoder;
+import org.springframework.backend2exercise3.support.TrelloPayloads;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Avkodningstid och allokering för kort-payloads med 100, 10k och 100k kort.
+ * Kör med: -Pbenchmark -Djmh.args="CardDecoding" (allokering via -prof gc ingår)
+ * <ul>
+ *     <li>mapPath: gamla vägen, List av LinkedHashMap och manuell kopiering till Task</li>
+ *     <li>streamingFull: token-API mot fullständig payload (utan fields=)</li>
+ *     <li>streamingProjected: token-API mot payload med fields=-projektion</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardDecodingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int cards;
+
+    private ObjectMapper objectMapper;
+    private TrelloCardDecoder decoder;
+    private byte[] fullPayload;
+    private byte[] projectedPayload;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        decoder = new TrelloCardDecoder(objectMapper);
+        fullPayload = TrelloPayloads.fullCards(cards);
+        projectedPayload = TrelloPayloads.projectedCards(cards);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<Task> mapPath() throws IOException {
+        List<Map<String, Object>> body = objectMapper.readValue(fullPayload, List.class);
+        List<Task> tasks = new ArrayList<>();
+        for (Map<String, Object> card : body) {
+            Task task = new Task();
+            task.setId((String) card.get("id"));
+            task.setName((String) card.get("name"));
+            task.setDescription((String) card.get("desc"));
+            task.setUrl((String) card.get("url"));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Benchmark
+    public List<Task> streamingFull() throws IOException {
+        return decoder.readTasks(new ByteArrayInputStream(fullPayload));
+    }
+
+    @Benchmark
+    public List<Task> streamingProjected() throws IOException {
+        return decoder.readTasks(new ByteArrayInputStream(projectedPayload));
+    }
+}
@@ -0,0 +1,136 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.model.CompactTask;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskPriority;
+import org.springframework.backend2exercise3.model.TaskStatus;
+import org.springframework.backend2exercise3.service.TaskSymbols;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minne per uppgift (bytesPerTask) för 1M uppgifter i minnet, som Task-POJO mot CompactTask.
+ * Uppgifterna ser ut som avkodade Trello-kort: 24 tecken långa id:n, 10 listor, 200 medlemmar,
+ * 0-3 av 30 etiketter, förfallodatum på 70 %. Varje avkodat kort har egna kopior av
+ * list-id, board-id, ansvarig och etikettnamn, precis som efter TrelloCardDecoder/BoardReplica.
+ * Kör med: -Pbenchmark -Djmh.args="TaskFootprint"
+ * bytesPerTask är levande heap efter full GC med alla uppgifter kvar, delat med antalet;
+ * tiden är den för att bygga upp dem.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+UseSerialGC"})
+@State(Scope.Benchmark)
+public class TaskFootprintBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Param({"pojo", "compact"})
+    public String representation;
+
+    @Param({"1000000"})
+    public int tasks;
+
+    private Object retained;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerTask;
+    }
+
+    @Benchmark
+    public Object footprint(Footprint footprint) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        retained = null;
+        fullGc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        retained = "compact".equals(representation) ? buildCompact() : buildPojo();
+        fullGc();
+        footprint.bytesPerTask = (memory.getHeapMemoryUsage().getUsed() - before) / tasks;
+        return retained;
+    }
+
+    private Object buildPojo() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Task> all = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            all.add(decodedTask(i, random));
+        }
+        return all;
+    }
+
+    private Object buildCompact() {
+        SplittableRandom random = new SplittableRandom(42);
+        TaskSymbols symbols = new TaskSymbols();
+        List<CompactTask> all = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            all.add(symbols.compact(decodedTask(i, random)));
+        }
+        return List.of(all, symbols);
+    }
+
+    /**
+     * En uppgift som den ser ut efter avkodning: strängar som upprepas mellan kort är egna kopior
+     */
+    private static Task decodedTask(int i, SplittableRandom random) {
+        Task task = new Task();
+        String id = objectId(random.nextLong());
+        task.setId(id);
+        task.setTrelloCardId(id);
+        task.setName("Uppgift " + i + " i sprinten");
+        task.setDescription(random.nextBoolean() ? "" : "Beskrivning av uppgift " + i + " med lite mer text");
+        task.setUrl("https://trello.com/c/" + id.substring(16) + "/" + i + "-uppgift");
+        task.setListId(copy(objectId(random.nextInt(10))));
+        task.setBoardId(copy(objectId(-1)));
+        task.setAssignedTo(copy("member" + random.nextInt(200)));
+        int tagCount = random.nextInt(4);
+        List<String> tags = new ArrayList<>(tagCount);
+        for (int t = 0; t < tagCount; t++) {
+            tags.add(copy("etikett" + random.nextInt(30)));
+        }
+        task.setTags(tags);
+        task.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+        task.setPriority(TaskPriority.values()[random.nextInt(TaskPriority.values().length)]);
+        task.setCreatedDate(START.plusSeconds(random.nextInt(365 * 24 * 3600)));
+        if (random.nextInt(10) < 7) {
+            task.setDueDate(START.plusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+        }
+        return task;
+    }
+
+    private static String objectId(long value) {
+        return "5f2b" + HEX.toHexDigits(value).substring(0, 16) + "a1c3";
+    }
+
+    private static String copy(String value) {
+        return new String(value.toCharArray());
+    }
+
+    private static void fullGc() {
+        // Två varv så att objekt som frigörs av det första (t.ex. via finalizers/cleaners) också städas bort
+        System.gc();
+        System.gc();
+    }
+}
@@ -0,0 +1,257 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.config.TaskViewConfig;
+import org.springframework.backend2exercise3.config.TrelloCacheConfig;
+import org.springframework.backend2exercise3.config.TrelloResilienceConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskListSection;
+import org.springframework.backend2exercise3.model.TrelloReadResult;
+import org.springframework.backend2exercise3.service.TaskListRenderer;
+import org.springframework.backend2exercise3.service.TrelloService;
+import org.springframework.backend2exercise3.support.TemplateEngines;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listvyn för en lista med 10 000 kort mot en lokal Trello-ersättare, buffrad mot strömmad.
+ * Svaret skrivs till en writer som beter sig som Tomcats svarsbuffert: första byten når
+ * klienten när 8 KB skrivits eller vid flush.
+ * Kör med: -Pbenchmark -Djmh.args="TaskListRendering"
+ * <ul>
+ *     <li>timeToFirstByte: tid tills första byten skulle skickas till klienten</li>
+ *     <li>fullPage: hela sidan, inklusive läsning av korten från ersättaren</li>
+ *     <li>liveHeapMidPage: levande heap (liveHeapKb) mitt i sidan, efter full GC; tiden är ointressant</li>
+ * </ul>
+ * buffered läser alla kort (getCardsResult) och renderar sedan task-list.html, som GET /tasks?buffered.
+ * streaming skickar skalet direkt och korten i chunkar medan de avkodas, som GET /tasks.
+ * Cache och reserv (last-known-good) är avstängda så att liveHeapKb visar vad varje anrop håller levande;
+ * JMH summerar liveHeapKb över iterationerna, värdet per anrop syns per iteration.
+ * Ersättaren kör i samma JVM men håller sitt svar kodat en gång, så det ingår i nollnivån.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskListRenderingBenchmark {
+
+    private static final int RESPONSE_BUFFER = 8192;
+    private static final Locale LOCALE = Locale.forLanguageTag("sv-SE");
+
+    @Param({"buffered", "streaming"})
+    public String mode;
+
+    @Param({"10000"})
+    public int cards;
+
+    private TrelloStandIn standIn;
+    private TrelloService trelloService;
+    private ITemplateEngine templateEngine;
+    private TaskListRenderer renderer;
+    private List<Map<String, Object>> lists;
+    private long pageChars;
+
+    /**
+     * Levande heap mitt i sidan: högsta värdet mitt i sidan minus lägsta värdet mellan anropen
+     * under iterationen. Enstaka buffertar (HTTP-klient, trådlokala cacher) kan överleva en
+     * full GC mellan anropen och ge en för hög nollnivå; lägsta nivån filtrerar bort dem.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapProbe {
+        public long liveHeapKb;
+        private long idleBytes;
+        private long midPageBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            liveHeapKb = 0;
+            idleBytes = Long.MAX_VALUE;
+            midPageBytes = 0;
+        }
+
+        void idle(long usedBytes) {
+            idleBytes = Math.min(idleBytes, usedBytes);
+            update();
+        }
+
+        void midPage(long usedBytes) {
+            midPageBytes = Math.max(midPageBytes, usedBytes);
+            update();
+        }
+
+        private void update() {
+            liveHeapKb = midPageBytes == 0 ? 0 : Math.max(0, midPageBytes - idleBytes) / 1024;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkLogging.quiet();
+        standIn = new TrelloStandIn().withCardsPerList(cards);
+        TrelloCacheConfig cacheConfig = new TrelloCacheConfig();
+        cacheConfig.setEnabled(false);
+        TrelloResilienceConfig resilienceConfig = new TrelloResilienceConfig();
+        resilienceConfig.setEnabled(false);
+        trelloService = TrelloServices.create(standIn.config(), new RestTemplate(), cacheConfig, resilienceConfig);
+        templateEngine = TemplateEngines.create();
+        renderer = new TaskListRenderer(templateEngine, new TaskViewConfig());
+        lists = trelloService.getListsFromConfiguredBoard();
+
+        ResponseSink sink = new ResponseSink(Long.MAX_VALUE, null);
+        render(sink);
+        pageChars = sink.written;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        standIn.close();
+    }
+
+    @Benchmark
+    public long timeToFirstByte() throws IOException {
+        ResponseSink sink = new ResponseSink(Long.MAX_VALUE, null);
+        try {
+            render(sink.abortOnCommit());
+        } catch (RuntimeException e) {
+            if (!sink.committed) {
+                throw e;
+            }
+        }
+        return sink.written;
+    }
+
+    @Benchmark
+    public long fullPage() throws IOException {
+        ResponseSink sink = new ResponseSink(Long.MAX_VALUE, null);
+        render(sink);
+        return sink.written;
+    }
+
+    /**
+     * SerialGC: heapens used-värde efter en full GC är då exakt, med G1 varierar det med ett par MB
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-XX:+UseSerialGC")
+    public long liveHeapMidPage(HeapProbe probe) throws IOException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        fullGc();
+        probe.idle(memory.getHeapMemoryUsage().getUsed());
+        ResponseSink sink = new ResponseSink(pageChars / 2, () -> {
+            fullGc();
+            probe.midPage(memory.getHeapMemoryUsage().getUsed());
+        });
+        render(sink);
+        return sink.written;
+    }
+
+    private static void fullGc() {
+        // Två varv så att objekt som frigörs av det första (t.ex. via finalizers/cleaners) också städas bort
+        System.gc();
+        System.gc();
+    }
+
+    private void render(ResponseSink sink) throws IOException {
+        if ("streaming".equals(mode)) {
+            renderer.stream(sink, lists, trelloService::forEachCardChunk);
+            return;
+        }
+        // Som TaskListController.listTasksBuffered: allt läses innan sidan renderas
+        List<TaskListSection> sections = lists.stream().map(list -> {
+            TaskListSection section = new TaskListSection((String) list.get("id"), (String) list.get("name"));
+            TrelloReadResult<List<Task>> result = trelloService.getCardsResult(section.getListId());
+            section.setTasks(result.getValue());
+            section.setTaskCount(result.getValue().size());
+            section.setFreshness(result.getFreshness());
+            return section;
+        }).toList();
+        Context context = new Context(LOCALE);
+        context.setVariable("listCount", lists.size());
+        context.setVariable("sections", sections);
+        templateEngine.process(TaskListRenderer.PAGE_TEMPLATE, context, sink);
+        sink.flush();
+    }
+
+    /**
+     * Räknar tecken istället för att spara dem, och noterar när svaret skulle ha skickats
+     */
+    private static class ResponseSink extends Writer {
+
+        private static final RuntimeException FIRST_BYTE = new RuntimeException("första byten skickad", null, false, false) {};
+
+        private final long probeAt;
+        private final Runnable probe;
+        private boolean abortOnCommit;
+        long written;
+        boolean committed;
+
+        ResponseSink(long probeAt, Runnable probe) {
+            this.probeAt = probeAt;
+            this.probe = probe;
+        }
+
+        ResponseSink abortOnCommit() {
+            this.abortOnCommit = true;
+            return this;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            long before = written;
+            written += length;
+            if (before < probeAt && written >= probeAt) {
+                probe.run();
+            }
+            if (written >= RESPONSE_BUFFER) {
+                commit();
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (written > 0) {
+                commit();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void commit() {
+            if (!committed) {
+                committed = true;
+                if (abortOnCommit) {
+                    throw FIRST_BYTE;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskSearchResult;
+import org.springframework.backend2exercise3.service.TaskSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Söktid i TaskSearchIndex med 500k kort vars namn (3-6 ord), beskrivningar (10-30 ord)
+ * och etiketter dras ur ett svenskt ordförråd med böjningsformer och ett par tusen
+ * sällsynta ord. Varje vanligt ord förekommer i ungefär vart femte kort, de sällsynta
+ * i ett tiotal. Kör med: -Pbenchmark -Djmh.args="TaskSearch"
+ * <ul>
+ *     <li>commonTerm: ett vanligt ord i tre böjningsformer</li>
+ *     <li>twoTerms: två ord, rankade på hur många som matchar</li>
+ *     <li>rareTerm: ett sällsynt ord</li>
+ *     <li>prefix: sök medan man skriver, sista ordet ofullständigt</li>
+ *     <li>typo: ett felstavat ord som bara hittas med redigeringsavstånd</li>
+ *     <li>update: indexera om ett ändrat kort</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class TaskSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "inloggning", "inloggningen", "sida", "sidan", "sidor", "användare", "användaren", "användarna",
+            "rapport", "rapporten", "rapporter", "fel", "felet", "felen", "bugg", "buggen", "buggar",
+            "sprint", "sprintplanering", "planering", "planeringen", "möte", "mötet", "möten", "kund",
+            "kunden", "kunder", "faktura", "fakturan", "fakturor", "betalning", "betalningen", "export",
+            "import", "databas", "databasen", "migrering", "migreringen", "prestanda", "test", "testerna",
+            "dokumentation", "dokumentationen", "översättning", "översättningen", "gränssnitt", "gränssnittet",
+            "knapp", "knappen", "formulär", "formuläret", "lösenord", "lösenordet", "behörighet", "behörigheter",
+            "säkerhet", "säkerheten", "uppgift", "uppgiften", "uppgifter", "uppgifterna", "lista", "listan",
+            "kort", "kortet", "korten", "tavla", "tavlan", "etikett", "etiketten", "granskning", "granskningen",
+            "leverans", "leveransen", "design", "designen", "mobil", "mobilappen", "webbläsare", "server",
+            "servern", "cache", "cachen", "loggning", "loggar", "varning", "varningar", "åtgärda", "uppdatera",
+            "lägga", "ändra", "ta", "bort", "skapa", "och", "för", "med", "i", "på", "till", "som", "är"
+    };
+
+    @Param({"500000"})
+    public int cards;
+
+    private TaskSearchIndex index;
+    private Task updated;
+    private int updateCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        SplittableRandom random = new SplittableRandom(42);
+        String[] rare = new String[2000];
+        for (int i = 0; i < rare.length; i++) {
+            rare[i] = "projekt" + Integer.toString(i, 36) + "kod";
+        }
+
+        List<Task> tasks = new ArrayList<>(cards);
+        for (int i = 0; i < cards; i++) {
+            Task task = new Task();
+            task.setId("card" + i);
+            task.setName(sentence(random, rare, 3 + random.nextInt(4)));
+            task.setDescription(sentence(random, rare, 10 + random.nextInt(21)));
+            task.setTags(List.of(WORDS[random.nextInt(20)], "team" + random.nextInt(30)));
+            tasks.add(task);
+        }
+        index = new TaskSearchIndex();
+        index.replaceAll(tasks);
+        updated = tasks.get(cards / 2);
+    }
+
+    private static String sentence(SplittableRandom random, String[] rare, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                text.append(' ');
+            }
+            String word = random.nextInt(50) == 0
+                    ? rare[random.nextInt(rare.length)]
+                    : WORDS[random.nextInt(WORDS.length)];
+            text.append(word);
+        }
+        return text.toString();
+    }
+
+    @Benchmark
+    public TaskSearchResult commonTerm() {
+        return index.search("användare", 20);
+    }
+
+    @Benchmark
+    public TaskSearchResult twoTerms() {
+        return index.search("fakturan betalning ", 20);
+    }
+
+    @Benchmark
+    public TaskSearchResult rareTerm() {
+        return index.search("projekt1akod ", 20);
+    }
+
+    @Benchmark
+    public TaskSearchResult prefix() {
+        return index.search("buggar sprintpl", 20);
+    }
+
+    @Benchmark
+    public TaskSearchResult typo() {
+        return index.search("migrerign ", 20);
+    }
+
+    @Benchmark
+    public void update() {
+        updated.setName("Åtgärda buggen i inloggningen " + (updateCounter++));
+        index.put(updated);
+    }
+}
@@ -0,0 +1,153 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskPage;
+import org.springframework.backend2exercise3.model.TaskPriority;
+import org.springframework.backend2exercise3.model.TaskQuery;
+import org.springframework.backend2exercise3.model.TaskStatus;
+import org.springframework.backend2exercise3.service.TaskStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frågetid mot TaskStore med 1M uppgifter: 1000 ansvariga, 200 taggar (två per uppgift),
+ * förfallodatum utspridda över två år och 20 % utan förfallodatum.
+ * Kör med: -Pbenchmark -Djmh.args="TaskStore"
+ * <ul>
+ *     <li>scan: linjär filtrering och sortering av alla uppgifter, som referens</li>
+ *     <li>statusAndPriority: två enum-filter, index-ordning</li>
+ *     <li>statusByDueDate: enum-filter sorterat på förfallodatum</li>
+ *     <li>assigneeByDueDate: hash-index (ca 1000 träffar) sorterat på förfallodatum</li>
+ *     <li>tagAndStatusByPriority: hash-index och enum-filter sorterat på prioritet</li>
+ *     <li>dueRange: förfallodatum inom en vecka</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class TaskStoreBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000000"})
+    public int tasks;
+
+    private List<Task> all;
+    private TaskStore store;
+    private TaskQuery statusAndPriority;
+    private TaskQuery statusByDueDate;
+    private TaskQuery assigneeByDueDate;
+    private TaskQuery tagAndStatusByPriority;
+    private TaskQuery dueRange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        SplittableRandom random = new SplittableRandom(42);
+        String[] assignees = new String[1000];
+        for (int i = 0; i < assignees.length; i++) {
+            assignees[i] = "user" + i;
+        }
+        String[] tags = new String[200];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = "tag" + i;
+        }
+        TaskStatus[] statuses = TaskStatus.values();
+        TaskPriority[] priorities = TaskPriority.values();
+
+        all = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task();
+            task.setId("card" + i);
+            task.setName("Uppgift " + i);
+            task.setStatus(statuses[random.nextInt(statuses.length)]);
+            task.setPriority(priorities[random.nextInt(priorities.length)]);
+            task.setAssignedTo(assignees[random.nextInt(assignees.length)]);
+            task.setTags(List.of(tags[random.nextInt(tags.length)], tags[random.nextInt(tags.length)]));
+            if (random.nextInt(5) != 0) {
+                task.setDueDate(START.plusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+            }
+            all.add(task);
+        }
+        store = new TaskStore();
+        store.replaceAll(all);
+
+        statusAndPriority = query(List.of(TaskStatus.IN_REVIEW), List.of(TaskPriority.URGENT), null, null, TaskQuery.Sort.NONE);
+        statusByDueDate = query(List.of(TaskStatus.TODO, TaskStatus.IN_PROGRESS), null, null, null, TaskQuery.Sort.DUE_DATE);
+        assigneeByDueDate = query(null, null, "user17", null, TaskQuery.Sort.DUE_DATE);
+        tagAndStatusByPriority = query(List.of(TaskStatus.TODO), null, null, "tag42", TaskQuery.Sort.PRIORITY);
+        tagAndStatusByPriority.setDescending(true);
+        dueRange = query(null, null, null, null, TaskQuery.Sort.NONE);
+        dueRange.setDueFrom(START.plusDays(100));
+        dueRange.setDueTo(START.plusDays(107));
+    }
+
+    private static TaskQuery query(List<TaskStatus> status, List<TaskPriority> priority, String assignee,
+                                   String tag, TaskQuery.Sort sort) {
+        TaskQuery query = new TaskQuery();
+        query.setStatus(status);
+        query.setPriority(priority);
+        query.setAssignee(assignee);
+        query.setTag(tag);
+        query.setSort(sort);
+        query.setLimit(50);
+        return query;
+    }
+
+    @Benchmark
+    public List<Task> scan() {
+        List<Task> matches = new ArrayList<>();
+        for (Task task : all) {
+            if ((task.getStatus() == TaskStatus.TODO || task.getStatus() == TaskStatus.IN_PROGRESS)
+                    && task.getDueDate() != null) {
+                matches.add(task);
+            }
+        }
+        matches.sort((a, b) -> a.getDueDate().compareTo(b.getDueDate()));
+        return matches.subList(0, 50);
+    }
+
+    @Benchmark
+    public TaskPage statusAndPriority() {
+        return store.query(statusAndPriority);
+    }
+
+    @Benchmark
+    public TaskPage statusByDueDate() {
+        return store.query(statusByDueDate);
+    }
+
+    @Benchmark
+    public TaskPage assigneeByDueDate() {
+        return store.query(assigneeByDueDate);
+    }
+
+    @Benchmark
+    public TaskPage tagAndStatusByPriority() {
+        return store.query(tagAndStatusByPriority);
+    }
+
+    @Benchmark
+    public TaskPage dueRange() {
+        return store.query(dueRange);
+    }
+}
@@ -0,0 +1,103 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.backend2exercise3.config.TrelloHttpClientConfig;
+import org.springframework.backend2exercise3.config.TrelloRateLimitConfig;
+import org.springframework.backend2exercise3.config.TrelloResilienceConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.service.TrelloCircuitBreaker;
+import org.springframework.backend2exercise3.service.TrelloRateLimitInterceptor;
+import org.springframework.backend2exercise3.service.TrelloRateLimiter;
+import org.springframework.backend2exercise3.service.TrelloResilienceInterceptor;
+import org.springframework.backend2exercise3.service.TrelloService;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jämför latens (p50/p99 via SampleTime) för getCards mot en lokal Trello-ersättare
+ * med den gamla SimpleClientHttpRequestFactory och den poolade klienten.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class TrelloHttpClientBenchmark {
+
+    @Param({"simple", "pooled"})
+    public String client;
+
+    @Param({"2"})
+    public long upstreamLatencyMillis;
+
+    private TrelloStandIn standIn;
+    private CloseableHttpClient httpClient;
+    private TrelloService trelloService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkLogging.quiet();
+        standIn = new TrelloStandIn().withLatencyMillis(upstreamLatencyMillis);
+        TrelloConfig config = standIn.config();
+        config.getHttp().setMaxTotal(64);
+        config.getHttp().setMaxPerRoute(64);
+
+        RestTemplate restTemplate;
+        if ("pooled".equals(client)) {
+            TrelloHttpClientConfig clientConfig = new TrelloHttpClientConfig();
+            PoolingHttpClientConnectionManager manager = clientConfig.trelloConnectionManager(config);
+            httpClient = clientConfig.trelloHttpClient(config, manager);
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("trelloHttpClient", httpClient);
+            TrelloRateLimitConfig rateLimitConfig = new TrelloRateLimitConfig();
+            rateLimitConfig.setEnabled(false);
+            TrelloResilienceConfig resilienceConfig = new TrelloResilienceConfig();
+            resilienceConfig.setEnabled(false);
+            restTemplate = clientConfig.trelloRestTemplate(new RestTemplateBuilder(),
+                    clientConfig.trelloClientHttpRequestFactory(config, beans.getBeanProvider(CloseableHttpClient.class)),
+                    new TrelloResilienceInterceptor(resilienceConfig, new TrelloCircuitBreaker(resilienceConfig)),
+                    new TrelloRateLimitInterceptor(new TrelloRateLimiter(rateLimitConfig), rateLimitConfig));
+        } else {
+            restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        }
+        trelloService = TrelloServices.create(config, restTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        standIn.close();
+    }
+
+    @Benchmark
+    public List<Task> getCards() {
+        return trelloService.getCards("list1");
+    }
+}
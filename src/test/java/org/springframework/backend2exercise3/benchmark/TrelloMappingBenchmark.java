@@ -0,0 +1,149 @@
+package org.springframework.backend2exercise3.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.service.TrelloService;
+import org.springframework.backend2exercise3.support.TrelloPayloads;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-anrop-vägarna i TrelloService utan nätverk: formulär till Task, Map till Task
+ * och URL-bygge för att skapa ett kort.
+ * Kör med: -Pbenchmark -Djmh.args="TrelloMapping" (allokering via -prof gc ingår)
+ * <ul>
+ *     <li>convertFormToTask: formulär med beskrivning och prioritet</li>
+ *     <li>mapToTasks: parsad kortlista (List av Map) till Task, som getCards gjorde före strömmande avkodning</li>
+ *     <li>urlViaString: UriComponentsBuilder till sträng som RestTemplate sedan tolkar och kodar igen (gamla vägen)</li>
+ *     <li>urlViaUri: UriComponentsBuilder direkt till URI, som TrelloService gör nu</li>
+ *     <li>urlFromTemplate: förparsad mall där bara variablerna kodas och expanderas</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrelloMappingBenchmark {
+
+    private static final String BASE_URL = "https://api.trello.com/1";
+    private static final String CARD_NAME = "Åtgärda inloggningsfelet & testa igen";
+    private static final String CARD_DESCRIPTION = "Användare kan inte logga in efter senaste uppdateringen.\n\nPrioritet: HIGH";
+
+    private TrelloService trelloService;
+    private TrelloStandIn standIn;
+    private TaskForm form;
+    private DefaultUriBuilderFactory restTemplateUriHandler;
+    private UriComponents cardTemplate;
+
+    /**
+     * Kortlistor av olika storlek, parsade till Map en gång i setup
+     */
+    @State(Scope.Benchmark)
+    public static class Cards {
+
+        @Param({"100", "10000", "100000"})
+        public int cards;
+
+        List<Map<String, Object>> parsed;
+
+        @Setup
+        @SuppressWarnings("unchecked")
+        public void setUp() throws IOException {
+            parsed = new ObjectMapper().readValue(TrelloPayloads.fullCards(cards), List.class);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkLogging.quiet();
+        standIn = new TrelloStandIn();
+        trelloService = TrelloServices.create(standIn.config(), new RestTemplate());
+        standIn.close();
+
+        form = new TaskForm(CARD_NAME, "Användare kan inte logga in efter senaste uppdateringen.");
+        form.setPriority("HIGH");
+
+        // Samma hantering av URI-mallar som RestTemplate använder för sträng-URL:er
+        restTemplateUriHandler = new DefaultUriBuilderFactory();
+        cardTemplate = UriComponentsBuilder.fromHttpUrl(BASE_URL + "/cards")
+                .queryParam("key", "{key}")
+                .queryParam("token", "{token}")
+                .queryParam("idList", "{idList}")
+                .queryParam("name", "{name}")
+                .queryParam("desc", "{desc}")
+                .encode()
+                .build();
+    }
+
+    @Benchmark
+    public Task convertFormToTask() {
+        return trelloService.convertFormToTask(form);
+    }
+
+    @Benchmark
+    public List<Task> mapToTasks(Cards cards) {
+        List<Task> tasks = new ArrayList<>(cards.parsed.size());
+        for (Map<String, Object> card : cards.parsed) {
+            Task task = new Task();
+            task.setId((String) card.get("id"));
+            task.setName((String) card.get("name"));
+            task.setDescription((String) card.get("desc"));
+            task.setUrl((String) card.get("url"));
+            task.setListId((String) card.get("idList"));
+            task.setBoardId((String) card.get("idBoard"));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Benchmark
+    public URI urlViaString() {
+        String url = builder().toUriString();
+        return restTemplateUriHandler.expand(url);
+    }
+
+    @Benchmark
+    public URI urlViaUri() {
+        return builder().build().encode().toUri();
+    }
+
+    @Benchmark
+    public URI urlFromTemplate() {
+        return cardTemplate.expand("standin-key", "standin-token", "list1", CARD_NAME, CARD_DESCRIPTION).toUri();
+    }
+
+    private static UriComponentsBuilder builder() {
+        return UriComponentsBuilder
+                .fromHttpUrl(BASE_URL + "/cards")
+                .queryParam("key", "standin-key")
+                .queryParam("token", "standin-token")
+                .queryParam("idList", "list1")
+                .queryParam("name", CARD_NAME)
+                .queryParam("desc", CARD_DESCRIPTION);
+    }
+}
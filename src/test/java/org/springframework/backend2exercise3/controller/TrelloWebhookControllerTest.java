@@ -0,0 +1,135 @@
+package org.springframework.backend2exercise3.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.TrelloCard;
+import org.springframework.backend2exercise3.service.BoardReplica;
+import org.springframework.backend2exercise3.service.BoardReplicaSync;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.backend2exercise3.support.TrelloWebhookReplayer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "trello.webhook.enabled=true",
+        "trello.webhook.register=false",
+        "trello.webhook.secret=" + TrelloWebhookControllerTest.SECRET,
+        "trello.webhook.callback-url=" + TrelloWebhookControllerTest.CALLBACK_URL,
+        "trello.replica.snapshot.enabled=false"
+})
+class TrelloWebhookControllerTest {
+
+    static final String SECRET = "test-secret";
+    static final String CALLBACK_URL = "https://example.test/trello/webhook";
+
+    private static final TrelloStandIn STAND_IN = startStandIn();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    BoardReplica boardReplica;
+
+    @Autowired
+    BoardReplicaSync boardReplicaSync;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private TrelloWebhookReplayer replayer;
+
+    private static TrelloStandIn startStandIn() {
+        try {
+            return new TrelloStandIn();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void trelloProperties(DynamicPropertyRegistry registry) {
+        registry.add("trello.api.base-url", STAND_IN::getBaseUrl);
+        registry.add("trello.api.board-id", () -> "board1");
+        registry.add("trello.api.default-list-id", () -> "list1");
+    }
+
+    @AfterAll
+    static void stopStandIn() {
+        STAND_IN.close();
+    }
+
+    @BeforeEach
+    void loadReplica() {
+        boardReplicaSync.fullLoad();
+        replayer = new TrelloWebhookReplayer(URI.create("http://127.0.0.1:" + port + "/trello/webhook"),
+                CALLBACK_URL, SECRET);
+    }
+
+    @Test
+    void replayedActionsAreAppliedInOrderAndOnlyOnce() throws Exception {
+        List<byte[]> payloads = TrelloWebhookReplayer.load(objectMapper, "/trello/webhook-actions.json");
+
+        List<Integer> statuses = replayer.replay(payloads, 3);
+
+        assertTrue(statuses.stream().allMatch(status -> status == 200), statuses.toString());
+        assertEquals("Nytt namn", card("card0").getName());
+        assertEquals("list2", card("card1").getListId());
+        assertEquals(List.of("label1"), card("card2").getLabelIds());
+        assertFalse(boardReplica.getCard("card3").isPresent());
+        assertFalse(boardReplica.getCard("card4").isPresent());
+        assertTrue(boardReplica.getLists("board1").orElseThrow().stream().anyMatch(list -> "list3".equals(list.get("id"))));
+        assertEquals(1, boardReplica.getTasks("list2").orElseThrow().size());
+
+        // Nyskapade kort hämtas i sin helhet i bakgrunden
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (card("cardNew").getDescription() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("Beskrivning för cardNew", card("cardNew").getDescription());
+    }
+
+    @Test
+    void highRateUpdatesEndWithTheLatestValue() throws Exception {
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String json = "{\"action\":{\"id\":\"burst" + i + "\",\"type\":\"updateCard\",\"date\":\"2031-01-01T00:00:00."
+                    + String.format("%03d", i) + "Z\",\"data\":{\"card\":{\"id\":\"card5\","
+                    + "\"name\":\"Namn " + i + "\"}}},\"model\":{\"id\":\"board1\"}}";
+            payloads.add(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<Integer> statuses = replayer.replay(payloads, 2);
+
+        assertTrue(statuses.stream().allMatch(status -> status == 200));
+        assertEquals("Namn 999", card("card5").getName());
+    }
+
+    @Test
+    void rejectsInvalidSignature() throws Exception {
+        byte[] body = "{\"action\":{\"id\":\"forged\",\"type\":\"deleteCard\",\"data\":{\"card\":{\"id\":\"card6\"}}}}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(401, replayer.send(body, "ZmVs"));
+        assertEquals(401, replayer.send(body, ""));
+        assertTrue(boardReplica.getCard("card6").isPresent());
+    }
+
+    private TrelloCard card(String cardId) {
+        return boardReplica.getCard(cardId).orElseThrow(() -> new AssertionError("Kort saknas: " + cardId));
+    }
+}
@@ -0,0 +1,111 @@
+package org.springframework.backend2exercise3.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Öppen lastgenerator: varje scenario skickar anrop i en fast takt oavsett hur snabbt
+ * servern svarar. Svarstiden räknas från den planerade starttiden, så köbildning hos
+ * servern (eller i generatorn) syns i percentilerna i stället för att sänka takten.
+ */
+final class ArrivalRateDriver {
+
+    /**
+     * Ett scenario med namn, takt (anrop per sekund) och anrop nummer n
+     */
+    record Scenario(String name, double ratePerSecond, LongFunction<HttpRequest> request) {}
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    ArrivalRateDriver(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Kör alla scenarier parallellt; bara anrop planerade efter uppvärmningen mäts
+     */
+    List<ScenarioStats> run(List<Scenario> scenarios, Duration warmup, Duration duration) throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        List<ScenarioStats> stats = new ArrayList<>();
+        List<Thread> schedulers = new ArrayList<>();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Scenario scenario : scenarios) {
+                if (scenario.ratePerSecond() <= 0) {
+                    continue;
+                }
+                ScenarioStats scenarioStats = new ScenarioStats(scenario.name(), scenario.ratePerSecond(), duration);
+                stats.add(scenarioStats);
+                Thread scheduler = Thread.ofPlatform().name("load-" + scenario.name())
+                        .start(() -> schedule(scenario, scenarioStats, requests, start, measureFrom, end));
+                schedulers.add(scheduler);
+            }
+            for (Thread scheduler : schedulers) {
+                scheduler.join();
+            }
+            // Executorns close() väntar in anrop som fortfarande pågår (högst requestTimeout)
+        }
+        return stats;
+    }
+
+    private void schedule(Scenario scenario, ScenarioStats stats, ExecutorService requests,
+                          long start, long measureFrom, long end) {
+        double periodNanos = TimeUnit.SECONDS.toNanos(1) / scenario.ratePerSecond();
+        for (long n = 0; ; n++) {
+            long intended = start + Math.round(n * periodNanos);
+            if (intended >= end) {
+                return;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            HttpRequest request = scenario.request().apply(n);
+            requests.execute(() -> send(request, stats, intended, measured));
+        }
+    }
+
+    private void send(HttpRequest request, ScenarioStats stats, long intended, boolean measured) {
+        String status;
+        try {
+            HttpResponse<Void> response = client.send(withTimeout(request), HttpResponse.BodyHandlers.discarding());
+            status = String.valueOf(response.statusCode());
+        } catch (HttpTimeoutException e) {
+            status = "TIMEOUT";
+        } catch (IOException e) {
+            status = "IO_ERROR";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (measured) {
+            stats.record(System.nanoTime() - intended, status);
+        }
+    }
+
+    private HttpRequest withTimeout(HttpRequest request) {
+        return request.timeout().isPresent()
+                ? request
+                : HttpRequest.newBuilder(request, (name, value) -> true).timeout(requestTimeout).build();
+    }
+}
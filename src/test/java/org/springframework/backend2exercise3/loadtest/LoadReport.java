@@ -0,0 +1,98 @@
+package org.springframework.backend2exercise3.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Skriver resultatet av en lastkörning till konsolen och lägger till en rad per scenario i
+ * results.csv, så att körningar från olika commits kan jämföras. Jämför också mot den
+ * senaste tidigare körningen med samma scenario och inställningar.
+ */
+final class LoadReport {
+
+    static final String HEADER = "timestamp,label,scenario,target_rps,achieved_rps,requests,ok,errors,"
+            + "p50_ms,p90_ms,p99_ms,p999_ms,max_ms,upstream_requests,config";
+
+    private final String label;
+    private final String config;
+    private final int upstreamRequests;
+
+    LoadReport(String label, String config, int upstreamRequests) {
+        this.label = label;
+        this.config = config;
+        this.upstreamRequests = upstreamRequests;
+    }
+
+    void print(List<ScenarioStats> stats, Map<String, String[]> previous) {
+        System.out.printf("%nLastkörning %s (%s)%n", label, config);
+        System.out.printf("Anrop till Trello-ersättaren: %d%n%n", upstreamRequests);
+        System.out.printf(Locale.ROOT, "%-8s %8s %9s %8s %7s %9s %9s %9s %9s %9s  %s%n",
+                "scenario", "mål/s", "uppnått/s", "anrop", "fel", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+                "status");
+        for (ScenarioStats s : stats) {
+            System.out.printf(Locale.ROOT, "%-8s %8.1f %9.1f %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                    s.getName(), s.getTargetRate(), s.getThroughput(), s.getCount(), s.getErrors(),
+                    s.percentileMillis(50), s.percentileMillis(90), s.percentileMillis(99),
+                    s.percentileMillis(99.9), s.percentileMillis(100), s.getStatusCounts());
+        }
+        for (ScenarioStats s : stats) {
+            String[] before = previous.get(key(s.getName(), config));
+            if (before != null) {
+                System.out.printf(Locale.ROOT, "%s mot %s: p50 %+.1f ms, p99 %+.1f ms, uppnått %+.1f/s%n",
+                        s.getName(), before[1],
+                        s.percentileMillis(50) - Double.parseDouble(before[8]),
+                        s.percentileMillis(99) - Double.parseDouble(before[10]),
+                        s.getThroughput() - Double.parseDouble(before[4]));
+            }
+        }
+    }
+
+    /**
+     * Senaste raden per scenario och inställningar i en tidigare results.csv
+     */
+    static Map<String, String[]> readPrevious(Path csv) throws IOException {
+        Map<String, String[]> previous = new HashMap<>();
+        if (!Files.exists(csv)) {
+            return previous;
+        }
+        for (String line : Files.readAllLines(csv, StandardCharsets.UTF_8)) {
+            if (line.startsWith("timestamp")) {
+                continue;
+            }
+            String[] columns = line.split(",", 15);
+            if (columns.length == 15) {
+                previous.put(key(columns[2], columns[14]), columns);
+            }
+        }
+        return previous;
+    }
+
+    void append(Path csv, List<ScenarioStats> stats) throws IOException {
+        Files.createDirectories(csv.getParent());
+        StringBuilder lines = new StringBuilder();
+        if (!Files.exists(csv)) {
+            lines.append(HEADER).append('\n');
+        }
+        String timestamp = Instant.now().truncatedTo(ChronoUnit.SECONDS).toString();
+        for (ScenarioStats s : stats) {
+            lines.append(String.format(Locale.ROOT, "%s,%s,%s,%.1f,%.1f,%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%s%n",
+                    timestamp, label, s.getName(), s.getTargetRate(), s.getThroughput(), s.getCount(), s.getOk(),
+                    s.getErrors(), s.percentileMillis(50), s.percentileMillis(90), s.percentileMillis(99),
+                    s.percentileMillis(99.9), s.percentileMillis(100), upstreamRequests, config));
+        }
+        Files.writeString(csv, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String key(String scenario, String config) {
+        return scenario + " " + config;
+    }
+}
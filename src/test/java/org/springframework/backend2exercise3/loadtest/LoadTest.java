@@ -0,0 +1,188 @@
+package org.springframework.backend2exercise3.loadtest;
+
+import org.springframework.backend2exercise3.Backend2Exercise3Application;
+import org.springframework.backend2exercise3.support.StandInLatency;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lasttest av hela applikationen mot en lokal Trello-ersättare, utan anrop till riktiga Trello.
+ * Startar ersättaren och applikationen (med board-kopian påslagen), driver POST /tasks/create
+ * samt läsningar mot /api/tasks och /api/tasks/search i fasta takter och skriver en rapport.
+ * <p>
+ * Kör med: ./mvnw -Pload-test test-compile exec:exec -Dloadtest.args="create-rate=20 list-rate=200"
+ * <ul>
+ *     <li>duration=30s, warmup=10s - mätfönster och uppvärmning</li>
+ *     <li>create-rate=10, list-rate=100, search-rate=50 - anrop per sekund per scenario (0 stänger av)</li>
+ *     <li>latency=lognormal:40,400 - Trellos svarstid, se StandInLatency</li>
+ *     <li>error-rate=0.01, rate-limit-rate=0.0, retry-after=1 - andel 503 och 429 från Trello</li>
+ *     <li>cards=1000 - kort per lista och i boarden (payload-storlek)</li>
+ *     <li>label=&lt;git-commit&gt; - etikett i results.csv, out=target/loadtest - katalog för rapporten</li>
+ *     <li>--egenskap=värde - skickas vidare till applikationen, t.ex. --trello.rate-limit.enabled=false</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("duration", "30s");
+        options.put("warmup", "10s");
+        options.put("create-rate", "10");
+        options.put("list-rate", "100");
+        options.put("search-rate", "50");
+        options.put("latency", "lognormal:40,400");
+        options.put("error-rate", "0.01");
+        options.put("rate-limit-rate", "0.0");
+        options.put("retry-after", "1");
+        options.put("cards", "1000");
+        Map<String, Object> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2) {
+                appProperties.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("Okänt argument: " + arg);
+            }
+        }
+
+        try (TrelloStandIn trello = new TrelloStandIn()
+                .withLatency(StandInLatency.parse(options.get("latency")))
+                .withErrorRate(Double.parseDouble(options.get("error-rate")))
+                .withRateLimitRate(Double.parseDouble(options.get("rate-limit-rate")),
+                        Integer.parseInt(options.get("retry-after")))
+                .withCardsPerList(Integer.parseInt(options.get("cards")));
+             ConfigurableApplicationContext app = startApplication(trello, appProperties)) {
+
+            String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+            awaitReplica(baseUrl);
+            trello.resetRequestCount();
+
+            ArrivalRateDriver driver = new ArrivalRateDriver(Duration.ofSeconds(30));
+            List<ScenarioStats> stats = driver.run(List.of(
+                    new ArrivalRateDriver.Scenario("create", rate(options, "create-rate"), n -> createRequest(baseUrl, n)),
+                    new ArrivalRateDriver.Scenario("list", rate(options, "list-rate"), n -> get(baseUrl + "/api/tasks?limit=50")),
+                    new ArrivalRateDriver.Scenario("search", rate(options, "search-rate"),
+                            n -> get(baseUrl + "/api/tasks/search?q=uppgift&limit=20"))
+            ), duration(options.get("warmup")), duration(options.get("duration")));
+
+            Map<String, String> described = new LinkedHashMap<>(options);
+            described.remove("label");
+            described.remove("out");
+            String config = String.join(" ", described.entrySet().stream()
+                    .map(e -> e.getKey() + "=" + e.getValue()).toList())
+                    + (appProperties.isEmpty() ? "" : " " + appProperties);
+            String label = options.getOrDefault("label", gitCommit());
+            Path csv = Path.of(options.getOrDefault("out", "target/loadtest"), "results.csv");
+
+            LoadReport report = new LoadReport(label, config.replace(',', ';'),
+                    trello.getRequestCount());
+            report.print(stats, LoadReport.readPrevious(csv));
+            report.append(csv, stats);
+            System.out.printf("Trello-ersättaren: %d anrop, %d x 503, %d x 429. Resultat: %s%n",
+                    trello.getRequestCount(), trello.getErrorCount(), trello.getRateLimitedCount(), csv);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(TrelloStandIn trello,
+                                                                   Map<String, Object> overrides) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.org.springframework.web.client", "WARN");
+        properties.put("trello.api.base-url", trello.getBaseUrl());
+        properties.put("trello.api.key", "standin-key");
+        properties.put("trello.api.token", "standin-token");
+        properties.put("trello.api.board-id", "board1");
+        properties.put("trello.api.default-list-id", "list1");
+        properties.put("trello.replica.enabled", "true");
+        properties.putAll(overrides);
+        // Som kommandoradsargument, annars vinner värdena i application.yml
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(Backend2Exercise3Application.class).run(args);
+    }
+
+    /**
+     * Väntar tills board-kopian har laddats så att läsningarna mäter ett varmt läge
+     */
+    private static void awaitReplica(String baseUrl) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> response = client.send(get(baseUrl + "/api/tasks?limit=1"),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200 && response.body().contains("\"items\":[{")) {
+                return;
+            }
+            Thread.sleep(200);
+        }
+        System.out.println("Board-kopian laddades inte inom 60 s, läsningarna mäter en tom kopia");
+    }
+
+    private static HttpRequest createRequest(String baseUrl, long n) {
+        String form = "platform=trello&priority=MEDIUM&title=" + encode("Lasttest " + n)
+                + "&description=" + encode("Skapad av lasttestet, anrop " + n);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/create"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static double rate(Map<String, String> options, String name) {
+        return Double.parseDouble(options.get(name));
+    }
+
+    /**
+     * "30s", "2m" eller ISO-8601 ("PT30S")
+     */
+    private static Duration duration(String value) {
+        try {
+            return Duration.parse(value.startsWith("P") ? value : "PT" + value.toUpperCase());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Ogiltig tid: " + value, e);
+        }
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 && !commit.isEmpty() ? commit : "okänd";
+        } catch (IOException e) {
+            return "okänd";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "okänd";
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.springframework.backend2exercise3.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Svarstider och statuskoder för ett scenario under mätfönstret.
+ * Antalet anrop är känt i förväg (takt x längd), så alla svarstider sparas och sorteras
+ * vid rapporten i stället för att approximeras med ett histogram.
+ */
+final class ScenarioStats {
+
+    private final String name;
+    private final double targetRate;
+    private final Duration duration;
+    private final Map<String, Integer> statusCounts = new TreeMap<>();
+    private long[] latencies;
+    private int count;
+    private int ok;
+
+    ScenarioStats(String name, double targetRate, Duration duration) {
+        this.name = name;
+        this.targetRate = targetRate;
+        this.duration = duration;
+        this.latencies = new long[(int) Math.ceil(targetRate * duration.toMillis() / 1000.0) + 16];
+    }
+
+    synchronized void record(long latencyNanos, String status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        statusCounts.merge(status, 1, Integer::sum);
+        if (status.startsWith("2") || status.startsWith("3")) {
+            ok++;
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    double getTargetRate() {
+        return targetRate;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    synchronized int getOk() {
+        return ok;
+    }
+
+    synchronized int getErrors() {
+        return count - ok;
+    }
+
+    /**
+     * Lyckade svar per sekund under mätfönstret
+     */
+    synchronized double getThroughput() {
+        return ok * 1000.0 / duration.toMillis();
+    }
+
+    synchronized Map<String, Integer> getStatusCounts() {
+        return new TreeMap<>(statusCounts);
+    }
+
+    /**
+     * Percentil (0-100) i millisekunder, över alla svar inklusive fel
+     */
+    synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(latencies, 0, count);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return latencies[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,157 @@
+package org.springframework.backend2exercise3.loadtest;
+
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starttid för applikationen i olika lägen: tid från att JVM:en startas till första lyckade GET /.
+ * Varje start är en ny JVM-process mot en lokal Trello-ersättare; lägena körs omväxlande,
+ * runda för runda, så att värmen i maskinen (page cache, CPU-frekvens) fördelas jämnt.
+ * <p>
+ * Bygg först: ./mvnw -Pstartup package -DskipTests
+ * Kör sedan: ./mvnw -Pstartup-benchmark test-compile exec:exec [-Dstartup.args="runs=10 modes=default,startup"]
+ * <ul>
+ *     <li>default - den vanliga jar-filen: java -jar target/&lt;app&gt;.jar</li>
+ *     <li>lazy - samma jar med profilen startup (lat initiering), utan AOT och CDS</li>
+ *     <li>startup - uppackad jar med AOT, CDS-arkivet från träningskörningen och profilen startup</li>
+ *     <li>runs=5 - starter per läge, timeout=120s - längsta väntan på en start</li>
+ *     <li>jar, startup-dir - sätts av Maven-profilen; loggar hamnar i target/startup-benchmark</li>
+ * </ul>
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("runs", "5");
+        options.put("modes", "default,lazy,startup");
+        options.put("timeout", "120s");
+        options.put("out", "target/startup-benchmark");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("Okänt argument: " + arg);
+            }
+        }
+        Path jar = Path.of(required(options, "jar"));
+        Path startupDir = Path.of(required(options, "startup-dir"));
+        List<String> modes = List.of(options.get("modes").split(","));
+        int runs = Integer.parseInt(options.get("runs"));
+        Duration timeout = Duration.parse("PT" + options.get("timeout").toUpperCase());
+        Path out = Path.of(options.get("out"));
+        Files.createDirectories(out);
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        try (TrelloStandIn trello = new TrelloStandIn()) {
+            for (int run = 1; run <= runs; run++) {
+                for (String mode : modes) {
+                    List<String> command = command(mode, jar, startupDir);
+                    long millis = timeToFirstRequest(command, trello, timeout, out.resolve(mode + "-" + run + ".log"));
+                    results.computeIfAbsent(mode, m -> new ArrayList<>()).add(millis);
+                    System.out.printf("runda %d %-8s %6d ms%n", run, mode, millis);
+                }
+            }
+        }
+
+        System.out.printf("%n%-8s %8s %8s %8s   (ms till första lyckade GET /, %d starter per läge)%n",
+                "läge", "min", "median", "max", runs);
+        for (Map.Entry<String, List<Long>> entry : results.entrySet()) {
+            List<Long> sorted = entry.getValue().stream().sorted().toList();
+            System.out.printf("%-8s %8d %8d %8d%n", entry.getKey(),
+                    sorted.get(0), sorted.get(sorted.size() / 2), sorted.get(sorted.size() - 1));
+        }
+    }
+
+    private static List<String> command(String mode, Path jar, Path startupDir) {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path extracted = startupDir.resolve(jar.getFileName());
+        return switch (mode) {
+            case "default" -> List.of(java, "-jar", jar.toString());
+            case "lazy" -> List.of(java, "-Dspring.profiles.active=startup", "-jar", jar.toString());
+            case "startup" -> {
+                Path archive = startupDir.resolve("application.jsa");
+                if (!Files.exists(archive) || !Files.exists(extracted)) {
+                    throw new IllegalStateException(archive + " saknas, bygg med ./mvnw -Pstartup package");
+                }
+                yield List.of(java, "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                        "-Dspring.profiles.active=startup", "-jar", extracted.toString());
+            }
+            default -> throw new IllegalArgumentException("Okänt läge: " + mode);
+        };
+    }
+
+    /**
+     * Startar applikationen och pollar GET / tills den svarar 200, stänger sedan processen
+     * @return Millisekunder från processtart till första lyckade svar
+     */
+    private static long timeToFirstRequest(List<String> command, TrelloStandIn trello, Duration timeout,
+                                           Path log) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> full = new ArrayList<>(command);
+        full.add("--server.port=" + port);
+        full.add("--trello.api.base-url=" + trello.getBaseUrl());
+        full.add("--trello.api.key=standin-key");
+        full.add("--trello.api.token=standin-token");
+        full.add("--trello.api.board-id=board1");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest home = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/"))
+                .timeout(timeout).GET().build();
+
+        long start = System.nanoTime();
+        Process app = new ProcessBuilder(full).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!app.isAlive()) {
+                    throw new IllegalStateException("Applikationen avslutades (kod " + app.exitValue() + "), se " + log);
+                }
+                try {
+                    if (client.send(home, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Porten är inte öppen än
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Ingen lyckad GET / inom " + timeout + ", se " + log);
+        } finally {
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                app.destroyForcibly();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + "= saknas, kör via ./mvnw -Pstartup-benchmark");
+        }
+        return value;
+    }
+}
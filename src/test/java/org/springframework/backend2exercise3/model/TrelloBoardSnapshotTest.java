@@ -0,0 +1,108 @@
+package org.springframework.backend2exercise3.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrelloBoardSnapshotTest {
+
+    @Test
+    void listsAndCardsAreOrderedByPosition() {
+        TrelloBoard board = board(
+                List.of(list("list2", 2), list("list1", 1)),
+                List.of(card("card3", "list1", 3), card("card1", "list1", 1), card("card2", "list2", 2)));
+
+        TrelloBoardSnapshot snapshot = TrelloBoardSnapshot.of(board);
+
+        assertEquals(List.of("list1", "list2"), snapshot.getLists().stream().map(TrelloList::getId).toList());
+        assertEquals(List.of("card1", "card3"), ids(snapshot.getCardsInList("list1")));
+        assertEquals(List.of("card2"), ids(snapshot.getCardsInList("list2")));
+        assertSame(snapshot.getList("list1"), snapshot.getCard("card3").getList());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getCardsInList("list1").clear());
+    }
+
+    @Test
+    void cardInUnknownListIsKeptWithoutList() {
+        TrelloBoard board = board(List.of(list("list1", 1)),
+                List.of(card("card1", "list1", 1), card("card2", "arkiverad", 2)));
+
+        TrelloBoardSnapshot snapshot = TrelloBoardSnapshot.of(board);
+
+        assertNull(snapshot.getCard("card2").getList());
+        assertEquals(List.of("card1", "card2"), ids(List.copyOf(snapshot.getCards())));
+        assertEquals(List.of("card1"), ids(snapshot.getCardsInList("list1")));
+        assertTrue(snapshot.getCardsInList("arkiverad").isEmpty());
+    }
+
+    @Test
+    void labelsAndMembersAreSharedInstancesAndMissingIdsAreSkipped() {
+        TrelloLabel label = new TrelloLabel();
+        label.setId("label1");
+        TrelloMember member = new TrelloMember();
+        member.setId("member1");
+        TrelloCard card = card("card1", "list1", 1);
+        card.setLabelIds(List.of("saknas", "label1"));
+        card.setMemberIds(List.of("member1", "borttagen"));
+        TrelloCard unlabeled = card("card2", "list1", 2);
+        TrelloBoard board = board(List.of(list("list1", 1)), List.of(card, unlabeled));
+        board.setLabels(List.of(label));
+        board.setMembers(List.of(member));
+
+        TrelloBoardSnapshot snapshot = TrelloBoardSnapshot.of(board);
+
+        assertEquals(1, card.getLabels().size());
+        assertSame(label, card.getLabels().get(0));
+        assertEquals(1, card.getMembers().size());
+        assertSame(member, snapshot.getMember("member1"));
+        assertSame(member, card.getMembers().get(0));
+        // Utan id-listor i svaret lämnas kortets etiketter och medlemmar orörda
+        assertNull(unlabeled.getLabels());
+        assertNull(unlabeled.getMembers());
+    }
+
+    @Test
+    void boardWithoutNestedCollectionsIsEmpty() {
+        TrelloBoard board = new TrelloBoard();
+        board.setId("board1");
+
+        TrelloBoardSnapshot snapshot = TrelloBoardSnapshot.of(board);
+
+        assertTrue(snapshot.getLists().isEmpty());
+        assertTrue(snapshot.getCards().isEmpty());
+        assertTrue(snapshot.getLabels().isEmpty());
+        assertTrue(snapshot.getMembers().isEmpty());
+    }
+
+    private static TrelloBoard board(List<TrelloList> lists, List<TrelloCard> cards) {
+        TrelloBoard board = new TrelloBoard();
+        board.setId("board1");
+        board.setLists(lists);
+        board.setCards(cards);
+        return board;
+    }
+
+    private static TrelloList list(String id, double position) {
+        TrelloList list = new TrelloList();
+        list.setId(id);
+        list.setPosition(position);
+        return list;
+    }
+
+    private static TrelloCard card(String id, String listId, double position) {
+        TrelloCard card = new TrelloCard();
+        card.setId(id);
+        card.setListId(listId);
+        card.setPosition(position);
+        return card;
+    }
+
+    private static List<String> ids(List<TrelloCard> cards) {
+        return cards.stream().map(TrelloCard::getId).toList();
+    }
+}
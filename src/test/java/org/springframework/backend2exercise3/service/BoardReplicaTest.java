@@ -0,0 +1,57 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.TrelloAction;
+import org.springframework.backend2exercise3.model.TrelloBoard;
+import org.springframework.backend2exercise3.model.TrelloBoardSnapshot;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardReplicaTest {
+
+    private static final Instant LOADED_SINCE = Instant.parse("2026-10-01T08:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BoardReplica replica;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replica = new BoardReplica(objectMapper);
+        TrelloBoard board = objectMapper.readValue(TrelloStandIn.board(2), TrelloBoard.class);
+        replica.load(TrelloBoardSnapshot.of(board), LOADED_SINCE);
+    }
+
+    @Test
+    void earlyWebhookDoesNotSkipEarlierActionsInThePoll() throws Exception {
+        String since = replica.getSince();
+        TrelloAction earlier = createCard("action1", "cardA", "2026-10-01T08:01:00.000Z");
+        TrelloAction later = createCard("action2", "cardB", "2026-10-01T08:02:00.000Z");
+
+        // Webhooken levererar den senare actionen innan pollningen hunnit hämta den tidigare
+        assertTrue(replica.apply(later));
+        assertEquals(since, replica.getSince());
+
+        // Pollningen från since ser båda, applicerar den missade och hoppar över dubbletten
+        assertEquals(1, replica.applyAll(List.of(later, earlier)));
+        assertTrue(replica.getCard("cardA").isPresent());
+        assertTrue(replica.getCard("cardB").isPresent());
+        assertEquals("2026-10-01T08:02:00.000Z", replica.getSince());
+    }
+
+    private TrelloAction createCard(String actionId, String cardId, String date) throws Exception {
+        TrelloAction action = new TrelloAction();
+        action.setId(actionId);
+        action.setType("createCard");
+        action.setDate(date);
+        action.setData(objectMapper.readTree("{\"card\":{\"id\":\"" + cardId + "\",\"name\":\"Kort " + cardId
+                + "\",\"idList\":\"list1\"},\"list\":{\"id\":\"list1\"}}"));
+        return action;
+    }
+}
@@ -0,0 +1,144 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.backend2exercise3.model.TrelloCard;
+import org.springframework.backend2exercise3.model.TrelloLabel;
+import org.springframework.backend2exercise3.model.TrelloList;
+import org.springframework.backend2exercise3.model.TrelloMember;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardSnapshotFileTest {
+
+    private static final Instant FIRST = Instant.parse("2026-10-01T08:00:00Z");
+    private static final Instant SECOND = Instant.parse("2026-10-01T08:05:00Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsAllFields() throws Exception {
+        BoardSnapshotFile file = new BoardSnapshotFile(dir.resolve("board.bin"));
+        file.write(contents("2026-10-01T07:59:00Z", 3), FIRST);
+
+        BoardSnapshotFile.Saved saved = file.read().orElseThrow();
+        assertEquals(FIRST, saved.savedAt());
+        assertEquals(Files.size(file.getPath()), saved.fileBytes());
+
+        BoardSnapshotFile.Contents contents = saved.contents();
+        assertEquals("board1", contents.boardId());
+        assertEquals("2026-10-01T07:59:00Z", contents.since());
+        assertEquals("Att göra", contents.lists().get(0).getName());
+        assertEquals(2.5, contents.lists().get(0).getPosition());
+        assertEquals("red", contents.labels().get(0).getColor());
+        assertNull(contents.members().get(0).getAvatarUrl());
+        assertEquals(3, contents.cards().size());
+
+        TrelloCard card = contents.cards().get(1);
+        assertEquals("card1", card.getId());
+        assertEquals("Kort 1 – åäö", card.getName());
+        assertNull(card.getDescription());
+        assertEquals("list1", card.getListId());
+        assertEquals("2026-10-02T12:00:00.000Z", card.getDueDate());
+        assertTrue(card.isDueComplete());
+        assertFalse(card.isClosed());
+        assertEquals(1024.0, card.getPosition());
+        assertEquals(List.of("label1"), card.getLabelIds());
+        assertEquals(List.of(), card.getMemberIds());
+        assertNull(contents.cards().get(0).getLabelIds());
+    }
+
+    @Test
+    void truncatedFileFallsBackToPrevious() throws Exception {
+        BoardSnapshotFile file = new BoardSnapshotFile(dir.resolve("board.bin"));
+        file.write(contents("first", 2), FIRST);
+        file.write(contents("second", 4), SECOND);
+
+        // Som en krasch mitt i en skrivning utan atomisk flytt
+        byte[] bytes = Files.readAllBytes(file.getPath());
+        Files.write(file.getPath(), Arrays.copyOf(bytes, bytes.length - 10));
+
+        BoardSnapshotFile.Saved saved = file.read().orElseThrow();
+        assertEquals(FIRST, saved.savedAt());
+        assertEquals("first", saved.contents().since());
+        assertEquals(2, saved.contents().cards().size());
+    }
+
+    @Test
+    void corruptByteIsDetected() throws Exception {
+        BoardSnapshotFile file = new BoardSnapshotFile(dir.resolve("board.bin"));
+        file.write(contents("since", 2), FIRST);
+
+        byte[] bytes = Files.readAllBytes(file.getPath());
+        bytes[bytes.length / 2 + BoardSnapshotFile.HEADER_BYTES / 2] ^= 0x10;
+        Files.write(file.getPath(), bytes);
+
+        assertEquals(Optional.empty(), file.read());
+    }
+
+    @Test
+    void unknownVersionIsIgnored() throws Exception {
+        BoardSnapshotFile file = new BoardSnapshotFile(dir.resolve("board.bin"));
+        file.write(contents("since", 2), FIRST);
+
+        // Giltig header från en nyare version: versionen ändras och header-checksumman räknas om
+        byte[] bytes = Files.readAllBytes(file.getPath());
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        header.putShort(4, (short) (BoardSnapshotFile.VERSION + 1));
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, BoardSnapshotFile.HEADER_BYTES - 4);
+        header.putInt(BoardSnapshotFile.HEADER_BYTES - 4, (int) crc.getValue());
+        Files.write(file.getPath(), bytes);
+
+        assertEquals(Optional.empty(), file.read());
+    }
+
+    private static BoardSnapshotFile.Contents contents(String since, int cardCount) {
+        TrelloList list = new TrelloList();
+        list.setId("list1");
+        list.setName("Att göra");
+        list.setPosition(2.5);
+
+        TrelloLabel label = new TrelloLabel();
+        label.setId("label1");
+        label.setName("Bugg");
+        label.setColor("red");
+
+        TrelloMember member = new TrelloMember();
+        member.setId("member1");
+        member.setFullName("Anna Andersson");
+        member.setUsername("anna");
+
+        List<TrelloCard> cards = new ArrayList<>();
+        for (int i = 0; i < cardCount; i++) {
+            TrelloCard card = new TrelloCard();
+            card.setId("card" + i);
+            card.setName("Kort " + i + " – åäö");
+            card.setListId("list1");
+            card.setBoardId("board1");
+            card.setPosition(1024.0 * i);
+            if (i % 2 == 1) {
+                card.setDueDate("2026-10-02T12:00:00.000Z");
+                card.setDueComplete(true);
+                card.setLabelIds(List.of("label1"));
+                card.setMemberIds(List.of());
+            }
+            cards.add(card);
+        }
+        return new BoardSnapshotFile.Contents("board1", since, List.of(list), List.of(label), List.of(member), cards);
+    }
+}
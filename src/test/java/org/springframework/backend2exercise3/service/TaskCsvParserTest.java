@@ -0,0 +1,63 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.TaskForm;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskCsvParserTest {
+
+    private final TaskCsvParser parser = new TaskCsvParser();
+
+    @Test
+    void quotedFieldsMayContainSeparatorsQuotesAndNewlines() {
+        List<TaskForm> forms = parser.parse("title,description,priority,dueDate,platform\n"
+                + "\"Fixa inloggning, igen\",\"Rad ett\nrad två med \"\"citat\"\"\",HIGH,2026-11-01,trello\n"
+                + "Skriv dokumentation,,,,\n");
+
+        assertEquals(2, forms.size());
+        TaskForm first = forms.get(0);
+        assertEquals("Fixa inloggning, igen", first.getTitle());
+        assertEquals("Rad ett\nrad två med \"citat\"", first.getDescription());
+        assertEquals("HIGH", first.getPriority());
+        assertEquals(LocalDate.of(2026, 11, 1), first.getDueDate());
+        assertEquals("trello", first.getPlatform());
+
+        TaskForm second = forms.get(1);
+        assertEquals("Skriv dokumentation", second.getTitle());
+        assertNull(second.getDueDate());
+        // Tom plattform behåller formulärets standardvärde
+        assertEquals("jira", second.getPlatform());
+    }
+
+    @Test
+    void semicolonSeparatedCsvFromSwedishExcel() {
+        List<TaskForm> forms = parser.parse("\uFEFFTitle;Assignee;Category\r\n"
+                + "Beställ skärmar;anna;Inköp, kontor\r\n"
+                + "\r\n"
+                + "Boka lokal;;\r\n");
+
+        assertEquals(2, forms.size());
+        assertEquals("Beställ skärmar", forms.get(0).getTitle());
+        assertEquals("anna", forms.get(0).getAssignee());
+        assertEquals("Inköp, kontor", forms.get(0).getCategory());
+        assertEquals("Boka lokal", forms.get(1).getTitle());
+        assertNull(forms.get(1).getAssignee());
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        IllegalArgumentException badDate = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("title,dueDate\nUppgift,1 november\n"));
+        assertTrue(badDate.getMessage().contains("rad 2"));
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("title\n\"Oavslutad\n"));
+        assertTrue(parser.parse("  ").isEmpty());
+    }
+}
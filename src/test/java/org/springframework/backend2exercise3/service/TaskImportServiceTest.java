@@ -0,0 +1,120 @@
+package org.springframework.backend2exercise3.service;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TaskDedupConfig;
+import org.springframework.backend2exercise3.config.TaskImportConfig;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.model.TaskImportItemResult;
+import org.springframework.backend2exercise3.model.TaskImportResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskImportServiceTest {
+
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final TaskImportConfig config = new TaskImportConfig();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Set<String> idempotencyKeys = ConcurrentHashMap.newKeySet();
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    void oneInvalidRowMeansNothingIsCreated() {
+        List<TaskForm> forms = List.of(form("Första uppgiften"), form("x"), form("Tredje uppgiften"));
+
+        TaskImportResult result = service().importTasks(forms);
+
+        assertTrue(result.hasInvalidItems());
+        assertEquals(0, result.getCreated());
+        assertEquals(1, result.getInvalid());
+        assertEquals(List.of(TaskImportItemResult.Status.SKIPPED, TaskImportItemResult.Status.INVALID,
+                TaskImportItemResult.Status.SKIPPED), statuses(result));
+        assertTrue(result.getItems().get(1).getErrors().get(0).startsWith("title"));
+        assertEquals(0, maxInFlight.get());
+    }
+
+    @Test
+    void eachRowGetsItsOwnResultInInputOrder() {
+        List<TaskForm> forms = List.of(form("Beställ skärmar"), form("Rapportera fel"), form("Beställ skärmar"));
+
+        TaskImportResult result = service().importTasks(forms);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of(TaskImportItemResult.Status.CREATED, TaskImportItemResult.Status.FAILED,
+                TaskImportItemResult.Status.CREATED), statuses(result));
+        assertEquals("card-Beställ skärmar", result.getItems().get(0).getCardId());
+        assertEquals("Plattformen svarade 500", result.getItems().get(1).getErrors().get(0));
+        // Identiska rader får var sin idempotensnyckel och blir två kort
+        assertEquals(3, idempotencyKeys.size());
+    }
+
+    @Test
+    void concurrentCreationsAreBoundedByMaxConcurrency() {
+        config.setMaxConcurrency(3);
+        List<TaskForm> forms = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            forms.add(form("Uppgift " + i));
+        }
+
+        TaskImportResult result = service().importTasks(forms);
+
+        assertEquals(20, result.getCreated());
+        assertEquals(3, maxInFlight.get());
+    }
+
+    private TaskImportService service() {
+        TaskPlatform platform = new TaskPlatform() {
+            @Override
+            public String getName() {
+                return "trello";
+            }
+
+            @Override
+            public String createTask(TaskForm taskForm) throws Exception {
+                idempotencyKeys.add(taskForm.getIdempotencyKey());
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                    if (taskForm.getTitle().contains("fel")) {
+                        throw new Exception("Plattformen svarade 500");
+                    }
+                    return "card-" + taskForm.getTitle();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+        return new TaskImportService(
+                new TaskPlatformRouter(List.of(platform), ioExecutor, new TaskSubmitDedup(new TaskDedupConfig())),
+                validatorFactory.getValidator(), config);
+    }
+
+    private static List<TaskImportItemResult.Status> statuses(TaskImportResult result) {
+        return result.getItems().stream().map(TaskImportItemResult::getStatus).toList();
+    }
+
+    private static TaskForm form(String title) {
+        TaskForm form = new TaskForm(title, "Beskrivning");
+        form.setPlatform("trello");
+        return form;
+    }
+}
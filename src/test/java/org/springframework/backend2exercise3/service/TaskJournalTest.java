@@ -0,0 +1,153 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.service.TaskJournal.Entry;
+import org.springframework.backend2exercise3.service.TaskJournal.Type;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tornTailIsTruncated() throws Exception {
+        Path path = dir.resolve("journal.log");
+        write(path, enqueued("a"), enqueued("b"));
+        long complete = Files.size(path);
+        // Som en krasch mitt i en skrivning: huvudet lovar fler byte än som finns
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(complete);
+            file.writeInt(100);
+            file.writeInt(0);
+            file.write(new byte[10]);
+        }
+
+        List<Entry> entries = journal(path).replay();
+
+        assertEquals(List.of("a", "b"), entries.stream().map(Entry::trackingId).toList());
+        assertEquals(complete, Files.size(path));
+    }
+
+    @Test
+    void recordWithWrongChecksumEndsReplay() throws Exception {
+        Path path = dir.resolve("journal.log");
+        write(path, enqueued("a"));
+        long first = Files.size(path);
+        write(path, enqueued("b"), enqueued("c"));
+        // Vänd en byte i andra postens JSON, efter längd och CRC
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(first + 12);
+            int b = file.read();
+            file.seek(first + 12);
+            file.write(b ^ 0x01);
+        }
+
+        List<Entry> entries = journal(path).replay();
+
+        assertEquals(List.of("a"), entries.stream().map(Entry::trackingId).toList());
+        assertEquals(first, Files.size(path));
+    }
+
+    @Test
+    void liveKeepsPendingTasksWithTheirLatestFailure() {
+        List<Entry> live = TaskJournal.live(List.of(
+                enqueued("a"), enqueued("b"), enqueued("c"), enqueued("d"),
+                failed("a", 1), failed("b", 1), failed("a", 2),
+                completed("b"), gaveUp("c")));
+
+        assertEquals(List.of("ENQUEUED a", "ATTEMPT_FAILED a 2", "ENQUEUED d"), describe(live));
+    }
+
+    @Test
+    void compactRewritesTheFileWithOnlyTheGivenEntries() throws Exception {
+        Path path = dir.resolve("journal.log");
+        write(path, enqueued("a"), enqueued("b"), completed("b"), failed("a", 1));
+        TaskJournal journal = journal(path);
+
+        journal.compact(TaskJournal.live(journal.replay()));
+
+        assertEquals(List.of("ENQUEUED a", "ATTEMPT_FAILED a 1"), describe(journal(path).replay()));
+    }
+
+    @Test
+    void compactIfLargerKeepsLaterAppends() throws Exception {
+        Path path = dir.resolve("journal.log");
+        try (TaskJournal journal = journal(path)) {
+            journal.open();
+            for (int i = 0; i < 20; i++) {
+                journal.append(enqueued("t" + i)).get();
+                journal.append(completed("t" + i)).get();
+            }
+            journal.append(enqueued("kvar")).get();
+            long before = Files.size(path);
+
+            assertFalse(journal.compactIfLarger(before + 1));
+            assertTrue(journal.compactIfLarger(before));
+            assertTrue(Files.size(path) < before);
+
+            journal.append(failed("kvar", 1)).get();
+            journal.append(enqueued("ny")).get();
+        }
+
+        assertEquals(List.of("ENQUEUED kvar", "ATTEMPT_FAILED kvar 1", "ENQUEUED ny"), describe(journal(path).replay()));
+    }
+
+    private TaskJournal journal(Path path) {
+        return new TaskJournal(path, objectMapper, Duration.ZERO);
+    }
+
+    private void write(Path path, Entry... entries) throws Exception {
+        try (TaskJournal journal = journal(path)) {
+            journal.open();
+            for (Entry entry : entries) {
+                journal.append(entry).get();
+            }
+        }
+    }
+
+    /**
+     * TaskForm saknar equals, så posterna jämförs som typ, id och antal försök
+     */
+    private static List<String> describe(List<Entry> entries) {
+        return entries.stream()
+                .map(entry -> entry.type() + " " + entry.trackingId()
+                        + (entry.type() == Type.ATTEMPT_FAILED ? " " + entry.attempts() : ""))
+                .toList();
+    }
+
+    private static final Instant AT = Instant.parse("2026-10-01T08:00:00Z");
+
+    private static Entry enqueued(String id) {
+        TaskForm form = new TaskForm("Uppgift " + id, "Beskrivning");
+        form.setPlatform("trello");
+        return new Entry(Type.ENQUEUED, id, form, null, null, 0, AT);
+    }
+
+    private static Entry failed(String id, int attempts) {
+        return new Entry(Type.ATTEMPT_FAILED, id, null, null, "Anslutningsfel", attempts, AT.plusSeconds(attempts));
+    }
+
+    private static Entry completed(String id) {
+        return new Entry(Type.COMPLETED, id, null, "card-" + id, null, 1, AT);
+    }
+
+    private static Entry gaveUp(String id) {
+        return new Entry(Type.GAVE_UP, id, null, null, "Anslutningsfel", 10, AT);
+    }
+}
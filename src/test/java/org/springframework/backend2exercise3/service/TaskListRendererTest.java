@@ -0,0 +1,93 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TaskViewConfig;
+import org.springframework.backend2exercise3.support.TemplateEngines;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskListRendererTest {
+
+    private TrelloStandIn trello;
+    private TrelloService trelloService;
+    private TaskListRenderer renderer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        trello = new TrelloStandIn();
+        trelloService = TrelloServices.create(trello.config(), new RestTemplate());
+        renderer = new TaskListRenderer(TemplateEngines.create(), new TaskViewConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        trello.close();
+    }
+
+    @Test
+    void shellIsFlushedBeforeCardsAreReadAndRowsFollowInChunks() throws Exception {
+        trello.withCardsPerList(450);
+        FlushRecordingWriter out = new FlushRecordingWriter();
+
+        renderer.stream(out, trelloService.getListsFromConfiguredBoard(), (listId, chunkSize, chunks) -> {
+            // Skalet ska redan vara skickat när korten börjar läsas
+            assertEquals(1, out.flushes.size());
+            return trelloService.forEachCardChunk(listId, chunkSize, chunks);
+        });
+
+        String shell = out.flushes.get(0);
+        assertTrue(shell.contains("Uppgifter"));
+        assertFalse(shell.contains("class=\"task-row\""));
+        // Skal, tre chunkar (200 + 200 + 50), listans avslutning och sidans slut
+        assertEquals(6, out.flushes.size());
+        assertEquals(450, count(out.toString(), "class=\"task-row\""));
+        assertTrue(out.toString().contains("Att göra"));
+        assertTrue(out.toString().endsWith("</html>\n"));
+    }
+
+    @Test
+    void lastKnownGoodCardsAreMarkedStaleWhenTrelloFails() throws Exception {
+        trello.withCardsPerList(5);
+        List<Map<String, Object>> lists = trelloService.getListsFromConfiguredBoard();
+        trelloService.getCardsResult("list1");
+        trello.withErrorRate(1.0);
+
+        FlushRecordingWriter out = new FlushRecordingWriter();
+        renderer.stream(out, lists, trelloService::forEachCardChunk);
+
+        assertTrue(out.toString().contains("Trello svarar inte just nu"));
+        assertEquals(5, count(out.toString(), "class=\"task-row\""));
+    }
+
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int i = text.indexOf(needle); i >= 0; i = text.indexOf(needle, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Sparar allt som skrivits fram till varje flush
+     */
+    private static class FlushRecordingWriter extends StringWriter {
+        final List<String> flushes = new ArrayList<>();
+
+        @Override
+        public void flush() {
+            flushes.add(toString());
+        }
+    }
+}
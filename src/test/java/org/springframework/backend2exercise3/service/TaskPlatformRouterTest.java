@@ -0,0 +1,157 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TaskDedupConfig;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.support.JiraStandIn;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskPlatformRouterTest {
+
+    private static final long LATENCY_MILLIS = 300;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private TrelloStandIn trello;
+    private JiraStandIn jira;
+    private TaskPlatformRouter router;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        trello = new TrelloStandIn();
+        jira = new JiraStandIn();
+        TaskDedupConfig dedupConfig = new TaskDedupConfig();
+        dedupConfig.setEnabled(false);
+        router = router(dedupConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trello.close();
+        jira.close();
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    void createsJiraIssueWithMappedFields() throws Exception {
+        TaskForm form = form("jira");
+        form.setDescription("Första stycket\n\nAndra stycket");
+        form.setPriority("HIGH");
+        form.setCategory("Intern drift");
+        form.setAssignee("anna");
+        form.setDueDate(LocalDate.of(2030, 5, 17));
+
+        assertEquals("TASK-1", router.createTask(form));
+
+        JsonNode fields = objectMapper.readTree(jira.getLastIssueBody()).get("fields");
+        assertEquals("TASK", fields.at("/project/key").asText());
+        assertEquals("Task", fields.at("/issuetype/name").asText());
+        assertEquals("Rapportera fel", fields.get("summary").asText());
+        assertEquals("High", fields.at("/priority/name").asText());
+        assertEquals("2030-05-17", fields.get("duedate").asText());
+        assertEquals("Intern-drift", fields.at("/labels/0").asText());
+        assertEquals("account-anna", fields.at("/assignee/accountId").asText());
+        assertEquals("Andra stycket", fields.at("/description/content/1/content/0/text").asText());
+        assertEquals("Basic " + Base64.getEncoder().encodeToString(
+                "standin@example.test:standin-token".getBytes(StandardCharsets.UTF_8)), jira.getLastAuthorization());
+    }
+
+    @Test
+    void routesToTrelloByPlatform() throws Exception {
+        TaskForm form = form("trello");
+        form.setTitle("Åtgärda 50% av felen & testa");
+
+        assertEquals("card1", router.createTask(form));
+        // Kortnamnet ska kodas en gång, inte en gång till av RestTemplate
+        assertEquals("Åtgärda 50% av felen & testa", trello.getLastCardName());
+        assertNull(jira.getLastIssueBody());
+    }
+
+    @Test
+    void trelloResponseWithoutCardIdIsAFailure() {
+        trello.withCreateWithoutId();
+
+        Exception e = assertThrows(Exception.class, () -> router.createTask(form("trello")));
+        assertTrue(e.getMessage().contains("utan kort-id"), e.getMessage());
+    }
+
+    @Test
+    void dualWriteTakesTheSlowestPlatformNotTheSum() throws Exception {
+        trello.withLatencyMillis(LATENCY_MILLIS);
+        jira.withLatencyMillis(LATENCY_MILLIS);
+        // Värm upp anslutningarna så att mätningen inte innehåller klassladdning
+        router.createTask(form("both"));
+
+        long start = System.nanoTime();
+        String created = router.createTask(form("both"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("trello:card2,jira:TASK-2", created);
+        assertTrue(elapsedMillis < LATENCY_MILLIS * 2 - 50, "Dubbelskrivning tog " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void dualWriteReportsWhichPlatformsSucceeded() {
+        jira.withCreateStatus(400);
+
+        TaskPlatformException e = assertThrows(TaskPlatformException.class,
+                () -> router.createEverywhere(form("both")));
+
+        assertEquals("card1", e.getCreated().get("trello"));
+        assertTrue(e.getMessage().startsWith("Misslyckades i jira"), e.getMessage());
+    }
+
+    @Test
+    void resubmittedFormIsCreatedOncePerPlatform() throws Exception {
+        router = router(new TaskDedupConfig());
+        TaskForm jiraForm = form("jira");
+        jiraForm.setIdempotencyKey("formulär-1");
+
+        assertEquals("TASK-1", router.createTask(jiraForm));
+        assertEquals("TASK-1", router.createTask(jiraForm));
+
+        // Samma nyckel via both återanvänder Jira-ärendet men skapar kortet som Trello ännu saknar
+        TaskForm both = form("both");
+        both.setIdempotencyKey("formulär-1");
+        assertEquals("trello:card1,jira:TASK-1", router.createTask(both));
+        assertEquals("trello:card1,jira:TASK-1", router.createTask(both));
+    }
+
+    @Test
+    void rejectsUnknownPlatform() {
+        assertThrows(Exception.class, () -> router.createTask(form("asana")));
+    }
+
+    private TaskPlatformRouter router(TaskDedupConfig dedupConfig) {
+        RestTemplate restTemplate = new RestTemplate();
+        TrelloService trelloService = TrelloServices.create(trello.config(), restTemplate);
+        return new TaskPlatformRouter(List.of(
+                new TrelloTaskPlatform(trelloService),
+                new JiraTaskPlatform(jira.config(), restTemplate, objectMapper)), ioExecutor,
+                new TaskSubmitDedup(dedupConfig));
+    }
+
+    private static TaskForm form(String platform) {
+        TaskForm form = new TaskForm("Rapportera fel", null);
+        form.setPlatform(platform);
+        return form;
+    }
+}
@@ -0,0 +1,149 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskSearchHit;
+import org.springframework.backend2exercise3.model.TaskSearchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskSearchIndexTest {
+
+    private final TaskSearchIndex index = new TaskSearchIndex();
+
+    @Test
+    void inflectedFormsShareStem() {
+        assertEquals("uppgift", SwedishAnalyzer.stem("uppgifterna"));
+        assertEquals("uppgift", SwedishAnalyzer.stem("uppgiften"));
+        assertEquals("uppgift", SwedishAnalyzer.stem("uppgifter"));
+        assertEquals(List.of("uppgift", "uppgift"), SwedishAnalyzer.terms("Uppgiften och uppgifterna"));
+        // Versaler och accenter viks men å/ä/ö behålls
+        assertEquals(List.of("cafe", "ändra"), SwedishAnalyzer.tokens("CAFÉ Ändra"));
+
+        index.put(task("card1", "Ny uppgift", null));
+
+        assertEquals(List.of("card1"), ids(index.search("uppgifterna ", 10)));
+        assertEquals(List.of("card1"), ids(index.search("UPPGIFTEN ", 10)));
+    }
+
+    @Test
+    void lastWordMatchesAsPrefixAndMissingWordsWithOneTypo() {
+        index.replaceAll(List.of(
+                task("card1", "Sprintplanering", null),
+                task("card2", "Inloggning fungerar inte", null),
+                task("card3", "Starta om servern", null)));
+
+        assertEquals(List.of("card1"), ids(index.search("sprintpl", 10)));
+        // Med avslutande mellanslag är ordet färdigskrivet och matchas inte som prefix
+        assertTrue(index.search("sprintpl ", 10).getHits().isEmpty());
+
+        assertEquals(List.of("card2"), ids(index.search("inlogning ", 10)));
+        assertEquals(List.of("card3"), ids(index.search("sevrern ", 10)));
+        // Första bokstaven måste stämma
+        assertTrue(index.search("nloggning ", 10).getHits().isEmpty());
+    }
+
+    @Test
+    void hitsAreRankedByBm25() {
+        List<Task> tasks = List.of(
+                task("kort", "Server", null),
+                task("lang", "Server behöver ny disk och mer minne", null),
+                task("beskrivning", "Databas", "Flytta till ny server"),
+                task("annat", "Rapport", "Månadsrapport för oktober"));
+        index.replaceAll(tasks);
+
+        TaskSearchResult result = index.search("server ", 10);
+
+        // Namnet väger tyngre än beskrivningen, och kortare dokument vinner vid samma termfrekvens
+        assertEquals(List.of("kort", "lang", "beskrivning"), ids(result));
+        assertEquals(3, result.getTotalMatches());
+        for (TaskSearchHit hit : result.getHits()) {
+            assertEquals(bm25(tasks, hit.getTask(), "server"), hit.getScore(), 1e-4);
+        }
+
+        // Ett dokument som matchar båda orden går före de som bara matchar ett
+        assertEquals("beskrivning", ids(index.search("server databas ", 10)).get(0));
+    }
+
+    @Test
+    void removedAndUpdatedTasksNoLongerMatch() {
+        index.replaceAll(List.of(
+                task("card1", "Uppdatera dokumentation", null),
+                task("card2", "Fixa inloggning", null)));
+
+        index.remove("card2");
+        assertTrue(index.search("inloggning ", 10).getHits().isEmpty());
+
+        index.put(task("card1", "Skriv releasenotes", null));
+        assertTrue(index.search("dokumentation ", 10).getHits().isEmpty());
+        assertEquals(List.of("card1"), ids(index.search("releasenotes ", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void churnThatTriggersRebuildKeepsResultsCurrent() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(task("card" + i, "Uppgift " + i, "Gammal beskrivning"));
+        }
+        index.replaceAll(tasks);
+
+        // Fler än en fjärdedel borttagna dokument gör att indexet byggs om
+        for (int i = 0; i < 1500; i++) {
+            index.put(task("card" + i, "Uppgift " + i, "Ny text"));
+        }
+        for (int i = 2000; i < 3000; i++) {
+            index.remove("card" + i);
+        }
+
+        assertEquals(2000, index.size());
+        assertEquals(1500, index.search("text ", 100).getTotalMatches());
+        assertEquals(500, index.search("gammal ", 100).getTotalMatches());
+        assertTrue(ids(index.search("gammal ", 100)).stream()
+                .allMatch(id -> Integer.parseInt(id.substring(4)) >= 1500 && Integer.parseInt(id.substring(4)) < 2000));
+    }
+
+    /**
+     * BM25 räknat direkt ur texterna (utan etiketter): namn väger 3 och beskrivning 1 per term
+     */
+    private static double bm25(List<Task> tasks, Task task, String word) {
+        String term = SwedishAnalyzer.stem(word);
+        double totalLength = 0;
+        int documentFrequency = 0;
+        for (Task other : tasks) {
+            totalLength += length(other);
+            documentFrequency += frequency(other, term) > 0 ? 1 : 0;
+        }
+        double averageLength = totalLength / tasks.size();
+        double idf = Math.log(1 + (tasks.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        double tf = frequency(task, term);
+        return idf * 2.2 * tf / (tf + 1.2 * (0.25 + 0.75 * length(task) / averageLength));
+    }
+
+    private static int length(Task task) {
+        return 3 * SwedishAnalyzer.terms(task.getName()).size() + SwedishAnalyzer.terms(task.getDescription()).size();
+    }
+
+    private static int frequency(Task task, String term) {
+        return 3 * count(SwedishAnalyzer.terms(task.getName()), term)
+                + count(SwedishAnalyzer.terms(task.getDescription()), term);
+    }
+
+    private static int count(List<String> terms, String term) {
+        return (int) terms.stream().filter(term::equals).count();
+    }
+
+    private static Task task(String id, String name, String description) {
+        Task task = new Task(name, description);
+        task.setId(id);
+        return task;
+    }
+
+    private static List<String> ids(TaskSearchResult result) {
+        return result.getHits().stream().map(hit -> hit.getTask().getId()).toList();
+    }
+}
@@ -0,0 +1,273 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskPage;
+import org.springframework.backend2exercise3.model.TaskPriority;
+import org.springframework.backend2exercise3.model.TaskQuery;
+import org.springframework.backend2exercise3.model.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Jämför TaskStore med en linjär genomsökning av samma uppgifter. Ordningen mellan uppgifter
+ * med samma sorteringsnyckel är inte specificerad, så sidorna jämförs som mängder av id:n
+ * plus följden av sorteringsnycklar.
+ */
+class TaskStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final String[] ASSIGNEES = {"anna", "Bertil", "cecilia", "david", "Erik", "fatima"};
+    private static final String[] TAGS = {"backend", "Frontend", "drift", "bugg", "säkerhet", "doc", "ux", "test"};
+
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final Map<String, Task> oracle = new LinkedHashMap<>();
+    private final TaskStore store = new TaskStore();
+    private int nextId;
+
+    @Test
+    void queriesMatchLinearScan() {
+        replaceAll(2000);
+
+        assertQueriesMatch(300);
+    }
+
+    @Test
+    void queriesMatchLinearScanAfterPutAndRemoveChurn() {
+        replaceAll(2000);
+        for (int i = 0; i < 3000; i++) {
+            int action = random.nextInt(10);
+            if (action < 4 && !oracle.isEmpty()) {
+                // Ändra en befintlig uppgift, så att den flyttar mellan indexen
+                put(task(randomId()));
+            } else if (action < 7 && !oracle.isEmpty()) {
+                String id = randomId();
+                oracle.remove(id);
+                store.remove(id);
+            } else {
+                put(task("card" + nextId++));
+            }
+        }
+
+        assertEquals(oracle.size(), store.size());
+        for (String id : List.copyOf(oracle.keySet()).subList(0, 50)) {
+            assertEquals(describe(oracle.get(id)), describe(store.get(id).orElseThrow()));
+        }
+        assertTrue(store.get("card" + nextId).isEmpty());
+        assertQueriesMatch(300);
+    }
+
+    @Test
+    void replaceAllDropsEarlierTasksAndIndexes() {
+        replaceAll(2000);
+        assertQueriesMatch(50);
+
+        replaceAll(500);
+
+        assertEquals(500, store.size());
+        assertTrue(store.get("card0").isEmpty());
+        assertQueriesMatch(300);
+    }
+
+    private void replaceAll(int count) {
+        oracle.clear();
+        for (int i = 0; i < count; i++) {
+            Task task = task("card" + nextId++);
+            oracle.put(task.getId(), task);
+        }
+        store.replaceAll(oracle.values());
+    }
+
+    private void put(Task task) {
+        oracle.put(task.getId(), task);
+        store.put(task);
+    }
+
+    private String randomId() {
+        List<String> ids = List.copyOf(oracle.keySet());
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private void assertQueriesMatch(int queries) {
+        for (int i = 0; i < queries; i++) {
+            TaskQuery query = randomQuery();
+            List<Task> expected = scan(query);
+            String description = describe(query);
+
+            // Bläddra genom alla sidor: varje uppgift exakt en gång, i sorteringens ordning
+            List<Task> paged = new ArrayList<>();
+            int limit = 1 + random.nextInt(60);
+            for (int offset = 0; ; offset += limit) {
+                query.setOffset(offset);
+                query.setLimit(limit);
+                TaskPage page = store.query(query);
+                paged.addAll(page.getItems());
+                assertEquals(page.isHasMore() ? limit : page.getItems().size(), page.getItems().size(), description);
+                if (!page.isHasMore()) {
+                    break;
+                }
+            }
+            assertEquals(ids(expected), Set.copyOf(ids(paged)), description);
+            assertEquals(expected.size(), paged.size(), description);
+            assertEquals(keys(expected, query), keys(paged, query), description);
+
+            // En enstaka sida med godtycklig offset
+            int offset = random.nextInt(expected.size() + 20);
+            query.setOffset(offset);
+            TaskPage page = store.query(query);
+            List<Task> window = expected.subList(Math.min(offset, expected.size()),
+                    Math.min(offset + limit, expected.size()));
+            assertEquals(keys(window, query), keys(page.getItems(), query), description);
+            assertEquals(expected.size() > offset + limit, page.isHasMore(), description);
+            assertTrue(ids(expected).containsAll(ids(page.getItems())), description);
+        }
+    }
+
+    private Task task(String id) {
+        Task task = new Task("Uppgift " + id, "Beskrivning");
+        task.setId(id);
+        task.setStatus(random.nextInt(20) == 0 ? null : pick(TaskStatus.values()));
+        task.setPriority(random.nextInt(8) == 0 ? null : pick(TaskPriority.values()));
+        task.setAssignedTo(random.nextInt(10) == 0 ? null : pick(ASSIGNEES));
+        List<String> tags = new ArrayList<>();
+        for (int i = random.nextInt(3); i > 0; i--) {
+            tags.add(pick(TAGS));
+        }
+        task.setTags(tags);
+        // Få olika tidpunkter så att många uppgifter delar förfallodatum
+        task.setDueDate(random.nextInt(5) == 0 ? null : START.plusHours(random.nextInt(200)));
+        return task;
+    }
+
+    private TaskQuery randomQuery() {
+        TaskQuery query = new TaskQuery();
+        if (random.nextBoolean()) {
+            query.setStatus(subset(TaskStatus.values()));
+        }
+        if (random.nextInt(3) == 0) {
+            query.setPriority(subset(TaskPriority.values()));
+        }
+        if (random.nextInt(3) == 0) {
+            String assignee = pick(ASSIGNEES);
+            query.setAssignee(random.nextBoolean() ? " " + assignee.toUpperCase(Locale.ROOT) : assignee);
+        }
+        if (random.nextInt(3) == 0) {
+            String tag = random.nextInt(10) == 0 ? "saknas" : pick(TAGS);
+            query.setTag(random.nextBoolean() ? tag.toLowerCase(Locale.ROOT) : tag);
+        }
+        if (random.nextInt(4) == 0) {
+            query.setDueFrom(START.plusHours(random.nextInt(200)));
+        }
+        if (random.nextInt(4) == 0) {
+            query.setDueTo(START.plusHours(random.nextInt(200)));
+        }
+        query.setSort(pick(TaskQuery.Sort.values()));
+        query.setDescending(random.nextBoolean());
+        return query;
+    }
+
+    /**
+     * Orakel: filtrera alla uppgifter och sortera med tomma nycklar sist, oavsett riktning
+     */
+    private List<Task> scan(TaskQuery query) {
+        List<Task> matches = new ArrayList<>();
+        for (Task task : oracle.values()) {
+            if (matches(task, query)) {
+                matches.add(task);
+            }
+        }
+        Comparator<Task> order = switch (query.getSort()) {
+            case DUE_DATE -> Comparator.comparing(Task::getDueDate,
+                    nullsLast(Comparator.<LocalDateTime>naturalOrder(), query.isDescending()));
+            case PRIORITY -> Comparator.comparing(Task::getPriority,
+                    nullsLast(Comparator.<TaskPriority>naturalOrder(), query.isDescending()));
+            case NONE -> null;
+        };
+        if (order != null) {
+            matches.sort(order);
+        }
+        return matches;
+    }
+
+    private static <T> Comparator<T> nullsLast(Comparator<T> natural, boolean descending) {
+        return Comparator.nullsLast(descending ? natural.reversed() : natural);
+    }
+
+    private static boolean matches(Task task, TaskQuery query) {
+        if (query.getStatus() != null && !query.getStatus().isEmpty() && !query.getStatus().contains(task.getStatus())) {
+            return false;
+        }
+        if (query.getPriority() != null && !query.getPriority().isEmpty()
+                && !query.getPriority().contains(task.getPriority())) {
+            return false;
+        }
+        if (query.getAssignee() != null && !query.getAssignee().trim().equalsIgnoreCase(task.getAssignedTo())) {
+            return false;
+        }
+        if (query.getTag() != null && task.getTags().stream().noneMatch(query.getTag()::equalsIgnoreCase)) {
+            return false;
+        }
+        if (query.getDueFrom() != null || query.getDueTo() != null) {
+            LocalDateTime due = task.getDueDate();
+            return due != null
+                    && (query.getDueFrom() == null || !due.isBefore(query.getDueFrom()))
+                    && (query.getDueTo() == null || !due.isAfter(query.getDueTo()));
+        }
+        return true;
+    }
+
+    private static List<Object> keys(List<Task> tasks, TaskQuery query) {
+        return tasks.stream()
+                .map(task -> switch (query.getSort()) {
+                    case DUE_DATE -> Objects.toString(task.getDueDate());
+                    case PRIORITY -> Objects.toString(task.getPriority());
+                    case NONE -> "";
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> ids(List<Task> tasks) {
+        Set<String> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+
+    private static String describe(Task task) {
+        return String.join("|", task.getId(), String.valueOf(task.getStatus()), String.valueOf(task.getPriority()),
+                String.valueOf(task.getAssignedTo()), String.valueOf(task.getTags()), String.valueOf(task.getDueDate()));
+    }
+
+    private static String describe(TaskQuery query) {
+        return "status=" + query.getStatus() + " priority=" + query.getPriority() + " assignee=" + query.getAssignee()
+                + " tag=" + query.getTag() + " due=" + query.getDueFrom() + ".." + query.getDueTo()
+                + " sort=" + query.getSort() + (query.isDescending() ? " desc" : "") + " offset=" + query.getOffset();
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private <T> List<T> subset(T[] values) {
+        List<T> subset = new ArrayList<>();
+        for (T value : values) {
+            if (random.nextInt(3) == 0) {
+                subset.add(value);
+            }
+        }
+        return subset;
+    }
+}
@@ -0,0 +1,101 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TaskDedupConfig;
+import org.springframework.backend2exercise3.model.TaskForm;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskSubmitDedupTest {
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final TaskSubmitDedup dedup = new TaskSubmitDedup(new TaskDedupConfig());
+    private final AtomicInteger creations = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstCreation() throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(callers.submit(() -> dedup.execute(form("Rapportera fel", null), "trello", this::slowCreate)));
+        }
+
+        for (Future<String> result : results) {
+            assertEquals("card1", result.get());
+        }
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void normalizedFormIsRecognizedButClientKeysAreKeptApart() throws Exception {
+        dedup.execute(form("  Rapportera   fel ", null), "trello", this::create);
+        assertEquals("card1", dedup.execute(form("rapportera fel", null), "trello", this::create));
+
+        TaskForm later = form("rapportera fel", null);
+        later.setDueDate(LocalDate.of(2026, 11, 1));
+        assertEquals("card2", dedup.execute(later, "trello", this::create));
+
+        // Samma innehåll från två olika visningar av formuläret är två uppgifter
+        assertEquals("card3", dedup.execute(form("Rapportera fel", "a"), "trello", this::create));
+        assertEquals("card4", dedup.execute(form("Rapportera fel", "b"), "trello", this::create));
+        assertEquals("card3", dedup.execute(form("Något annat", "a"), "trello", this::create));
+        assertEquals(4, creations.get());
+    }
+
+    @Test
+    void eachPlatformIsDeduplicatedSeparately() throws Exception {
+        assertEquals("card1", dedup.execute(form("Rapportera fel", "a"), "trello", this::create));
+        assertEquals("card2", dedup.execute(form("Rapportera fel", "a"), "jira", this::create));
+
+        assertEquals("card1", dedup.execute(form("Rapportera fel", "a"), "trello", this::create));
+        assertEquals("card2", dedup.execute(form("Rapportera fel", "a"), "jira", this::create));
+        assertEquals(2, creations.get());
+    }
+
+    @Test
+    void failedCreationIsNotRemembered() throws Exception {
+        assertThrows(Exception.class, () -> dedup.execute(form("Rapportera fel", "a"), "trello", () -> {
+            throw new Exception("Anslutningsfel till Trello");
+        }));
+
+        assertEquals("card1", dedup.execute(form("Rapportera fel", "a"), "trello", this::create));
+    }
+
+    @Test
+    void blankIdIsNotRemembered() throws Exception {
+        assertEquals("", dedup.execute(form("Rapportera fel", "a"), "trello", () -> ""));
+
+        assertEquals("card1", dedup.execute(form("Rapportera fel", "a"), "trello", this::create));
+        assertEquals(1, creations.get());
+    }
+
+    private String create() {
+        return "card" + creations.incrementAndGet();
+    }
+
+    private String slowCreate() throws InterruptedException {
+        Thread.sleep(200);
+        return create();
+    }
+
+    private static TaskForm form(String title, String idempotencyKey) {
+        TaskForm form = new TaskForm(title, "Beskrivning");
+        form.setPlatform("trello");
+        form.setIdempotencyKey(idempotencyKey);
+        return form;
+    }
+}
@@ -0,0 +1,78 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.CompactTask;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskPriority;
+import org.springframework.backend2exercise3.model.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TaskSymbolsTest {
+
+    private final TaskSymbols symbols = new TaskSymbols();
+
+    @Test
+    void compactTaskExpandsToTheSameValues() {
+        Task task = new Task("Uppgift", "Beskrivning");
+        task.setId("card1");
+        task.setTrelloCardId("card1");
+        task.setUrl("https://trello.com/c/card1");
+        task.setListId("list1");
+        task.setBoardId("board1");
+        task.setAssignedTo("anna");
+        task.setTags(List.of("Hög", "backend"));
+        task.setStatus(TaskStatus.IN_REVIEW);
+        task.setPriority(TaskPriority.HIGH);
+        task.setCreatedDate(LocalDateTime.of(2025, 9, 1, 12, 30, 15, 123_000_000));
+        task.setDueDate(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000));
+
+        Task expanded = symbols.expand(symbols.compact(task));
+
+        assertEquals(task.getId(), expanded.getId());
+        assertEquals(task.getName(), expanded.getName());
+        assertEquals(task.getDescription(), expanded.getDescription());
+        assertEquals(task.getUrl(), expanded.getUrl());
+        assertEquals(task.getTrelloCardId(), expanded.getTrelloCardId());
+        assertEquals(task.getListId(), expanded.getListId());
+        assertEquals(task.getBoardId(), expanded.getBoardId());
+        assertEquals(task.getAssignedTo(), expanded.getAssignedTo());
+        assertEquals(task.getTags(), expanded.getTags());
+        assertEquals(task.getStatus(), expanded.getStatus());
+        assertEquals(task.getPriority(), expanded.getPriority());
+        assertEquals(task.getCreatedDate(), expanded.getCreatedDate());
+        assertEquals(task.getDueDate(), expanded.getDueDate());
+        assertNull(expanded.getCompletedDate());
+    }
+
+    @Test
+    void repeatedValuesAreStoredOnce() {
+        Task first = task("card1", new String("list1"), new String("Hög"));
+        Task second = task("card2", new String("list1"), new String("Hög"));
+
+        CompactTask a = symbols.compact(first);
+        CompactTask b = symbols.compact(second);
+
+        assertSame(a.getListId(), b.getListId());
+        assertArrayEquals(a.getTagIds(), b.getTagIds());
+        assertSame(a.getId(), a.getTrelloCardId());
+        assertEquals(CompactTask.NONE, a.getPriority());
+        assertEquals(List.of("Hög"), Arrays.stream(a.getTagIds()).mapToObj(symbols::tag).toList());
+    }
+
+    private static Task task(String id, String listId, String tag) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTrelloCardId(new String(id));
+        task.setListId(listId);
+        task.setTags(List.of(tag));
+        return task;
+    }
+}
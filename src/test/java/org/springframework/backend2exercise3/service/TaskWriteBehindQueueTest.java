@@ -0,0 +1,186 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.backend2exercise3.config.TaskDedupConfig;
+import org.springframework.backend2exercise3.config.TaskWriteBehindConfig;
+import org.springframework.backend2exercise3.model.QueuedTask;
+import org.springframework.backend2exercise3.model.TaskForm;
+import org.springframework.backend2exercise3.service.TaskJournal.Entry;
+import org.springframework.backend2exercise3.service.TaskJournal.Type;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskWriteBehindQueueTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger jiraCalls = new AtomicInteger();
+    private volatile boolean failing;
+    private volatile int jiraFailures;
+    private TaskWriteBehindQueue queue;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (queue != null) {
+            queue.stop();
+        }
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    void recoveryKeepsAttemptsAndSkipsFinishedTasks() throws Exception {
+        Path path = dir.resolve("journal.log");
+        Instant at = Instant.now();
+        try (TaskJournal journal = new TaskJournal(path, objectMapper, Duration.ZERO)) {
+            journal.open();
+            journal.append(new Entry(Type.ENQUEUED, "kvar", form("Kvar"), null, null, 0, at)).get();
+            journal.append(new Entry(Type.ENQUEUED, "klar", form("Klar"), null, null, 0, at)).get();
+            journal.append(new Entry(Type.ENQUEUED, "uppgiven", form("Uppgiven"), null, null, 0, at)).get();
+            journal.append(new Entry(Type.ATTEMPT_FAILED, "kvar", null, null, "Anslutningsfel", 3, at)).get();
+            journal.append(new Entry(Type.COMPLETED, "klar", null, "card1", null, 1, at)).get();
+            journal.append(new Entry(Type.GAVE_UP, "uppgiven", null, null, "Anslutningsfel", 4, at)).get();
+        }
+
+        // Ett försök till efter omstarten når taket: tre försök fanns sedan tidigare
+        failing = true;
+        queue = queue(path, 4);
+
+        QueuedTask task = awaitFinished("kvar");
+        assertEquals(QueuedTask.State.FAILED, task.getState());
+        assertEquals(4, task.getAttempts());
+        assertEquals(1, calls.get());
+        assertTrue(queue.getStatus("klar").isEmpty());
+        assertTrue(queue.getStatus("uppgiven").isEmpty());
+    }
+
+    @Test
+    void finishedTasksAreEvictedAfterRetention() throws Exception {
+        queue = queue(dir.resolve("journal.log"), 10);
+        String trackingId = queue.submit(form("Skapas"));
+        QueuedTask task = awaitFinished(trackingId);
+        assertEquals(QueuedTask.State.CREATED, task.getState());
+
+        assertEquals(0, queue.evictFinished(task.getUpdatedAt()));
+        assertTrue(queue.getStatus(trackingId).isPresent());
+
+        assertEquals(1, queue.evictFinished(task.getUpdatedAt().plusMillis(1)));
+        assertFalse(queue.getStatus(trackingId).isPresent());
+    }
+
+    @Test
+    void dualWriteRetriesOnlyThePlatformThatFailed() throws Exception {
+        jiraFailures = 2;
+        queue = queue(dir.resolve("journal.log"), 10);
+
+        QueuedTask task = awaitFinished(queue.submit(form("Båda", "both")));
+
+        assertEquals(QueuedTask.State.CREATED, task.getState());
+        assertEquals("trello:card1,jira:TASK-3", task.getCardId());
+        assertEquals(1, calls.get());
+        assertEquals(3, jiraCalls.get());
+    }
+
+    @Test
+    void recoveryDoesNotRecreateOnPlatformsThatSucceeded() throws Exception {
+        Path path = dir.resolve("journal.log");
+        Instant at = Instant.now();
+        try (TaskJournal journal = new TaskJournal(path, objectMapper, Duration.ZERO)) {
+            journal.open();
+            journal.append(new Entry(Type.ENQUEUED, "kvar", form("Kvar", "both"), null, null, 0, at)).get();
+            journal.append(new Entry(Type.ATTEMPT_FAILED, "kvar", null, null, "jira: Anslutningsfel", 1, at,
+                    Map.of("trello", "card7"))).get();
+        }
+
+        queue = queue(path, 10);
+
+        QueuedTask task = awaitFinished("kvar");
+        assertEquals("trello:card7,jira:TASK-1", task.getCardId());
+        assertEquals(0, calls.get());
+        assertEquals(1, jiraCalls.get());
+    }
+
+    private TaskWriteBehindQueue queue(Path path, int maxAttempts) throws Exception {
+        TaskWriteBehindConfig config = new TaskWriteBehindConfig();
+        config.setEnabled(true);
+        config.setJournalPath(path.toString());
+        config.setFsyncBatchWindow(Duration.ZERO);
+        config.setWorkers(1);
+        config.setMaxAttempts(maxAttempts);
+        config.setInitialRetryDelay(Duration.ofMillis(10));
+        TaskPlatform platform = new TaskPlatform() {
+            @Override
+            public String getName() {
+                return "trello";
+            }
+
+            @Override
+            public String createTask(TaskForm taskForm) throws Exception {
+                int call = calls.incrementAndGet();
+                if (failing) {
+                    throw new Exception("Anslutningsfel");
+                }
+                return "card" + call;
+            }
+        };
+        TaskPlatform jira = new TaskPlatform() {
+            @Override
+            public String getName() {
+                return "jira";
+            }
+
+            @Override
+            public String createTask(TaskForm taskForm) throws Exception {
+                int call = jiraCalls.incrementAndGet();
+                if (call <= jiraFailures) {
+                    throw new Exception("Anslutningsfel");
+                }
+                return "TASK-" + call;
+            }
+        };
+        TaskWriteBehindQueue queue = new TaskWriteBehindQueue(config,
+                new TaskPlatformRouter(List.of(platform, jira), ioExecutor, new TaskSubmitDedup(new TaskDedupConfig())),
+                objectMapper);
+        queue.start();
+        return queue;
+    }
+
+    private QueuedTask awaitFinished(String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            QueuedTask task = queue.getStatus(trackingId).orElseThrow();
+            if (task.getState() != QueuedTask.State.PENDING) {
+                return task;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Uppgiften " + trackingId + " blev aldrig klar");
+    }
+
+    private static TaskForm form(String title) {
+        return form(title, "trello");
+    }
+
+    private static TaskForm form(String title, String platform) {
+        TaskForm form = new TaskForm(title, "Beskrivning");
+        form.setPlatform(platform);
+        return form;
+    }
+}
@@ -0,0 +1,97 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TrelloBatchConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrelloBatchReaderTest {
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TrelloBatchConfig batchConfig = new TrelloBatchConfig();
+    private TrelloStandIn trello;
+    private TrelloService trelloService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        trello = new TrelloStandIn().withLatencyMillis(50).withLists(10);
+        // Långt fönster så att testet inte beror på trådarnas schemaläggning
+        batchConfig.setWindow(Duration.ofMillis(200));
+        trelloService = TrelloServices.create(trello.config(), new RestTemplate(), batchConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trello.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void boardFanOutIsOneBatchCall() {
+        Map<String, List<Task>> cardsByList = trelloService.getCardsFromConfiguredBoard();
+
+        assertEquals(10, cardsByList.size());
+        cardsByList.values().forEach(tasks -> assertEquals(10, tasks.size()));
+        // Listorna som ett eget anrop, sedan alla tio listornas kort i ett /batch
+        assertEquals(2, trello.getRequestCount());
+        assertEquals(1, trello.getBatchCount());
+    }
+
+    @Test
+    void failedItemOnlyFailsItsOwnRead() throws Exception {
+        Future<List<Task>> found = callers.submit(() -> trelloService.getCards("list1"));
+        Future<List<Task>> missing = callers.submit(() -> trelloService.getCards("missing1"));
+
+        assertEquals(10, found.get().size());
+        assertTrue(missing.get().isEmpty());
+        assertEquals(1, trello.getRequestCount());
+        assertEquals(1, trello.getBatchCount());
+    }
+
+    @Test
+    void eachBatchedReadIsMeasuredUnderItsOperation() throws Exception {
+        TrelloBatchReader reader = new TrelloBatchReader(trello.config(), batchConfig, new RestTemplate(),
+                new ObjectMapper(), new TrelloMetrics(registry));
+        TrelloBatchReader.Decoder<List<?>> decoder = parser -> parser.readValueAs(List.class);
+
+        Future<List<?>> first = callers.submit(() -> reader.read("getCards", "/lists/list1/cards", decoder));
+        Future<List<?>> second = callers.submit(() -> reader.read("getCards", "/lists/list2/cards", decoder));
+        Future<List<?>> missing = callers.submit(() -> reader.read("getCards", "/lists/missing1/cards", decoder));
+        Future<List<?>> lists = callers.submit(() -> reader.read("getLists", "/boards/board1/lists", decoder));
+        first.get();
+        second.get();
+        assertThrows(ExecutionException.class, missing::get);
+        lists.get();
+
+        assertEquals(1, trello.getBatchCount());
+        assertEquals(1, registry.get(TrelloMetrics.REQUESTS).tag("operation", "batch").timer().count());
+        assertEquals(2, registry.get(TrelloMetrics.REQUESTS)
+                .tags("operation", "batch.getCards", "status", "200").timer().count());
+        assertEquals(1.0, registry.get(TrelloMetrics.ERRORS)
+                .tags("operation", "batch.getCards", "status", "404").counter().count());
+        assertEquals(1, registry.get(TrelloMetrics.REQUESTS).tag("operation", "batch.getLists").timer().count());
+        // Tiden per läsning räknar in väntan i fönstret
+        assertTrue(registry.get(TrelloMetrics.REQUESTS).tag("operation", "batch.getLists").timer()
+                .totalTime(TimeUnit.MILLISECONDS) >= 200);
+    }
+}
@@ -0,0 +1,53 @@
+package org.springframework.backend2exercise3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TrelloCard;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TrelloCardDecoderTest {
+
+    private static final String CARDS = """
+            [
+              {"id": "card1", "name": "Giltigt", "due": "2026-11-01T12:00:00.000+01:00",
+               "dateLastActivity": "2026-10-01T08:00:00.000Z"},
+              {"id": "card2", "name": "Trasigt", "due": "nästa fredag", "dateLastActivity": "2026-13-45"}
+            ]
+            """;
+
+    private final TrelloCardDecoder decoder = new TrelloCardDecoder(new ObjectMapper());
+
+    @Test
+    void malformedDueDateIsReadAsMissing() throws Exception {
+        List<Task> tasks = decoder.readTasks(json(CARDS));
+
+        assertEquals(2, tasks.size());
+        assertEquals(LocalDateTime.of(2026, 11, 1, 11, 0), tasks.get(0).getDueDate());
+        assertEquals("Trasigt", tasks.get(1).getName());
+        assertNull(tasks.get(1).getDueDate());
+    }
+
+    @Test
+    void malformedCardDatesAreReadAsMissing() throws Exception {
+        List<TrelloCard> cards = decoder.readCards(json(CARDS));
+
+        assertEquals("2026-10-01T08:00:00.000Z", cards.get(0).getDateLastActivity());
+        assertEquals("2026-11-01T12:00:00.000+01:00", cards.get(0).getDueDate());
+        assertNull(cards.get(1).getDateLastActivity());
+        assertNull(cards.get(1).getDueDate());
+        assertNull(TrelloCardDecoder.parseDate("2026-13-45"));
+    }
+
+    private static InputStream json(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TaskCursorPage;
+import org.springframework.backend2exercise3.model.TrelloReadResult;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrelloCardPagingTest {
+
+    private TrelloStandIn trello;
+    private TrelloService trelloService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        trello = new TrelloStandIn().withCardsPerList(250);
+        trelloService = TrelloServices.create(trello.config(), new RestTemplate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        trello.close();
+    }
+
+    @Test
+    void cursorWalksThroughTheWholeListOnePageAtATime() {
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TrelloReadResult<TaskCursorPage> result = trelloService.getCardsPage("list1", 100, cursor);
+            assertFalse(result.isUnavailable());
+            TaskCursorPage page = result.getValue();
+            assertTrue(page.getItems().size() <= 100);
+            for (Task task : page.getItems()) {
+                assertTrue(seen.add(task.getId()), "kort på två sidor: " + task.getId());
+            }
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasMore());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(250, seen.size());
+        assertEquals(3, trello.getRequestCount());
+    }
+
+    @Test
+    void lastPageHasNoCursorWhenTheListFitsExactly() {
+        trello.withCardsPerList(100);
+
+        TaskCursorPage page = trelloService.getCardsPage("list1", 100, null).getValue();
+
+        assertEquals(100, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cursorFromAnotherListOrGarbageIsRejected() {
+        String cursor = trelloService.getCardsPage("list1", 10, null).getValue().getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> trelloService.getCardsPage("list2", 10, cursor));
+        assertThrows(IllegalArgumentException.class, () -> trelloService.getCardsPage("list1", 10, "inte-en-cursor"));
+    }
+
+    @Test
+    void failedPageKeepsTheCursorSoItCanBeRetried() {
+        String cursor = trelloService.getCardsPage("list1", 10, null).getValue().getNextCursor();
+        trello.withErrorRate(1.0);
+
+        TrelloReadResult<TaskCursorPage> result = trelloService.getCardsPage("list1", 10, cursor);
+
+        assertTrue(result.isUnavailable());
+        assertEquals(cursor, result.getValue().getNextCursor());
+    }
+}
@@ -0,0 +1,49 @@
+package org.springframework.backend2exercise3.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrelloMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TrelloMetrics metrics = new TrelloMetrics(registry);
+
+    @Test
+    void recordsTimerAndInFlightPerOperation() {
+        double inFlight = metrics.record("getCards", () ->
+                registry.get(TrelloMetrics.ACTIVE).tag("operation", "getCards").gauge().value());
+        metrics.record("getBoards", () -> ResponseEntity.ok(List.of()));
+
+        assertEquals(1.0, inFlight);
+        assertEquals(0.0, registry.get(TrelloMetrics.ACTIVE).tag("operation", "getCards").gauge().value());
+        assertEquals(1, registry.get(TrelloMetrics.REQUESTS)
+                .tags("operation", "getBoards", "outcome", "SUCCESS", "status", "200").timer().count());
+        assertEquals(0, registry.find(TrelloMetrics.ERRORS).counters().size());
+    }
+
+    @Test
+    void countsErrorsByStatus() {
+        assertThrows(HttpClientErrorException.class, () -> metrics.record("createCard", () -> {
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", null, null, null);
+        }));
+        assertThrows(ResourceAccessException.class, () -> metrics.record("createCard", () -> {
+            throw new ResourceAccessException("Connection refused");
+        }));
+
+        assertEquals(1, registry.get(TrelloMetrics.REQUESTS)
+                .tags("operation", "createCard", "outcome", "CLIENT_ERROR", "status", "429").timer().count());
+        assertEquals(1.0, registry.get(TrelloMetrics.ERRORS)
+                .tags("operation", "createCard", "status", "429").counter().count());
+        assertEquals(1.0, registry.get(TrelloMetrics.ERRORS)
+                .tags("operation", "createCard", "status", "IO_ERROR").counter().count());
+    }
+}
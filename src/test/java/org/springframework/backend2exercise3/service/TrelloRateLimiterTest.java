@@ -0,0 +1,154 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TrelloRateLimitConfig;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrelloRateLimiterTest {
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final TrelloRateLimitConfig config = new TrelloRateLimitConfig();
+    private TrelloStandIn trello;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        trello = new TrelloStandIn();
+        config.setInitialBackoff(Duration.ofMillis(20));
+        config.setMaxBackoff(Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        trello.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void burstIsFollowedByPacedTokens() {
+        // Två i burst, sedan tio per sekund
+        config.setBurst(2);
+        config.setRequestsPerWindow(12);
+        config.setWindow(Duration.ofSeconds(1));
+        TrelloRateLimiter limiter = new TrelloRateLimiter(config);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        limiter.acquire();
+        assertTrue(millisSince(start) < 50);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+
+        long elapsed = millisSince(start);
+        assertTrue(elapsed >= 350 && elapsed < 1000, "Förväntade ca 400 ms, tog " + elapsed);
+        assertEquals(4L, limiter.stats().get("throttledRequests"));
+    }
+
+    @Test
+    void retryAfterIsReadAsSecondsOrHttpDate() {
+        assertEquals(Duration.ofSeconds(120), TrelloRateLimitInterceptor.parseRetryAfter(retryAfter(" 120 ")));
+        assertEquals(Duration.ZERO, TrelloRateLimitInterceptor.parseRetryAfter(retryAfter("-5")));
+
+        String inThirtySeconds = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+        Duration untilDate = TrelloRateLimitInterceptor.parseRetryAfter(retryAfter(inThirtySeconds));
+        assertTrue(untilDate.compareTo(Duration.ofSeconds(28)) >= 0 && untilDate.compareTo(Duration.ofSeconds(30)) <= 0,
+                untilDate.toString());
+        assertEquals(Duration.ZERO, TrelloRateLimitInterceptor.parseRetryAfter(
+                retryAfter("Wed, 21 Oct 2015 07:28:00 GMT")));
+
+        assertNull(TrelloRateLimitInterceptor.parseRetryAfter(retryAfter("snart")));
+        assertNull(TrelloRateLimitInterceptor.parseRetryAfter(new HttpHeaders()));
+    }
+
+    @Test
+    void rateLimitedResponsePausesEveryCaller() throws Exception {
+        TrelloRateLimiter limiter = new TrelloRateLimiter(config);
+        RestTemplate restTemplate = restTemplate(limiter);
+        trello.withRateLimitedNext(1, 1);
+
+        Future<String> first = callers.submit(() -> get(restTemplate));
+        // Det första anropet har fått 429 och väntar ut pausen
+        while (limiter.getQueueDepth() == 0) {
+            Thread.sleep(5);
+        }
+        // Ett nytt anrop under pausen går inte ut förrän Retry-After har passerat
+        long start = System.nanoTime();
+        get(restTemplate);
+        long elapsed = millisSince(start);
+
+        first.get();
+        assertTrue(elapsed >= 800, "Väntade bara " + elapsed + " ms");
+        assertEquals(3, trello.getRequestCount());
+        assertEquals(1, trello.getRateLimitedCount());
+    }
+
+    @Test
+    void getIsRetriedOnServerErrorButPostIsNot() {
+        RestTemplate restTemplate = restTemplate(new TrelloRateLimiter(config));
+        trello.withErrorsNext(2);
+
+        get(restTemplate);
+        assertEquals(3, trello.getRequestCount());
+
+        trello.withErrorsNext(1);
+        assertThrows(HttpServerErrorException.class, () -> restTemplate.postForObject(
+                trello.getBaseUrl() + "/cards?key=standin-key&idList=list1&name=Ny", null, String.class));
+        assertEquals(4, trello.getRequestCount());
+    }
+
+    @Test
+    void callIsRejectedWhenWaitExceedsMaxWait() {
+        config.setMaxWait(Duration.ofMillis(500));
+        TrelloRateLimiter limiter = new TrelloRateLimiter(config);
+        RestTemplate restTemplate = restTemplate(limiter);
+        // Retry-After på två sekunder är längre än max-wait: omförsöket avvisas utan att skickas
+        trello.withRateLimitedNext(1, 2);
+
+        assertThrows(ResourceAccessException.class, () -> get(restTemplate));
+        assertEquals(1, trello.getRequestCount());
+        assertEquals(1L, limiter.stats().get("rejectedRequests"));
+
+        // Pausen efter 429 gäller fortfarande, så även nästa anropare avvisas direkt
+        assertThrows(ResourceAccessException.class, limiter::acquire);
+    }
+
+    private RestTemplate restTemplate(TrelloRateLimiter limiter) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new TrelloRateLimitInterceptor(limiter, config));
+        return restTemplate;
+    }
+
+    private String get(RestTemplate restTemplate) {
+        return restTemplate.getForObject(trello.getBaseUrl() + "/lists/list1/cards?key=standin-key", String.class);
+    }
+
+    private static HttpHeaders retryAfter(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, value);
+        return headers;
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,136 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TrelloCacheConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrelloReadCacheTest {
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final TrelloCacheConfig config = new TrelloCacheConfig();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws Exception {
+        config.setTtl(Duration.ofMillis(200));
+        TrelloReadCache cache = new TrelloReadCache(config, new TrelloSingleFlight());
+
+        cache.get("cards:list1", () -> load(3));
+        cache.get("cards:list1", () -> load(3));
+        assertEquals(1, loads.get());
+
+        Thread.sleep(300);
+        cache.get("cards:list1", () -> load(3));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void heavyEntriesAreEvictedByWeight() throws Exception {
+        // Vikten är 1 + antal element, så två listor med fyra kort ryms men inte tre
+        config.setMaximumWeight(10);
+        TrelloReadCache cache = new TrelloReadCache(config, new TrelloSingleFlight());
+
+        for (int i = 0; i < 5; i++) {
+            cache.get("cards:list" + i, () -> load(4));
+        }
+
+        // Vräkningen sker asynkront i Caffeines underhåll
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (((long) cache.stats().get("weight") > 10 || (long) cache.stats().get("evictions") < 3)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue((long) cache.stats().get("weight") <= 10);
+        assertTrue((long) cache.stats().get("evictions") >= 3);
+    }
+
+    @Test
+    void cachedListsAreImmutable() {
+        TrelloReadCache cache = new TrelloReadCache(config, new TrelloSingleFlight());
+
+        List<String> cards = cache.get("cards:list1", () -> new ArrayList<>(load(2)));
+
+        assertThrows(UnsupportedOperationException.class, () -> cards.add("card9"));
+    }
+
+    @Test
+    void invalidateDuringLoadMakesTheNextReadLoadAgain() throws Exception {
+        TrelloReadCache cache = new TrelloReadCache(config, new TrelloSingleFlight());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<List<String>> before = callers.submit(() -> cache.get("cards:list1", () -> {
+            loading.countDown();
+            await(release);
+            return List.of("före skrivningen");
+        }));
+        loading.await();
+        // Skrivningen sker medan läsningen pågår och kan ha missats av den
+        Future<?> invalidated = callers.submit(() -> cache.invalidate("cards:list1"));
+        Thread.sleep(50);
+        release.countDown();
+        invalidated.get();
+
+        assertEquals(List.of("före skrivningen"), before.get());
+        assertEquals(List.of("efter skrivningen"), cache.get("cards:list1", () -> List.of("efter skrivningen")));
+    }
+
+    @Test
+    void createCardInvalidatesTheListReadAlongsideIt() throws Exception {
+        try (TrelloStandIn trello = new TrelloStandIn().withLatencyMillis(300)) {
+            TrelloService trelloService = TrelloServices.create(trello.config(), new RestTemplate(), config);
+
+            Future<List<Task>> inFlight = callers.submit(() -> trelloService.getCards("list1"));
+            Thread.sleep(100);
+            Task task = new Task("Ny uppgift", "");
+            assertTrue(trelloService.createCard("list1", task));
+            assertEquals(10, inFlight.get().size());
+            assertEquals(2, trello.getRequestCount());
+
+            // Läsningen startade före skrivningen och får inte ligga kvar i cachen
+            trelloService.getCards("list1");
+            assertEquals(3, trello.getRequestCount());
+            trelloService.getCards("list1");
+            assertEquals(3, trello.getRequestCount());
+        }
+    }
+
+    private List<String> load(int size) {
+        int load = loads.incrementAndGet();
+        List<String> cards = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            cards.add("load" + load + "-card" + i);
+        }
+        return cards;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TrelloRateLimitConfig;
+import org.springframework.backend2exercise3.config.TrelloResilienceConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TrelloReadResult;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrelloResilienceTest {
+
+    private TrelloStandIn trello;
+    private TrelloCircuitBreaker circuitBreaker;
+    private TrelloService trelloService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TrelloResilienceConfig config = new TrelloResilienceConfig();
+        config.getCircuitBreaker().setWindowSize(4);
+        config.getCircuitBreaker().setMinimumCalls(4);
+        config.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        circuitBreaker = new TrelloCircuitBreaker(config);
+
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new TrelloResilienceInterceptor(config, circuitBreaker));
+
+        trello = new TrelloStandIn();
+        trelloService = TrelloServices.create(trello.config(), restTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trello.close();
+    }
+
+    @Test
+    void lastKnownGoodIsServedAsStaleWhenTrelloFails() {
+        TrelloReadResult<List<Task>> fresh = trelloService.getCardsResult("list1");
+        assertEquals(TrelloReadResult.Freshness.FRESH, fresh.getFreshness());
+
+        trello.withErrorRate(1.0);
+        TrelloReadResult<List<Task>> stale = trelloService.getCardsResult("list1");
+
+        assertTrue(stale.isStale());
+        assertEquals(fresh.getValue(), stale.getValue());
+        assertNotNull(stale.getFetchedAt());
+    }
+
+    @Test
+    void clientErrorIsNotHiddenBehindLastKnownGood() throws Exception {
+        trelloService.getCardsResult("list1");
+        trello.withRevokedToken();
+
+        TrelloReadResult<List<Task>> result = trelloService.getCardsResult("list1");
+
+        assertTrue(result.isUnavailable());
+        assertTrue(result.getValue().isEmpty());
+        // Ingen uppdatering i bakgrunden heller: ett fel som inte går över ska inte försökas igen
+        Thread.sleep(100);
+        assertEquals(2, trello.getRequestCount());
+    }
+
+    @Test
+    void readWithoutLastKnownGoodIsMarkedUnavailable() {
+        trello.withErrorRate(1.0);
+
+        TrelloReadResult<List<Task>> result = trelloService.getCardsResult("list1");
+
+        assertTrue(result.isUnavailable());
+        assertTrue(result.getValue().isEmpty());
+    }
+
+    @Test
+    void rateLimitPauseDoesNotTripBreakerOrFillBulkhead() throws Exception {
+        TrelloResilienceConfig config = new TrelloResilienceConfig();
+        config.getCircuitBreaker().setWindowSize(4);
+        config.getCircuitBreaker().setMinimumCalls(4);
+        config.getCircuitBreaker().setSlowCallDuration(Duration.ofMillis(300));
+        config.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        config.getBulkhead().setMaxConcurrent(1);
+        config.getBulkhead().setMaxWait(Duration.ofMillis(50));
+        TrelloCircuitBreaker breaker = new TrelloCircuitBreaker(config);
+
+        // Samma ordning som TrelloHttpClientConfig.trelloRestTemplate
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new TrelloRateLimitInterceptor(
+                new TrelloRateLimiter(new TrelloRateLimitConfig()), new TrelloRateLimitConfig()));
+        restTemplate.getInterceptors().add(new TrelloResilienceInterceptor(config, breaker));
+        TrelloService service = TrelloServices.create(trello.config(), restTemplate);
+
+        // Första anropet får 429 med en sekunds paus, de tre följande startar under pausen
+        trello.withRateLimitedNext(1, 1);
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<TrelloReadResult<List<Task>>>> results = new ArrayList<>();
+        results.add(callers.submit(() -> service.getCardsResult("list1")));
+        while (trello.getRateLimitedCount() == 0) {
+            Thread.sleep(5);
+        }
+        for (int i = 0; i < 3; i++) {
+            String listId = "list" + (i + 2);
+            results.add(callers.submit(() -> service.getCardsResult(listId)));
+        }
+
+        for (Future<TrelloReadResult<List<Task>>> result : results) {
+            assertEquals(TrelloReadResult.Freshness.FRESH, result.get().getFreshness());
+        }
+        callers.shutdown();
+        assertEquals(TrelloCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(5, trello.getRequestCount());
+    }
+
+    @Test
+    void openBreakerRejectsWithoutCallingTrello() {
+        trello.withErrorRate(1.0);
+        for (int i = 0; i < 4; i++) {
+            trelloService.getCardsResult("list1");
+        }
+        assertEquals(TrelloCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(4, trello.getRequestCount());
+
+        trello.withErrorRate(0.0);
+        assertTrue(trelloService.getCardsResult("list1").isUnavailable());
+        assertEquals(4, trello.getRequestCount());
+    }
+}
@@ -0,0 +1,126 @@
+package org.springframework.backend2exercise3.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.backend2exercise3.model.Task;
+import org.springframework.backend2exercise3.model.TrelloBoardSnapshot;
+import org.springframework.backend2exercise3.model.TrelloCard;
+import org.springframework.backend2exercise3.support.TrelloServices;
+import org.springframework.backend2exercise3.support.TrelloStandIn;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrelloSingleFlightTest {
+
+    private static final int CALLERS = 50;
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private TrelloStandIn trello;
+    private TrelloService trelloService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        trello = new TrelloStandIn().withLatencyMillis(300);
+        trelloService = TrelloServices.create(trello.config(), new RestTemplate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        trello.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCardReadsShareOneUpstreamCall() throws Exception {
+        List<List<Task>> results = concurrently(() -> trelloService.getCards("list1"));
+
+        assertEquals(1, trello.getRequestCount());
+        for (List<Task> result : results) {
+            assertSame(results.get(0), result);
+            assertEquals(10, result.size());
+        }
+    }
+
+    @Test
+    void concurrentBoardAndMemberReadsShareOneUpstreamCallEach() throws Exception {
+        List<TrelloBoardSnapshot> snapshots = concurrently(() -> trelloService.getBoardSnapshot("board1").orElseThrow());
+        assertEquals(1, trello.getRequestCount());
+        // Den delade boarden länkas en gång: inga tömda eller dubblerade kortlistor
+        for (TrelloBoardSnapshot snapshot : snapshots) {
+            assertSame(snapshots.get(0), snapshot);
+            List<TrelloCard> cards = snapshot.getCardsInList("list1");
+            assertEquals(10, cards.size());
+            assertEquals(10, cards.stream().map(TrelloCard::getId).distinct().count());
+            assertTrue(cards.stream().allMatch(card -> card.getList() == snapshot.getList("list1")));
+            assertTrue(snapshot.getCardsInList("list2").isEmpty());
+        }
+
+        List<Boolean> valid = concurrently(trelloService::isValidAuthentication);
+        assertEquals(2, trello.getRequestCount());
+        assertTrue(valid.stream().allMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    void fanOutDeadlineDoesNotFailCallersSharingTheRead() throws Exception {
+        trello.withLatencyMillis(500);
+        TrelloConfig config = trello.config();
+        config.setFanOutTimeout(Duration.ofMillis(100));
+        TrelloService fanOutService = TrelloServices.create(config, new RestTemplate());
+
+        Future<Map<String, List<Task>>> fanOut = callers.submit(fanOutService::getCardsFromConfiguredBoard);
+        // Listorna är hämtade och fan-out-läsningen av list1 har gått iväg
+        while (trello.getRequestCount() < 2) {
+            Thread.sleep(5);
+        }
+        long start = System.nanoTime();
+        Future<List<Task>> shared = callers.submit(() -> fanOutService.getCards("list1"));
+
+        assertTrue(fanOut.get().isEmpty());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < 400, "Fan-out väntade " + elapsedMillis + " ms trots tidsgränsen");
+        // Läsningen som fan-out gav upp på avbröts inte, den som delade den får sina kort
+        assertEquals(10, shared.get().size());
+        assertEquals(2, trello.getRequestCount());
+    }
+
+    @Test
+    void laterReadsMakeANewCall() throws Exception {
+        trelloService.getCards("list1");
+        trelloService.getCards("list1");
+        concurrently(() -> trelloService.getCards("list2"));
+
+        assertEquals(3, trello.getRequestCount());
+    }
+
+    private <T> List<T> concurrently(Callable<T> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
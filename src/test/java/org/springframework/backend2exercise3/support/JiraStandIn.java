@@ -0,0 +1,130 @@
+package org.springframework.backend2exercise3.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.backend2exercise3.config.JiraConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lokal ersättare för Jira REST API v3 (skapa ärende och användarsökning).
+ * Sparar senaste ärendets body och Authorization-header så att tester kan kontrollera dem.
+ */
+public class JiraStandIn implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong issueSequence = new AtomicLong();
+    private volatile long latencyMillis;
+    private volatile int createStatus = 201;
+    private volatile String lastIssueBody;
+    private volatile String lastAuthorization;
+
+    static {
+        // Utan TCP_NODELAY ger Nagle + delayed ACK ~40 ms extra per svar
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public JiraStandIn() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server.setExecutor(executor);
+        this.server.createContext("/rest/api/3/", this::handle);
+        this.server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Skapar en JiraConfig som pekar mot ersättaren
+     */
+    public JiraConfig config() {
+        JiraConfig config = new JiraConfig();
+        config.setBaseUrl(getBaseUrl());
+        config.setEmail("standin@example.test");
+        config.setApiToken("standin-token");
+        config.setProjectKey("TASK");
+        return config;
+    }
+
+    public JiraStandIn withLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Statuskod för att skapa ärenden, t.ex. 400 för att simulera valideringsfel
+     */
+    public JiraStandIn withCreateStatus(int createStatus) {
+        this.createStatus = createStatus;
+        return this;
+    }
+
+    public String getLastIssueBody() {
+        return lastIssueBody;
+    }
+
+    public String getLastAuthorization() {
+        return lastAuthorization;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            simulateLatency();
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if ("POST".equals(method) && path.equals("/rest/api/3/issue")) {
+                lastIssueBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+                if (createStatus != 201) {
+                    respond(exchange, createStatus, "{\"errorMessages\":[],\"errors\":{\"summary\":\"Ogiltigt\"}}");
+                    return;
+                }
+                long id = 10000 + issueSequence.incrementAndGet();
+                respond(exchange, 201, "{\"id\":\"" + id + "\",\"key\":\"TASK-" + (id - 10000)
+                        + "\",\"self\":\"" + getBaseUrl() + "/rest/api/3/issue/" + id + "\"}");
+            } else if ("GET".equals(method) && path.equals("/rest/api/3/user/search")) {
+                String query = exchange.getRequestURI().getQuery();
+                String name = query == null ? "" : query.substring(query.indexOf('=') + 1);
+                respond(exchange, 200, "[{\"accountId\":\"account-" + name + "\",\"displayName\":\"" + name + "\"}]");
+            } else {
+                respond(exchange, 404, "{\"errorMessages\":[\"not found\"]}");
+            }
+        }
+    }
+
+    private void simulateLatency() {
+        long latency = latencyMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,54 @@
+package org.springframework.backend2exercise3.support;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Svarstid för TrelloStandIn, dragen per anrop ur en fördelning:
+ * <ul>
+ *     <li>fixed:50 - alltid 50 ms</li>
+ *     <li>uniform:20-80 - likformigt mellan 20 och 80 ms</li>
+ *     <li>lognormal:40,400 - median 40 ms och 99:e percentil 400 ms (lång svans som riktiga API:er)</li>
+ * </ul>
+ */
+public interface StandInLatency {
+
+    StandInLatency NONE = () -> 0;
+
+    long sampleMillis();
+
+    static StandInLatency fixed(long millis) {
+        return millis <= 0 ? NONE : () -> millis;
+    }
+
+    static StandInLatency uniform(long minMillis, long maxMillis) {
+        return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+    }
+
+    static StandInLatency logNormal(double medianMillis, double p99Millis) {
+        // P99 för en lognormalfördelning ligger 2.326 standardavvikelser över medianen i log-skala
+        double mu = Math.log(medianMillis);
+        double sigma = Math.log(p99Millis / medianMillis) / 2.326;
+        return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Tolkar "fixed:50", "uniform:20-80" eller "lognormal:40,400"
+     */
+    static StandInLatency parse(String spec) {
+        int colon = spec.indexOf(':');
+        String kind = colon < 0 ? "fixed" : spec.substring(0, colon);
+        String args = spec.substring(colon + 1);
+        return switch (kind) {
+            case "fixed" -> fixed(Long.parseLong(args));
+            case "uniform" -> {
+                String[] range = args.split("-");
+                yield uniform(Long.parseLong(range[0]), Long.parseLong(range[1]));
+            }
+            case "lognormal" -> {
+                String[] params = args.split(",");
+                yield logNormal(Double.parseDouble(params[0]), Double.parseDouble(params[1]));
+            }
+            default -> throw new IllegalArgumentException("Okänd fördelning: " + spec);
+        };
+    }
+}
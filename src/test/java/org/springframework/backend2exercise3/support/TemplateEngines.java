@@ -0,0 +1,27 @@
+package org.springframework.backend2exercise3.support;
+
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Thymeleaf-motor med appens mallar (classpath:templates/) utanför Spring-kontexten,
+ * med samma cachade och förparsade mallar som profilen prod
+ */
+public final class TemplateEngines {
+
+    private TemplateEngines() {}
+
+    public static SpringTemplateEngine create() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+}
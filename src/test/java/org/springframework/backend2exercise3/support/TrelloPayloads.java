@@ -0,0 +1,67 @@
+package org.springframework.backend2exercise3.support;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Realistiska kort-payloads för benchmarks: fullständiga kort som Trello skickar
+ * utan fields=, och projicerade kort med bara de fält TrelloService ber om.
+ */
+public final class TrelloPayloads {
+
+    private TrelloPayloads() {}
+
+    public static byte[] fullCards(int count) {
+        StringBuilder json = new StringBuilder(count * 1100).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String id = cardId(i);
+            json.append("{\"id\":\"").append(id).append('"')
+                    .append(",\"badges\":{\"attachmentsByType\":{\"trello\":{\"board\":0,\"card\":0}},\"location\":false,")
+                    .append("\"votes\":0,\"viewingMemberVoted\":false,\"subscribed\":false,\"fogbugz\":\"\",\"checkItems\":4,")
+                    .append("\"checkItemsChecked\":1,\"comments\":2,\"attachments\":0,\"description\":true,\"due\":null,")
+                    .append("\"dueComplete\":false}")
+                    .append(",\"checkItemStates\":[],\"closed\":false,\"dueComplete\":false")
+                    .append(",\"dateLastActivity\":\"2025-09-0").append(1 + i % 9).append("T10:15:30.000Z\"")
+                    .append(",\"desc\":\"Beskrivning av uppgift ").append(i)
+                    .append(" med lite längre text så att payloaden liknar riktiga kort på vår board.\"")
+                    .append(",\"descData\":{\"emoji\":{}},\"due\":null,\"dueReminder\":null,\"email\":null")
+                    .append(",\"idBoard\":\"5f1a2b3c4d5e6f7a8b9c0d1e\",\"idChecklists\":[\"5f1a2b3c4d5e6f7a8b9c0d2f\"]")
+                    .append(",\"idList\":\"5f1a2b3c4d5e6f7a8b9c0d3a\",\"idMembers\":[\"5f1a2b3c4d5e6f7a8b9c0d4b\"]")
+                    .append(",\"idMembersVoted\":[],\"idShort\":").append(i)
+                    .append(",\"idAttachmentCover\":null,\"idLabels\":[\"5f1a2b3c4d5e6f7a8b9c0d5c\"]")
+                    .append(",\"manualCoverAttachment\":false,\"name\":\"Uppgift nummer ").append(i).append('"')
+                    .append(",\"pos\":").append(16384 * (i + 1))
+                    .append(",\"shortLink\":\"sL").append(i).append('"')
+                    .append(",\"shortUrl\":\"https://trello.com/c/sL").append(i).append('"')
+                    .append(",\"start\":null,\"subscribed\":false")
+                    .append(",\"url\":\"https://trello.com/c/sL").append(i).append("/uppgift-nummer-").append(i).append('"')
+                    .append(",\"cover\":{\"idAttachment\":null,\"color\":null,\"idUploadedBackground\":null,")
+                    .append("\"size\":\"normal\",\"brightness\":\"dark\",\"idPlugin\":null}")
+                    .append(",\"labels\":[{\"id\":\"5f1a2b3c4d5e6f7a8b9c0d5c\",\"idBoard\":\"5f1a2b3c4d5e6f7a8b9c0d1e\",")
+                    .append("\"name\":\"Backend\",\"color\":\"green\"}]}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] projectedCards(int count) {
+        StringBuilder json = new StringBuilder(count * 260).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(cardId(i)).append('"')
+                    .append(",\"name\":\"Uppgift nummer ").append(i).append('"')
+                    .append(",\"desc\":\"Beskrivning av uppgift ").append(i)
+                    .append(" med lite längre text så att payloaden liknar riktiga kort på vår board.\"")
+                    .append(",\"url\":\"https://trello.com/c/sL").append(i).append("/uppgift-nummer-").append(i).append('"')
+                    .append(",\"idList\":\"5f1a2b3c4d5e6f7a8b9c0d3a\",\"idBoard\":\"5f1a2b3c4d5e6f7a8b9c0d1e\",\"due\":null}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String cardId(int i) {
+        return String.format("5f1a2b3c%016x", i);
+    }
+}
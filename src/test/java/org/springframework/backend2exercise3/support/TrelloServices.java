@@ -0,0 +1,68 @@
+package org.springframework.backend2exercise3.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.backend2exercise3.config.TrelloBatchConfig;
+import org.springframework.backend2exercise3.config.TrelloCacheConfig;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+import org.springframework.backend2exercise3.config.TrelloResilienceConfig;
+import org.springframework.backend2exercise3.service.BoardReplica;
+import org.springframework.backend2exercise3.service.TrelloBatchReader;
+import org.springframework.backend2exercise3.service.TrelloCardDecoder;
+import org.springframework.backend2exercise3.service.TrelloLastKnownGood;
+import org.springframework.backend2exercise3.service.TrelloMetrics;
+import org.springframework.backend2exercise3.service.TrelloReadCache;
+import org.springframework.backend2exercise3.service.TrelloService;
+import org.springframework.backend2exercise3.service.TrelloSingleFlight;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bygger en TrelloService utanför Spring-kontexten för benchmarks och tester,
+ * med cache och övriga lager avstängda om inget annat anges.
+ */
+public final class TrelloServices {
+
+    private static final ExecutorService IO_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private TrelloServices() {}
+
+    public static TrelloService create(TrelloConfig config, RestTemplate restTemplate) {
+        TrelloCacheConfig cacheConfig = new TrelloCacheConfig();
+        cacheConfig.setEnabled(false);
+        return create(config, restTemplate, cacheConfig);
+    }
+
+    public static TrelloService create(TrelloConfig config, RestTemplate restTemplate, TrelloCacheConfig cacheConfig) {
+        return create(config, restTemplate, cacheConfig, new TrelloResilienceConfig());
+    }
+
+    public static TrelloService create(TrelloConfig config, RestTemplate restTemplate, TrelloCacheConfig cacheConfig,
+                                       TrelloResilienceConfig resilienceConfig) {
+        TrelloBatchConfig batchConfig = new TrelloBatchConfig();
+        batchConfig.setEnabled(false);
+        return create(config, restTemplate, cacheConfig, resilienceConfig, batchConfig);
+    }
+
+    /**
+     * Med cachen avstängd och läsningarna batchade enligt batchConfig
+     */
+    public static TrelloService create(TrelloConfig config, RestTemplate restTemplate, TrelloBatchConfig batchConfig) {
+        TrelloCacheConfig cacheConfig = new TrelloCacheConfig();
+        cacheConfig.setEnabled(false);
+        return create(config, restTemplate, cacheConfig, new TrelloResilienceConfig(), batchConfig);
+    }
+
+    public static TrelloService create(TrelloConfig config, RestTemplate restTemplate, TrelloCacheConfig cacheConfig,
+                                       TrelloResilienceConfig resilienceConfig, TrelloBatchConfig batchConfig) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TrelloSingleFlight singleFlight = new TrelloSingleFlight();
+        TrelloMetrics metrics = new TrelloMetrics(new SimpleMeterRegistry());
+        return new TrelloService(config, restTemplate, new TrelloReadCache(cacheConfig, singleFlight),
+                new TrelloCardDecoder(objectMapper), IO_EXECUTOR, new BoardReplica(objectMapper),
+                metrics, singleFlight, new TrelloLastKnownGood(resilienceConfig),
+                new TrelloBatchReader(config, batchConfig, restTemplate, objectMapper, metrics));
+    }
+}
@@ -0,0 +1,386 @@
+package org.springframework.backend2exercise3.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.backend2exercise3.config.TrelloConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lokal ersättare för Trello API:et som svarar på de endpoints TrelloService använder.
+ * Används av benchmarks, tester och lasttester så att inga anrop går mot riktiga Trello.
+ * Svarstid (fördelning), andel 5xx- och 429-svar samt antal listor och kort per lista går att ställa in.
+ * /batch stöds som hos Trello, och listor vars id börjar med "missing" svarar 404.
+ */
+public class TrelloStandIn implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicLong cardSequence = new AtomicLong();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger rateLimitedCount = new AtomicInteger();
+    private volatile StandInLatency latency = StandInLatency.NONE;
+    private volatile double errorRate;
+    private volatile double rateLimitRate;
+    private volatile int retryAfterSeconds = 1;
+    private final AtomicInteger rateLimitNext = new AtomicInteger();
+    private final AtomicInteger errorsNext = new AtomicInteger();
+    private volatile int cardsPerList = 10;
+    private volatile int listCount = 1;
+    private final AtomicInteger batchCount = new AtomicInteger();
+    private volatile byte[] cardsJson;
+    private volatile String lastCardName;
+    private volatile boolean createWithoutId;
+    private volatile boolean tokenRevoked;
+
+    static {
+        // Utan TCP_NODELAY ger Nagle + delayed ACK ~40 ms extra per svar
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public TrelloStandIn() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        // Plattformstrådar: ersättaren ska inte konkurrera med applikationens virtuella trådar om bärartrådarna
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+        this.server.createContext("/1/", this::handle);
+        this.server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/1";
+    }
+
+    /**
+     * Skapar en TrelloConfig som pekar mot ersättaren
+     */
+    public TrelloConfig config() {
+        TrelloConfig config = new TrelloConfig();
+        config.setBaseUrl(getBaseUrl());
+        config.setKey("standin-key");
+        config.setToken("standin-token");
+        config.setBoardId("board1");
+        config.setDefaultListId("list1");
+        return config;
+    }
+
+    public TrelloStandIn withLatencyMillis(long latencyMillis) {
+        return withLatency(StandInLatency.fixed(latencyMillis));
+    }
+
+    public TrelloStandIn withLatency(StandInLatency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public TrelloStandIn withCardsPerList(int cardsPerList) {
+        this.cardsPerList = cardsPerList;
+        this.cardsJson = null;
+        return this;
+    }
+
+    /**
+     * Antal listor (list1..listN) som /boards/{id}/lists svarar med, alla med samma kort
+     */
+    public TrelloStandIn withLists(int listCount) {
+        this.listCount = listCount;
+        return this;
+    }
+
+    /**
+     * Andel anrop (0-1) som svarar 503
+     */
+    public TrelloStandIn withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Andel anrop (0-1) som svarar 429 med Retry-After
+     */
+    public TrelloStandIn withRateLimitRate(double rateLimitRate, int retryAfterSeconds) {
+        this.rateLimitRate = rateLimitRate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    /**
+     * De närmast följande count anropen svarar 429 med Retry-After, oavsett rateLimitRate
+     */
+    public TrelloStandIn withRateLimitedNext(int count, int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rateLimitNext.set(count);
+        return this;
+    }
+
+    /**
+     * De närmast följande count anropen svarar 503, oavsett errorRate
+     */
+    public TrelloStandIn withErrorsNext(int count) {
+        this.errorsNext.set(count);
+        return this;
+    }
+
+    /**
+     * Alla anrop svarar 401, som när token har återkallats
+     */
+    public TrelloStandIn withRevokedToken() {
+        this.tokenRevoked = true;
+        return this;
+    }
+
+    /**
+     * POST /cards svarar 200 med ett tomt objekt, utan kort-id
+     */
+    public TrelloStandIn withCreateWithoutId() {
+        this.createWithoutId = true;
+        return this;
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Antal /batch-anrop, som även räknas i getRequestCount
+     */
+    public int getBatchCount() {
+        return batchCount.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    public int getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
+    public void resetRequestCount() {
+        requestCount.set(0);
+        batchCount.set(0);
+        errorCount.set(0);
+        rateLimitedCount.set(0);
+    }
+
+    /**
+     * Namnet på senast skapade kort, avkodat ur query-strängen som Trello gör
+     */
+    public String getLastCardName() {
+        return lastCardName;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (exchange) {
+            simulateLatency();
+            String path = exchange.getRequestURI().getPath().substring("/1".length());
+            String query = exchange.getRequestURI().getRawQuery();
+            String method = exchange.getRequestMethod();
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (tokenRevoked) {
+                respond(exchange, 401, "invalid token");
+            } else if (rateLimitNext.getAndUpdate(next -> Math.max(0, next - 1)) > 0 || roll < rateLimitRate) {
+                rateLimitedCount.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                respond(exchange, 429, "{\"message\":\"API_TOKEN_LIMIT_EXCEEDED\"}");
+            } else if (errorsNext.getAndUpdate(next -> Math.max(0, next - 1)) > 0
+                    || roll < rateLimitRate + errorRate) {
+                errorCount.incrementAndGet();
+                respond(exchange, 503, "{\"message\":\"Service Unavailable\"}");
+            } else if ("GET".equals(method) && path.equals("/batch")) {
+                batchCount.incrementAndGet();
+                respond(exchange, 200, batch(queryParam(query, "urls")));
+            } else {
+                Reply reply = route(method, path, query);
+                respond(exchange, reply.status(), reply.body());
+            }
+        }
+    }
+
+    private record Reply(int status, byte[] body) {
+
+        static Reply ok(String body) {
+            return new Reply(200, body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Reply notFound() {
+            return new Reply(404, "{\"message\":\"not found\"}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private Reply route(String method, String path, String query) {
+        if ("POST".equals(method) && path.equals("/cards")) {
+            lastCardName = queryParam(query, "name");
+            if (createWithoutId) {
+                return Reply.ok("{}");
+            }
+            return Reply.ok(card("card" + cardSequence.incrementAndGet()));
+        } else if ("GET".equals(method) && path.matches("/cards/[^/]+")) {
+            return Reply.ok(card(path.substring("/cards/".length())));
+        } else if (path.matches("/boards/[^/]+")) {
+            return Reply.ok(board(cardsPerList));
+        } else if (path.matches("/boards/[^/]+/actions")) {
+            return Reply.ok("[]");
+        } else if (path.matches("/lists/[^/]+/cards") && queryParam(query, "limit") != null) {
+            return Reply.ok(cardsPage(queryParam(query, "limit"), queryParam(query, "before")));
+        } else if (path.matches("/lists/missing[^/]*/cards")) {
+            return Reply.notFound();
+        } else if (path.matches("/lists/[^/]+/cards")) {
+            return new Reply(200, cardsJson());
+        } else if (path.matches("/boards/[^/]+/lists")) {
+            return Reply.ok(lists(listCount));
+        } else if (path.equals("/members/me/boards")) {
+            return Reply.ok("[{\"id\":\"board1\",\"name\":\"Board\",\"closed\":false}]");
+        } else if (path.equals("/members/me")) {
+            return Reply.ok("{\"id\":\"member1\",\"username\":\"standin\"}");
+        }
+        return Reply.notFound();
+    }
+
+    /**
+     * Som Trellos /batch: adresserna är kommaseparerade, varje svar läggs i ett objekt med statuskoden som nyckel
+     */
+    private byte[] batch(String urls) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        json.write('[');
+        String[] routes = urls == null ? new String[0] : urls.split(",");
+        for (int i = 0; i < routes.length; i++) {
+            URI route = URI.create(routes[i]);
+            Reply reply = route("GET", route.getRawPath(), route.getRawQuery());
+            if (i > 0) {
+                json.write(',');
+            }
+            json.writeBytes(("{\"" + reply.status() + "\":").getBytes(StandardCharsets.UTF_8));
+            json.writeBytes(reply.body());
+            json.write('}');
+        }
+        json.write(']');
+        return json.toByteArray();
+    }
+
+    private static String queryParam(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Kortlistan byggs och kodas en gång per storlek så att stora payloads varken mäter
+     * ersättarens egen CPU eller ger tillfälliga buffertar i heapen mellan anropen
+     */
+    private byte[] cardsJson() {
+        byte[] json = cardsJson;
+        if (json == null) {
+            json = cards(cardsPerList).getBytes(StandardCharsets.UTF_8);
+            cardsJson = json;
+        }
+        return json;
+    }
+
+    /**
+     * Som Trello med limit/before: högst limit kort äldre än before, nyast först.
+     * Korten card0..cardN räknas som skapade i den ordningen.
+     */
+    private String cardsPage(String limit, String before) {
+        int end = before == null ? cardsPerList : Integer.parseInt(before.substring("card".length()));
+        int start = Math.max(0, end - Integer.parseInt(limit));
+        StringBuilder json = new StringBuilder((end - start) * 160 + 2).append('[');
+        for (int i = end - 1; i >= start; i--) {
+            if (i < end - 1) {
+                json.append(',');
+            }
+            json.append(card("card" + i));
+        }
+        return json.append(']').toString();
+    }
+
+    private void simulateLatency() {
+        long millis = latency.sampleMillis();
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static String cards(int count) {
+        StringBuilder json = new StringBuilder(count * 160 + 2).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(card("card" + i));
+        }
+        return json.append(']').toString();
+    }
+
+    public static String lists(int count) {
+        StringBuilder json = new StringBuilder(count * 64 + 2).append('[');
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"list").append(i).append("\",\"name\":\"")
+                    .append(i == 1 ? "Att göra" : "Lista " + i).append("\",\"closed\":false,\"pos\":").append(i).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Nästlad board med två listor, en etikett och alla kort i list1
+     */
+    public static String board(int cardsPerList) {
+        return "{\"id\":\"board1\",\"name\":\"Board\",\"closed\":false"
+                + ",\"lists\":[{\"id\":\"list1\",\"name\":\"Att göra\",\"closed\":false,\"pos\":1}"
+                + ",{\"id\":\"list2\",\"name\":\"Klart\",\"closed\":false,\"pos\":2}]"
+                + ",\"labels\":[{\"id\":\"label1\",\"name\":\"Hög\",\"color\":\"red\"}]"
+                + ",\"members\":[],\"cards\":" + cards(cardsPerList) + "}";
+    }
+
+    public static String card(String id) {
+        return "{\"id\":\"" + id + "\",\"name\":\"Uppgift " + id + "\",\"desc\":\"Beskrivning för " + id
+                + "\",\"idList\":\"list1\",\"idBoard\":\"board1\",\"closed\":false,\"pos\":1024"
+                + ",\"url\":\"https://trello.com/c/" + id + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package org.springframework.backend2exercise3.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Spelar upp inspelade Trello-webhooks mot applikationens callback-adress,
+ * signerade som Trello gör: base64(HMAC-SHA1(secret, body + callbackURL)).
+ */
+public class TrelloWebhookReplayer {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final URI target;
+    private final String callbackUrl;
+    private final String secret;
+
+    /**
+     * @param target Adress anropen skickas till
+     * @param callbackUrl Callback-adressen som signaturen beräknas över (den Trello känner till)
+     * @param secret Trellos application secret
+     */
+    public TrelloWebhookReplayer(URI target, String callbackUrl, String secret) {
+        this.target = target;
+        this.callbackUrl = callbackUrl;
+        this.secret = secret;
+    }
+
+    /**
+     * Läser en JSON-array av webhook-anrop från classpath
+     */
+    public static List<byte[]> load(ObjectMapper objectMapper, String resource) throws IOException {
+        try (InputStream in = TrelloWebhookReplayer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Hittade inte " + resource);
+            }
+            List<byte[]> payloads = new ArrayList<>();
+            for (JsonNode payload : objectMapper.readTree(in)) {
+                payloads.add(objectMapper.writeValueAsBytes(payload));
+            }
+            return payloads;
+        }
+    }
+
+    public String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA1"));
+            mac.update(body);
+            mac.update(callbackUrl.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int send(byte[] body) throws IOException, InterruptedException {
+        return send(body, sign(body));
+    }
+
+    public int send(byte[] body, String signature) throws IOException, InterruptedException {
+        return client.send(request(body, signature), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Skickar anropen i ordning. Varje anrop levereras flera gånger samtidigt,
+     * som när Trello försöker igen efter en timeout.
+     * @param payloads Anrop i den ordning Trello skickade dem
+     * @param deliveries Antal leveranser per anrop
+     * @return Statuskoder för alla leveranser
+     */
+    public List<Integer> replay(List<byte[]> payloads, int deliveries) {
+        List<Integer> statuses = new ArrayList<>(payloads.size() * deliveries);
+        for (byte[] payload : payloads) {
+            HttpRequest request = request(payload, sign(payload));
+            List<CompletableFuture<HttpResponse<Void>>> inFlight = new ArrayList<>(deliveries);
+            for (int i = 0; i < deliveries; i++) {
+                inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+            for (CompletableFuture<HttpResponse<Void>> response : inFlight) {
+                statuses.add(response.join().statusCode());
+            }
+        }
+        return statuses;
+    }
+
+    private HttpRequest request(byte[] body, String signature) {
+        return HttpRequest.newBuilder(target)
+                .header("Content-Type", "application/json")
+                .header("X-Trello-Webhook", signature)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+}